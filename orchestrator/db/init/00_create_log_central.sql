@@ -16,6 +16,8 @@ CREATE TABLE `service_details` (
   `serviceName` varchar(50) NOT NULL,
   `retentionDays` mediumint unsigned NOT NULL,
   `tenant` enum('ABC') NOT NULL,
+  `ingestionWeight` smallint unsigned NOT NULL DEFAULT 1,
+  `minOffsetsPerTrigger` int unsigned NOT NULL DEFAULT 0,
   `lastCheckedAt` TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
   UNIQUE KEY (`serviceName`, `tenant`)
 );
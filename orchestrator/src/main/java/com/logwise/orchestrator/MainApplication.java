@@ -8,6 +8,7 @@ import com.logwise.orchestrator.config.ApplicationConfig;
 import com.logwise.orchestrator.config.ApplicationConfigProvider;
 import com.logwise.orchestrator.module.ClientModule;
 import com.logwise.orchestrator.module.MainModule;
+import com.logwise.orchestrator.verticle.MetricsCollectorVerticle;
 import com.logwise.orchestrator.verticle.RestVerticle;
 import io.vertx.reactivex.core.Vertx;
 import lombok.experimental.NonFinal;
@@ -44,7 +45,8 @@ public class MainApplication extends AbstractApplication {
     return ArrayUtils.toArray(
         new Deployable(
             VerticleConfig.builder().instances(getEventLoopSize()).verticleType(0).build(),
-            RestVerticle.class));
+            RestVerticle.class),
+        new Deployable(VerticleConfig.DEFAULT_CONFIG, MetricsCollectorVerticle.class));
   }
 
   @Override
@@ -13,5 +13,10 @@ public interface ObjectStoreClient {
 
   Single<List<String>> listObjects(String prefix);
 
+  /** Lists the keys under {@code prefix} that sort after {@code startAfter}. */
+  Single<List<String>> listObjects(String prefix, String startAfter);
+
+  Single<String> readFileContent(String objectKey);
+
   Completable deleteFile(String objectKey);
 }
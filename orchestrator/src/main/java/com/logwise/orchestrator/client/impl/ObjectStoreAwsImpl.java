@@ -45,6 +45,16 @@ public class ObjectStoreAwsImpl implements ObjectStoreClient {
     return S3Utils.listObjects(s3AsyncClient, s3Config, prefix);
   }
 
+  @Override
+  public Single<List<String>> listObjects(String prefix, String startAfter) {
+    return S3Utils.listObjects(s3AsyncClient, s3Config, prefix, startAfter);
+  }
+
+  @Override
+  public Single<String> readFileContent(String objectKey) {
+    return S3Utils.readFileContent(s3AsyncClient, s3Config, objectKey);
+  }
+
   @Override
   public Completable deleteFile(String objectKey) {
     return S3Utils.deleteFile(s3AsyncClient, s3Config, objectKey);
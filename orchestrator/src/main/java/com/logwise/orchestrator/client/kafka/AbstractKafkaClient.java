@@ -5,16 +5,27 @@ import com.logwise.orchestrator.config.ApplicationConfig.KafkaConfig;
 import com.logwise.orchestrator.dto.kafka.TopicOffsetInfo;
 import com.logwise.orchestrator.enums.KafkaType;
 import io.reactivex.Completable;
+import io.reactivex.Maybe;
 import io.reactivex.Observable;
 import io.reactivex.Single;
+import io.reactivex.SingleTransformer;
+import io.vertx.core.Context;
+import io.vertx.core.Vertx;
+import io.vertx.reactivex.core.RxHelper;
 import java.util.*;
 import java.util.concurrent.ExecutionException;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.kafka.clients.admin.*;
+import org.apache.kafka.common.KafkaFuture;
 import org.apache.kafka.common.TopicPartition;
 import org.apache.kafka.common.TopicPartitionInfo;
+import org.apache.kafka.common.errors.ApiException;
+import org.apache.kafka.common.errors.AuthenticationException;
+import org.apache.kafka.common.errors.DisconnectException;
+import org.apache.kafka.common.errors.NetworkException;
+import org.apache.kafka.common.errors.TimeoutException;
 
 /**
  * Abstract base class for Kafka client implementations. Provides common functionality that works
@@ -25,6 +36,8 @@ public abstract class AbstractKafkaClient implements KafkaClient {
 
   protected final KafkaConfig kafkaConfig;
   protected AdminClient adminClient;
+  private Single<AdminClient> adminClientSingle;
+  private volatile boolean healthy = true;
   protected final ObjectMapper objectMapper = new ObjectMapper();
 
   protected AbstractKafkaClient(KafkaConfig kafkaConfig) {
@@ -47,192 +60,227 @@ public abstract class AbstractKafkaClient implements KafkaClient {
   protected abstract Single<Map<String, Object>> buildAdminClientConfig();
 
   @Override
-  public Single<AdminClient> createAdminClient() {
-    if (adminClient != null) {
-      return Single.just(adminClient);
+  public synchronized Single<AdminClient> createAdminClient() {
+    if (adminClientSingle == null) {
+      // cached so that concurrent callers share one connection and auth handshake
+      adminClientSingle =
+          buildAdminClientConfig()
+              .map(this::createAdminClient)
+              .doOnError(this::onAdminClientError)
+              .cache();
     }
+    return adminClientSingle;
+  }
 
-    return buildAdminClientConfig()
-        .map(
-            config -> {
-              adminClient = AdminClient.create(config);
-              log.info("Created AdminClient for Kafka type: {}", getKafkaType());
-              return adminClient;
-            });
+  private synchronized AdminClient createAdminClient(Map<String, Object> config) {
+    adminClient = AdminClient.create(config);
+    log.info("Created AdminClient for Kafka type: {}", getKafkaType());
+    return adminClient;
+  }
+
+  @Override
+  public boolean isHealthy() {
+    return healthy;
+  }
+
+  /**
+   * Marks the client unhealthy when the error comes from the connection rather than from the
+   * request, e.g. a timeout, a lost broker connection or a failed authentication but not an invalid
+   * partition count or a partition without a leader.
+   */
+  protected void onAdminClientError(Throwable error) {
+    Throwable cause =
+        error instanceof ExecutionException && error.getCause() != null ? error.getCause() : error;
+    if (!(cause instanceof ApiException)
+        || cause instanceof TimeoutException
+        || cause instanceof NetworkException
+        || cause instanceof DisconnectException
+        || cause instanceof AuthenticationException) {
+      if (healthy) {
+        log.warn("AdminClient for Kafka type: {} is unhealthy", getKafkaType(), cause);
+      }
+      healthy = false;
+    }
   }
 
   @Override
   public Single<Set<String>> listTopics(String pattern) {
     return createAdminClient()
-        .flatMap(
-            adminClient -> {
-              try {
-                Set<String> allTopics = adminClient.listTopics().names().get();
-                if (pattern == null || pattern.isEmpty()) {
-                  return Single.just(allTopics);
-                }
-
-                Pattern topicPattern = Pattern.compile(pattern);
-                Set<String> matchingTopics =
-                    allTopics.stream()
-                        .filter(topic -> topicPattern.matcher(topic).matches())
-                        .collect(Collectors.toSet());
-
-                log.info("Found {} topics matching pattern: {}", matchingTopics.size(), pattern);
-                return Single.just(matchingTopics);
-              } catch (InterruptedException | ExecutionException e) {
-                log.error("Error listing topics", e);
-                return Single.error(e);
+        .flatMap(adminClient -> fromKafkaFuture(adminClient.listTopics().names()))
+        .map(
+            allTopics -> {
+              if (pattern == null || pattern.isEmpty()) {
+                return allTopics;
               }
-            });
+
+              Pattern topicPattern = Pattern.compile(pattern);
+              Set<String> matchingTopics =
+                  allTopics.stream()
+                      .filter(topic -> topicPattern.matcher(topic).matches())
+                      .collect(Collectors.toSet());
+
+              log.info("Found {} topics matching pattern: {}", matchingTopics.size(), pattern);
+              return matchingTopics;
+            })
+        .doOnError(error -> log.error("Error listing topics", error))
+        .doOnError(this::onAdminClientError)
+        .compose(onCallerContext());
   }
 
+  /**
+   * Describes all topics in one request, then lists the end offsets of all their partitions in one
+   * more, whatever the number of topics.
+   */
   @Override
   public Single<Map<String, TopicOffsetInfo>> getEndOffsetSum(List<String> topics) {
     return createAdminClient()
+        .flatMap(adminClient -> fromKafkaFuture(adminClient.describeTopics(topics).all()))
         .flatMap(
-            adminClient -> {
-              try {
-                // Get topic descriptions
-                DescribeTopicsResult topicsResult = adminClient.describeTopics(topics);
-                Map<String, TopicDescription> topicDescriptions = topicsResult.all().get();
-
-                // Process each topic separately
-                return Observable.fromIterable(topics)
-                    .flatMapSingle(
-                        topic -> {
-                          TopicDescription desc = topicDescriptions.get(topic);
-
-                          // If topic doesn't exist, return default values
-                          if (desc == null) {
-                            TopicOffsetInfo defaultInfo =
-                                TopicOffsetInfo.builder()
-                                    .sumOfEndOffsets(0L)
-                                    .currentNumberOfPartitions(0)
-                                    .build();
-                            return Single.just(new AbstractMap.SimpleEntry<>(topic, defaultInfo));
-                          }
-
-                          // Get current number of partitions
-                          int partitionCount = desc.partitions().size();
-
-                          // Get partitions for this topic
-                          List<TopicPartition> topicPartitions = new ArrayList<>();
-                          for (TopicPartitionInfo partitionInfo : desc.partitions()) {
-                            topicPartitions.add(
-                                new TopicPartition(topic, partitionInfo.partition()));
-                          }
-
-                          // Get end offsets for this topic's partitions
-                          return getEndOffsets(topicPartitions)
-                              .map(
-                                  endOffsets -> {
-                                    // Sum offsets for this topic
-                                    long topicSum = 0L;
-                                    for (Long offset : endOffsets.values()) {
-                                      if (offset != null) {
-                                        topicSum += offset;
-                                      }
-                                    }
-                                    TopicOffsetInfo offsetInfo =
-                                        TopicOffsetInfo.builder()
-                                            .sumOfEndOffsets(topicSum)
-                                            .currentNumberOfPartitions(partitionCount)
-                                            .build();
-                                    return new AbstractMap.SimpleEntry<>(topic, offsetInfo);
-                                  });
-                        })
-                    .toList()
-                    .map(
-                        entries -> {
-                          Map<String, TopicOffsetInfo> result = new HashMap<>();
-                          for (AbstractMap.SimpleEntry<String, TopicOffsetInfo> entry : entries) {
-                            result.put(entry.getKey(), entry.getValue());
-                          }
-                          return result;
-                        });
-              } catch (InterruptedException | ExecutionException e) {
-                log.error("Error getting end offset sum", e);
-                return Single.error(e);
+            topicDescriptions -> {
+              List<TopicPartition> topicPartitions = new ArrayList<>();
+              topicDescriptions.forEach(
+                  (topic, desc) -> {
+                    for (TopicPartitionInfo partitionInfo : desc.partitions()) {
+                      topicPartitions.add(new TopicPartition(topic, partitionInfo.partition()));
+                    }
+                  });
+              if (topicPartitions.isEmpty()) {
+                return Single.just(toTopicOffsetInfos(topics, topicDescriptions, Map.of()));
               }
-            });
+              return getEndOffsets(topicPartitions)
+                  .map(endOffsets -> toTopicOffsetInfos(topics, topicDescriptions, endOffsets));
+            })
+        .doOnError(error -> log.error("Error getting end offset sum", error))
+        .doOnError(this::onAdminClientError)
+        .compose(onCallerContext());
+  }
+
+  private static Map<String, TopicOffsetInfo> toTopicOffsetInfos(
+      List<String> topics,
+      Map<String, TopicDescription> topicDescriptions,
+      Map<TopicPartition, Long> endOffsets) {
+    Map<String, Long> sumByTopic = new HashMap<>();
+    endOffsets.forEach(
+        (topicPartition, offset) -> {
+          if (offset != null) {
+            sumByTopic.merge(topicPartition.topic(), offset, Long::sum);
+          }
+        });
+
+    Map<String, TopicOffsetInfo> result = new HashMap<>();
+    for (String topic : topics) {
+      // If topic doesn't exist, return default values
+      TopicDescription desc = topicDescriptions.get(topic);
+      result.put(
+          topic,
+          TopicOffsetInfo.builder()
+              .sumOfEndOffsets(desc == null ? 0L : sumByTopic.getOrDefault(topic, 0L))
+              .currentNumberOfPartitions(desc == null ? 0 : desc.partitions().size())
+              .build());
+    }
+    return result;
   }
 
+  /**
+   * Lists the end offsets of all partitions in a single request, which the AdminClient sends as one
+   * round trip per partition leader. A partition whose offset cannot be listed is left out.
+   */
   @Override
   public Single<Map<TopicPartition, Long>> getEndOffsets(List<TopicPartition> topicPartitions) {
     return createAdminClient()
         .flatMap(
             adminClient -> {
-              try {
-                // Group by topic for efficient querying
-                Map<String, List<TopicPartition>> partitionsByTopic =
-                    topicPartitions.stream().collect(Collectors.groupingBy(TopicPartition::topic));
-
-                Map<TopicPartition, Long> endOffsets = new HashMap<>();
-
-                for (Map.Entry<String, List<TopicPartition>> entry : partitionsByTopic.entrySet()) {
-                  String topic = entry.getKey();
-                  List<TopicPartition> partitions = entry.getValue();
-
-                  // Build offset spec map
-                  Map<TopicPartition, OffsetSpec> offsetSpecMap =
-                      partitions.stream()
-                          .collect(Collectors.toMap(tp -> tp, tp -> OffsetSpec.latest()));
-
-                  // Get end offsets
-                  ListOffsetsResult offsetsResult = adminClient.listOffsets(offsetSpecMap);
-
-                  for (TopicPartition partition : partitions) {
-                    try {
-                      Long offset = offsetsResult.partitionResult(partition).get().offset();
-                      endOffsets.put(partition, offset);
-                    } catch (Exception e) {
-                      log.error("Error getting offset for partition {}", partition, e);
-                    }
-                  }
-                }
+              Map<TopicPartition, OffsetSpec> offsetSpecMap =
+                  topicPartitions.stream()
+                      .distinct()
+                      .collect(Collectors.toMap(tp -> tp, tp -> OffsetSpec.latest()));
+              ListOffsetsResult offsetsResult = adminClient.listOffsets(offsetSpecMap);
 
-                return Single.just(endOffsets);
-              } catch (Exception e) {
-                log.error("Error getting end offsets", e);
-                return Single.error(e);
-              }
-            });
+              return Observable.fromIterable(offsetSpecMap.keySet())
+                  .flatMapMaybe(
+                      partition ->
+                          fromKafkaFuture(offsetsResult.partitionResult(partition))
+                              .map(info -> new AbstractMap.SimpleEntry<>(partition, info.offset()))
+                              .toMaybe()
+                              .onErrorResumeNext(
+                                  error -> {
+                                    log.error(
+                                        "Error getting offset for partition {}", partition, error);
+                                    return Maybe.empty();
+                                  }))
+                  .toMap(Map.Entry::getKey, Map.Entry::getValue);
+            })
+        .doOnError(error -> log.error("Error getting end offsets", error))
+        .doOnError(this::onAdminClientError)
+        .compose(onCallerContext());
   }
 
   @Override
   public Completable increasePartitions(Map<String, Integer> topicPartitionsMap) {
     return createAdminClient()
-        .flatMapCompletable(
+        .flatMap(
             adminClient -> {
-              try {
-                log.info("Increasing partitions for topics: {}", topicPartitionsMap);
-
-                Map<String, NewPartitions> newPartitionsMap =
-                    topicPartitionsMap.entrySet().stream()
-                        .filter(entry -> entry.getValue() != null && entry.getValue() > 1)
-                        .collect(
-                            Collectors.toMap(
-                                Map.Entry::getKey,
-                                entry -> NewPartitions.increaseTo(entry.getValue())));
-
-                if (newPartitionsMap.isEmpty()) {
-                  log.info("No partitions to increase");
-                  return Completable.complete();
-                }
-
-                adminClient.createPartitions(newPartitionsMap).all().get();
-                log.info("Successfully increased partitions");
-                return Completable.complete();
-              } catch (InterruptedException | ExecutionException e) {
-                log.error("Error increasing partitions", e);
-                return Completable.error(e);
+              log.info("Increasing partitions for topics: {}", topicPartitionsMap);
+
+              Map<String, NewPartitions> newPartitionsMap =
+                  topicPartitionsMap.entrySet().stream()
+                      .filter(entry -> entry.getValue() != null && entry.getValue() > 1)
+                      .collect(
+                          Collectors.toMap(
+                              Map.Entry::getKey,
+                              entry -> NewPartitions.increaseTo(entry.getValue())));
+
+              if (newPartitionsMap.isEmpty()) {
+                log.info("No partitions to increase");
+                return Single.just(newPartitionsMap);
               }
+
+              return fromKafkaFuture(
+                      adminClient
+                          .createPartitions(newPartitionsMap)
+                          .all()
+                          .thenApply(ignored -> newPartitionsMap))
+                  .doOnSuccess(ignored -> log.info("Successfully increased partitions"));
+            })
+        .doOnError(error -> log.error("Error increasing partitions", error))
+        .doOnError(this::onAdminClientError)
+        .compose(onCallerContext())
+        .ignoreElement();
+  }
+
+  /** Adapts a KafkaFuture to a Single without blocking a thread on its result. */
+  private static <T> Single<T> fromKafkaFuture(KafkaFuture<T> future) {
+    return Single.create(
+        emitter ->
+            future.whenComplete(
+                (value, error) -> {
+                  if (error != null) {
+                    emitter.tryOnError(error);
+                  } else {
+                    emitter.onSuccess(value);
+                  }
+                }));
+  }
+
+  /**
+   * Moves the result back to the vert.x context of the subscriber. KafkaFutures complete on the
+   * network thread of the AdminClient, which must not run the callers' callbacks.
+   */
+  private static <T> SingleTransformer<T, T> onCallerContext() {
+    return upstream ->
+        Single.defer(
+            () -> {
+              Context context = Vertx.currentContext();
+              return context == null
+                  ? upstream
+                  : upstream.observeOn(
+                      RxHelper.scheduler(new io.vertx.reactivex.core.Context(context)));
             });
   }
 
   @Override
-  public void close() {
+  public synchronized void close() {
+    adminClientSingle = null;
     if (adminClient != null) {
       adminClient.close();
       adminClient = null;
@@ -20,8 +20,8 @@ public interface KafkaClient {
   KafkaType getKafkaType();
 
   /**
-   * Create AdminClient with appropriate configuration for this Kafka type. The AdminClient should
-   * be closed by the caller.
+   * Create AdminClient with appropriate configuration for this Kafka type. The AdminClient is
+   * created once and reused until {@link #close()}.
    */
   Single<AdminClient> createAdminClient();
 
@@ -59,6 +59,15 @@ public interface KafkaClient {
    */
   Completable increasePartitions(Map<String, Integer> topicPartitionsMap);
 
-  /** Close the client and release resources. Should be called when done using the client. */
+  /**
+   * Whether the AdminClient can still be reused. Turns false once building it failed or a cluster
+   * call failed on the connection, so that a pooled client is rebuilt.
+   */
+  boolean isHealthy();
+
+  /**
+   * Close the client and release resources. Clients obtained from the pool of the factory are
+   * closed by the pool once they are replaced and their running calls had time to finish.
+   */
   void close();
 }
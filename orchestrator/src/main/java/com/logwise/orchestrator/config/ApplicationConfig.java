@@ -138,6 +138,25 @@ public class ApplicationConfig {
     @NonFinal @Optional String awsSecretAccessKey;
     @NonFinal @Optional String awsSessionToken;
     @NonFinal @Optional String awsRegion;
+    @NonFinal @Optional String parquetCompressionCodec;
+    @NonFinal @Optional Boolean sortByTimestamp;
+
+    // services sorted by timestamp when sortByTimestamp is not set for all of them
+    @NonFinal @NotNull @Optional List<String> sortByTimestampServices = List.of();
+    // hour or minute, services without an override use partitionGranularity
+    @NonFinal @Optional String partitionGranularity;
+
+    @NonFinal @NotNull @Optional
+    List<ServicePartitionGranularityConfig> servicePartitionGranularities = List.of();
+
+    // Kafka consumer options of the executors, unset ones keep the job defaults
+    @NonFinal @NotNull @Optional @Valid
+    SparkKafkaConsumerConfig kafkaConsumer = new SparkKafkaConsumerConfig();
+
+    // Size workers by the Kafka lag behind the checkpoint instead of the WAL heuristic
+    @NonFinal @NotNull @Optional @Valid
+    SparkLagScalingConfig lagScaling = new SparkLagScalingConfig();
+
     @NonFinal @NotNull Integer executorCoresPerMachine;
     @NonFinal @NotNull Integer perCoreLogsProcess;
     @NonFinal @NotNull Integer minWorkerCount;
@@ -194,6 +213,31 @@ public class ApplicationConfig {
     @NonFinal @NotNull String sampleComponentType;
   }
 
+  @Data
+  public static class SparkKafkaConsumerConfig {
+    @NonFinal @Optional Long fetchMaxBytes;
+    @NonFinal @Optional Long maxPartitionFetchBytes;
+    @NonFinal @Optional Long fetchMinBytes;
+    @NonFinal @Optional Integer receiveBufferBytes;
+    @NonFinal @Optional Long pollTimeoutMs;
+    @NonFinal @Optional Integer minPartitions;
+  }
+
+  @Data
+  public static class SparkLagScalingConfig {
+    @NonFinal @Optional Boolean enabled = false;
+    // time within which the lag should be drained
+    @NonFinal @Optional Integer drainSlaSeconds = 600;
+    // trigger interval of the streaming query
+    @NonFinal @Optional Integer batchIntervalSeconds = 60;
+  }
+
+  @Data
+  public static class ServicePartitionGranularityConfig {
+    @NonFinal @NotNull String serviceName;
+    @NonFinal @NotNull String granularity;
+  }
+
   @Data
   public static class EnvLogsRetentionDaysConfig {
     @NonFinal @NotNull List<String> envs;
@@ -23,13 +23,18 @@ public class ApplicationConstants {
   public final int KAFKA_MAX_PRODUCER_RATE_PER_PARTITION = 5500;
   public final int KAFKA_BROKER_PORT = 9092;
   public final int KAFKA_REQUEST_TIMEOUT_MS = 30000;
+  // longer than the 60s default.api.timeout.ms of the AdminClient
+  public final long KAFKA_CLIENT_DRAIN_DELAY_MS = 120000;
 
   public final String SPARK_METADATA_FILE_NAME = "_spark_metadata";
+  public final String SPARK_CHECKPOINT_OFFSETS_DIR = "offsets";
+  public final String SPARK_CHECKPOINT_COMMITS_DIR = "commits";
   public final int SPARK_MONITOR_POLL_INTERVAL_SECS = 15;
   public final int SPARK_MONITOR_TIME_IN_SECS = 60;
   public final String SPARK_GC_JAVA_OPTIONS = "-XX:+UnlockExperimentalVMOptions -XX:+UseG1GC";
 
   public final int MAX_LOGS_SYNC_DELAY_HOURS = 3;
+  public final int PIPELINE_METRICS_REFRESH_INTERVAL_SECONDS = 30;
 
   public final int SPARK_MIN_DOWNSCALE = 2;
   public final int SPARK_MAX_DOWNSCALE = 50;
@@ -10,7 +10,7 @@ public class Query {
       "INSERT INTO spark_stage_history (outputBytes, inputRecords, submissionTime, completionTime, coresUsed, status, tenant) "
           + "VALUES (?, ?, ?, ?, ?, ?, ?) ";
   public final String GET_SERVICES =
-      "SELECT serviceName, retentionDays, tenant FROM service_details WHERE tenant = ?;";
+      "SELECT serviceName, retentionDays, tenant, ingestionWeight, minOffsetsPerTrigger FROM service_details WHERE tenant = ?;";
   public final String INSERT_SERVICE_DETAILS =
       "INSERT INTO service_details (serviceName, retentionDays, tenant) VALUES (?, ?, ?) ON DUPLICATE KEY UPDATE lastCheckedAt = NOW()";
   public final String DELETE_SERVICE_DETAILS =
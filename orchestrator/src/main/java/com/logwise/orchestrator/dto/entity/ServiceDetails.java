@@ -11,6 +11,10 @@ public class ServiceDetails {
   @NonFinal @NonNull String serviceName;
   @NonFinal Integer retentionDays;
   @NonFinal String tenant;
+  // share of a micro-batch given to the service by the Spark job, relative to the other services
+  @NonFinal Integer ingestionWeight;
+  // offsets per micro-batch guaranteed to the service before the weighted share
+  @NonFinal Long minOffsetsPerTrigger;
 
   @Override
   public boolean equals(Object o) {
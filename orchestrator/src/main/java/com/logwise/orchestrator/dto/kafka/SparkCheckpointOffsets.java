@@ -9,6 +9,7 @@ import org.apache.kafka.common.TopicPartition;
 @Builder
 public class SparkCheckpointOffsets {
   private String checkpointPath;
+  private Long batchId; // latest committed batch the offsets are read from
   private Map<TopicPartition, Long> offsets; // TopicPartition -> checkpoint offset
   private long lastUpdatedTimestamp;
   private boolean available;
@@ -0,0 +1,82 @@
+package com.logwise.orchestrator.dto.metrics;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import org.apache.kafka.common.TopicPartition;
+
+/**
+ * Times at which the end offsets of Kafka partitions were sampled, used to turn a lag in records
+ * into a lag in seconds.
+ *
+ * <p>A sample is only kept when the end offset moved, so each one holds the first time an offset
+ * was seen. The time a committed offset was produced is interpolated between the two samples around
+ * it, and the lag in seconds is the age of that record.
+ */
+public class EndOffsetHistory {
+  static final int MAX_SAMPLES_PER_PARTITION = 120;
+
+  private final Map<TopicPartition, Deque<long[]>> samples = new HashMap<>();
+
+  /**
+   * Records the end offsets sampled at {@code timestampMs} and drops the partitions not sampled.
+   */
+  public synchronized void record(Map<TopicPartition, Long> endOffsets, long timestampMs) {
+    samples.keySet().retainAll(endOffsets.keySet());
+    endOffsets.forEach(
+        (topicPartition, endOffset) -> {
+          Deque<long[]> partitionSamples =
+              samples.computeIfAbsent(topicPartition, k -> new ArrayDeque<>());
+          long[] last = partitionSamples.peekLast();
+          if (last != null && endOffset < last[1]) {
+            // the topic was recreated, earlier samples no longer apply
+            partitionSamples.clear();
+          } else if (last != null && endOffset == last[1]) {
+            return;
+          }
+          partitionSamples.addLast(new long[] {timestampMs, endOffset});
+          if (partitionSamples.size() > MAX_SAMPLES_PER_PARTITION) {
+            partitionSamples.removeFirst();
+          }
+        });
+  }
+
+  /**
+   * Estimates the seconds between {@code nowMs} and the time the record at {@code committedOffset}
+   * was produced. When the record is older than the oldest sample, the age of that sample is
+   * returned as a lower bound.
+   */
+  public synchronized double getLagSeconds(
+      TopicPartition topicPartition, long committedOffset, long nowMs) {
+    Collection<long[]> partitionSamples = samples.get(topicPartition);
+    if (partitionSamples == null || partitionSamples.isEmpty()) {
+      return 0;
+    }
+    Iterator<long[]> iterator = partitionSamples.iterator();
+    long[] previous = iterator.next();
+    if (committedOffset < previous[1]) {
+      return toSeconds(nowMs - previous[0]);
+    }
+    while (iterator.hasNext()) {
+      long[] next = iterator.next();
+      if (committedOffset < next[1]) {
+        double producedMs =
+            previous[0]
+                + (double) (committedOffset - previous[1])
+                    / (next[1] - previous[1])
+                    * (next[0] - previous[0]);
+        return toSeconds(nowMs - producedMs);
+      }
+      previous = next;
+    }
+    // caught up with the last sampled end offset
+    return 0;
+  }
+
+  private static double toSeconds(double millis) {
+    return Math.max(0, millis) / 1000;
+  }
+}
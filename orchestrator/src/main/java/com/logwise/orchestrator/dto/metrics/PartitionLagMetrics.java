@@ -0,0 +1,15 @@
+package com.logwise.orchestrator.dto.metrics;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class PartitionLagMetrics {
+  private String topic;
+  private int partition;
+  private long endOffset; // Kafka high watermark
+  private long committedOffset; // offset of the latest batch committed by the Spark job
+  private long lag; // records not yet read by the Spark job
+  private double lagSeconds; // age of the oldest record not yet read by the Spark job
+}
@@ -0,0 +1,21 @@
+package com.logwise.orchestrator.dto.metrics;
+
+import com.logwise.orchestrator.dto.kafka.TopicOffsetInfo;
+import io.vertx.core.json.JsonObject;
+import java.util.List;
+import java.util.Map;
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class PipelineMetricsSnapshot {
+  private String tenant;
+  private long timestamp; // epoch millis of the refresh
+  private List<PartitionLagMetrics> partitionLags;
+  private Map<String, Long> serviceLastWriteTimestamps; // service -> epoch seconds
+  private JsonObject pipelineHealth;
+  // end offset sums of the subscribed topics, only sampled when partition scaling is enabled
+  private Map<String, TopicOffsetInfo> topicOffsets;
+  private long topicOffsetsTimestamp; // epoch millis the topic offsets were sampled at
+}
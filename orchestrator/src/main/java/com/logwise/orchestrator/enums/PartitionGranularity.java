@@ -0,0 +1,50 @@
+package com.logwise.orchestrator.enums;
+
+import com.logwise.orchestrator.error.ServiceError;
+import com.logwise.orchestrator.rest.exception.RestException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Depth of the time partitions a service is written with. Every granularity has its own logs
+ * directory: minute partitions are written to {@code logsDir} and hour partitions to {@code
+ * logsDir} with the {@code -hourly} suffix.
+ */
+@Getter
+@AllArgsConstructor
+public enum PartitionGranularity {
+  HOUR("hour", "Partitioned down to hour=, one directory per hour", "-hourly"),
+  MINUTE("minute", "Partitioned down to minute=, one directory per minute", "");
+
+  private final String value;
+  private final String description;
+  private final String logsDirSuffix;
+
+  /** Returns the directory the partitions of this granularity are written to. */
+  public String getLogsDir(String logsDir) {
+    return logsDir + logsDirSuffix;
+  }
+
+  /** Returns the directories of every granularity. */
+  public static List<String> getLogsDirs(String logsDir) {
+    return Arrays.stream(PartitionGranularity.values())
+        .map(granularity -> granularity.getLogsDir(logsDir))
+        .collect(Collectors.toList());
+  }
+
+  public static PartitionGranularity fromValue(String value) {
+    if (value == null || value.isEmpty()) {
+      return MINUTE; // Default to minute for backward compatibility
+    }
+    for (PartitionGranularity granularity : PartitionGranularity.values()) {
+      if (granularity.getValue().equalsIgnoreCase(value)) {
+        return granularity;
+      }
+    }
+    throw new RestException(
+        ServiceError.INVALID_REQUEST_ERROR.format("Invalid partition granularity: " + value));
+  }
+}
@@ -2,13 +2,24 @@ package com.logwise.orchestrator.factory;
 
 import com.google.inject.Inject;
 import com.logwise.orchestrator.client.kafka.*;
+import com.logwise.orchestrator.common.util.SharedDataUtils;
 import com.logwise.orchestrator.config.ApplicationConfig.KafkaConfig;
+import com.logwise.orchestrator.constant.ApplicationConstants;
 import com.logwise.orchestrator.enums.KafkaType;
+import com.logwise.orchestrator.enums.Tenant;
+import com.logwise.orchestrator.util.ApplicationConfigUtil;
+import io.vertx.reactivex.core.Vertx;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.Value;
 import lombok.extern.slf4j.Slf4j;
 
 /**
  * Factory for creating appropriate Kafka client based on Kafka type. Uses Guice to inject
  * dependencies for each client type.
+ *
+ * <p>{@link #getKafkaClient(Tenant)} hands out one long-lived client per tenant, so the bootstrap
+ * resolution and the MSK IAM or Confluent handshake are paid once rather than on every call.
  */
 @Slf4j
 public class KafkaClientFactory {
@@ -16,15 +27,57 @@ public class KafkaClientFactory {
   private final Ec2KafkaClient.Factory ec2Factory;
   private final MskKafkaClient.Factory mskFactory;
   private final ConfluentKafkaClient.Factory confluentFactory;
+  private final Vertx vertx;
+  private final Map<Tenant, PooledKafkaClient> pooledClients;
 
   @Inject
   public KafkaClientFactory(
+      Vertx vertx,
       Ec2KafkaClient.Factory ec2Factory,
       MskKafkaClient.Factory mskFactory,
       ConfluentKafkaClient.Factory confluentFactory) {
+    this.vertx = vertx;
     this.ec2Factory = ec2Factory;
     this.mskFactory = mskFactory;
     this.confluentFactory = confluentFactory;
+    this.pooledClients =
+        SharedDataUtils.getOrCreate(vertx, "kafka-client-pool", ConcurrentHashMap::new);
+  }
+
+  /**
+   * Returns the pooled client of the tenant. It is rebuilt when the Kafka config of the tenant
+   * changed or the client turned unhealthy, and must not be closed by the caller. A replaced client
+   * is closed only after {@link ApplicationConstants#KAFKA_CLIENT_DRAIN_DELAY_MS}, so calls still
+   * running on it can finish.
+   */
+  public KafkaClient getKafkaClient(Tenant tenant) {
+    KafkaConfig kafkaConfig = ApplicationConfigUtil.getTenantConfig(tenant).getKafka();
+    PooledKafkaClient pooled =
+        pooledClients.compute(
+            tenant,
+            (key, current) -> {
+              if (current != null
+                  && current.getKafkaConfig().equals(kafkaConfig)
+                  && current.getKafkaClient().isHealthy()) {
+                return current;
+              }
+              if (current != null) {
+                retire(tenant, current.getKafkaClient());
+              }
+              return new PooledKafkaClient(kafkaConfig, createKafkaClient(kafkaConfig));
+            });
+    return pooled.getKafkaClient();
+  }
+
+  private void retire(Tenant tenant, KafkaClient staleClient) {
+    log.info(
+        "Rebuilding Kafka client for tenant: {}, healthy: {}", tenant, staleClient.isHealthy());
+    vertx.setTimer(
+        ApplicationConstants.KAFKA_CLIENT_DRAIN_DELAY_MS,
+        id -> {
+          staleClient.close();
+          log.debug("Closed replaced Kafka client for tenant: {}", tenant);
+        });
   }
 
   public KafkaClient createKafkaClient(KafkaConfig kafkaConfig) {
@@ -47,4 +100,10 @@ public class KafkaClientFactory {
         throw new IllegalArgumentException("Unsupported Kafka type: " + kafkaType);
     }
   }
+
+  @Value
+  private static class PooledKafkaClient {
+    KafkaConfig kafkaConfig;
+    KafkaClient kafkaClient;
+  }
 }
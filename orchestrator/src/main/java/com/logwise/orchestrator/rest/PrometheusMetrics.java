@@ -0,0 +1,44 @@
+package com.logwise.orchestrator.rest;
+
+import com.google.inject.Inject;
+import com.logwise.orchestrator.common.util.CompletableFutureUtils;
+import com.logwise.orchestrator.service.PipelineMetricsService;
+import com.logwise.orchestrator.util.PrometheusUtils;
+import io.reactivex.Single;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import java.util.concurrent.CompletionStage;
+import javax.ws.rs.Consumes;
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.MediaType;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
+@RequiredArgsConstructor(onConstructor = @__({@Inject}))
+@Path("/metrics")
+@Tag(name = "Metrics", description = "Metrics operations")
+public class PrometheusMetrics {
+  private final PipelineMetricsService pipelineMetricsService;
+
+  @GET
+  @Consumes(MediaType.WILDCARD)
+  @Produces(PrometheusUtils.CONTENT_TYPE)
+  @Operation(
+      summary = "Get pipeline metrics for Prometheus",
+      description =
+          "Returns Kafka end offsets, Spark committed offsets, lag in records and seconds per topic"
+              + " and partition, and the last write time of every service, for all tenants.")
+  @ApiResponses(
+      value = {
+        @ApiResponse(responseCode = "200", description = "Metrics in Prometheus text format")
+      })
+  public CompletionStage<String> getMetrics() {
+    return Single.fromCallable(pipelineMetricsService::getPrometheusMetrics)
+        .to(CompletableFutureUtils::fromSingle);
+  }
+}
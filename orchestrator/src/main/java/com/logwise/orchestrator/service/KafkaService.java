@@ -7,6 +7,7 @@ import com.logwise.orchestrator.client.kafka.KafkaClient;
 import com.logwise.orchestrator.config.ApplicationConfig.KafkaConfig;
 import com.logwise.orchestrator.config.ApplicationConfig.SparkConfig;
 import com.logwise.orchestrator.dto.kafka.TopicOffsetInfo;
+import com.logwise.orchestrator.dto.metrics.PipelineMetricsSnapshot;
 import com.logwise.orchestrator.enums.Tenant;
 import com.logwise.orchestrator.factory.KafkaClientFactory;
 import com.logwise.orchestrator.util.ApplicationConfigUtil;
@@ -25,6 +26,7 @@ import lombok.extern.slf4j.Slf4j;
 public class KafkaService {
 
   private final KafkaClientFactory kafkaClientFactory;
+  private final PipelineMetricsService pipelineMetricsService;
   private final Cache<String, Single<OffsetWithTimestamp>> topicOffsetSumCache;
 
   /** Data class to hold offset sum and timestamp together. */
@@ -40,8 +42,12 @@ public class KafkaService {
   }
 
   @Inject
-  public KafkaService(Vertx vertx, KafkaClientFactory kafkaClientFactory) {
+  public KafkaService(
+      Vertx vertx,
+      KafkaClientFactory kafkaClientFactory,
+      PipelineMetricsService pipelineMetricsService) {
     this.kafkaClientFactory = kafkaClientFactory;
+    this.pipelineMetricsService = pipelineMetricsService;
     this.topicOffsetSumCache =
         CaffeineCacheFactory.createCache(vertx, "kafka-topic-offset-sum-cache");
   }
@@ -68,21 +74,18 @@ public class KafkaService {
 
       SparkConfig sparkConfig = tenantConfig.getSpark();
 
-      // Create appropriate Kafka client
-      KafkaClient kafkaClient = kafkaClientFactory.createKafkaClient(kafkaConfig);
-
-      try {
-        return performScaling(kafkaClient, kafkaConfig, sparkConfig, tenant)
-            .doFinally(
-                () -> {
-                  kafkaClient.close();
-                  log.info("Completed Kafka partition scaling for tenant: {}", tenant);
-                });
-      } catch (Exception e) {
-        kafkaClient.close();
-        log.error("Error during scaling for tenant: {}", tenant, e);
-        return Single.error(e);
+      PipelineMetricsSnapshot snapshot = pipelineMetricsService.getSnapshot(tenant);
+      if (snapshot != null
+          && snapshot.getTopicOffsets() != null
+          && pipelineMetricsService.isFresh(snapshot.getTopicOffsetsTimestamp())) {
+        return scaleFromSnapshot(snapshot, kafkaConfig, tenant);
       }
+
+      // Reuse the pooled Kafka client of the tenant
+      KafkaClient kafkaClient = kafkaClientFactory.getKafkaClient(tenant);
+
+      return performScaling(kafkaClient, kafkaConfig, sparkConfig, tenant)
+          .doFinally(() -> log.info("Completed Kafka partition scaling for tenant: {}", tenant));
     } catch (Exception e) {
       log.error("Error creating Kafka client for tenant: {}", tenant, e);
       return Single.error(e);
@@ -125,52 +128,77 @@ public class KafkaService {
                   .flatMap(
                       offsetsSum -> {
                         Map<String, Integer> scalingMap =
-                            calculateScalingDecisions(offsetsSum, kafkaConfig);
+                            calculateScalingDecisions(
+                                offsetsSum, kafkaConfig, System.currentTimeMillis());
 
                         if (scalingMap.isEmpty()) {
                           log.info("No partitions to increase");
                           return Single.just(Collections.emptyMap());
                         }
 
-                        return kafkaClient
-                            .increasePartitions(scalingMap)
-                            .doOnComplete(
-                                () -> {
-                                  log.info(
-                                      "Successfully scaled the partitions for {} topics",
-                                      scalingMap.size());
-                                })
-                            .doOnError(
-                                th -> {
-                                  long duration = System.currentTimeMillis() - startTime;
-                                  log.error(
-                                      "Error increasing partitions for tenant: {} after {}ms",
-                                      tenant,
-                                      duration,
-                                      th);
-                                })
-                            .toSingle(() -> scalingMap);
+                        return increasePartitions(kafkaClient, scalingMap, tenant, startTime);
                       });
             });
   }
 
+  /**
+   * Scales from the end offset sums sampled by the metrics collector, so Kafka is only called when
+   * partitions have to be increased.
+   */
+  private Single<Map<String, Integer>> scaleFromSnapshot(
+      PipelineMetricsSnapshot snapshot, KafkaConfig kafkaConfig, Tenant tenant) {
+    long startTime = System.currentTimeMillis();
+    log.info(
+        "Using topic offsets sampled at {} for partition scaling of tenant: {}",
+        snapshot.getTopicOffsetsTimestamp(),
+        tenant);
+    Map<String, Integer> scalingMap =
+        calculateScalingDecisions(
+            snapshot.getTopicOffsets(), kafkaConfig, snapshot.getTopicOffsetsTimestamp());
+    if (scalingMap.isEmpty()) {
+      log.info("No partitions to increase");
+      return Single.just(Collections.emptyMap());
+    }
+    return increasePartitions(
+            kafkaClientFactory.getKafkaClient(tenant), scalingMap, tenant, startTime)
+        .doFinally(() -> log.info("Completed Kafka partition scaling for tenant: {}", tenant));
+  }
+
+  private Single<Map<String, Integer>> increasePartitions(
+      KafkaClient kafkaClient, Map<String, Integer> scalingMap, Tenant tenant, long startTime) {
+    return kafkaClient
+        .increasePartitions(scalingMap)
+        .doOnComplete(
+            () -> {
+              log.info("Successfully scaled the partitions for {} topics", scalingMap.size());
+            })
+        .doOnError(
+            th -> {
+              long duration = System.currentTimeMillis() - startTime;
+              log.error(
+                  "Error increasing partitions for tenant: {} after {}ms", tenant, duration, th);
+            })
+        .toSingle(() -> scalingMap);
+  }
+
   /**
    * Calculates scaling decisions for each topic based on ingestion rate and current partition
    * count.
    *
    * @param offsetsSum Map of topic names to their offset information
    * @param kafkaConfig Kafka configuration containing partition rate per second
+   * @param timestamp Time in millis the offsets were sampled at
    * @return Map of topic names to required partition counts (only includes topics that need
    *     scaling)
    */
   private Map<String, Integer> calculateScalingDecisions(
-      Map<String, TopicOffsetInfo> offsetsSum, KafkaConfig kafkaConfig) {
+      Map<String, TopicOffsetInfo> offsetsSum, KafkaConfig kafkaConfig, long timestamp) {
     return offsetsSum.entrySet().stream()
         .map(
             entry -> {
               String topic = entry.getKey();
               int requiredPartitions =
-                  calculateRequiredPartitions(topic, entry.getValue(), kafkaConfig);
+                  calculateRequiredPartitions(topic, entry.getValue(), kafkaConfig, timestamp);
               return new AbstractMap.SimpleEntry<>(topic, requiredPartitions);
             })
         .filter(entry -> entry.getValue() > 0)
@@ -180,19 +208,24 @@ public class KafkaService {
   /**
    * Calculates the required number of partitions for a topic based on ingestion rate.
    *
+   * <p>The rate is measured against the offsets cached for the topic when they are more than 30 and
+   * at most 300 seconds older. Offsets of the same or the next snapshot leave the cache as is, so
+   * calls more frequent than the snapshots still measure across more than 30 seconds.
+   *
    * @param topic Topic name
    * @param offsetInfo Current offset information for the topic
    * @param kafkaConfig Kafka configuration containing partition rate per second
+   * @param timestamp Time in millis the offset information was sampled at
    * @return Required number of partitions, or -1 if no scaling is needed
    */
   private int calculateRequiredPartitions(
-      String topic, TopicOffsetInfo offsetInfo, KafkaConfig kafkaConfig) {
+      String topic, TopicOffsetInfo offsetInfo, KafkaConfig kafkaConfig, long timestamp) {
     long currentOffsetSum = offsetInfo.getSumOfEndOffsets();
 
     OffsetWithTimestamp lastOffsetData = getLastTimeOffsetSumFromCache(topic);
 
     if (lastOffsetData == null) {
-      updateLastTimeOffsetSumInCache(topic, offsetInfo.getSumOfEndOffsets());
+      updateLastTimeOffsetSumInCache(topic, offsetInfo.getSumOfEndOffsets(), timestamp);
 
       log.info(
           "Skipping the kafka partition scaling due to lastOffsetData is not available in cache");
@@ -201,25 +234,32 @@ public class KafkaService {
       return -1;
     }
 
-    long currentTimestamp = System.currentTimeMillis();
-    long timeDifferenceSeconds = (currentTimestamp - lastOffsetData.getTimestamp()) / 1000;
+    long timeDifferenceSeconds = (timestamp - lastOffsetData.getTimestamp()) / 1000;
 
-    if (timeDifferenceSeconds <= 30 || timeDifferenceSeconds > 300) {
-      // Time difference is invalid or too long return -1
-      updateLastTimeOffsetSumInCache(topic, offsetInfo.getSumOfEndOffsets());
+    if (timestamp < lastOffsetData.getTimestamp() || timeDifferenceSeconds > 300) {
+      // Cached offsets are from the future or too old to measure against, start over from these
+      updateLastTimeOffsetSumInCache(topic, offsetInfo.getSumOfEndOffsets(), timestamp);
       log.info(
           "Skipping the kafka partition scaling due to cache is {} second old",
           timeDifferenceSeconds);
       return -1;
     }
 
+    if (timeDifferenceSeconds <= 30) {
+      // Same or next snapshot, keep the cached offsets so a later snapshot is measured against them
+      log.info(
+          "Skipping the kafka partition scaling due to offsets are only {} second newer than cache",
+          timeDifferenceSeconds);
+      return -1;
+    }
+
     long offsetDifference = currentOffsetSum - lastOffsetData.getOffsetSum();
     long ingestionRate = offsetDifference / timeDifferenceSeconds;
     int requiredPartitions =
         (int) Math.ceil((double) ingestionRate / kafkaConfig.getPartitionRatePerSecond());
     int currentPartitions = offsetInfo.getCurrentNumberOfPartitions();
 
-    updateLastTimeOffsetSumInCache(topic, offsetInfo.getSumOfEndOffsets());
+    updateLastTimeOffsetSumInCache(topic, offsetInfo.getSumOfEndOffsets(), timestamp);
 
     // Only scale if required partitions exceed current partitions
     if (requiredPartitions <= currentPartitions) {
@@ -251,10 +291,9 @@ public class KafkaService {
    *
    * @param topic Topic name
    * @param offsetSum Offset sum to store
+   * @param timestamp Time in millis the offset sum was sampled at
    */
-  private void updateLastTimeOffsetSumInCache(String topic, Long offsetSum) {
-    long currentTimestamp = System.currentTimeMillis();
-    topicOffsetSumCache.put(
-        topic, Single.just(new OffsetWithTimestamp(offsetSum, currentTimestamp)));
+  private void updateLastTimeOffsetSumInCache(String topic, Long offsetSum, long timestamp) {
+    topicOffsetSumCache.put(topic, Single.just(new OffsetWithTimestamp(offsetSum, timestamp)));
   }
 }
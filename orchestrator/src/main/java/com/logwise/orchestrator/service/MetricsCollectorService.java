@@ -0,0 +1,179 @@
+package com.logwise.orchestrator.service;
+
+import static com.logwise.orchestrator.config.ApplicationConfig.TenantConfig;
+
+import com.google.inject.Inject;
+import com.logwise.orchestrator.client.kafka.KafkaClient;
+import com.logwise.orchestrator.common.util.SharedDataUtils;
+import com.logwise.orchestrator.dto.kafka.SparkCheckpointOffsets;
+import com.logwise.orchestrator.dto.kafka.TopicOffsetInfo;
+import com.logwise.orchestrator.dto.metrics.EndOffsetHistory;
+import com.logwise.orchestrator.dto.metrics.PartitionLagMetrics;
+import com.logwise.orchestrator.dto.metrics.PipelineMetricsSnapshot;
+import com.logwise.orchestrator.enums.Tenant;
+import com.logwise.orchestrator.factory.KafkaClientFactory;
+import com.logwise.orchestrator.util.ApplicationConfigUtil;
+import io.reactivex.Completable;
+import io.reactivex.Single;
+import io.vertx.reactivex.core.Vertx;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.TopicPartition;
+
+/**
+ * Samples the Kafka cluster, the Spark job and the object store of a tenant into the snapshot of
+ * the {@link PipelineMetricsService}. Called periodically by the metrics collector verticle, so the
+ * external calls are made once per period whatever the number of REST callers.
+ *
+ * <p>A part of the snapshot that fails to refresh keeps its previous values.
+ */
+@Slf4j
+public class MetricsCollectorService {
+
+  private final MetricsService metricsService;
+  private final PipelineHealthCheckService pipelineHealthCheckService;
+  private final SparkCheckpointService sparkCheckpointService;
+  private final PipelineMetricsService pipelineMetricsService;
+  private final KafkaClientFactory kafkaClientFactory;
+  private final Map<Tenant, EndOffsetHistory> endOffsetHistories;
+
+  @Inject
+  public MetricsCollectorService(
+      Vertx vertx,
+      MetricsService metricsService,
+      PipelineHealthCheckService pipelineHealthCheckService,
+      SparkCheckpointService sparkCheckpointService,
+      PipelineMetricsService pipelineMetricsService,
+      KafkaClientFactory kafkaClientFactory) {
+    this.metricsService = metricsService;
+    this.pipelineHealthCheckService = pipelineHealthCheckService;
+    this.sparkCheckpointService = sparkCheckpointService;
+    this.pipelineMetricsService = pipelineMetricsService;
+    this.kafkaClientFactory = kafkaClientFactory;
+    this.endOffsetHistories =
+        SharedDataUtils.getOrCreate(vertx, "pipeline-end-offset-histories", ConcurrentHashMap::new);
+  }
+
+  /** Samples the pipeline of the tenant and replaces its snapshot. */
+  public Completable refreshSnapshot(Tenant tenant) {
+    TenantConfig tenantConfig = ApplicationConfigUtil.getTenantConfig(tenant);
+    PipelineMetricsSnapshot previous = pipelineMetricsService.getSnapshot(tenant);
+    KafkaClient kafkaClient = kafkaClientFactory.getKafkaClient(tenant);
+
+    Single<Map<String, Long>> lastWritesSingle =
+        metricsService
+            .computeServiceLastWriteTimes(tenant)
+            .onErrorReturn(
+                error -> {
+                  log.error("Error in refreshing last writes of tenant: {}", tenant, error);
+                  return previous == null ? Map.of() : previous.getServiceLastWriteTimestamps();
+                })
+            .cache();
+
+    return Single.zip(
+            getPartitionLags(tenant, kafkaClient)
+                .onErrorReturn(
+                    error -> {
+                      log.error("Error in refreshing Kafka lag of tenant: {}", tenant, error);
+                      return previous == null ? List.of() : previous.getPartitionLags();
+                    }),
+            getTopicOffsets(tenantConfig, kafkaClient)
+                .onErrorReturn(
+                    error -> {
+                      log.error("Error in refreshing topic offsets of tenant: {}", tenant, error);
+                      return Optional.empty();
+                    }),
+            lastWritesSingle,
+            lastWritesSingle.flatMap(
+                lastWrites -> pipelineHealthCheckService.checkCompletePipeline(tenant, lastWrites)),
+            (partitionLags, topicOffsets, lastWrites, pipelineHealth) -> {
+              long now = System.currentTimeMillis();
+              return PipelineMetricsSnapshot.builder()
+                  .tenant(tenant.getValue())
+                  .timestamp(now)
+                  .partitionLags(partitionLags)
+                  .serviceLastWriteTimestamps(lastWrites)
+                  .pipelineHealth(pipelineHealth)
+                  .topicOffsets(
+                      topicOffsets.orElseGet(
+                          () -> previous == null ? null : previous.getTopicOffsets()))
+                  .topicOffsetsTimestamp(
+                      topicOffsets.isPresent()
+                          ? now
+                          : previous == null ? 0L : previous.getTopicOffsetsTimestamp())
+                  .build();
+            })
+        .doOnSuccess(snapshot -> pipelineMetricsService.putSnapshot(tenant, snapshot))
+        .ignoreElement();
+  }
+
+  private Single<List<PartitionLagMetrics>> getPartitionLags(
+      Tenant tenant, KafkaClient kafkaClient) {
+    return sparkCheckpointService
+        .getCheckpointOffsets(tenant)
+        .flatMap(
+            checkpointOffsets -> {
+              if (!checkpointOffsets.isAvailable()) {
+                return Single.just(Collections.<PartitionLagMetrics>emptyList());
+              }
+              return kafkaClient
+                  .getEndOffsets(new ArrayList<>(checkpointOffsets.getOffsets().keySet()))
+                  .map(endOffsets -> toPartitionLags(tenant, checkpointOffsets, endOffsets));
+            });
+  }
+
+  /** End offset sums of the subscribed topics, empty when partition scaling is disabled. */
+  private Single<Optional<Map<String, TopicOffsetInfo>>> getTopicOffsets(
+      TenantConfig tenantConfig, KafkaClient kafkaClient) {
+    if (!Boolean.TRUE.equals(tenantConfig.getKafka().getEnablePartitionScaling())) {
+      return Single.just(Optional.empty());
+    }
+    return kafkaClient
+        .listTopics(tenantConfig.getSpark().getSubscribePattern())
+        .flatMap(
+            topics ->
+                topics.isEmpty()
+                    ? Single.just(Collections.<String, TopicOffsetInfo>emptyMap())
+                    : kafkaClient.getEndOffsetSum(new ArrayList<>(topics)))
+        .map(Optional::of);
+  }
+
+  private List<PartitionLagMetrics> toPartitionLags(
+      Tenant tenant,
+      SparkCheckpointOffsets checkpointOffsets,
+      Map<TopicPartition, Long> endOffsets) {
+    long nowMs = System.currentTimeMillis();
+    EndOffsetHistory history =
+        endOffsetHistories.computeIfAbsent(tenant, k -> new EndOffsetHistory());
+    history.record(endOffsets, nowMs);
+    // Only partitions with a committed offset have a known lag
+    return endOffsets.entrySet().stream()
+        .filter(entry -> checkpointOffsets.getOffsets().containsKey(entry.getKey()))
+        .map(
+            entry -> {
+              TopicPartition topicPartition = entry.getKey();
+              long committed = checkpointOffsets.getOffsets().get(topicPartition);
+              long lag = Math.max(0L, entry.getValue() - committed);
+              return PartitionLagMetrics.builder()
+                  .topic(topicPartition.topic())
+                  .partition(topicPartition.partition())
+                  .endOffset(entry.getValue())
+                  .committedOffset(committed)
+                  .lag(lag)
+                  .lagSeconds(
+                      lag == 0 ? 0 : history.getLagSeconds(topicPartition, committed, nowMs))
+                  .build();
+            })
+        .sorted(
+            Comparator.comparing(PartitionLagMetrics::getTopic)
+                .thenComparingInt(PartitionLagMetrics::getPartition))
+        .collect(Collectors.toList());
+  }
+}
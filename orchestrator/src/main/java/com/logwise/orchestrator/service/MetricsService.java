@@ -1,33 +1,56 @@
 package com.logwise.orchestrator.service;
 
 import com.google.inject.Inject;
+import com.logwise.orchestrator.client.ObjectStoreClient;
 import com.logwise.orchestrator.config.ApplicationConfig.DelayMetricsConfig;
+import com.logwise.orchestrator.config.ApplicationConfig.SparkConfig;
 import com.logwise.orchestrator.config.ApplicationConfig.TenantConfig;
 import com.logwise.orchestrator.constant.ApplicationConstants;
+import com.logwise.orchestrator.dto.entity.ServiceDetails;
+import com.logwise.orchestrator.dto.metrics.PipelineMetricsSnapshot;
 import com.logwise.orchestrator.dto.response.LogSyncDelayResponse;
+import com.logwise.orchestrator.enums.PartitionGranularity;
 import com.logwise.orchestrator.enums.Tenant;
 import com.logwise.orchestrator.factory.ObjectStoreFactory;
 import com.logwise.orchestrator.util.ApplicationConfigUtil;
+import com.logwise.orchestrator.util.ApplicationUtils;
 import io.reactivex.Maybe;
 import io.reactivex.Observable;
 import io.reactivex.Single;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.AbstractMap.SimpleEntry;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 @Slf4j
 @RequiredArgsConstructor(onConstructor = @__({@Inject}))
 public class MetricsService {
+  private static final Pattern PARTITION_PATTERN =
+      Pattern.compile(
+          "year=(\\d{4})/month=(\\d{2})/day=(\\d{2})/hour=(\\d{2})(?:/minute=(\\d{2}))?");
+  // year, month, day, hour and minute partitions below the service prefix
+  private static final int MAX_PARTITION_DEPTH = 5;
+  private static final int MAX_CONCURRENT_SERVICE_LISTINGS = 16;
 
-  /** Compute application log sync delay in minutes and return as DTO. */
+  private final PipelineMetricsService pipelineMetricsService;
+
+  /**
+   * Compute application log sync delay in minutes and return as DTO. Served from the last write
+   * times sampled by the metrics collector, the object store is only listed when no recent sample
+   * exists.
+   */
   public Single<LogSyncDelayResponse> computeLogSyncDelay(Tenant tenant) {
-    return computeApplicationLogSyncDelayForAws(tenant)
+    return getApplicationLogSyncDelayFromSnapshot(tenant)
+        .switchIfEmpty(Single.defer(() -> computeApplicationLogSyncDelayForAws(tenant)))
         .map(
             appDelay ->
                 LogSyncDelayResponse.builder()
@@ -36,15 +59,38 @@ public class MetricsService {
                     .build());
   }
 
+  private Maybe<Integer> getApplicationLogSyncDelayFromSnapshot(Tenant tenant) {
+    PipelineMetricsSnapshot snapshot = pipelineMetricsService.getFreshSnapshot(tenant);
+    if (snapshot == null) {
+      return Maybe.empty();
+    }
+    String serviceName =
+        ApplicationConfigUtil.getTenantConfig(tenant)
+            .getDelayMetrics()
+            .getApp()
+            .getSampleServiceName();
+    Long lastWriteTimestamp = snapshot.getServiceLastWriteTimestamps().get(serviceName);
+    if (lastWriteTimestamp == null) {
+      return Maybe.just(ApplicationConstants.MAX_LOGS_SYNC_DELAY_HOURS * 60);
+    }
+    return Maybe.just(
+        getDelayMinutes(
+            LocalDateTime.now(ZoneOffset.UTC),
+            LocalDateTime.ofEpochSecond(lastWriteTimestamp, 0, ZoneOffset.UTC)));
+  }
+
   private Single<Integer> computeApplicationLogSyncDelayForAws(Tenant tenant) {
     TenantConfig config = ApplicationConfigUtil.getTenantConfig(tenant);
     DelayMetricsConfig delayMetricsConfig = config.getDelayMetrics();
     LocalDateTime nowTime = LocalDateTime.now(ZoneOffset.UTC);
+    String serviceName = delayMetricsConfig.getApp().getSampleServiceName();
+    PartitionGranularity granularity = getPartitionGranularity(config.getSpark(), serviceName);
     List<String> prefixList =
         getPrefixList(
             nowTime,
-            config.getSpark().getLogsDir(),
-            delayMetricsConfig.getApp().getSampleServiceName());
+            granularity.getLogsDir(config.getSpark().getLogsDir()),
+            serviceName,
+            granularity);
 
     return Observable.fromIterable(prefixList)
         .flatMapMaybe(
@@ -55,17 +101,9 @@ public class MetricsService {
                         objNames -> {
                           if (!objNames.isEmpty()) {
                             objNames.sort(Collections.reverseOrder());
-                            Matcher matcher =
-                                Pattern.compile("hour=(\\d{2})/minute=(\\d{2})")
-                                    .matcher(objNames.get(0));
+                            Matcher matcher = PARTITION_PATTERN.matcher(objNames.get(0));
                             if (matcher.find()) {
-                              int objHour = Integer.parseInt(matcher.group(1));
-                              int objMinute = Integer.parseInt(matcher.group(2));
-                              int nowHour = nowTime.getHour();
-                              int nowMinute = nowTime.getMinute();
-                              int timeDiff =
-                                  (nowHour * 60 + nowMinute) - (objHour * 60 + objMinute);
-                              return Maybe.just(Math.max(1, timeDiff));
+                              return Maybe.just(getDelayMinutes(nowTime, matcher));
                             }
                           }
                           return Maybe.empty();
@@ -75,7 +113,93 @@ public class MetricsService {
         .toSingle();
   }
 
-  private static List<String> getPrefixList(LocalDateTime nowTime, String dir, String serviceName) {
+  private static PartitionGranularity getPartitionGranularity(
+      SparkConfig sparkConfig, String serviceName) {
+    return sparkConfig.getServicePartitionGranularities().stream()
+        .filter(service -> service.getServiceName().equals(serviceName))
+        .map(service -> PartitionGranularity.fromValue(service.getGranularity()))
+        .findFirst()
+        .orElseGet(() -> PartitionGranularity.fromValue(sparkConfig.getPartitionGranularity()));
+  }
+
+  /**
+   * Returns the last write time of every service of the tenant, in epoch seconds. The latest
+   * partition of a service is found by listing only the newest year, month, day, hour and minute
+   * prefixes, so the cost does not grow with the delay of the service. Services are listed in the
+   * logs directory of every granularity, a service found in both takes its latest write.
+   */
+  public Single<Map<String, Long>> computeServiceLastWriteTimes(Tenant tenant) {
+    TenantConfig config = ApplicationConfigUtil.getTenantConfig(tenant);
+    ObjectStoreClient objectStoreClient = ObjectStoreFactory.getClient(tenant);
+    return Observable.fromIterable(PartitionGranularity.getLogsDirs(config.getSpark().getLogsDir()))
+        .concatMapSingle(
+            logsDir -> objectStoreClient.listCommonPrefix(logsDir + "/service_name=", "/"))
+        .flatMapIterable(prefixes -> prefixes)
+        .flatMap(
+            servicePrefix ->
+                getLatestPartition(objectStoreClient, servicePrefix, 0)
+                    .flatMapMaybe(
+                        partition -> {
+                          ServiceDetails service =
+                              ApplicationUtils.getServiceFromObjectKey(servicePrefix);
+                          Matcher matcher = PARTITION_PATTERN.matcher(partition);
+                          if (service == null || !matcher.find()) {
+                            return Maybe.<SimpleEntry<String, Long>>empty();
+                          }
+                          return Maybe.just(
+                              new SimpleEntry<>(
+                                  service.getServiceName(),
+                                  getPartitionEndTime(matcher).toEpochSecond(ZoneOffset.UTC)));
+                        })
+                    .toObservable(),
+            MAX_CONCURRENT_SERVICE_LISTINGS)
+        .toMultimap(SimpleEntry::getKey, SimpleEntry::getValue)
+        .map(
+            lastWriteTimes ->
+                lastWriteTimes.entrySet().stream()
+                    .collect(
+                        Collectors.toMap(
+                            Map.Entry::getKey, entry -> Collections.max(entry.getValue()))));
+  }
+
+  private static Single<String> getLatestPartition(
+      ObjectStoreClient objectStoreClient, String prefix, int depth) {
+    if (depth == MAX_PARTITION_DEPTH) {
+      return Single.just(prefix);
+    }
+    return objectStoreClient
+        .listCommonPrefix(prefix, "/")
+        .flatMap(
+            prefixes ->
+                prefixes.isEmpty()
+                    ? Single.just(prefix)
+                    : getLatestPartition(objectStoreClient, Collections.max(prefixes), depth + 1));
+  }
+
+  /**
+   * Minutes between now and the last minute covered by the matched partition, at least 1. An hour
+   * partition covers its whole hour, so its logs are at most one hour behind.
+   */
+  private static int getDelayMinutes(LocalDateTime nowTime, Matcher matcher) {
+    return getDelayMinutes(nowTime, getPartitionEndTime(matcher));
+  }
+
+  private static int getDelayMinutes(LocalDateTime nowTime, LocalDateTime partitionEndTime) {
+    long timeDiff = ChronoUnit.MINUTES.between(partitionEndTime, nowTime);
+    return (int) Math.max(1, timeDiff);
+  }
+
+  private static LocalDateTime getPartitionEndTime(Matcher matcher) {
+    return LocalDateTime.of(
+        Integer.parseInt(matcher.group(1)),
+        Integer.parseInt(matcher.group(2)),
+        Integer.parseInt(matcher.group(3)),
+        Integer.parseInt(matcher.group(4)),
+        matcher.group(5) == null ? 59 : Integer.parseInt(matcher.group(5)));
+  }
+
+  private static List<String> getPrefixList(
+      LocalDateTime nowTime, String dir, String serviceName, PartitionGranularity granularity) {
     List<String> dirPrefixList = new ArrayList<>();
     for (int deltaHours = 0;
         deltaHours <= ApplicationConstants.MAX_LOGS_SYNC_DELAY_HOURS;
@@ -86,8 +210,11 @@ public class MetricsService {
       String hour = String.format("%02d", time.getHour());
       String dirPrefix =
           String.format(
-              "%s/service_name=%s/year=%d/month=%s/day=%s/hour=%s/minute=",
+              "%s/service_name=%s/year=%d/month=%s/day=%s/hour=%s/",
               dir, serviceName, time.getYear(), month, day, hour);
+      if (granularity == PartitionGranularity.MINUTE) {
+        dirPrefix += "minute=";
+      }
       if (!dirPrefixList.contains(dirPrefix)) {
         dirPrefixList.add(dirPrefix);
       }
@@ -5,6 +5,7 @@ import com.logwise.orchestrator.client.ObjectStoreClient;
 import com.logwise.orchestrator.config.ApplicationConfig.TenantConfig;
 import com.logwise.orchestrator.dao.ServicesDao;
 import com.logwise.orchestrator.dto.entity.ServiceDetails;
+import com.logwise.orchestrator.enums.PartitionGranularity;
 import com.logwise.orchestrator.enums.Tenant;
 import com.logwise.orchestrator.factory.ObjectStoreFactory;
 import com.logwise.orchestrator.util.ApplicationConfigUtil;
@@ -25,9 +26,11 @@ public class ObjectStoreService {
     ObjectStoreClient objectStoreClient = ObjectStoreFactory.getClient(tenant);
     TenantConfig tenantConfig = ApplicationConfigUtil.getTenantConfig(tenant);
 
-    return objectStoreClient
-        .listCommonPrefix(tenantConfig.getSpark().getLogsDir() + "/service_name=", "/")
-        .flatMapObservable(Observable::fromIterable)
+    return Observable.fromIterable(
+            PartitionGranularity.getLogsDirs(tenantConfig.getSpark().getLogsDir()))
+        .concatMapSingle(
+            logsDir -> objectStoreClient.listCommonPrefix(logsDir + "/service_name=", "/"))
+        .flatMapIterable(prefixes -> prefixes)
         .toList()
         .map(
             logsObjectKeys ->
@@ -38,6 +41,7 @@ public class ObjectStoreService {
                           serviceDetails.setRetentionDays(getDefaultRetentionDays(tenantConfig));
                           serviceDetails.setTenant(tenant.getValue());
                         })
+                    .distinct()
                     .collect(Collectors.toList()));
   }
 
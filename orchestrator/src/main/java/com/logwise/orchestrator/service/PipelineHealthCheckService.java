@@ -7,6 +7,7 @@ import com.logwise.orchestrator.client.ObjectStoreClient;
 import com.logwise.orchestrator.common.util.JsonUtils;
 import com.logwise.orchestrator.config.ApplicationConfig.TenantConfig;
 import com.logwise.orchestrator.config.ApplicationConfig.VectorConfig;
+import com.logwise.orchestrator.dto.metrics.PipelineMetricsSnapshot;
 import com.logwise.orchestrator.dto.response.SparkMasterJsonResponse;
 import com.logwise.orchestrator.enums.Tenant;
 import com.logwise.orchestrator.factory.ObjectStoreFactory;
@@ -14,21 +15,30 @@ import com.logwise.orchestrator.util.ApplicationConfigUtil;
 import com.logwise.orchestrator.webclient.reactivex.client.WebClient;
 import io.reactivex.Single;
 import io.vertx.core.json.JsonObject;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 import lombok.extern.slf4j.Slf4j;
 
 @Slf4j
 public class PipelineHealthCheckService {
   private final WebClient webClient;
   private final ObjectMapper objectMapper;
+  private final PipelineMetricsService pipelineMetricsService;
 
   @Inject
-  public PipelineHealthCheckService(WebClient webClient, ObjectMapper objectMapper) {
+  public PipelineHealthCheckService(
+      WebClient webClient,
+      ObjectMapper objectMapper,
+      PipelineMetricsService pipelineMetricsService) {
     this.webClient = webClient;
     this.objectMapper = objectMapper;
+    this.pipelineMetricsService = pipelineMetricsService;
   }
 
   public Single<JsonObject> checkVectorHealth(TenantConfig tenantConfig) {
@@ -270,7 +280,58 @@ public class PipelineHealthCheckService {
             });
   }
 
+  /**
+   * Returns the pipeline health sampled by the metrics collector, or checks every component when no
+   * recent sample exists.
+   */
   public Single<JsonObject> checkCompletePipeline(Tenant tenant) {
+    PipelineMetricsSnapshot snapshot = pipelineMetricsService.getFreshSnapshot(tenant);
+    if (snapshot != null && snapshot.getPipelineHealth() != null) {
+      return Single.just(snapshot.getPipelineHealth().copy());
+    }
+    return checkCompletePipeline(tenant, tenantConfig -> checkS3Logs(tenant, tenantConfig));
+  }
+
+  /**
+   * Checks every component, judging the object store from the last write time of the services
+   * instead of listing the logs.
+   *
+   * @param serviceLastWriteTimestamps last write time of every service in epoch seconds
+   */
+  public Single<JsonObject> checkCompletePipeline(
+      Tenant tenant, Map<String, Long> serviceLastWriteTimestamps) {
+    return checkCompletePipeline(
+        tenant, tenantConfig -> checkS3LastWrites(tenantConfig, serviceLastWriteTimestamps));
+  }
+
+  public Single<JsonObject> checkS3LastWrites(
+      TenantConfig tenantConfig, Map<String, Long> serviceLastWriteTimestamps) {
+    if (serviceLastWriteTimestamps.isEmpty()) {
+      return Single.just(
+          JsonUtils.jsonMerge(
+              ImmutableList.of(
+                  JsonUtils.jsonFrom("status", "WARNING"),
+                  JsonUtils.jsonFrom("message", "No log prefixes found in S3"),
+                  JsonUtils.jsonFrom("logsDir", tenantConfig.getSpark().getLogsDir()))));
+    }
+    long hourAgo = Instant.now().minus(1, ChronoUnit.HOURS).getEpochSecond();
+    long recentServices =
+        serviceLastWriteTimestamps.values().stream().filter(time -> time >= hourAgo).count();
+    JsonObject result = new JsonObject();
+    if (recentServices > 0) {
+      result.put("status", "UP");
+      result.put("message", "Recent logs found in S3");
+      result.put("recentServices", recentServices);
+    } else {
+      result.put("status", "WARNING");
+      result.put("message", "No recent logs found in S3 (last hour)");
+    }
+    result.put("totalServices", serviceLastWriteTimestamps.size());
+    return Single.just(result);
+  }
+
+  private Single<JsonObject> checkCompletePipeline(
+      Tenant tenant, Function<TenantConfig, Single<JsonObject>> s3Check) {
     log.info("Checking complete pipeline health for tenant: {}", tenant.getValue());
     return Single.fromCallable(() -> ApplicationConfigUtil.getTenantConfig(tenant))
         .flatMap(
@@ -279,7 +340,7 @@ public class PipelineHealthCheckService {
                     checkVectorHealth(tenantConfig),
                     checkKafkaHealth(tenantConfig),
                     checkSparkHealth(tenantConfig),
-                    checkS3Logs(tenant, tenantConfig),
+                    s3Check.apply(tenantConfig),
                     (vector, kafka, spark, s3) -> {
                       List<JsonObject> checks = new ArrayList<>();
                       checks.add(
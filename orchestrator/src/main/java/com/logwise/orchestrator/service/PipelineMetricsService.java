@@ -0,0 +1,190 @@
+package com.logwise.orchestrator.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.google.inject.Inject;
+import com.logwise.orchestrator.CaffeineCacheFactory;
+import com.logwise.orchestrator.config.ApplicationConfigProvider;
+import com.logwise.orchestrator.constant.ApplicationConstants;
+import com.logwise.orchestrator.dto.metrics.PartitionLagMetrics;
+import com.logwise.orchestrator.dto.metrics.PipelineMetricsSnapshot;
+import com.logwise.orchestrator.enums.Tenant;
+import com.logwise.orchestrator.util.PrometheusUtils;
+import io.reactivex.Single;
+import io.vertx.reactivex.core.Vertx;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.Collector;
+import java.util.stream.Collectors;
+
+/**
+ * Holds the snapshot of the lag, freshness and health of the pipeline of every tenant, and renders
+ * it for Prometheus.
+ *
+ * <p>Snapshots are refreshed in the background by the {@link MetricsCollectorService}, so REST
+ * handlers and scrapes only read memory.
+ */
+public class PipelineMetricsService {
+  private static final String METRIC_PREFIX = "logwise_";
+  // a snapshot older than two refresh periods means the collector is stalled
+  private static final long MAX_SNAPSHOT_AGE_MS =
+      TimeUnit.SECONDS.toMillis(
+          2L * ApplicationConstants.PIPELINE_METRICS_REFRESH_INTERVAL_SECONDS);
+
+  private final Cache<Tenant, Single<PipelineMetricsSnapshot>> snapshotCache;
+
+  @Inject
+  public PipelineMetricsService(Vertx vertx) {
+    this.snapshotCache = CaffeineCacheFactory.createCache(vertx, "pipeline-metrics-snapshot-cache");
+  }
+
+  public void putSnapshot(Tenant tenant, PipelineMetricsSnapshot snapshot) {
+    snapshotCache.put(tenant, Single.just(snapshot));
+  }
+
+  /** Returns the latest snapshot of the tenant, null before the first refresh. */
+  public PipelineMetricsSnapshot getSnapshot(Tenant tenant) {
+    Single<PipelineMetricsSnapshot> snapshot = snapshotCache.getIfPresent(tenant);
+    return snapshot == null ? null : snapshot.blockingGet();
+  }
+
+  /**
+   * Returns the snapshot of the tenant if it was refreshed recently, null otherwise so that callers
+   * fall back to sampling themselves.
+   */
+  public PipelineMetricsSnapshot getFreshSnapshot(Tenant tenant) {
+    PipelineMetricsSnapshot snapshot = getSnapshot(tenant);
+    return snapshot != null && isFresh(snapshot.getTimestamp()) ? snapshot : null;
+  }
+
+  /** Whether a value sampled at {@code timestamp} is recent enough to be served. */
+  public boolean isFresh(long timestamp) {
+    return System.currentTimeMillis() - timestamp <= MAX_SNAPSHOT_AGE_MS;
+  }
+
+  /** Renders the snapshots of all tenants in the Prometheus text format. */
+  public String getPrometheusMetrics() {
+    List<PipelineMetricsSnapshot> snapshots =
+        ApplicationConfigProvider.getApplicationConfig().getTenants().stream()
+            .map(tenantConfig -> getSnapshot(Tenant.fromValue(tenantConfig.getName())))
+            .filter(Objects::nonNull)
+            .collect(Collectors.toList());
+    return toPrometheusText(snapshots);
+  }
+
+  static String toPrometheusText(List<PipelineMetricsSnapshot> snapshots) {
+    StringBuilder builder = new StringBuilder();
+    appendPartitionGauge(
+        builder,
+        snapshots,
+        "kafka_end_offset",
+        "Latest offset of the Kafka partition.",
+        PartitionLagMetrics::getEndOffset);
+    appendPartitionGauge(
+        builder,
+        snapshots,
+        "spark_committed_offset",
+        "Offset of the Kafka partition in the latest batch committed by the Spark job.",
+        PartitionLagMetrics::getCommittedOffset);
+    appendPartitionGauge(
+        builder,
+        snapshots,
+        "kafka_lag_records",
+        "Records of the Kafka partition not yet read by the Spark job.",
+        PartitionLagMetrics::getLag);
+    appendPartitionGauge(
+        builder,
+        snapshots,
+        "kafka_lag_seconds",
+        "Estimated age of the oldest record of the Kafka partition not yet read by the Spark job.",
+        PartitionLagMetrics::getLagSeconds);
+
+    appendTopicGauge(
+        builder,
+        snapshots,
+        "kafka_topic_lag_records",
+        "Records of the Kafka topic not yet read by the Spark job.",
+        Collectors.summingDouble(PartitionLagMetrics::getLag));
+    appendTopicGauge(
+        builder,
+        snapshots,
+        "kafka_topic_lag_seconds",
+        "Estimated age of the oldest record of the Kafka topic not yet read by the Spark job.",
+        Collectors.reducing(
+            0D, PartitionLagMetrics::getLagSeconds, (left, right) -> Math.max(left, right)));
+
+    String lastWrite = METRIC_PREFIX + "service_last_write_timestamp_seconds";
+    PrometheusUtils.appendGauge(
+        builder, lastWrite, "End of the latest object store partition written for the service.");
+    for (PipelineMetricsSnapshot snapshot : snapshots) {
+      snapshot.getServiceLastWriteTimestamps().entrySet().stream()
+          .sorted(Map.Entry.comparingByKey())
+          .forEach(
+              entry ->
+                  PrometheusUtils.appendSample(
+                      builder,
+                      lastWrite,
+                      labels(snapshot, "service", entry.getKey()),
+                      entry.getValue()));
+    }
+
+    String refresh = METRIC_PREFIX + "pipeline_metrics_refresh_timestamp_seconds";
+    PrometheusUtils.appendGauge(builder, refresh, "Time of the latest refresh of these metrics.");
+    for (PipelineMetricsSnapshot snapshot : snapshots) {
+      PrometheusUtils.appendSample(
+          builder, refresh, labels(snapshot), snapshot.getTimestamp() / 1000D);
+    }
+    return builder.toString();
+  }
+
+  private static void appendPartitionGauge(
+      StringBuilder builder,
+      List<PipelineMetricsSnapshot> snapshots,
+      String name,
+      String help,
+      ToDoubleFunction<PartitionLagMetrics> value) {
+    PrometheusUtils.appendGauge(builder, METRIC_PREFIX + name, help);
+    for (PipelineMetricsSnapshot snapshot : snapshots) {
+      for (PartitionLagMetrics partitionLag : snapshot.getPartitionLags()) {
+        Map<String, String> labels = labels(snapshot, "topic", partitionLag.getTopic());
+        labels.put("partition", String.valueOf(partitionLag.getPartition()));
+        PrometheusUtils.appendSample(
+            builder, METRIC_PREFIX + name, labels, value.applyAsDouble(partitionLag));
+      }
+    }
+  }
+
+  private static void appendTopicGauge(
+      StringBuilder builder,
+      List<PipelineMetricsSnapshot> snapshots,
+      String name,
+      String help,
+      Collector<PartitionLagMetrics, ?, Double> aggregate) {
+    PrometheusUtils.appendGauge(builder, METRIC_PREFIX + name, help);
+    for (PipelineMetricsSnapshot snapshot : snapshots) {
+      snapshot.getPartitionLags().stream()
+          .collect(Collectors.groupingBy(PartitionLagMetrics::getTopic, TreeMap::new, aggregate))
+          .forEach(
+              (topic, value) ->
+                  PrometheusUtils.appendSample(
+                      builder, METRIC_PREFIX + name, labels(snapshot, "topic", topic), value));
+    }
+  }
+
+  private static Map<String, String> labels(PipelineMetricsSnapshot snapshot) {
+    Map<String, String> labels = new LinkedHashMap<>();
+    labels.put("tenant", snapshot.getTenant());
+    return labels;
+  }
+
+  private static Map<String, String> labels(
+      PipelineMetricsSnapshot snapshot, String name, String value) {
+    Map<String, String> labels = labels(snapshot);
+    labels.put(name, value);
+    return labels;
+  }
+}
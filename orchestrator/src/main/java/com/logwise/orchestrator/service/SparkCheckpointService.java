@@ -0,0 +1,255 @@
+package com.logwise.orchestrator.service;
+
+import static com.logwise.orchestrator.config.ApplicationConfig.TenantConfig;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.google.inject.Inject;
+import com.logwise.orchestrator.CaffeineCacheFactory;
+import com.logwise.orchestrator.client.ObjectStoreClient;
+import com.logwise.orchestrator.constant.ApplicationConstants;
+import com.logwise.orchestrator.dto.kafka.SparkCheckpointOffsets;
+import com.logwise.orchestrator.enums.Tenant;
+import com.logwise.orchestrator.factory.ObjectStoreFactory;
+import com.logwise.orchestrator.util.ApplicationConfigUtil;
+import com.logwise.orchestrator.util.SparkCheckpointUtils;
+import io.reactivex.Observable;
+import io.reactivex.Single;
+import io.vertx.reactivex.core.Vertx;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.kafka.common.TopicPartition;
+
+/**
+ * Reads the Kafka offsets of the latest committed batch from the checkpoints of the streaming
+ * queries: the default checkpoint and the {@code <checkpoint>-<group>} checkpoint of every Kafka
+ * topic group query.
+ *
+ * <p>The first read of a checkpoint lists its commits log. Later reads list the commits log only
+ * from the cached batch on, and read the offsets file of a batch once it is committed, so a refresh
+ * costs one small listing per checkpoint instead of listing the whole checkpoint prefix. The group
+ * checkpoints are found with one delimited listing per refresh.
+ */
+@Slf4j
+public class SparkCheckpointService {
+  private static final Pattern GROUP_NAME = Pattern.compile("[A-Za-z0-9_-]+");
+
+  // Tenant -> checkpoint path -> offsets of its latest committed batch
+  private final Cache<Tenant, Single<Map<String, SparkCheckpointOffsets>>> checkpointOffsetsCache;
+
+  @Inject
+  public SparkCheckpointService(Vertx vertx) {
+    this.checkpointOffsetsCache =
+        CaffeineCacheFactory.createCache(vertx, "spark-checkpoint-offsets-cache");
+  }
+
+  /**
+   * Returns the offsets of the latest committed batch of every query, reading only the batches
+   * committed since the previous call. The topic groups read disjoint topics, so their offsets are
+   * merged into one map.
+   *
+   * @param tenant Tenant whose checkpoints are read
+   * @return offsets of the latest committed batches, not available before the first committed batch
+   */
+  public Single<SparkCheckpointOffsets> getCheckpointOffsets(Tenant tenant) {
+    TenantConfig tenantConfig = ApplicationConfigUtil.getTenantConfig(tenant);
+    ObjectStoreClient objectStoreClient = ObjectStoreFactory.getClient(tenant);
+    String checkPointDir = tenantConfig.getSpark().getCheckPointDir();
+    Single<Map<String, SparkCheckpointOffsets>> cachedValue =
+        Optional.ofNullable(checkpointOffsetsCache.getIfPresent(tenant))
+            .orElse(Single.just(Collections.emptyMap()));
+
+    return cachedValue
+        .flatMap(
+            cached ->
+                listGroupCheckpointDirs(objectStoreClient, checkPointDir)
+                    .flatMap(
+                        groupCheckpointDirs ->
+                            Observable.concat(
+                                    Observable.just(checkPointDir),
+                                    Observable.fromIterable(groupCheckpointDirs))
+                                .concatMapSingle(
+                                    dir ->
+                                        getCheckpointOffsets(
+                                            objectStoreClient, dir, cached.get(dir)))
+                                .toList()))
+        .doOnSuccess(
+            checkpointOffsetsList ->
+                checkpointOffsetsCache.put(
+                    tenant,
+                    Single.just(
+                        checkpointOffsetsList.stream()
+                            .collect(
+                                Collectors.toMap(
+                                    SparkCheckpointOffsets::getCheckpointPath,
+                                    Function.identity())))))
+        .map(checkpointOffsetsList -> merge(checkPointDir, checkpointOffsetsList));
+  }
+
+  /** Drops the cached offsets, e.g. after the checkpoint of the tenant is deleted. */
+  public void invalidate(Tenant tenant) {
+    checkpointOffsetsCache.invalidate(tenant);
+  }
+
+  /** Lists the {@code <checkpoint>-<group>} checkpoints next to the default one. */
+  private Single<List<String>> listGroupCheckpointDirs(
+      ObjectStoreClient objectStoreClient, String checkPointDir) {
+    String groupPrefix = checkPointDir + "-";
+    return objectStoreClient
+        .listCommonPrefix(groupPrefix, "/")
+        .map(
+            prefixes ->
+                prefixes.stream()
+                    .map(
+                        prefix ->
+                            prefix.endsWith("/")
+                                ? prefix.substring(0, prefix.length() - 1)
+                                : prefix)
+                    .filter(
+                        dir ->
+                            dir.startsWith(groupPrefix)
+                                && GROUP_NAME
+                                    .matcher(dir.substring(groupPrefix.length()))
+                                    .matches())
+                    .sorted()
+                    .collect(Collectors.toList()));
+  }
+
+  private Single<SparkCheckpointOffsets> getCheckpointOffsets(
+      ObjectStoreClient objectStoreClient, String checkPointDir, SparkCheckpointOffsets cached) {
+    boolean incremental = cached != null && cached.isAvailable();
+
+    Single<Optional<Long>> latestBatchIdSingle =
+        !incremental
+            ? listLatestBatchId(objectStoreClient, checkPointDir)
+            : findLatestBatchIdFrom(objectStoreClient, checkPointDir, cached.getBatchId())
+                .flatMap(
+                    batchId ->
+                        batchId.isPresent()
+                            ? Single.just(batchId)
+                            : listLatestBatchId(objectStoreClient, checkPointDir));
+
+    return latestBatchIdSingle.flatMap(
+        latestBatchId -> {
+          if (latestBatchId.isEmpty()) {
+            return Single.just(
+                SparkCheckpointOffsets.builder()
+                    .checkpointPath(checkPointDir)
+                    .offsets(Collections.emptyMap())
+                    .available(false)
+                    .build());
+          }
+          if (incremental && latestBatchId.get().equals(cached.getBatchId())) {
+            return Single.just(cached);
+          }
+          return readCheckpointOffsets(objectStoreClient, checkPointDir, latestBatchId.get());
+        });
+  }
+
+  /**
+   * Merges the offsets of the default and the group checkpoints. Without groups the offsets of the
+   * default checkpoint are returned as they are; otherwise the batch id is the one of the default
+   * query.
+   */
+  private static SparkCheckpointOffsets merge(
+      String checkPointDir, List<SparkCheckpointOffsets> checkpointOffsetsList) {
+    if (checkpointOffsetsList.size() == 1) {
+      return checkpointOffsetsList.get(0);
+    }
+    Map<TopicPartition, Long> offsets = new HashMap<>();
+    checkpointOffsetsList.forEach(
+        checkpointOffsets -> offsets.putAll(checkpointOffsets.getOffsets()));
+    return SparkCheckpointOffsets.builder()
+        .checkpointPath(checkPointDir)
+        .batchId(checkpointOffsetsList.get(0).getBatchId())
+        .offsets(offsets)
+        .lastUpdatedTimestamp(
+            checkpointOffsetsList.stream()
+                .mapToLong(SparkCheckpointOffsets::getLastUpdatedTimestamp)
+                .max()
+                .orElse(0L))
+        .available(checkpointOffsetsList.stream().anyMatch(SparkCheckpointOffsets::isAvailable))
+        .build();
+  }
+
+  private Single<Optional<Long>> listLatestBatchId(
+      ObjectStoreClient objectStoreClient, String checkPointDir) {
+    return objectStoreClient
+        .listObjects(getLogDir(checkPointDir, ApplicationConstants.SPARK_CHECKPOINT_COMMITS_DIR))
+        .map(
+            keys ->
+                keys.stream()
+                    .map(SparkCheckpointUtils::getBatchId)
+                    .filter(Objects::nonNull)
+                    .max(Long::compare))
+        .doOnSuccess(
+            batchId -> log.info("Listed latest committed batch: {} in {}", batchId, checkPointDir));
+  }
+
+  /**
+   * Returns the latest batch committed since {@code batchId} with one listing of the commits log
+   * that starts after the key of the batch without its last digit, e.g. after {@code commits/1} for
+   * batch 12. Keys are listed in lexicographic order, so the listing holds the batch itself and
+   * every later batch with as many digits. Empty when the commits log has to be listed in full: the
+   * batch was purged, e.g. the checkpoint was recreated, or the query reached the last batch with
+   * as many digits, e.g. 99, whose successors sort before it.
+   */
+  private Single<Optional<Long>> findLatestBatchIdFrom(
+      ObjectStoreClient objectStoreClient, String checkPointDir, long batchId) {
+    String commitsDir = getLogDir(checkPointDir, ApplicationConstants.SPARK_CHECKPOINT_COMMITS_DIR);
+    String batchName = Long.toString(batchId);
+    String lastBatchName = "9".repeat(batchName.length());
+    return objectStoreClient
+        .listObjects(commitsDir, commitsDir + batchName.substring(0, batchName.length() - 1))
+        .map(
+            keys -> {
+              Set<String> batchNames =
+                  keys.stream()
+                      .map(key -> StringUtils.substringAfterLast(key, "/"))
+                      .collect(Collectors.toSet());
+              if (!batchNames.contains(batchName) || batchNames.contains(lastBatchName)) {
+                return Optional.empty();
+              }
+              return keys.stream()
+                  .map(SparkCheckpointUtils::getBatchId)
+                  .filter(Objects::nonNull)
+                  .max(Long::compare);
+            });
+  }
+
+  private Single<SparkCheckpointOffsets> readCheckpointOffsets(
+      ObjectStoreClient objectStoreClient, String checkPointDir, long batchId) {
+    return objectStoreClient
+        .readFileContent(
+            getLogDir(checkPointDir, ApplicationConstants.SPARK_CHECKPOINT_OFFSETS_DIR) + batchId)
+        .map(
+            content ->
+                SparkCheckpointOffsets.builder()
+                    .checkpointPath(checkPointDir)
+                    .batchId(batchId)
+                    .offsets(SparkCheckpointUtils.parseOffsets(content))
+                    .lastUpdatedTimestamp(System.currentTimeMillis())
+                    .available(true)
+                    .build())
+        .doOnSuccess(
+            checkpointOffsets ->
+                log.info(
+                    "Read offsets of {} partitions of batch: {} in {}",
+                    checkpointOffsets.getOffsets().size(),
+                    batchId,
+                    checkPointDir));
+  }
+
+  private static String getLogDir(String checkPointDir, String logName) {
+    return checkPointDir + "/" + logName + "/";
+  }
+}
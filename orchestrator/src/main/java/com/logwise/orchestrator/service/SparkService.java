@@ -15,6 +15,8 @@ import com.logwise.orchestrator.client.VMClient;
 import com.logwise.orchestrator.common.util.CompletableFutureUtils;
 import com.logwise.orchestrator.config.ApplicationConfig.KafkaConfig;
 import com.logwise.orchestrator.config.ApplicationConfig.SparkConfig;
+import com.logwise.orchestrator.config.ApplicationConfig.SparkKafkaConsumerConfig;
+import com.logwise.orchestrator.config.ApplicationConfig.SparkLagScalingConfig;
 import com.logwise.orchestrator.constant.ApplicationConstants;
 import com.logwise.orchestrator.dao.SparkScaleOverrideDao;
 import com.logwise.orchestrator.dao.SparkStageHistoryDao;
@@ -27,9 +29,11 @@ import com.logwise.orchestrator.dto.request.UpdateSparkScaleOverrideRequest;
 import com.logwise.orchestrator.dto.response.GetSparkStageHistoryResponse;
 import com.logwise.orchestrator.dto.response.SparkMasterJsonResponse;
 import com.logwise.orchestrator.dto.response.SparkMasterJsonResponse.Driver;
+import com.logwise.orchestrator.enums.PartitionGranularity;
 import com.logwise.orchestrator.enums.Tenant;
 import com.logwise.orchestrator.error.ServiceError;
 import com.logwise.orchestrator.factory.AsgFactory;
+import com.logwise.orchestrator.factory.KafkaClientFactory;
 import com.logwise.orchestrator.factory.KubernetesFactory;
 import com.logwise.orchestrator.factory.ObjectStoreFactory;
 import com.logwise.orchestrator.factory.VMFactory;
@@ -47,6 +51,7 @@ import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.kafka.common.TopicPartition;
 
 @Slf4j
 public class SparkService {
@@ -55,6 +60,8 @@ public class SparkService {
   private final SparkStageHistoryDao sparkStageHistoryDao;
   private final AsyncLoadingCache<String, SparkMasterJsonResponse> getSparkMasterJsonResponseCache;
   private final SparkScaleOverrideDao sparkScaleOverrideDao;
+  private final KafkaClientFactory kafkaClientFactory;
+  private final SparkCheckpointService sparkCheckpointService;
 
   @Inject
   public SparkService(
@@ -62,7 +69,9 @@ public class SparkService {
       WebClient webClient,
       ObjectMapper objectMapper,
       SparkStageHistoryDao sparkStageHistoryDao,
-      SparkScaleOverrideDao sparkScaleOverrideDao) {
+      SparkScaleOverrideDao sparkScaleOverrideDao,
+      KafkaClientFactory kafkaClientFactory,
+      SparkCheckpointService sparkCheckpointService) {
 
     this.webClient = webClient;
     this.objectMapper = objectMapper;
@@ -74,6 +83,29 @@ public class SparkService {
             this::getSparkMasterJsonResponse,
             ApplicationConstants.GET_SPARK_MASTER_JSON_RESPONSE_CACHE);
     this.sparkScaleOverrideDao = sparkScaleOverrideDao;
+    this.kafkaClientFactory = kafkaClientFactory;
+    this.sparkCheckpointService = sparkCheckpointService;
+  }
+
+  private static void addKafkaConsumerAppArgs(
+      List<String> appArgs, SparkKafkaConsumerConfig consumerConf) {
+    if (consumerConf == null) {
+      return;
+    }
+    Map<String, Object> consumerArgs = new LinkedHashMap<>();
+    consumerArgs.put("kafka.consumer.fetchMaxBytes", consumerConf.getFetchMaxBytes());
+    consumerArgs.put(
+        "kafka.consumer.maxPartitionFetchBytes", consumerConf.getMaxPartitionFetchBytes());
+    consumerArgs.put("kafka.consumer.fetchMinBytes", consumerConf.getFetchMinBytes());
+    consumerArgs.put("kafka.consumer.receiveBufferBytes", consumerConf.getReceiveBufferBytes());
+    consumerArgs.put("kafka.consumer.pollTimeoutMs", consumerConf.getPollTimeoutMs());
+    consumerArgs.put("kafka.minPartitions", consumerConf.getMinPartitions());
+    consumerArgs.forEach(
+        (key, value) -> {
+          if (value != null) {
+            appArgs.add(format("%s=%s", key, value));
+          }
+        });
   }
 
   private static SubmitSparkJobRequest getSparkSubmitRequestBody(
@@ -83,14 +115,39 @@ public class SparkService {
     KafkaConfig kafkaConf = tenantConfig.getKafka();
     String bucketName = tenantConfig.getObjectStore().getAws().getBucket();
     List<String> appArgs =
-        List.of(
-            format("kafka.cluster.dns=%s", kafkaConf.getKafkaBrokersHost()),
-            format("kafka.maxRatePerPartition=%s", sparkConf.getKafkaMaxRatePerPartition()),
-            format("kafka.startingOffsets=%s", sparkConf.getKafkaStartingOffsets()),
-            format("kafka.subscribePattern=\"%s\"", sparkConf.getSubscribePattern()),
-            format("spark.master.host=http://%s:8080", sparkConf.getSparkMasterHost()),
-            format("logCentral.orchestrator.url=%s", tenantConfig.getOrchestrator().getUrl()),
-            format("s3.bucket=%s", bucketName));
+        new ArrayList<>(
+            List.of(
+                format("kafka.cluster.dns=%s", kafkaConf.getKafkaBrokersHost()),
+                format("kafka.maxRatePerPartition=%s", sparkConf.getKafkaMaxRatePerPartition()),
+                format("kafka.startingOffsets=%s", sparkConf.getKafkaStartingOffsets()),
+                format("kafka.subscribePattern=\"%s\"", sparkConf.getSubscribePattern()),
+                format("spark.master.host=http://%s:8080", sparkConf.getSparkMasterHost()),
+                format("logCentral.orchestrator.url=%s", tenantConfig.getOrchestrator().getUrl()),
+                format("s3.bucket=%s", bucketName)));
+    if (sparkConf.getParquetCompressionCodec() != null) {
+      appArgs.add(
+          format("spark.parquet.compression.codec=%s", sparkConf.getParquetCompressionCodec()));
+    }
+    if (sparkConf.getPartitionGranularity() != null) {
+      appArgs.add(
+          format("s3.partition.granularity.default=%s", sparkConf.getPartitionGranularity()));
+    }
+    if (sparkConf.getSortByTimestamp() != null) {
+      appArgs.add(format("s3.sortByTimestamp.enable=%s", sparkConf.getSortByTimestamp()));
+    }
+    addKafkaConsumerAppArgs(appArgs, sparkConf.getKafkaConsumer());
+    sparkConf
+        .getServicePartitionGranularities()
+        .forEach(
+            service ->
+                appArgs.add(
+                    format(
+                        "s3.partition.granularity.services.\"%s\"=%s",
+                        service.getServiceName(), service.getGranularity())));
+    sparkConf
+        .getSortByTimestampServices()
+        .forEach(
+            service -> appArgs.add(format("s3.sortByTimestamp.services.\"%s\"=true", service)));
 
     String extraJavaOptions =
         format(
@@ -329,8 +386,7 @@ public class SparkService {
         objectStoreClient.listObjects(
             format(
                 "%s/%s/",
-                tenantConfig.getSpark().getLogsDir(),
-                ApplicationConstants.SPARK_METADATA_FILE_NAME));
+                getFileSinkLogsDir(tenantConfig), ApplicationConstants.SPARK_METADATA_FILE_NAME));
 
     return Single.zip(
             checkPointFilesSingle,
@@ -351,6 +407,7 @@ public class SparkService {
                           log.error("Error occurred while deleting checkpoint files", e);
                           return Completable.error(e);
                         }))
+        .doOnComplete(() -> sparkCheckpointService.invalidate(tenant))
         .doOnError(e -> log.error("Error occurred while deleting S3Objects", e));
   }
 
@@ -435,33 +492,27 @@ public class SparkService {
     Single<List<SparkStageHistory>> stageHistoryListSingle =
         sparkStageHistoryDao.getSparkStageHistory(
             tenant, ApplicationConstants.SPARK_HISTORY_MONITOR_COUNT, true);
-    Single<List<String>> walFileListSingle = getWalFileList(tenant);
     Single<Integer> actualWorkersSingle = getActualSparkWorkers(tenant);
 
     Single<SparkScaleArgs> sparkScaleArgsSingle =
-        Single.zip(
-            stageHistoryListSingle,
-            walFileListSingle,
-            (stageHistoryList, walFileList) -> {
-              Collections.sort(stageHistoryList);
-              String latestWalFile = getLatestWalFile(walFileList);
-              if (!StringUtils.isNumeric(latestWalFile)) {
-                log.info("Ignoring spark scaling as latest WAL file is compacted.");
-                throw new RestException(
-                    ServiceError.IGNORE_SPARK_SCALING.format("Latest WAL file is compacted"));
-              }
-              int latestWafFileNumber = Integer.parseInt(latestWalFile);
-              double bufferFactor = latestWafFileNumber % 10 >= 7 ? 0.5 : 0;
-              Integer expectedWorkerCount =
-                  getExpectedExecutorCount(stageHistoryList, bufferFactor, tenantConfig);
-              return SparkScaleArgs.builder()
-                  .minWorkerCount(tenantConfig.getSpark().getMinWorkerCount())
-                  .maxWorkerCount(tenantConfig.getSpark().getMaxWorkerCount())
-                  .workerCount(expectedWorkerCount)
-                  .enableDownscale(enableDownScale && latestWafFileNumber % 10 != 8)
-                  .enableUpscale(enableUpScale)
-                  .build();
-            });
+        Boolean.TRUE.equals(tenantConfig.getSpark().getLagScaling().getEnabled())
+            ? getLagScaleArgs(
+                    tenant, tenantConfig, stageHistoryListSingle, enableUpScale, enableDownScale)
+                .onErrorResumeNext(
+                    error -> {
+                      log.error(
+                          "Error in lag based scaling for tenant: {}, using WAL files",
+                          tenant.getValue(),
+                          error);
+                      return getWalScaleArgs(
+                          tenant,
+                          tenantConfig,
+                          stageHistoryListSingle,
+                          enableUpScale,
+                          enableDownScale);
+                    })
+            : getWalScaleArgs(
+                tenant, tenantConfig, stageHistoryListSingle, enableUpScale, enableDownScale);
 
     return Single.zip(
             actualWorkersSingle,
@@ -472,6 +523,95 @@ public class SparkService {
         .ignoreElement();
   }
 
+  /** Sizes workers from the largest recent batch, with a buffer ahead of WAL compaction. */
+  private Single<SparkScaleArgs> getWalScaleArgs(
+      Tenant tenant,
+      TenantConfig tenantConfig,
+      Single<List<SparkStageHistory>> stageHistoryListSingle,
+      boolean enableUpScale,
+      boolean enableDownScale) {
+    Single<List<String>> walFileListSingle = getWalFileList(tenant);
+    return Single.zip(
+        stageHistoryListSingle,
+        walFileListSingle,
+        (stageHistoryList, walFileList) -> {
+          Collections.sort(stageHistoryList);
+          String latestWalFile = getLatestWalFile(walFileList);
+          if (!StringUtils.isNumeric(latestWalFile)) {
+            log.info("Ignoring spark scaling as latest WAL file is compacted.");
+            throw new RestException(
+                ServiceError.IGNORE_SPARK_SCALING.format("Latest WAL file is compacted"));
+          }
+          int latestWafFileNumber = Integer.parseInt(latestWalFile);
+          double bufferFactor = latestWafFileNumber % 10 >= 7 ? 0.5 : 0;
+          Integer expectedWorkerCount =
+              getExpectedExecutorCount(stageHistoryList, bufferFactor, tenantConfig);
+          return SparkScaleArgs.builder()
+              .minWorkerCount(tenantConfig.getSpark().getMinWorkerCount())
+              .maxWorkerCount(tenantConfig.getSpark().getMaxWorkerCount())
+              .workerCount(expectedWorkerCount)
+              .enableDownscale(enableDownScale && latestWafFileNumber % 10 != 8)
+              .enableUpscale(enableUpScale)
+              .build();
+        });
+  }
+
+  /** Sizes workers to keep up with the largest recent batch and drain the Kafka lag in the SLA. */
+  private Single<SparkScaleArgs> getLagScaleArgs(
+      Tenant tenant,
+      TenantConfig tenantConfig,
+      Single<List<SparkStageHistory>> stageHistoryListSingle,
+      boolean enableUpScale,
+      boolean enableDownScale) {
+    return Single.zip(
+        stageHistoryListSingle,
+        getKafkaLag(tenant),
+        (stageHistoryList, lag) -> {
+          Collections.sort(stageHistoryList);
+          return SparkScaleArgs.builder()
+              .minWorkerCount(tenantConfig.getSpark().getMinWorkerCount())
+              .maxWorkerCount(tenantConfig.getSpark().getMaxWorkerCount())
+              .workerCount(getLagExpectedExecutorCount(stageHistoryList, lag, tenantConfig))
+              .enableDownscale(enableDownScale)
+              .enableUpscale(enableUpScale)
+              .build();
+        });
+  }
+
+  /**
+   * Returns the records the streaming queries have yet to read: the end offsets of the checkpointed
+   * partitions minus the offsets of the latest committed batches.
+   */
+  private Single<Long> getKafkaLag(Tenant tenant) {
+    TenantConfig tenantConfig = ApplicationConfigUtil.getTenantConfig(tenant);
+    return sparkCheckpointService
+        .getCheckpointOffsets(tenant)
+        .flatMap(
+            checkpointOffsets -> {
+              if (!checkpointOffsets.isAvailable()) {
+                return Single.error(
+                    new RestException(
+                        ServiceError.IGNORE_SPARK_SCALING.format(
+                            "No committed batch in " + checkpointOffsets.getCheckpointPath())));
+              }
+              Map<TopicPartition, Long> committed = checkpointOffsets.getOffsets();
+              return kafkaClientFactory
+                  .getKafkaClient(tenant)
+                  .getEndOffsets(new ArrayList<>(committed.keySet()))
+                  .map(
+                      endOffsets ->
+                          endOffsets.entrySet().stream()
+                              .filter(entry -> committed.containsKey(entry.getKey()))
+                              .mapToLong(
+                                  entry ->
+                                      Math.max(
+                                          0L, entry.getValue() - committed.get(entry.getKey())))
+                              .sum())
+                  .doOnSuccess(
+                      lag -> log.info("Kafka lag: {} for tenant: {}", lag, tenant.getValue()));
+            });
+  }
+
   public Completable updateSparkScaleOverride(
       Tenant tenant, UpdateSparkScaleOverrideRequest request) {
     SparkScaleOverride sparkScaleOverride =
@@ -645,13 +785,17 @@ public class SparkService {
     return Completable.complete();
   }
 
+  /** The file sink writes every service, and its metadata log, with the default granularity. */
+  private static String getFileSinkLogsDir(TenantConfig tenantConfig) {
+    return PartitionGranularity.fromValue(tenantConfig.getSpark().getPartitionGranularity())
+        .getLogsDir(tenantConfig.getSpark().getLogsDir());
+  }
+
   private Single<List<String>> getWalFileList(Tenant tenant) {
     TenantConfig tenantConfig = ApplicationConfigUtil.getTenantConfig(tenant);
     return ObjectStoreFactory.getClient(tenant)
         .listObjects(
-            tenantConfig.getSpark().getLogsDir()
-                + "/"
-                + ApplicationConstants.SPARK_METADATA_FILE_NAME)
+            getFileSinkLogsDir(tenantConfig) + "/" + ApplicationConstants.SPARK_METADATA_FILE_NAME)
         .map(
             keys ->
                 keys.stream()
@@ -718,6 +862,40 @@ public class SparkService {
     return getWorkersFromCores(expectedExecutorCores, tenantConfig);
   }
 
+  private Integer getLagExpectedExecutorCount(
+      List<SparkStageHistory> stageHistoryList, long lag, TenantConfig tenantConfig) {
+    if (stageHistoryList.size() < ApplicationConstants.SPARK_HISTORY_MONITOR_COUNT) {
+      log.info(
+          "Not enough stageHistoryList to calculate expectedWorkersCount: {}", stageHistoryList);
+      return null;
+    }
+
+    long maxInputRecords =
+        stageHistoryList.stream().mapToLong(SparkStageHistory::getInputRecords).max().orElse(0);
+    SparkLagScalingConfig lagScaling = tenantConfig.getSpark().getLagScaling();
+    long drainRecordsPerBatch =
+        (long)
+            Math.ceil(
+                (double) lag
+                    * lagScaling.getBatchIntervalSeconds()
+                    / lagScaling.getDrainSlaSeconds());
+    long expectedInputRecords = maxInputRecords + drainRecordsPerBatch;
+    log.info(
+        "Max Input Records: {} lag: {} drained per batch: {} expected InputRecords: {}",
+        maxInputRecords,
+        lag,
+        drainRecordsPerBatch,
+        expectedInputRecords);
+
+    int expectedExecutorCores =
+        (int)
+            Math.ceil(
+                (double) expectedInputRecords / tenantConfig.getSpark().getPerCoreLogsProcess());
+    log.info("Expected Executor Cores: {}", expectedExecutorCores);
+
+    return getWorkersFromCores(expectedExecutorCores, tenantConfig);
+  }
+
   public Single<GetSparkStageHistoryResponse> getSparkStageHistory(Tenant tenant, int limit) {
     return sparkStageHistoryDao
         .getSparkStageHistory(tenant, limit, false)
@@ -0,0 +1,53 @@
+package com.logwise.orchestrator.util;
+
+import java.util.Map;
+import lombok.experimental.UtilityClass;
+
+/**
+ * Writes metrics in the Prometheus text exposition format.
+ *
+ * <p>Ref: <a href="https://prometheus.io/docs/instrumenting/exposition_formats/">Exposition
+ * formats</a>
+ */
+@UtilityClass
+public class PrometheusUtils {
+  public final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+  /** Appends the HELP and TYPE lines of a gauge, written once before its samples. */
+  public void appendGauge(StringBuilder builder, String name, String help) {
+    builder.append("# HELP ").append(name).append(' ').append(help).append('\n');
+    builder.append("# TYPE ").append(name).append(" gauge\n");
+  }
+
+  /** Appends one sample of a metric, labels in the iteration order of the map. */
+  public void appendSample(
+      StringBuilder builder, String name, Map<String, String> labels, double value) {
+    builder.append(name);
+    if (!labels.isEmpty()) {
+      builder.append('{');
+      String separator = "";
+      for (Map.Entry<String, String> label : labels.entrySet()) {
+        builder
+            .append(separator)
+            .append(label.getKey())
+            .append("=\"")
+            .append(escapeLabelValue(label.getValue()))
+            .append('"');
+        separator = ",";
+      }
+      builder.append('}');
+    }
+    builder.append(' ').append(formatValue(value)).append('\n');
+  }
+
+  private String escapeLabelValue(String value) {
+    return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+  }
+
+  private String formatValue(double value) {
+    if (value == Math.rint(value) && !Double.isInfinite(value) && Math.abs(value) < 1e15) {
+      return Long.toString((long) value);
+    }
+    return Double.toString(value);
+  }
+}
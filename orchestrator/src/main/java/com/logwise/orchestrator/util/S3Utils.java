@@ -36,10 +36,19 @@ public class S3Utils {
 
   public Single<List<String>> listObjects(
       S3AsyncClient s3AsyncClient, S3Config s3Config, String prefix) {
+    return listObjects(s3AsyncClient, s3Config, prefix, null);
+  }
+
+  public Single<List<String>> listObjects(
+      S3AsyncClient s3AsyncClient, S3Config s3Config, String prefix, String startAfter) {
     String bucketName = s3Config.getBucket();
     List<String> objectKeys = Collections.synchronizedList(new ArrayList<>());
     ListObjectsV2Request listRequest =
-        ListObjectsV2Request.builder().bucket(bucketName).prefix(prefix).build();
+        ListObjectsV2Request.builder()
+            .bucket(bucketName)
+            .prefix(prefix)
+            .startAfter(startAfter)
+            .build();
     ListObjectsV2Publisher publisher = s3AsyncClient.listObjectsV2Paginator(listRequest);
     return CompletableFutureUtils.toSingle(
             publisher.contents().subscribe(s3Object -> objectKeys.add(s3Object.key())))
@@ -0,0 +1,50 @@
+package com.logwise.orchestrator.util;
+
+import io.vertx.core.json.JsonObject;
+import java.util.HashMap;
+import java.util.Map;
+import lombok.experimental.UtilityClass;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.kafka.common.TopicPartition;
+
+/**
+ * Reads the offsets log of a Spark streaming checkpoint. A file of {@code offsets/<batchId>} holds
+ * a version line, a batch metadata line and one line per source with its offsets, as {@code
+ * {"topic":{"partition":offset}}} for Kafka.
+ */
+@UtilityClass
+public class SparkCheckpointUtils {
+
+  /** Returns the batch id of a file of the offsets or commits log, or null for other files. */
+  public Long getBatchId(String objectKey) {
+    String fileName = StringUtils.substringAfterLast(objectKey, "/");
+    return StringUtils.isNumeric(fileName) ? Long.parseLong(fileName) : null;
+  }
+
+  /**
+   * Parses the Kafka offsets of a file of the offsets log.
+   *
+   * @param content content of the file
+   * @return offset of each topic partition, the offset the next batch starts from
+   */
+  public Map<TopicPartition, Long> parseOffsets(String content) {
+    Map<TopicPartition, Long> offsets = new HashMap<>();
+    String[] lines = content.split("\n");
+    for (int i = 2; i < lines.length; i++) {
+      String line = lines[i].trim();
+      if (!line.startsWith("{")) {
+        continue;
+      }
+      JsonObject topics = new JsonObject(line);
+      for (String topic : topics.fieldNames()) {
+        JsonObject partitions = topics.getJsonObject(topic);
+        for (String partition : partitions.fieldNames()) {
+          offsets.put(
+              new TopicPartition(topic, Integer.parseInt(partition)),
+              partitions.getLong(partition));
+        }
+      }
+    }
+    return offsets;
+  }
+}
@@ -0,0 +1,68 @@
+package com.logwise.orchestrator.verticle;
+
+import com.google.inject.Inject;
+import com.logwise.orchestrator.config.ApplicationConfigProvider;
+import com.logwise.orchestrator.constant.ApplicationConstants;
+import com.logwise.orchestrator.enums.Tenant;
+import com.logwise.orchestrator.service.MetricsCollectorService;
+import io.reactivex.Completable;
+import io.reactivex.Observable;
+import io.vertx.reactivex.core.AbstractVerticle;
+import java.util.concurrent.TimeUnit;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.NonFinal;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Refreshes the pipeline metrics snapshot of every tenant in the background. Deployed with a single
+ * instance so each refresh samples Kafka, the Spark master and the object store once, whatever the
+ * number of REST verticles and callers served from the snapshot.
+ */
+@Slf4j
+@RequiredArgsConstructor(onConstructor = @__({@Inject}))
+public class MetricsCollectorVerticle extends AbstractVerticle {
+
+  private final MetricsCollectorService metricsCollectorService;
+  @NonFinal private long timerId = -1;
+  @NonFinal private boolean refreshing;
+
+  @Override
+  public Completable rxStart() {
+    timerId =
+        vertx.setPeriodic(
+            TimeUnit.SECONDS.toMillis(
+                ApplicationConstants.PIPELINE_METRICS_REFRESH_INTERVAL_SECONDS),
+            id -> refreshSnapshots());
+    return Completable.complete();
+  }
+
+  void refreshSnapshots() {
+    if (refreshing) {
+      log.warn("Previous pipeline metrics refresh still running, skipping this one");
+      return;
+    }
+    refreshing = true;
+    Observable.fromIterable(ApplicationConfigProvider.getApplicationConfig().getTenants())
+        .flatMapCompletable(
+            tenantConfig ->
+                metricsCollectorService
+                    .refreshSnapshot(Tenant.fromValue(tenantConfig.getName()))
+                    .doOnError(
+                        error ->
+                            log.error(
+                                "Error in refreshing pipeline metrics of tenant: {}",
+                                tenantConfig.getName(),
+                                error))
+                    .onErrorComplete())
+        .doFinally(() -> refreshing = false)
+        .subscribe();
+  }
+
+  @Override
+  public Completable rxStop() {
+    if (timerId != -1) {
+      vertx.cancelTimer(timerId);
+    }
+    return Completable.complete();
+  }
+}
@@ -27,11 +27,13 @@ public class DtoTest {
   @Test
   public void testServiceDetails_AllArgsConstructor_CreatesInstance() {
 
-    ServiceDetails details = new ServiceDetails("service1", 30, "tenant1");
+    ServiceDetails details = new ServiceDetails("service1", 30, "tenant1", 1, 0L);
 
     Assert.assertEquals(details.getServiceName(), "service1");
     Assert.assertEquals(details.getRetentionDays(), Integer.valueOf(30));
     Assert.assertEquals(details.getTenant(), "tenant1");
+    Assert.assertEquals(details.getIngestionWeight(), Integer.valueOf(1));
+    Assert.assertEquals(details.getMinOffsetsPerTrigger(), Long.valueOf(0L));
   }
 
   @Test
@@ -52,8 +54,8 @@ public class DtoTest {
   @Test
   public void testServiceDetails_Equals_WithSameValues_ReturnsTrue() {
 
-    ServiceDetails details1 = new ServiceDetails("service1", 30, "tenant1");
-    ServiceDetails details2 = new ServiceDetails("service1", 30, "tenant1");
+    ServiceDetails details1 = new ServiceDetails("service1", 30, "tenant1", 1, 0L);
+    ServiceDetails details2 = new ServiceDetails("service1", 30, "tenant1", 1, 0L);
 
     Assert.assertTrue(details1.equals(details2));
   }
@@ -61,8 +63,8 @@ public class DtoTest {
   @Test
   public void testServiceDetails_Equals_WithDifferentServiceName_ReturnsFalse() {
 
-    ServiceDetails details1 = new ServiceDetails("service1", 30, "tenant1");
-    ServiceDetails details2 = new ServiceDetails("service2", 30, "tenant1");
+    ServiceDetails details1 = new ServiceDetails("service1", 30, "tenant1", 1, 0L);
+    ServiceDetails details2 = new ServiceDetails("service2", 30, "tenant1", 1, 0L);
 
     Assert.assertFalse(details1.equals(details2));
   }
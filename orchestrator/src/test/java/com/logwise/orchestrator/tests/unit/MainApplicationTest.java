@@ -8,6 +8,7 @@ import com.logwise.orchestrator.config.ApplicationConfigProvider;
 import com.logwise.orchestrator.module.ClientModule;
 import com.logwise.orchestrator.module.MainModule;
 import com.logwise.orchestrator.setup.BaseTest;
+import com.logwise.orchestrator.verticle.MetricsCollectorVerticle;
 import com.logwise.orchestrator.verticle.RestVerticle;
 import io.vertx.reactivex.core.Vertx;
 import org.mockito.MockedStatic;
@@ -86,8 +87,10 @@ public class MainApplicationTest extends BaseTest {
       Deployable[] deployables = (Deployable[]) method.invoke(app, vertx);
 
       Assert.assertNotNull(deployables);
-      Assert.assertEquals(deployables.length, 1);
+      Assert.assertEquals(deployables.length, 2);
       Assert.assertEquals(deployables[0].getVerticleClass(), RestVerticle.class);
+      Assert.assertEquals(deployables[1].getVerticleClass(), MetricsCollectorVerticle.class);
+      Assert.assertEquals(deployables[1].getConfig().getInstances(), 1);
     }
   }
 
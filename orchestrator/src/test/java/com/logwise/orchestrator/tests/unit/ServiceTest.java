@@ -20,10 +20,13 @@ import com.logwise.orchestrator.dto.response.GetServiceDetailsResponse;
 import com.logwise.orchestrator.dto.response.LogSyncDelayResponse;
 import com.logwise.orchestrator.dto.response.SparkMasterJsonResponse;
 import com.logwise.orchestrator.enums.Tenant;
+import com.logwise.orchestrator.factory.KafkaClientFactory;
 import com.logwise.orchestrator.factory.ObjectStoreFactory;
 import com.logwise.orchestrator.service.MetricsService;
 import com.logwise.orchestrator.service.ObjectStoreService;
+import com.logwise.orchestrator.service.PipelineMetricsService;
 import com.logwise.orchestrator.service.ServiceManagerService;
+import com.logwise.orchestrator.service.SparkCheckpointService;
 import com.logwise.orchestrator.service.SparkService;
 import com.logwise.orchestrator.setup.BaseTest;
 import com.logwise.orchestrator.testconfig.ApplicationTestConfig;
@@ -70,6 +73,8 @@ public class ServiceTest extends BaseTest {
   private ApplicationConfig.KafkaConfig mockKafkaConfig;
   private SparkStageHistoryDao mockSparkStageHistoryDao;
   private SparkScaleOverrideDao mockSparkScaleOverrideDao;
+  private KafkaClientFactory mockKafkaClientFactory;
+  private SparkCheckpointService mockSparkCheckpointService;
 
   @Mock private ServicesDao mockServicesDaoForManager;
   @Mock private ObjectStoreService mockObjectStoreServiceForManager;
@@ -108,6 +113,8 @@ public class ServiceTest extends BaseTest {
     mockKafkaConfig = mock(ApplicationConfig.KafkaConfig.class);
     mockSparkStageHistoryDao = mock(SparkStageHistoryDao.class);
     mockSparkScaleOverrideDao = mock(SparkScaleOverrideDao.class);
+    mockKafkaClientFactory = mock(KafkaClientFactory.class);
+    mockSparkCheckpointService = mock(SparkCheckpointService.class);
     doReturn(mockVertxWebClient).when(mockWebClient).getWebClient();
     when(mockTenantConfig.getKafka()).thenReturn(mockKafkaConfig);
 
@@ -123,7 +130,9 @@ public class ServiceTest extends BaseTest {
             mockWebClient,
             mockObjectMapper,
             mockSparkStageHistoryDao,
-            mockSparkScaleOverrideDao);
+            mockSparkScaleOverrideDao,
+            mockKafkaClientFactory,
+            mockSparkCheckpointService);
 
     try (MockedStatic<CaffeineCacheFactory> mockedFactory =
         Mockito.mockStatic(CaffeineCacheFactory.class)) {
@@ -138,7 +147,7 @@ public class ServiceTest extends BaseTest {
               vertx, mockServicesDaoForManager, mockObjectStoreServiceForManager);
     }
 
-    metricsService = new MetricsService();
+    metricsService = new MetricsService(mock(PipelineMetricsService.class));
     mockDelayMetricsConfig = mock(ApplicationConfig.DelayMetricsConfig.class);
     mockAppDelayMetricsConfig = mock(ApplicationConfig.ApplicationDelayMetricsConfig.class);
     when(mockTenantConfig.getDelayMetrics()).thenReturn(mockDelayMetricsConfig);
@@ -181,6 +190,9 @@ public class ServiceTest extends BaseTest {
       lenient()
           .when(mockObjectStoreClient.listCommonPrefix("logs/service_name=", "/"))
           .thenReturn(Single.just(servicePrefixes));
+      lenient()
+          .when(mockObjectStoreClient.listCommonPrefix("logs-hourly/service_name=", "/"))
+          .thenReturn(Single.just(Collections.emptyList()));
 
       mockedUtils
           .when(() -> ApplicationUtils.getServiceFromObjectKey(servicePrefixes.get(0)))
@@ -223,6 +235,9 @@ public class ServiceTest extends BaseTest {
       lenient()
           .when(mockObjectStoreClient.listCommonPrefix("logs/service_name=", "/"))
           .thenReturn(Single.just(Collections.emptyList()));
+      lenient()
+          .when(mockObjectStoreClient.listCommonPrefix("logs-hourly/service_name=", "/"))
+          .thenReturn(Single.just(Collections.emptyList()));
 
       Single<List<ServiceDetails>> result = objectStoreService.getAllDistinctServicesInAws(tenant);
       List<ServiceDetails> services = result.blockingGet();
@@ -105,6 +105,27 @@ public class ObjectStoreAwsImplTest extends BaseTest {
     }
   }
 
+  @Test
+  public void testListObjects_WithStartAfter_ReturnsLaterObjects() {
+    ApplicationConfig.ObjectStoreConfig config =
+        ApplicationTestConfig.createMockObjectStoreConfig();
+    objectStoreAwsImpl.rxConnect(config).blockingAwait();
+
+    String prefix = "checkpoint/commits/";
+    List<String> expectedObjects = Arrays.asList("checkpoint/commits/12", "checkpoint/commits/13");
+
+    try (MockedStatic<S3Utils> mockedS3Utils = Mockito.mockStatic(S3Utils.class)) {
+      mockedS3Utils
+          .when(() -> S3Utils.listObjects(any(), any(), eq(prefix), eq("checkpoint/commits/1")))
+          .thenReturn(Single.just(expectedObjects));
+
+      List<String> objects =
+          objectStoreAwsImpl.listObjects(prefix, "checkpoint/commits/1").blockingGet();
+
+      Assert.assertEquals(objects, expectedObjects);
+    }
+  }
+
   @Test
   public void testDeleteFile_WithValidObjectKey_CompletesSuccessfully() {
     ApplicationConfig.ObjectStoreConfig config =
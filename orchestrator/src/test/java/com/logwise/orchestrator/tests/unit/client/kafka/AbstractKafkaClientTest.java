@@ -16,16 +16,23 @@ import java.util.*;
 import java.util.concurrent.ExecutionException;
 import org.apache.kafka.clients.admin.AdminClient;
 import org.apache.kafka.clients.admin.DescribeTopicsResult;
+import org.apache.kafka.clients.admin.ListOffsetsResult;
+import org.apache.kafka.clients.admin.ListOffsetsResult.ListOffsetsResultInfo;
 import org.apache.kafka.clients.admin.TopicDescription;
 import org.apache.kafka.common.KafkaFuture;
 import org.apache.kafka.common.TopicPartition;
 import org.apache.kafka.common.TopicPartitionInfo;
+import org.apache.kafka.common.errors.InvalidTopicException;
+import org.apache.kafka.common.errors.LeaderNotAvailableException;
+import org.apache.kafka.common.errors.NetworkException;
+import org.apache.kafka.common.errors.TimeoutException;
+import org.apache.kafka.common.internals.KafkaFutureImpl;
 import org.mockito.MockedStatic;
 import org.mockito.Mockito;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
-/** Unit tests for AbstractKafkaClient.getEndOffsetSum method. */
+/** Unit tests for AbstractKafkaClient. */
 @SuppressWarnings({"unchecked", "deprecation"})
 public class AbstractKafkaClientTest extends BaseTest {
 
@@ -114,15 +121,13 @@ public class AbstractKafkaClientTest extends BaseTest {
     when(mockDescribeResult.all()).thenReturn(kafkaFuture);
     when(mockAdminClient.describeTopics(topics)).thenReturn(mockDescribeResult);
 
-    // Mock getEndOffsets - will be called separately for each topic
-    Map<TopicPartition, Long> topic1Offsets = new HashMap<>();
-    topic1Offsets.put(new TopicPartition("topic1", 0), 50L);
-    topic1Offsets.put(new TopicPartition("topic1", 1), 150L);
-
-    Map<TopicPartition, Long> topic2Offsets = new HashMap<>();
-    topic2Offsets.put(new TopicPartition("topic2", 0), 100L);
-    topic2Offsets.put(new TopicPartition("topic2", 1), 200L);
-    topic2Offsets.put(new TopicPartition("topic2", 2), 300L);
+    // Mock getEndOffsets - called once for the partitions of all topics
+    Map<TopicPartition, Long> endOffsets = new HashMap<>();
+    endOffsets.put(new TopicPartition("topic1", 0), 50L);
+    endOffsets.put(new TopicPartition("topic1", 1), 150L);
+    endOffsets.put(new TopicPartition("topic2", 0), 100L);
+    endOffsets.put(new TopicPartition("topic2", 1), 200L);
+    endOffsets.put(new TopicPartition("topic2", 2), 300L);
 
     try (MockedStatic<ApplicationUtils> mockedUtils = Mockito.mockStatic(ApplicationUtils.class)) {
       List<String> mockIPs = Arrays.asList("192.168.1.1");
@@ -133,23 +138,7 @@ public class AbstractKafkaClientTest extends BaseTest {
       AbstractKafkaClient spyClient = spy(ec2KafkaClient);
       // Mock createAdminClient to return our mocked adminClient
       when(spyClient.createAdminClient()).thenReturn(Single.just(mockAdminClient));
-      // Mock getEndOffsets to return different results based on topic
-      when(spyClient.getEndOffsets(
-              argThat(
-                  list -> {
-                    if (list == null || list.isEmpty()) return false;
-                    TopicPartition tp = (TopicPartition) list.get(0);
-                    return tp != null && "topic1".equals(tp.topic());
-                  })))
-          .thenReturn(Single.just(topic1Offsets));
-      when(spyClient.getEndOffsets(
-              argThat(
-                  list -> {
-                    if (list == null || list.isEmpty()) return false;
-                    TopicPartition tp = (TopicPartition) list.get(0);
-                    return tp != null && "topic2".equals(tp.topic());
-                  })))
-          .thenReturn(Single.just(topic2Offsets));
+      when(spyClient.getEndOffsets(anyList())).thenReturn(Single.just(endOffsets));
 
       // Execute
       Map<String, TopicOffsetInfo> result = spyClient.getEndOffsetSum(topics).blockingGet();
@@ -170,6 +159,7 @@ public class AbstractKafkaClientTest extends BaseTest {
 
       // Verify that adminClient.describeTopics was called
       verify(mockAdminClient, times(1)).describeTopics(topics);
+      verify(spyClient, times(1)).getEndOffsets(argThat(list -> list.size() == 5));
     }
   }
 
@@ -494,6 +484,155 @@ public class AbstractKafkaClientTest extends BaseTest {
     }
   }
 
+  @Test
+  public void testCreateAdminClient_CalledTwice_BuildsOneAdminClient() {
+    Ec2KafkaClient spyClient = spy(ec2KafkaClient);
+    Map<String, Object> config = new HashMap<>();
+    doReturn(Single.just(config)).when(spyClient).buildAdminClientConfig();
+
+    try (MockedStatic<AdminClient> mockedAdminClient = Mockito.mockStatic(AdminClient.class)) {
+      mockedAdminClient.when(() -> AdminClient.create(config)).thenReturn(mockAdminClient);
+
+      assertSame(spyClient.createAdminClient().blockingGet(), mockAdminClient);
+      assertSame(spyClient.createAdminClient().blockingGet(), mockAdminClient);
+
+      mockedAdminClient.verify(() -> AdminClient.create(config), times(1));
+      verify(spyClient, times(1)).buildAdminClientConfig();
+      assertTrue(spyClient.isHealthy());
+    }
+  }
+
+  @Test
+  public void testGetEndOffsetSum_WithTimeout_MarksClientUnhealthy() {
+    List<String> topics = Arrays.asList("test-topic");
+    DescribeTopicsResult mockDescribeResult = mock(DescribeTopicsResult.class);
+    KafkaFuture<Map<String, TopicDescription>> kafkaFuture =
+        createMockKafkaFutureWithException(
+            new ExecutionException(new TimeoutException("Timed out waiting for a node")));
+    when(mockDescribeResult.all()).thenReturn(kafkaFuture);
+    when(mockAdminClient.describeTopics(topics)).thenReturn(mockDescribeResult);
+    AbstractKafkaClient spyClient = spy(ec2KafkaClient);
+    doReturn(Single.just(mockAdminClient)).when(spyClient).createAdminClient();
+
+    spyClient.getEndOffsetSum(topics).test().assertError(ExecutionException.class);
+
+    assertFalse(spyClient.isHealthy());
+  }
+
+  @Test
+  public void testGetEndOffsetSum_WithRequestError_KeepsClientHealthy() {
+    List<String> topics = Arrays.asList("test-topic");
+    DescribeTopicsResult mockDescribeResult = mock(DescribeTopicsResult.class);
+    KafkaFuture<Map<String, TopicDescription>> kafkaFuture =
+        createMockKafkaFutureWithException(
+            new ExecutionException(new InvalidTopicException("Invalid topic")));
+    when(mockDescribeResult.all()).thenReturn(kafkaFuture);
+    when(mockAdminClient.describeTopics(topics)).thenReturn(mockDescribeResult);
+    AbstractKafkaClient spyClient = spy(ec2KafkaClient);
+    doReturn(Single.just(mockAdminClient)).when(spyClient).createAdminClient();
+
+    spyClient.getEndOffsetSum(topics).test().assertError(ExecutionException.class);
+
+    assertTrue(spyClient.isHealthy());
+  }
+
+  @Test
+  public void testGetEndOffsetSum_WithLeaderNotAvailable_KeepsClientHealthy() {
+    List<String> topics = Arrays.asList("test-topic");
+    DescribeTopicsResult mockDescribeResult = mock(DescribeTopicsResult.class);
+    KafkaFuture<Map<String, TopicDescription>> kafkaFuture =
+        createMockKafkaFutureWithException(
+            new ExecutionException(new LeaderNotAvailableException("No leader")));
+    when(mockDescribeResult.all()).thenReturn(kafkaFuture);
+    when(mockAdminClient.describeTopics(topics)).thenReturn(mockDescribeResult);
+    AbstractKafkaClient spyClient = spy(ec2KafkaClient);
+    doReturn(Single.just(mockAdminClient)).when(spyClient).createAdminClient();
+
+    spyClient.getEndOffsetSum(topics).test().assertError(ExecutionException.class);
+
+    assertTrue(spyClient.isHealthy());
+  }
+
+  @Test
+  public void testGetEndOffsetSum_WithNetworkError_MarksClientUnhealthy() {
+    List<String> topics = Arrays.asList("test-topic");
+    DescribeTopicsResult mockDescribeResult = mock(DescribeTopicsResult.class);
+    KafkaFuture<Map<String, TopicDescription>> kafkaFuture =
+        createMockKafkaFutureWithException(
+            new ExecutionException(new NetworkException("Connection reset")));
+    when(mockDescribeResult.all()).thenReturn(kafkaFuture);
+    when(mockAdminClient.describeTopics(topics)).thenReturn(mockDescribeResult);
+    AbstractKafkaClient spyClient = spy(ec2KafkaClient);
+    doReturn(Single.just(mockAdminClient)).when(spyClient).createAdminClient();
+
+    spyClient.getEndOffsetSum(topics).test().assertError(ExecutionException.class);
+
+    assertFalse(spyClient.isHealthy());
+  }
+
+  @Test
+  public void testGetEndOffsets_WithSeveralTopics_ListsOffsetsInOneRequest() {
+    TopicPartition orders0 = new TopicPartition("orders", 0);
+    TopicPartition orders1 = new TopicPartition("orders", 1);
+    TopicPartition billing0 = new TopicPartition("billing", 0);
+    ListOffsetsResult mockOffsetsResult = mock(ListOffsetsResult.class);
+    when(mockOffsetsResult.partitionResult(orders0)).thenReturn(offsetFuture(100L));
+    when(mockOffsetsResult.partitionResult(orders1)).thenReturn(offsetFuture(200L));
+    when(mockOffsetsResult.partitionResult(billing0)).thenReturn(offsetFuture(300L));
+    when(mockAdminClient.listOffsets(anyMap())).thenReturn(mockOffsetsResult);
+    AbstractKafkaClient spyClient = spy(ec2KafkaClient);
+    doReturn(Single.just(mockAdminClient)).when(spyClient).createAdminClient();
+
+    Map<TopicPartition, Long> endOffsets =
+        spyClient.getEndOffsets(Arrays.asList(orders0, orders1, billing0)).blockingGet();
+
+    assertEquals(endOffsets, Map.of(orders0, 100L, orders1, 200L, billing0, 300L));
+    verify(mockAdminClient, times(1)).listOffsets(argThat(specs -> specs.size() == 3));
+  }
+
+  @Test
+  public void testGetEndOffsets_WithFailedPartition_LeavesItOut() {
+    TopicPartition orders0 = new TopicPartition("orders", 0);
+    TopicPartition orders1 = new TopicPartition("orders", 1);
+    ListOffsetsResult mockOffsetsResult = mock(ListOffsetsResult.class);
+    when(mockOffsetsResult.partitionResult(orders0)).thenReturn(offsetFuture(100L));
+    when(mockOffsetsResult.partitionResult(orders1))
+        .thenReturn(
+            createMockKafkaFutureWithException(new InvalidTopicException("Leader not available")));
+    when(mockAdminClient.listOffsets(anyMap())).thenReturn(mockOffsetsResult);
+    AbstractKafkaClient spyClient = spy(ec2KafkaClient);
+    doReturn(Single.just(mockAdminClient)).when(spyClient).createAdminClient();
+
+    Map<TopicPartition, Long> endOffsets =
+        spyClient.getEndOffsets(Arrays.asList(orders0, orders1)).blockingGet();
+
+    assertEquals(endOffsets, Map.of(orders0, 100L));
+    assertTrue(spyClient.isHealthy());
+  }
+
+  @Test
+  public void testGetEndOffsets_WithTimedOutPartition_KeepsClientHealthy() {
+    TopicPartition orders0 = new TopicPartition("orders", 0);
+    TopicPartition orders1 = new TopicPartition("orders", 1);
+    ListOffsetsResult mockOffsetsResult = mock(ListOffsetsResult.class);
+    when(mockOffsetsResult.partitionResult(orders0)).thenReturn(offsetFuture(100L));
+    when(mockOffsetsResult.partitionResult(orders1))
+        .thenReturn(createMockKafkaFutureWithException(new TimeoutException("No leader")));
+    when(mockAdminClient.listOffsets(anyMap())).thenReturn(mockOffsetsResult);
+    AbstractKafkaClient spyClient = spy(ec2KafkaClient);
+    doReturn(Single.just(mockAdminClient)).when(spyClient).createAdminClient();
+
+    Map<TopicPartition, Long> endOffsets =
+        spyClient.getEndOffsets(Arrays.asList(orders0, orders1)).blockingGet();
+
+    assertEquals(endOffsets, Map.of(orders0, 100L));
+    assertTrue(spyClient.isHealthy());
+  }
+
+  private KafkaFuture<ListOffsetsResultInfo> offsetFuture(long offset) {
+    return KafkaFuture.completedFuture(new ListOffsetsResultInfo(offset, -1L, Optional.empty()));
+  }
+
   /**
    * Helper method to create a mock TopicDescription with specified number of partitions.
    *
@@ -515,44 +654,26 @@ public class AbstractKafkaClientTest extends BaseTest {
   }
 
   /**
-   * Helper method to create a mock KafkaFuture that returns the given value when get() is called.
+   * Helper method to create a KafkaFuture completed with the given value.
    *
-   * @param value The value to return when get() is called
+   * @param value The value the future completes with
    * @param <T> The type of the value
-   * @return A mock KafkaFuture
+   * @return A completed KafkaFuture
    */
-  @SuppressWarnings("unchecked")
   private <T> KafkaFuture<T> createMockKafkaFuture(T value) {
-    KafkaFuture<T> kafkaFuture = mock(KafkaFuture.class);
-    try {
-      when(kafkaFuture.get()).thenReturn(value);
-    } catch (InterruptedException | ExecutionException e) {
-      throw new RuntimeException("Failed to setup KafkaFuture mock", e);
-    }
-    return kafkaFuture;
+    return KafkaFuture.completedFuture(value);
   }
 
   /**
-   * Helper method to create a mock KafkaFuture that throws an exception when get() is called.
+   * Helper method to create a KafkaFuture that failed with the given exception.
    *
-   * @param exception The exception to throw when get() is called
+   * @param exception The exception the future fails with
    * @param <T> The type of the value
-   * @return A mock KafkaFuture
+   * @return A failed KafkaFuture
    */
-  @SuppressWarnings("unchecked")
   private <T> KafkaFuture<T> createMockKafkaFutureWithException(Exception exception) {
-    KafkaFuture<T> kafkaFuture = mock(KafkaFuture.class);
-    try {
-      if (exception instanceof InterruptedException) {
-        when(kafkaFuture.get()).thenThrow((InterruptedException) exception);
-      } else if (exception instanceof ExecutionException) {
-        when(kafkaFuture.get()).thenThrow((ExecutionException) exception);
-      } else {
-        when(kafkaFuture.get()).thenThrow(exception);
-      }
-    } catch (InterruptedException | ExecutionException e) {
-      throw new RuntimeException("Failed to setup KafkaFuture mock", e);
-    }
+    KafkaFutureImpl<T> kafkaFuture = new KafkaFutureImpl<>();
+    kafkaFuture.completeExceptionally(exception);
     return kafkaFuture;
   }
 }
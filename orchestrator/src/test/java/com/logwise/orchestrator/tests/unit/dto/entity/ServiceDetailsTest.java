@@ -20,6 +20,19 @@ public class ServiceDetailsTest {
     Assert.assertEquals(details.getRetentionDays(), Integer.valueOf(30));
   }
 
+  @Test
+  public void testServiceDetails_WithBuilder_SetsIngestionBudget() {
+    ServiceDetails details =
+        ServiceDetails.builder()
+            .serviceName("test-service")
+            .ingestionWeight(3)
+            .minOffsetsPerTrigger(10_000L)
+            .build();
+
+    Assert.assertEquals(details.getIngestionWeight(), Integer.valueOf(3));
+    Assert.assertEquals(details.getMinOffsetsPerTrigger(), Long.valueOf(10_000L));
+  }
+
   @Test
   public void testServiceDetails_Equals_WithSameServiceName_ReturnsTrue() {
     ServiceDetails details1 =
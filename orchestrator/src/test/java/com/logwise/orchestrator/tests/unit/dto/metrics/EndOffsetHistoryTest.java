@@ -0,0 +1,62 @@
+package com.logwise.orchestrator.tests.unit.dto.metrics;
+
+import com.logwise.orchestrator.dto.metrics.EndOffsetHistory;
+import java.util.Map;
+import org.apache.kafka.common.TopicPartition;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/** Unit tests for EndOffsetHistory. */
+public class EndOffsetHistoryTest {
+
+  private static final TopicPartition ORDERS_0 = new TopicPartition("logs.orders", 0);
+
+  @Test
+  public void testGetLagSeconds_BetweenSamples_InterpolatesProduceTime() {
+    EndOffsetHistory history = new EndOffsetHistory();
+    history.record(Map.of(ORDERS_0, 1_000L), 10_000L);
+    history.record(Map.of(ORDERS_0, 2_000L), 20_000L);
+
+    // offset 1500 was produced half way between the samples, at 15s
+    Assert.assertEquals(history.getLagSeconds(ORDERS_0, 1_500L, 30_000L), 15.0, 0.001);
+  }
+
+  @Test
+  public void testGetLagSeconds_WithUnchangedEndOffset_KeepsFirstSampleTime() {
+    EndOffsetHistory history = new EndOffsetHistory();
+    history.record(Map.of(ORDERS_0, 1_000L), 10_000L);
+    history.record(Map.of(ORDERS_0, 1_000L), 20_000L);
+    history.record(Map.of(ORDERS_0, 2_000L), 30_000L);
+
+    Assert.assertEquals(history.getLagSeconds(ORDERS_0, 1_000L, 30_000L), 20.0, 0.001);
+  }
+
+  @Test
+  public void testGetLagSeconds_BeforeOldestSample_ReturnsAgeOfOldestSample() {
+    EndOffsetHistory history = new EndOffsetHistory();
+    history.record(Map.of(ORDERS_0, 1_000L), 10_000L);
+
+    Assert.assertEquals(history.getLagSeconds(ORDERS_0, 400L, 25_000L), 15.0, 0.001);
+  }
+
+  @Test
+  public void testGetLagSeconds_WhenCaughtUpOrUnknown_ReturnsZero() {
+    EndOffsetHistory history = new EndOffsetHistory();
+    history.record(Map.of(ORDERS_0, 1_000L), 10_000L);
+
+    Assert.assertEquals(history.getLagSeconds(ORDERS_0, 1_000L, 25_000L), 0.0);
+    Assert.assertEquals(
+        history.getLagSeconds(new TopicPartition("logs.search", 0), 0L, 25_000L), 0.0);
+  }
+
+  @Test
+  public void testRecord_WithLowerEndOffset_ResetsPartitionAndDropsUnsampledPartitions() {
+    TopicPartition search0 = new TopicPartition("logs.search", 0);
+    EndOffsetHistory history = new EndOffsetHistory();
+    history.record(Map.of(ORDERS_0, 1_000L, search0, 50L), 10_000L);
+    history.record(Map.of(ORDERS_0, 100L), 20_000L);
+
+    Assert.assertEquals(history.getLagSeconds(ORDERS_0, 50L, 30_000L), 10.0, 0.001);
+    Assert.assertEquals(history.getLagSeconds(search0, 0L, 30_000L), 0.0);
+  }
+}
@@ -8,10 +8,20 @@ import com.logwise.orchestrator.client.kafka.ConfluentKafkaClient;
 import com.logwise.orchestrator.client.kafka.Ec2KafkaClient;
 import com.logwise.orchestrator.client.kafka.KafkaClient;
 import com.logwise.orchestrator.client.kafka.MskKafkaClient;
+import com.logwise.orchestrator.common.util.SharedDataUtils;
 import com.logwise.orchestrator.config.ApplicationConfig;
+import com.logwise.orchestrator.constant.ApplicationConstants;
 import com.logwise.orchestrator.enums.KafkaType;
+import com.logwise.orchestrator.enums.Tenant;
 import com.logwise.orchestrator.factory.KafkaClientFactory;
 import com.logwise.orchestrator.setup.BaseTest;
+import com.logwise.orchestrator.util.ApplicationConfigUtil;
+import io.vertx.core.Handler;
+import io.vertx.reactivex.core.Vertx;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import org.mockito.ArgumentCaptor;
+import org.mockito.MockedStatic;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
@@ -19,6 +29,7 @@ import org.testng.annotations.Test;
 public class KafkaClientFactoryTest extends BaseTest {
 
   private KafkaClientFactory factory;
+  private Vertx vertx;
   private Ec2KafkaClient.Factory ec2Factory;
   private MskKafkaClient.Factory mskFactory;
   private ConfluentKafkaClient.Factory confluentFactory;
@@ -29,7 +40,14 @@ public class KafkaClientFactoryTest extends BaseTest {
     ec2Factory = mock(Ec2KafkaClient.Factory.class);
     mskFactory = mock(MskKafkaClient.Factory.class);
     confluentFactory = mock(ConfluentKafkaClient.Factory.class);
-    factory = new KafkaClientFactory(ec2Factory, mskFactory, confluentFactory);
+    vertx = mock(Vertx.class);
+    try (MockedStatic<SharedDataUtils> mockedSharedData = mockStatic(SharedDataUtils.class)) {
+      mockedSharedData
+          .when(
+              () -> SharedDataUtils.getOrCreate(any(Vertx.class), anyString(), any(Supplier.class)))
+          .thenReturn(new ConcurrentHashMap<>());
+      factory = new KafkaClientFactory(vertx, ec2Factory, mskFactory, confluentFactory);
+    }
   }
 
   @Test
@@ -102,4 +120,86 @@ public class KafkaClientFactoryTest extends BaseTest {
       assertTrue(e.getMessage().contains("Kafka type cannot be null"));
     }
   }
+
+  @Test
+  public void testGetKafkaClient_CalledTwice_ReusesClient() {
+    ApplicationConfig.KafkaConfig config = kafkaConfig("localhost:9092");
+    Ec2KafkaClient mockClient = mock(Ec2KafkaClient.class);
+    when(mockClient.isHealthy()).thenReturn(true);
+    when(ec2Factory.create(config)).thenReturn(mockClient);
+
+    try (MockedStatic<ApplicationConfigUtil> mockedConfig = mockTenantKafkaConfig(config)) {
+      assertSame(factory.getKafkaClient(Tenant.ABC), mockClient);
+      assertSame(factory.getKafkaClient(Tenant.ABC), mockClient);
+    }
+
+    verify(ec2Factory, times(1)).create(config);
+    verify(mockClient, never()).close();
+  }
+
+  @Test
+  public void testGetKafkaClient_WhenUnhealthy_RebuildsAndClosesStaleClient() {
+    ApplicationConfig.KafkaConfig config = kafkaConfig("localhost:9092");
+    Ec2KafkaClient staleClient = mock(Ec2KafkaClient.class);
+    Ec2KafkaClient freshClient = mock(Ec2KafkaClient.class);
+    when(staleClient.isHealthy()).thenReturn(false);
+    when(ec2Factory.create(config)).thenReturn(staleClient, freshClient);
+
+    try (MockedStatic<ApplicationConfigUtil> mockedConfig = mockTenantKafkaConfig(config)) {
+      factory.getKafkaClient(Tenant.ABC);
+      assertSame(factory.getKafkaClient(Tenant.ABC), freshClient);
+    }
+
+    verify(staleClient, never()).close();
+    fireDrainTimer();
+    verify(staleClient, times(1)).close();
+    verify(freshClient, never()).close();
+  }
+
+  @Test
+  public void testGetKafkaClient_WhenConfigChanges_RebuildsClient() {
+    ApplicationConfig.KafkaConfig oldConfig = kafkaConfig("old-host:9092");
+    ApplicationConfig.KafkaConfig newConfig = kafkaConfig("new-host:9092");
+    Ec2KafkaClient oldClient = mock(Ec2KafkaClient.class);
+    Ec2KafkaClient newClient = mock(Ec2KafkaClient.class);
+    when(oldClient.isHealthy()).thenReturn(true);
+    when(ec2Factory.create(oldConfig)).thenReturn(oldClient);
+    when(ec2Factory.create(newConfig)).thenReturn(newClient);
+
+    try (MockedStatic<ApplicationConfigUtil> mockedConfig = mockTenantKafkaConfig(oldConfig)) {
+      factory.getKafkaClient(Tenant.ABC);
+    }
+    try (MockedStatic<ApplicationConfigUtil> mockedConfig = mockTenantKafkaConfig(newConfig)) {
+      assertSame(factory.getKafkaClient(Tenant.ABC), newClient);
+    }
+
+    verify(oldClient, never()).close();
+    fireDrainTimer();
+    verify(oldClient, times(1)).close();
+  }
+
+  @SuppressWarnings("unchecked")
+  private void fireDrainTimer() {
+    ArgumentCaptor<Handler<Long>> handler = ArgumentCaptor.forClass(Handler.class);
+    verify(vertx).setTimer(eq(ApplicationConstants.KAFKA_CLIENT_DRAIN_DELAY_MS), handler.capture());
+    handler.getValue().handle(1L);
+  }
+
+  private static ApplicationConfig.KafkaConfig kafkaConfig(String brokersHost) {
+    ApplicationConfig.KafkaConfig config = new ApplicationConfig.KafkaConfig();
+    config.setKafkaType(KafkaType.EC2);
+    config.setKafkaBrokersHost(brokersHost);
+    return config;
+  }
+
+  private static MockedStatic<ApplicationConfigUtil> mockTenantKafkaConfig(
+      ApplicationConfig.KafkaConfig config) {
+    ApplicationConfig.TenantConfig tenantConfig = new ApplicationConfig.TenantConfig();
+    tenantConfig.setKafka(config);
+    MockedStatic<ApplicationConfigUtil> mockedConfig = mockStatic(ApplicationConfigUtil.class);
+    mockedConfig
+        .when(() -> ApplicationConfigUtil.getTenantConfig(Tenant.ABC))
+        .thenReturn(tenantConfig);
+    return mockedConfig;
+  }
 }
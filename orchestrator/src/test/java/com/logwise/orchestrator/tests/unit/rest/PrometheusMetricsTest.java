@@ -0,0 +1,53 @@
+package com.logwise.orchestrator.tests.unit.rest;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import com.logwise.orchestrator.common.util.CompletableFutureUtils;
+import com.logwise.orchestrator.common.util.TestCompletableFutureUtils;
+import com.logwise.orchestrator.rest.PrometheusMetrics;
+import com.logwise.orchestrator.service.PipelineMetricsService;
+import com.logwise.orchestrator.setup.BaseTest;
+import io.reactivex.Single;
+import org.mockito.MockedStatic;
+import org.mockito.Mockito;
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/** Unit tests for PrometheusMetrics REST endpoint. */
+public class PrometheusMetricsTest extends BaseTest {
+
+  private PipelineMetricsService mockPipelineMetricsService;
+  private PrometheusMetrics prometheusMetrics;
+
+  @BeforeMethod
+  public void setUp() throws Exception {
+    super.setUp();
+    TestCompletableFutureUtils.init(vertx);
+    mockPipelineMetricsService = mock(PipelineMetricsService.class);
+    prometheusMetrics = new PrometheusMetrics(mockPipelineMetricsService);
+  }
+
+  @Test
+  public void testGetMetrics_ReturnsRenderedSnapshot() throws Exception {
+    String metrics = "logwise_kafka_lag_records{tenant=\"ABC\"} 10\n";
+    when(mockPipelineMetricsService.getPrometheusMetrics()).thenReturn(metrics);
+
+    try (MockedStatic<CompletableFutureUtils> mockedFutureUtils =
+        Mockito.mockStatic(CompletableFutureUtils.class)) {
+      mockedFutureUtils
+          .when(() -> CompletableFutureUtils.fromSingle(any(Single.class)))
+          .thenAnswer(
+              invocation -> {
+                Single<String> single = invocation.getArgument(0);
+                return TestCompletableFutureUtils.fromSingle(single);
+              });
+
+      String result = prometheusMetrics.getMetrics().toCompletableFuture().get();
+
+      Assert.assertEquals(result, metrics);
+      verify(mockPipelineMetricsService).getPrometheusMetrics();
+    }
+  }
+}
@@ -12,10 +12,12 @@ import com.logwise.orchestrator.CaffeineCacheFactory;
 import com.logwise.orchestrator.client.kafka.KafkaClient;
 import com.logwise.orchestrator.config.ApplicationConfig;
 import com.logwise.orchestrator.dto.kafka.TopicOffsetInfo;
+import com.logwise.orchestrator.dto.metrics.PipelineMetricsSnapshot;
 import com.logwise.orchestrator.enums.KafkaType;
 import com.logwise.orchestrator.enums.Tenant;
 import com.logwise.orchestrator.factory.KafkaClientFactory;
 import com.logwise.orchestrator.service.KafkaService;
+import com.logwise.orchestrator.service.PipelineMetricsService;
 import com.logwise.orchestrator.setup.BaseTest;
 import com.logwise.orchestrator.util.ApplicationConfigUtil;
 import io.reactivex.Single;
@@ -33,6 +35,7 @@ public class KafkaServiceTest extends BaseTest {
   private ApplicationConfig.TenantConfig mockTenantConfig;
   private ApplicationConfig.KafkaConfig mockKafkaConfig;
   private ApplicationConfig.SparkConfig mockSparkConfig;
+  private PipelineMetricsService mockPipelineMetricsService;
 
   @SuppressWarnings("unchecked")
   private Cache<String, Single<?>> mockCache;
@@ -42,6 +45,7 @@ public class KafkaServiceTest extends BaseTest {
     super.setUp();
 
     mockKafkaClientFactory = mock(KafkaClientFactory.class);
+    mockPipelineMetricsService = mock(PipelineMetricsService.class);
     mockKafkaClient = mock(KafkaClient.class);
     mockTenantConfig = mock(ApplicationConfig.TenantConfig.class);
     mockKafkaConfig = mock(ApplicationConfig.KafkaConfig.class);
@@ -54,8 +58,7 @@ public class KafkaServiceTest extends BaseTest {
     when(mockTenantConfig.getSpark()).thenReturn(mockSparkConfig);
     when(mockSparkConfig.getSubscribePattern()).thenReturn("logs.*");
     when(mockKafkaConfig.getKafkaType()).thenReturn(KafkaType.MSK);
-    when(mockKafkaClientFactory.createKafkaClient(any(ApplicationConfig.KafkaConfig.class)))
-        .thenReturn(mockKafkaClient);
+    when(mockKafkaClientFactory.getKafkaClient(any(Tenant.class))).thenReturn(mockKafkaClient);
   }
 
   /**
@@ -67,7 +70,8 @@ public class KafkaServiceTest extends BaseTest {
     mockedFactory
         .when(() -> CaffeineCacheFactory.createCache(any(Vertx.class), anyString()))
         .thenReturn(mockCache);
-    return new KafkaService(BaseTest.getReactiveVertx(), mockKafkaClientFactory);
+    return new KafkaService(
+        BaseTest.getReactiveVertx(), mockKafkaClientFactory, mockPipelineMetricsService);
   }
 
   @Test
@@ -90,7 +94,7 @@ public class KafkaServiceTest extends BaseTest {
       Map<String, Integer> scalingMap = result.blockingGet();
       Assert.assertNotNull(scalingMap);
       Assert.assertTrue(scalingMap.isEmpty());
-      verify(mockKafkaClientFactory, never()).createKafkaClient(any());
+      verify(mockKafkaClientFactory, never()).getKafkaClient(any());
     }
   }
 
@@ -139,7 +143,7 @@ public class KafkaServiceTest extends BaseTest {
       Assert.assertNotNull(scalingMap);
       Assert.assertTrue(scalingMap.isEmpty());
       verify(mockKafkaClient, times(1)).listTopics(anyString());
-      verify(mockKafkaClient, times(1)).close();
+      verify(mockKafkaClient, never()).close();
     }
   }
 
@@ -180,7 +184,46 @@ public class KafkaServiceTest extends BaseTest {
       Map<String, Integer> scalingMap = result.blockingGet();
       Assert.assertNotNull(scalingMap);
       Assert.assertTrue(scalingMap.isEmpty());
-      verify(mockKafkaClient, times(1)).close();
+      verify(mockKafkaClient, never()).close();
+    }
+  }
+
+  @Test
+  public void testScaleKafkaPartitions_WithFreshSnapshot_DoesNotCreateKafkaClient()
+      throws Exception {
+    Tenant tenant = Tenant.ABC;
+    long sampledAt = System.currentTimeMillis();
+    PipelineMetricsSnapshot snapshot =
+        PipelineMetricsSnapshot.builder()
+            .topicOffsets(
+                Map.of(
+                    "logs.service1",
+                    TopicOffsetInfo.builder()
+                        .sumOfEndOffsets(1000L)
+                        .currentNumberOfPartitions(10)
+                        .build()))
+            .topicOffsetsTimestamp(sampledAt)
+            .build();
+    when(mockKafkaConfig.getEnablePartitionScaling()).thenReturn(true);
+    when(mockKafkaConfig.getPartitionRatePerSecond()).thenReturn(1000L);
+    when(mockPipelineMetricsService.getSnapshot(tenant)).thenReturn(snapshot);
+    when(mockPipelineMetricsService.isFresh(sampledAt)).thenReturn(true);
+    when(mockCache.getIfPresent(anyString())).thenReturn(null);
+
+    try (MockedStatic<CaffeineCacheFactory> mockedCacheFactory =
+            mockStatic(CaffeineCacheFactory.class);
+        MockedStatic<ApplicationConfigUtil> mockedConfig =
+            mockStatic(ApplicationConfigUtil.class)) {
+      KafkaService kafkaService = createKafkaServiceWithMockedCache(mockedCacheFactory);
+
+      mockedConfig
+          .when(() -> ApplicationConfigUtil.getTenantConfig(tenant))
+          .thenReturn(mockTenantConfig);
+
+      Map<String, Integer> scalingMap = kafkaService.scaleKafkaPartitions(tenant).blockingGet();
+
+      Assert.assertTrue(scalingMap.isEmpty());
+      verify(mockKafkaClientFactory, never()).getKafkaClient(any());
     }
   }
 
@@ -233,7 +276,7 @@ public class KafkaServiceTest extends BaseTest {
 
       // Verify that cache was updated with new offset
       verify(mockCache, times(1)).put(eq("logs.service1"), any(Single.class));
-      verify(mockKafkaClient, times(1)).close();
+      verify(mockKafkaClient, never()).close();
       // Verify increasePartitions was NOT called since no scaling is needed
       verify(mockKafkaClient, never()).increasePartitions(anyMap());
     }
@@ -283,7 +326,7 @@ public class KafkaServiceTest extends BaseTest {
 
       // Verify that cache was updated with new offset (line 214)
       verify(mockCache, times(1)).put(eq("logs.service1"), any(Single.class));
-      verify(mockKafkaClient, times(1)).close();
+      verify(mockKafkaClient, never()).close();
       verify(mockKafkaClient, never()).increasePartitions(anyMap());
     }
   }
@@ -329,9 +372,51 @@ public class KafkaServiceTest extends BaseTest {
       Assert.assertNotNull(scalingMap);
       Assert.assertTrue(scalingMap.isEmpty(), "Should return empty when time difference <= 0");
 
-      // Verify that cache was updated with new offset (line 214)
+      // Verify that cache from the future was replaced with new offset
       verify(mockCache, times(1)).put(eq("logs.service1"), any(Single.class));
-      verify(mockKafkaClient, times(1)).close();
+      verify(mockKafkaClient, never()).close();
+      verify(mockKafkaClient, never()).increasePartitions(anyMap());
+    }
+  }
+
+  @Test
+  public void testScaleKafkaPartitions_WithOffsetsCloseToCache_KeepsCachedOffsets()
+      throws Exception {
+    Tenant tenant = Tenant.ABC;
+    Set<String> topics = new HashSet<>(Arrays.asList("logs.service1"));
+    Map<String, TopicOffsetInfo> offsetsSumMap = new HashMap<>();
+    TopicOffsetInfo offsetInfo =
+        TopicOffsetInfo.builder().sumOfEndOffsets(110000L).currentNumberOfPartitions(1).build();
+    offsetsSumMap.put("logs.service1", offsetInfo);
+
+    when(mockKafkaConfig.getEnablePartitionScaling()).thenReturn(true);
+    when(mockKafkaConfig.getPartitionRatePerSecond()).thenReturn(1000L);
+    when(mockKafkaClient.listTopics(anyString())).thenReturn(Single.just(topics));
+    when(mockKafkaClient.getEndOffsetSum(anyList())).thenReturn(Single.just(offsetsSumMap));
+
+    // Cached offsets of the previous snapshot, 20 seconds ago
+    long cachedTimestamp = System.currentTimeMillis() - 20000;
+    Object offsetWithTimestamp = createOffsetWithTimestamp(100000L, cachedTimestamp);
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    Single cachedValue = Single.just(offsetWithTimestamp);
+    when(mockCache.getIfPresent(eq("logs.service1"))).thenReturn(cachedValue);
+
+    try (MockedStatic<CaffeineCacheFactory> mockedCacheFactory =
+            mockStatic(CaffeineCacheFactory.class);
+        MockedStatic<ApplicationConfigUtil> mockedConfig =
+            mockStatic(ApplicationConfigUtil.class)) {
+      KafkaService kafkaService = createKafkaServiceWithMockedCache(mockedCacheFactory);
+
+      mockedConfig
+          .when(() -> ApplicationConfigUtil.getTenantConfig(tenant))
+          .thenReturn(mockTenantConfig);
+
+      Map<String, Integer> scalingMap = kafkaService.scaleKafkaPartitions(tenant).blockingGet();
+
+      Assert.assertTrue(
+          scalingMap.isEmpty(), "Should return empty when time difference <= 30 seconds");
+      // The cached offsets stay, so the next snapshot is measured against them
+      verify(mockCache, never()).put(eq("logs.service1"), any(Single.class));
       verify(mockKafkaClient, never()).increasePartitions(anyMap());
     }
   }
@@ -372,7 +457,7 @@ public class KafkaServiceTest extends BaseTest {
       Assert.assertTrue(scalingMap.isEmpty(), "First time check should return empty map");
       // Verify that cache.put was called to store the offset
       verify(mockCache, times(1)).put(eq("logs.newservice"), any(Single.class));
-      verify(mockKafkaClient, times(1)).close();
+      verify(mockKafkaClient, never()).close();
     }
   }
 
@@ -436,7 +521,7 @@ public class KafkaServiceTest extends BaseTest {
       } catch (Exception e) {
         Assert.assertNotNull(e);
       }
-      verify(mockKafkaClient, times(1)).close();
+      verify(mockKafkaClient, never()).close();
     }
   }
 
@@ -527,7 +612,7 @@ public class KafkaServiceTest extends BaseTest {
                           && map.get("logs.service1") != null
                           && map.get("logs.service1").equals(17)));
 
-      verify(mockKafkaClient, times(2)).close();
+      verify(mockKafkaClient, never()).close();
       verify(mockKafkaClient, times(1)).increasePartitions(anyMap());
     }
   }
@@ -580,7 +665,7 @@ public class KafkaServiceTest extends BaseTest {
       } catch (Exception e) {
         Assert.assertNotNull(e);
       }
-      verify(mockKafkaClient, times(1)).close();
+      verify(mockKafkaClient, never()).close();
     }
   }
 
@@ -620,7 +705,7 @@ public class KafkaServiceTest extends BaseTest {
             "Exception should contain 'Error getting end offsets'. Got: "
                 + (errorMessage != null ? errorMessage : e.getClass().getName()));
       }
-      verify(mockKafkaClient, times(1)).close();
+      verify(mockKafkaClient, never()).close();
     }
   }
 
@@ -681,7 +766,7 @@ public class KafkaServiceTest extends BaseTest {
             "Exception should contain 'Error increasing partitions'. Got: "
                 + (errorMessage != null ? errorMessage : e.getClass().getName()));
       }
-      verify(mockKafkaClient, times(1)).close();
+      verify(mockKafkaClient, never()).close();
       verify(mockKafkaClient, times(1)).increasePartitions(anyMap());
     }
   }
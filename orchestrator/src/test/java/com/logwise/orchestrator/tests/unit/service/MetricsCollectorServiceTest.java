@@ -0,0 +1,257 @@
+package com.logwise.orchestrator.tests.unit.service;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.logwise.orchestrator.CaffeineCacheFactory;
+import com.logwise.orchestrator.client.kafka.KafkaClient;
+import com.logwise.orchestrator.common.util.SharedDataUtils;
+import com.logwise.orchestrator.config.ApplicationConfig;
+import com.logwise.orchestrator.dto.kafka.SparkCheckpointOffsets;
+import com.logwise.orchestrator.dto.kafka.TopicOffsetInfo;
+import com.logwise.orchestrator.dto.metrics.PartitionLagMetrics;
+import com.logwise.orchestrator.dto.metrics.PipelineMetricsSnapshot;
+import com.logwise.orchestrator.enums.Tenant;
+import com.logwise.orchestrator.factory.KafkaClientFactory;
+import com.logwise.orchestrator.service.MetricsCollectorService;
+import com.logwise.orchestrator.service.MetricsService;
+import com.logwise.orchestrator.service.PipelineHealthCheckService;
+import com.logwise.orchestrator.service.PipelineMetricsService;
+import com.logwise.orchestrator.service.SparkCheckpointService;
+import com.logwise.orchestrator.setup.BaseTest;
+import com.logwise.orchestrator.testconfig.ApplicationTestConfig;
+import com.logwise.orchestrator.util.ApplicationConfigUtil;
+import io.reactivex.Single;
+import io.vertx.core.json.JsonObject;
+import io.vertx.reactivex.core.Vertx;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import org.apache.kafka.common.TopicPartition;
+import org.mockito.MockedStatic;
+import org.mockito.Mockito;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/** Unit tests for MetricsCollectorService. */
+public class MetricsCollectorServiceTest extends BaseTest {
+
+  private static final Tenant TENANT = Tenant.ABC;
+  private static final TopicPartition ORDERS_0 = new TopicPartition("logs.orders", 0);
+  private static final TopicPartition ORDERS_1 = new TopicPartition("logs.orders", 1);
+
+  private MockedStatic<ApplicationConfigUtil> mockedConfigUtil;
+  private ApplicationConfig.TenantConfig tenantConfig;
+  private MetricsService mockMetricsService;
+  private SparkCheckpointService mockSparkCheckpointService;
+  private KafkaClientFactory mockKafkaClientFactory;
+  private KafkaClient mockKafkaClient;
+  private PipelineHealthCheckService mockPipelineHealthCheckService;
+  private PipelineMetricsService pipelineMetricsService;
+  private MetricsCollectorService metricsCollectorService;
+
+  @BeforeMethod
+  public void setUp() throws Exception {
+    super.setUp();
+    mockedConfigUtil = Mockito.mockStatic(ApplicationConfigUtil.class);
+    tenantConfig = ApplicationTestConfig.createMockTenantConfig("ABC");
+    mockedConfigUtil
+        .when(() -> ApplicationConfigUtil.getTenantConfig(TENANT))
+        .thenReturn(tenantConfig);
+    mockMetricsService = mock(MetricsService.class);
+    mockSparkCheckpointService = mock(SparkCheckpointService.class);
+    mockKafkaClientFactory = mock(KafkaClientFactory.class);
+    mockKafkaClient = mock(KafkaClient.class);
+    when(mockKafkaClientFactory.getKafkaClient(TENANT)).thenReturn(mockKafkaClient);
+    when(mockKafkaClient.listTopics(any())).thenReturn(Single.just(Set.of("logs.orders")));
+    when(mockKafkaClient.getEndOffsetSum(anyList()))
+        .thenReturn(
+            Single.just(
+                Map.of(
+                    "logs.orders",
+                    TopicOffsetInfo.builder()
+                        .sumOfEndOffsets(1_500L)
+                        .currentNumberOfPartitions(2)
+                        .build())));
+    mockPipelineHealthCheckService = mock(PipelineHealthCheckService.class);
+    when(mockPipelineHealthCheckService.checkCompletePipeline(eq(TENANT), anyMap()))
+        .thenReturn(Single.just(new JsonObject().put("status", "UP")));
+
+    try (MockedStatic<CaffeineCacheFactory> mockedCacheFactory =
+            Mockito.mockStatic(CaffeineCacheFactory.class);
+        MockedStatic<SharedDataUtils> mockedSharedData =
+            Mockito.mockStatic(SharedDataUtils.class)) {
+      mockedCacheFactory
+          .when(() -> CaffeineCacheFactory.createCache(any(Vertx.class), anyString()))
+          .thenReturn(Caffeine.newBuilder().build());
+      mockedSharedData
+          .when(
+              () -> SharedDataUtils.getOrCreate(any(Vertx.class), anyString(), any(Supplier.class)))
+          .thenReturn(new ConcurrentHashMap<>());
+      pipelineMetricsService = new PipelineMetricsService(BaseTest.getReactiveVertx());
+      metricsCollectorService =
+          new MetricsCollectorService(
+              BaseTest.getReactiveVertx(),
+              mockMetricsService,
+              mockPipelineHealthCheckService,
+              mockSparkCheckpointService,
+              pipelineMetricsService,
+              mockKafkaClientFactory);
+    }
+  }
+
+  @AfterMethod
+  public void tearDown() {
+    mockedConfigUtil.close();
+  }
+
+  private void stubCheckpoint(Map<TopicPartition, Long> committed) {
+    when(mockSparkCheckpointService.getCheckpointOffsets(TENANT))
+        .thenReturn(
+            Single.just(
+                SparkCheckpointOffsets.builder()
+                    .checkpointPath("checkpoint")
+                    .batchId(7L)
+                    .offsets(committed)
+                    .available(true)
+                    .build()));
+  }
+
+  @Test
+  public void testRefreshSnapshot_ComputesLagPerPartitionAndLastWrites() {
+    stubCheckpoint(Map.of(ORDERS_0, 900L, ORDERS_1, 500L));
+    when(mockKafkaClient.getEndOffsets(anyList()))
+        .thenReturn(Single.just(Map.of(ORDERS_0, 1_000L, ORDERS_1, 500L)));
+    when(mockMetricsService.computeServiceLastWriteTimes(TENANT))
+        .thenReturn(Single.just(Map.of("orders", 1_700_000_000L)));
+
+    metricsCollectorService.refreshSnapshot(TENANT).blockingAwait();
+
+    PipelineMetricsSnapshot snapshot = pipelineMetricsService.getSnapshot(TENANT);
+    Assert.assertEquals(snapshot.getTenant(), "ABC");
+    Assert.assertEquals(snapshot.getPartitionLags().size(), 2);
+    PartitionLagMetrics hot = snapshot.getPartitionLags().get(0);
+    Assert.assertEquals(hot.getPartition(), 0);
+    Assert.assertEquals(hot.getEndOffset(), 1_000L);
+    Assert.assertEquals(hot.getCommittedOffset(), 900L);
+    Assert.assertEquals(hot.getLag(), 100L);
+    Assert.assertEquals(snapshot.getPartitionLags().get(1).getLag(), 0L);
+    Assert.assertEquals(snapshot.getPartitionLags().get(1).getLagSeconds(), 0.0);
+    Assert.assertEquals(snapshot.getServiceLastWriteTimestamps(), Map.of("orders", 1_700_000_000L));
+    verify(mockKafkaClient, never()).close();
+  }
+
+  @Test
+  public void testRefreshSnapshot_WithPartitionMissingFromCheckpoint_ReportsNoLagForIt() {
+    stubCheckpoint(Map.of(ORDERS_0, 900L));
+    when(mockKafkaClient.getEndOffsets(anyList()))
+        .thenReturn(Single.just(Map.of(ORDERS_0, 1_000L, ORDERS_1, 500L)));
+    when(mockMetricsService.computeServiceLastWriteTimes(TENANT)).thenReturn(Single.just(Map.of()));
+
+    metricsCollectorService.refreshSnapshot(TENANT).blockingAwait();
+
+    List<PartitionLagMetrics> partitionLags =
+        pipelineMetricsService.getSnapshot(TENANT).getPartitionLags();
+    Assert.assertEquals(partitionLags.size(), 1);
+    Assert.assertEquals(partitionLags.get(0).getPartition(), 0);
+    Assert.assertEquals(partitionLags.get(0).getLag(), 100L);
+  }
+
+  @Test
+  public void testRefreshSnapshot_WhenKafkaFails_KeepsPreviousLag() {
+    stubCheckpoint(Map.of(ORDERS_0, 900L));
+    when(mockKafkaClient.getEndOffsets(anyList()))
+        .thenReturn(Single.just(Map.of(ORDERS_0, 1_000L)))
+        .thenReturn(Single.error(new RuntimeException("broker down")));
+    when(mockMetricsService.computeServiceLastWriteTimes(TENANT))
+        .thenReturn(Single.just(Map.of("orders", 1L)))
+        .thenReturn(Single.just(Map.of("orders", 2L)));
+
+    metricsCollectorService.refreshSnapshot(TENANT).blockingAwait();
+    metricsCollectorService.refreshSnapshot(TENANT).blockingAwait();
+
+    PipelineMetricsSnapshot snapshot = pipelineMetricsService.getSnapshot(TENANT);
+    Assert.assertEquals(snapshot.getPartitionLags().get(0).getLag(), 100L);
+    Assert.assertEquals(snapshot.getServiceLastWriteTimestamps(), Map.of("orders", 2L));
+  }
+
+  @Test
+  public void testRefreshSnapshot_WithoutCommittedBatch_HasNoPartitionLags() {
+    when(mockSparkCheckpointService.getCheckpointOffsets(TENANT))
+        .thenReturn(Single.just(SparkCheckpointOffsets.builder().available(false).build()));
+    when(mockMetricsService.computeServiceLastWriteTimes(TENANT)).thenReturn(Single.just(Map.of()));
+
+    metricsCollectorService.refreshSnapshot(TENANT).blockingAwait();
+
+    Assert.assertTrue(pipelineMetricsService.getSnapshot(TENANT).getPartitionLags().isEmpty());
+    verify(mockKafkaClient, never()).getEndOffsets(anyList());
+  }
+
+  @Test
+  public void testRefreshSnapshot_StoresHealthFromLastWrites() {
+    when(mockSparkCheckpointService.getCheckpointOffsets(TENANT))
+        .thenReturn(Single.just(SparkCheckpointOffsets.builder().available(false).build()));
+    Map<String, Long> lastWrites = Map.of("orders", 1_700_000_000L);
+    when(mockMetricsService.computeServiceLastWriteTimes(TENANT))
+        .thenReturn(Single.just(lastWrites));
+
+    metricsCollectorService.refreshSnapshot(TENANT).blockingAwait();
+
+    PipelineMetricsSnapshot snapshot = pipelineMetricsService.getFreshSnapshot(TENANT);
+    Assert.assertEquals(snapshot.getPipelineHealth().getString("status"), "UP");
+    verify(mockPipelineHealthCheckService).checkCompletePipeline(TENANT, lastWrites);
+    verify(mockMetricsService, times(1)).computeServiceLastWriteTimes(TENANT);
+  }
+
+  @Test
+  public void testRefreshSnapshot_SamplesTopicOffsetsForPartitionScaling() {
+    when(mockSparkCheckpointService.getCheckpointOffsets(TENANT))
+        .thenReturn(Single.just(SparkCheckpointOffsets.builder().available(false).build()));
+    when(mockMetricsService.computeServiceLastWriteTimes(TENANT)).thenReturn(Single.just(Map.of()));
+
+    metricsCollectorService.refreshSnapshot(TENANT).blockingAwait();
+
+    PipelineMetricsSnapshot snapshot = pipelineMetricsService.getSnapshot(TENANT);
+    Assert.assertEquals(snapshot.getTopicOffsets().get("logs.orders").getSumOfEndOffsets(), 1_500L);
+    Assert.assertTrue(pipelineMetricsService.isFresh(snapshot.getTopicOffsetsTimestamp()));
+  }
+
+  @Test
+  public void testRefreshSnapshot_WhenTopicOffsetsFail_KeepsPreviousSampleTime() {
+    when(mockSparkCheckpointService.getCheckpointOffsets(TENANT))
+        .thenReturn(Single.just(SparkCheckpointOffsets.builder().available(false).build()));
+    when(mockMetricsService.computeServiceLastWriteTimes(TENANT)).thenReturn(Single.just(Map.of()));
+    metricsCollectorService.refreshSnapshot(TENANT).blockingAwait();
+    long sampledAt = pipelineMetricsService.getSnapshot(TENANT).getTopicOffsetsTimestamp();
+    when(mockKafkaClient.listTopics(any()))
+        .thenReturn(Single.error(new RuntimeException("broker down")));
+
+    metricsCollectorService.refreshSnapshot(TENANT).blockingAwait();
+
+    PipelineMetricsSnapshot snapshot = pipelineMetricsService.getSnapshot(TENANT);
+    Assert.assertEquals(snapshot.getTopicOffsetsTimestamp(), sampledAt);
+    Assert.assertNotNull(snapshot.getTopicOffsets().get("logs.orders"));
+  }
+
+  @Test
+  public void testRefreshSnapshot_WithPartitionScalingDisabled_DoesNotSampleTopics() {
+    when(mockSparkCheckpointService.getCheckpointOffsets(TENANT))
+        .thenReturn(Single.just(SparkCheckpointOffsets.builder().available(false).build()));
+    when(mockMetricsService.computeServiceLastWriteTimes(TENANT)).thenReturn(Single.just(Map.of()));
+    tenantConfig.getKafka().setEnablePartitionScaling(false);
+
+    metricsCollectorService.refreshSnapshot(TENANT).blockingAwait();
+
+    Assert.assertNull(pipelineMetricsService.getSnapshot(TENANT).getTopicOffsets());
+    verify(mockKafkaClient, never()).listTopics(anyString());
+  }
+}
@@ -5,17 +5,27 @@ import static org.mockito.Mockito.*;
 
 import com.logwise.orchestrator.client.ObjectStoreClient;
 import com.logwise.orchestrator.config.ApplicationConfig;
+import com.logwise.orchestrator.dto.metrics.PipelineMetricsSnapshot;
+import com.logwise.orchestrator.enums.PartitionGranularity;
 import com.logwise.orchestrator.enums.Tenant;
+import com.logwise.orchestrator.factory.ObjectStoreFactory;
 import com.logwise.orchestrator.service.MetricsService;
+import com.logwise.orchestrator.service.PipelineMetricsService;
 import com.logwise.orchestrator.setup.BaseTest;
+import com.logwise.orchestrator.testconfig.ApplicationTestConfig;
 import com.logwise.orchestrator.util.ApplicationConfigUtil;
 import io.reactivex.Single;
 import java.lang.reflect.Method;
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import org.mockito.MockedStatic;
 import org.testng.Assert;
 import org.testng.annotations.BeforeMethod;
@@ -26,12 +36,14 @@ public class MetricsServiceTest extends BaseTest {
 
   private MetricsService metricsService;
   private ObjectStoreClient mockObjectStoreClient;
+  private PipelineMetricsService mockPipelineMetricsService;
 
   @BeforeMethod
   public void setUp() throws Exception {
     super.setUp();
     // MetricsService uses @RequiredArgsConstructor
-    metricsService = new MetricsService();
+    mockPipelineMetricsService = mock(PipelineMetricsService.class);
+    metricsService = new MetricsService(mockPipelineMetricsService);
     mockObjectStoreClient = mock(ObjectStoreClient.class);
     reset(mockObjectStoreClient);
   }
@@ -40,7 +52,11 @@ public class MetricsServiceTest extends BaseTest {
   public void testGetPrefixList_WithValidInputs_ReturnsPrefixList() throws Exception {
     Method method =
         MetricsService.class.getDeclaredMethod(
-            "getPrefixList", LocalDateTime.class, String.class, String.class);
+            "getPrefixList",
+            LocalDateTime.class,
+            String.class,
+            String.class,
+            PartitionGranularity.class);
     method.setAccessible(true);
 
     LocalDateTime nowTime = LocalDateTime.of(2024, 1, 15, 12, 0);
@@ -48,7 +64,8 @@ public class MetricsServiceTest extends BaseTest {
     String serviceName = "api";
 
     @SuppressWarnings("unchecked")
-    List<String> result = (List<String>) method.invoke(null, nowTime, dir, serviceName);
+    List<String> result =
+        (List<String>) method.invoke(null, nowTime, dir, serviceName, PartitionGranularity.MINUTE);
 
     Assert.assertNotNull(result);
     Assert.assertFalse(result.isEmpty());
@@ -65,16 +82,22 @@ public class MetricsServiceTest extends BaseTest {
   public void testGetPrefixList_WithDifferentTimes_GeneratesDifferentPrefixes() throws Exception {
     Method method =
         MetricsService.class.getDeclaredMethod(
-            "getPrefixList", LocalDateTime.class, String.class, String.class);
+            "getPrefixList",
+            LocalDateTime.class,
+            String.class,
+            String.class,
+            PartitionGranularity.class);
     method.setAccessible(true);
 
     LocalDateTime time1 = LocalDateTime.of(2024, 1, 15, 12, 0);
     LocalDateTime time2 = LocalDateTime.of(2024, 2, 20, 15, 30);
 
     @SuppressWarnings("unchecked")
-    List<String> result1 = (List<String>) method.invoke(null, time1, "logs", "api");
+    List<String> result1 =
+        (List<String>) method.invoke(null, time1, "logs", "api", PartitionGranularity.MINUTE);
     @SuppressWarnings("unchecked")
-    List<String> result2 = (List<String>) method.invoke(null, time2, "logs", "api");
+    List<String> result2 =
+        (List<String>) method.invoke(null, time2, "logs", "api", PartitionGranularity.MINUTE);
 
     Assert.assertNotNull(result1);
     Assert.assertNotNull(result2);
@@ -86,7 +109,11 @@ public class MetricsServiceTest extends BaseTest {
   public void testGetPrefixList_WithDuplicatePrefixes_RemovesDuplicates() throws Exception {
     Method method =
         MetricsService.class.getDeclaredMethod(
-            "getPrefixList", LocalDateTime.class, String.class, String.class);
+            "getPrefixList",
+            LocalDateTime.class,
+            String.class,
+            String.class,
+            PartitionGranularity.class);
     method.setAccessible(true);
 
     LocalDateTime nowTime = LocalDateTime.of(2024, 1, 15, 12, 0);
@@ -94,13 +121,105 @@ public class MetricsServiceTest extends BaseTest {
     String serviceName = "api";
 
     @SuppressWarnings("unchecked")
-    List<String> result = (List<String>) method.invoke(null, nowTime, dir, serviceName);
+    List<String> result =
+        (List<String>) method.invoke(null, nowTime, dir, serviceName, PartitionGranularity.MINUTE);
 
     // Check for duplicates
     List<String> uniquePrefixes = new ArrayList<>(result);
     Assert.assertEquals(result.size(), uniquePrefixes.size(), "Should not contain duplicates");
   }
 
+  @Test
+  public void testGetPrefixList_WithHourGranularity_EndsAtHourDirectory() throws Exception {
+    Method method =
+        MetricsService.class.getDeclaredMethod(
+            "getPrefixList",
+            LocalDateTime.class,
+            String.class,
+            String.class,
+            PartitionGranularity.class);
+    method.setAccessible(true);
+
+    LocalDateTime nowTime = LocalDateTime.of(2024, 1, 15, 12, 0);
+
+    @SuppressWarnings("unchecked")
+    List<String> hourPrefixes =
+        (List<String>) method.invoke(null, nowTime, "logs", "api", PartitionGranularity.HOUR);
+    @SuppressWarnings("unchecked")
+    List<String> minutePrefixes =
+        (List<String>) method.invoke(null, nowTime, "logs", "api", PartitionGranularity.MINUTE);
+
+    Assert.assertEquals(
+        hourPrefixes.get(0), "logs/service_name=api/year=2024/month=01/day=15/hour=12/");
+    Assert.assertEquals(
+        minutePrefixes.get(0), "logs/service_name=api/year=2024/month=01/day=15/hour=12/minute=");
+  }
+
+  @Test
+  public void testGetDelayMinutes_WithEitherLayout_MeasuresFromPartitionEnd() throws Exception {
+    Method method =
+        MetricsService.class.getDeclaredMethod(
+            "getDelayMinutes", LocalDateTime.class, Matcher.class);
+    method.setAccessible(true);
+    Pattern pattern =
+        Pattern.compile(
+            "year=(\\d{4})/month=(\\d{2})/day=(\\d{2})/hour=(\\d{2})(?:/minute=(\\d{2}))?");
+    LocalDateTime nowTime = LocalDateTime.of(2024, 1, 16, 0, 10);
+
+    Matcher minute = pattern.matcher("logs/year=2024/month=01/day=15/hour=23/minute=55/a.parquet");
+    Matcher hour = pattern.matcher("logs/year=2024/month=01/day=15/hour=23/a.parquet");
+    Matcher current = pattern.matcher("logs/year=2024/month=01/day=16/hour=00/a.parquet");
+    Assert.assertTrue(minute.find() && hour.find() && current.find());
+
+    // Across midnight, an hour partition counts from its last minute, at least 1 minute
+    Assert.assertEquals(method.invoke(null, nowTime, minute), 15);
+    Assert.assertEquals(method.invoke(null, nowTime, hour), 11);
+    Assert.assertEquals(method.invoke(null, nowTime, current), 1);
+  }
+
+  @Test
+  public void testComputeLogSyncDelay_WithHourServiceOverride_ListsHourPrefixes() throws Exception {
+    Tenant tenant = Tenant.ABC;
+
+    try (MockedStatic<ApplicationConfigUtil> mockedConfigUtil =
+            mockStatic(ApplicationConfigUtil.class);
+        MockedStatic<com.logwise.orchestrator.factory.ObjectStoreFactory> mockedFactory =
+            mockStatic(com.logwise.orchestrator.factory.ObjectStoreFactory.class)) {
+      ApplicationConfig.TenantConfig tenantConfig = mock(ApplicationConfig.TenantConfig.class);
+      ApplicationConfig.SparkConfig sparkConfig = new ApplicationConfig.SparkConfig();
+      ApplicationConfig.ServicePartitionGranularityConfig override =
+          new ApplicationConfig.ServicePartitionGranularityConfig();
+      override.setServiceName("test-service");
+      override.setGranularity("hour");
+      sparkConfig.setLogsDir("logs");
+      sparkConfig.setPartitionGranularity("minute");
+      sparkConfig.setServicePartitionGranularities(List.of(override));
+      ApplicationConfig.DelayMetricsConfig delayMetricsConfig =
+          mock(ApplicationConfig.DelayMetricsConfig.class);
+      ApplicationConfig.ApplicationDelayMetricsConfig appConfig =
+          mock(ApplicationConfig.ApplicationDelayMetricsConfig.class);
+
+      when(tenantConfig.getSpark()).thenReturn(sparkConfig);
+      when(tenantConfig.getDelayMetrics()).thenReturn(delayMetricsConfig);
+      when(delayMetricsConfig.getApp()).thenReturn(appConfig);
+      when(appConfig.getSampleServiceName()).thenReturn("test-service");
+
+      mockedConfigUtil
+          .when(() -> ApplicationConfigUtil.getTenantConfig(tenant))
+          .thenReturn(tenantConfig);
+      when(mockObjectStoreClient.listObjects(anyString()))
+          .thenReturn(Single.just(Collections.emptyList()));
+      mockedFactory
+          .when(() -> com.logwise.orchestrator.factory.ObjectStoreFactory.getClient(tenant))
+          .thenReturn(mockObjectStoreClient);
+
+      metricsService.computeLogSyncDelay(tenant).blockingGet();
+
+      verify(mockObjectStoreClient, atLeastOnce()).listObjects(endsWith("/"));
+      verify(mockObjectStoreClient, never()).listObjects(contains("minute="));
+    }
+  }
+
   @Test
   public void testComputeLogSyncDelay_WithValidTenant_ReturnsResponse() throws Exception {
     Tenant tenant = Tenant.ABC;
@@ -146,6 +265,40 @@ public class MetricsServiceTest extends BaseTest {
     }
   }
 
+  @Test
+  public void testComputeLogSyncDelay_WithFreshSnapshot_DoesNotListObjectStore() {
+    Tenant tenant = Tenant.ABC;
+    long lastWrite =
+        LocalDateTime.now(ZoneOffset.UTC).minusMinutes(10).toEpochSecond(ZoneOffset.UTC);
+    when(mockPipelineMetricsService.getFreshSnapshot(tenant))
+        .thenReturn(
+            PipelineMetricsSnapshot.builder()
+                .serviceLastWriteTimestamps(Map.of("test-service", lastWrite))
+                .build());
+
+    try (MockedStatic<ApplicationConfigUtil> mockedConfigUtil =
+            mockStatic(ApplicationConfigUtil.class);
+        MockedStatic<ObjectStoreFactory> mockedFactory = mockStatic(ObjectStoreFactory.class)) {
+      ApplicationConfig.TenantConfig tenantConfig = mock(ApplicationConfig.TenantConfig.class);
+      ApplicationConfig.DelayMetricsConfig delayMetricsConfig =
+          mock(ApplicationConfig.DelayMetricsConfig.class);
+      ApplicationConfig.ApplicationDelayMetricsConfig appConfig =
+          mock(ApplicationConfig.ApplicationDelayMetricsConfig.class);
+      when(tenantConfig.getDelayMetrics()).thenReturn(delayMetricsConfig);
+      when(delayMetricsConfig.getApp()).thenReturn(appConfig);
+      when(appConfig.getSampleServiceName()).thenReturn("test-service");
+      mockedConfigUtil
+          .when(() -> ApplicationConfigUtil.getTenantConfig(tenant))
+          .thenReturn(tenantConfig);
+
+      Integer delay =
+          metricsService.computeLogSyncDelay(tenant).blockingGet().getAppLogsDelayMinutes();
+
+      Assert.assertEquals(delay, Integer.valueOf(10));
+      mockedFactory.verifyNoInteractions();
+    }
+  }
+
   @Test
   public void testComputeApplicationLogSyncDelayForAws_WithNoObjects_ReturnsMaxDelay()
       throws Exception {
@@ -194,4 +347,138 @@ public class MetricsServiceTest extends BaseTest {
                   * 60);
     }
   }
+
+  @Test
+  public void testComputeServiceLastWriteTimes_DescendsToLatestPartitionOfEachService() {
+    Tenant tenant = Tenant.ABC;
+    Map<String, List<String>> commonPrefixes = new HashMap<>();
+    commonPrefixes.put(
+        "logs/service_name=",
+        Arrays.asList("logs/service_name=orders/", "logs/service_name=search/"));
+    commonPrefixes.put(
+        "logs/service_name=orders/",
+        Arrays.asList(
+            "logs/service_name=orders/year=2024/", "logs/service_name=orders/year=2025/"));
+    commonPrefixes.put(
+        "logs/service_name=orders/year=2025/",
+        Collections.singletonList("logs/service_name=orders/year=2025/month=02/"));
+    commonPrefixes.put(
+        "logs/service_name=orders/year=2025/month=02/",
+        Collections.singletonList("logs/service_name=orders/year=2025/month=02/day=03/"));
+    commonPrefixes.put(
+        "logs/service_name=orders/year=2025/month=02/day=03/",
+        Arrays.asList(
+            "logs/service_name=orders/year=2025/month=02/day=03/hour=04/",
+            "logs/service_name=orders/year=2025/month=02/day=03/hour=01/"));
+    commonPrefixes.put(
+        "logs/service_name=orders/year=2025/month=02/day=03/hour=04/",
+        Collections.singletonList(
+            "logs/service_name=orders/year=2025/month=02/day=03/hour=04/minute=05/"));
+    commonPrefixes.put(
+        "logs/service_name=search/",
+        Collections.singletonList("logs/service_name=search/year=2024/"));
+    commonPrefixes.put(
+        "logs/service_name=search/year=2024/",
+        Collections.singletonList("logs/service_name=search/year=2024/month=12/"));
+    commonPrefixes.put(
+        "logs/service_name=search/year=2024/month=12/",
+        Collections.singletonList("logs/service_name=search/year=2024/month=12/day=31/"));
+    commonPrefixes.put(
+        "logs/service_name=search/year=2024/month=12/day=31/",
+        Collections.singletonList("logs/service_name=search/year=2024/month=12/day=31/hour=23/"));
+    when(mockObjectStoreClient.listCommonPrefix(anyString(), eq("/")))
+        .thenAnswer(
+            invocation ->
+                Single.just(
+                    commonPrefixes.getOrDefault(
+                        invocation.getArgument(0), Collections.<String>emptyList())));
+
+    try (MockedStatic<ApplicationConfigUtil> mockedConfigUtil =
+            mockStatic(ApplicationConfigUtil.class);
+        MockedStatic<ObjectStoreFactory> mockedFactory = mockStatic(ObjectStoreFactory.class)) {
+      mockedConfigUtil
+          .when(() -> ApplicationConfigUtil.getTenantConfig(tenant))
+          .thenReturn(ApplicationTestConfig.createMockTenantConfig("ABC"));
+      mockedFactory
+          .when(() -> ObjectStoreFactory.getClient(tenant))
+          .thenReturn(mockObjectStoreClient);
+
+      Map<String, Long> lastWriteTimes =
+          metricsService.computeServiceLastWriteTimes(tenant).blockingGet();
+
+      Assert.assertEquals(lastWriteTimes.size(), 2);
+      Assert.assertEquals(
+          lastWriteTimes.get("orders"),
+          Long.valueOf(LocalDateTime.of(2025, 2, 3, 4, 5).toEpochSecond(ZoneOffset.UTC)));
+      // an hour partition is written until the end of its hour
+      Assert.assertEquals(
+          lastWriteTimes.get("search"),
+          Long.valueOf(LocalDateTime.of(2024, 12, 31, 23, 59).toEpochSecond(ZoneOffset.UTC)));
+    }
+  }
+
+  @Test
+  public void testComputeServiceLastWriteTimes_WithServiceInBothRoots_TakesItsLatestWrite() {
+    Tenant tenant = Tenant.ABC;
+    Map<String, List<String>> commonPrefixes = new HashMap<>();
+    // orders moved from hour to minute partitions
+    commonPrefixes.put(
+        "logs/service_name=", Collections.singletonList("logs/service_name=orders/"));
+    commonPrefixes.put(
+        "logs/service_name=orders/",
+        Collections.singletonList("logs/service_name=orders/year=2025/"));
+    commonPrefixes.put(
+        "logs/service_name=orders/year=2025/",
+        Collections.singletonList("logs/service_name=orders/year=2025/month=02/"));
+    commonPrefixes.put(
+        "logs/service_name=orders/year=2025/month=02/",
+        Collections.singletonList("logs/service_name=orders/year=2025/month=02/day=03/"));
+    commonPrefixes.put(
+        "logs/service_name=orders/year=2025/month=02/day=03/",
+        Collections.singletonList("logs/service_name=orders/year=2025/month=02/day=03/hour=04/"));
+    commonPrefixes.put(
+        "logs/service_name=orders/year=2025/month=02/day=03/hour=04/",
+        Collections.singletonList(
+            "logs/service_name=orders/year=2025/month=02/day=03/hour=04/minute=05/"));
+    commonPrefixes.put(
+        "logs-hourly/service_name=", Collections.singletonList("logs-hourly/service_name=orders/"));
+    commonPrefixes.put(
+        "logs-hourly/service_name=orders/",
+        Collections.singletonList("logs-hourly/service_name=orders/year=2025/"));
+    commonPrefixes.put(
+        "logs-hourly/service_name=orders/year=2025/",
+        Collections.singletonList("logs-hourly/service_name=orders/year=2025/month=02/"));
+    commonPrefixes.put(
+        "logs-hourly/service_name=orders/year=2025/month=02/",
+        Collections.singletonList("logs-hourly/service_name=orders/year=2025/month=02/day=03/"));
+    commonPrefixes.put(
+        "logs-hourly/service_name=orders/year=2025/month=02/day=03/",
+        Collections.singletonList(
+            "logs-hourly/service_name=orders/year=2025/month=02/day=03/hour=01/"));
+    when(mockObjectStoreClient.listCommonPrefix(anyString(), eq("/")))
+        .thenAnswer(
+            invocation ->
+                Single.just(
+                    commonPrefixes.getOrDefault(
+                        invocation.getArgument(0), Collections.<String>emptyList())));
+
+    try (MockedStatic<ApplicationConfigUtil> mockedConfigUtil =
+            mockStatic(ApplicationConfigUtil.class);
+        MockedStatic<ObjectStoreFactory> mockedFactory = mockStatic(ObjectStoreFactory.class)) {
+      mockedConfigUtil
+          .when(() -> ApplicationConfigUtil.getTenantConfig(tenant))
+          .thenReturn(ApplicationTestConfig.createMockTenantConfig("ABC"));
+      mockedFactory
+          .when(() -> ObjectStoreFactory.getClient(tenant))
+          .thenReturn(mockObjectStoreClient);
+
+      Map<String, Long> lastWriteTimes =
+          metricsService.computeServiceLastWriteTimes(tenant).blockingGet();
+
+      Assert.assertEquals(lastWriteTimes.size(), 1);
+      Assert.assertEquals(
+          lastWriteTimes.get("orders"),
+          Long.valueOf(LocalDateTime.of(2025, 2, 3, 4, 5).toEpochSecond(ZoneOffset.UTC)));
+    }
+  }
 }
@@ -89,6 +89,41 @@ public class ObjectStoreServiceTest {
     }
   }
 
+  @Test
+  public void testGetAllDistinctServicesInAws_WithHourlyServices_ListsEachServiceOnce() {
+    Tenant tenant = Tenant.ABC;
+
+    when(mockTenantConfig.getSpark()).thenReturn(mockSparkConfig);
+    when(mockSparkConfig.getLogsDir()).thenReturn("logs");
+    when(mockTenantConfig.getDefaultLogsRetentionDays()).thenReturn(30);
+    when(mockObjectStoreClient.listCommonPrefix("logs/service_name=", "/"))
+        .thenReturn(Single.just(Arrays.asList("logs/service_name=service1/")));
+    when(mockObjectStoreClient.listCommonPrefix("logs-hourly/service_name=", "/"))
+        .thenReturn(
+            Single.just(
+                Arrays.asList(
+                    "logs-hourly/service_name=service1/", "logs-hourly/service_name=service2/")));
+
+    try (MockedStatic<ObjectStoreFactory> mockedFactory = mockStatic(ObjectStoreFactory.class);
+        MockedStatic<ApplicationConfigUtil> mockedConfig =
+            mockStatic(ApplicationConfigUtil.class)) {
+
+      mockedFactory
+          .when(() -> ObjectStoreFactory.getClient(tenant))
+          .thenReturn(mockObjectStoreClient);
+      mockedConfig
+          .when(() -> ApplicationConfigUtil.getTenantConfig(tenant))
+          .thenReturn(mockTenantConfig);
+
+      List<ServiceDetails> services =
+          objectStoreService.getAllDistinctServicesInAws(tenant).blockingGet();
+
+      Assert.assertEquals(services.size(), 2);
+      Assert.assertEquals(services.get(0).getServiceName(), "service1");
+      Assert.assertEquals(services.get(1).getServiceName(), "service2");
+    }
+  }
+
   @Test
   public void testGetAllDistinctServicesInAws_WithEmptyList_ReturnsEmptyList() {
     Tenant tenant = Tenant.ABC;
@@ -8,19 +8,23 @@ import static org.mockito.Mockito.*;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.logwise.orchestrator.client.ObjectStoreClient;
 import com.logwise.orchestrator.config.ApplicationConfig;
+import com.logwise.orchestrator.dto.metrics.PipelineMetricsSnapshot;
 import com.logwise.orchestrator.dto.response.SparkMasterJsonResponse;
 import com.logwise.orchestrator.dto.response.SparkMasterJsonResponse.Driver;
 import com.logwise.orchestrator.enums.Tenant;
 import com.logwise.orchestrator.factory.ObjectStoreFactory;
 import com.logwise.orchestrator.service.PipelineHealthCheckService;
+import com.logwise.orchestrator.service.PipelineMetricsService;
 import com.logwise.orchestrator.setup.BaseTest;
 import com.logwise.orchestrator.util.ApplicationConfigUtil;
 import com.logwise.orchestrator.webclient.reactivex.client.WebClient;
 import io.reactivex.Single;
 import io.vertx.core.json.JsonObject;
+import java.time.Instant;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import org.mockito.MockedStatic;
 import org.testng.Assert;
 import org.testng.annotations.BeforeMethod;
@@ -36,6 +40,7 @@ public class PipelineHealthCheckServiceTest extends BaseTest {
   private ApplicationConfig.VectorConfig mockVectorConfig;
   private ApplicationConfig.SparkConfig mockSparkConfig;
   private ApplicationConfig.KafkaConfig mockKafkaConfig;
+  private PipelineMetricsService mockPipelineMetricsService;
 
   @BeforeMethod
   public void setUp() throws Exception {
@@ -61,7 +66,10 @@ public class PipelineHealthCheckServiceTest extends BaseTest {
     when(mockKafkaConfig.getKafkaBrokersHost()).thenReturn("kafka-host");
     when(mockKafkaConfig.getKafkaBrokerPort()).thenReturn(9092);
 
-    service = new PipelineHealthCheckService(mockWebClient, mockObjectMapper);
+    mockPipelineMetricsService = mock(PipelineMetricsService.class);
+
+    service =
+        new PipelineHealthCheckService(mockWebClient, mockObjectMapper, mockPipelineMetricsService);
   }
 
   @Test
@@ -385,6 +393,49 @@ public class PipelineHealthCheckServiceTest extends BaseTest {
     }
   }
 
+  @Test
+  public void testCheckCompletePipeline_WithFreshSnapshot_ServesSnapshotHealth() {
+    Tenant tenant = Tenant.ABC;
+    JsonObject health = new JsonObject().put("status", "UP").put("tenant", "ABC");
+    when(mockPipelineMetricsService.getFreshSnapshot(tenant))
+        .thenReturn(PipelineMetricsSnapshot.builder().pipelineHealth(health).build());
+
+    JsonObject response = service.checkCompletePipeline(tenant).blockingGet();
+
+    Assert.assertEquals(response, health);
+    verifyNoInteractions(mockRxWebClient);
+  }
+
+  @Test
+  public void testCheckS3LastWrites_WithRecentService_ReturnsUp() {
+    long now = Instant.now().getEpochSecond();
+    Map<String, Long> lastWrites = Map.of("orders", now, "billing", now - 7_200);
+
+    JsonObject response = service.checkS3LastWrites(mockTenantConfig, lastWrites).blockingGet();
+
+    Assert.assertEquals(response.getString("status"), "UP");
+    Assert.assertEquals(response.getLong("recentServices"), Long.valueOf(1));
+    Assert.assertEquals(response.getInteger("totalServices"), Integer.valueOf(2));
+  }
+
+  @Test
+  public void testCheckS3LastWrites_WithNoRecentService_ReturnsWarning() {
+    Map<String, Long> lastWrites = Map.of("orders", Instant.now().getEpochSecond() - 7_200);
+
+    JsonObject response = service.checkS3LastWrites(mockTenantConfig, lastWrites).blockingGet();
+
+    Assert.assertEquals(response.getString("status"), "WARNING");
+    Assert.assertTrue(response.getString("message").contains("No recent logs"));
+  }
+
+  @Test
+  public void testCheckS3LastWrites_WithNoServices_ReturnsWarning() {
+    JsonObject response = service.checkS3LastWrites(mockTenantConfig, Map.of()).blockingGet();
+
+    Assert.assertEquals(response.getString("status"), "WARNING");
+    Assert.assertEquals(response.getString("logsDir"), "/logs");
+  }
+
   @Test
   public void testCheckVectorHealth_WithTimeout_ReturnsDown() throws Exception {
     io.vertx.reactivex.ext.web.client.HttpRequest<io.vertx.reactivex.core.buffer.Buffer>
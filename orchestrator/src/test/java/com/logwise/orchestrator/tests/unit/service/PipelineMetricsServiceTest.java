@@ -0,0 +1,134 @@
+package com.logwise.orchestrator.tests.unit.service;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.logwise.orchestrator.CaffeineCacheFactory;
+import com.logwise.orchestrator.config.ApplicationConfig;
+import com.logwise.orchestrator.config.ApplicationConfigProvider;
+import com.logwise.orchestrator.constant.ApplicationConstants;
+import com.logwise.orchestrator.dto.metrics.PartitionLagMetrics;
+import com.logwise.orchestrator.dto.metrics.PipelineMetricsSnapshot;
+import com.logwise.orchestrator.enums.Tenant;
+import com.logwise.orchestrator.service.PipelineMetricsService;
+import com.logwise.orchestrator.setup.BaseTest;
+import com.logwise.orchestrator.testconfig.ApplicationTestConfig;
+import io.vertx.reactivex.core.Vertx;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.mockito.MockedStatic;
+import org.mockito.Mockito;
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/** Unit tests for PipelineMetricsService. */
+public class PipelineMetricsServiceTest extends BaseTest {
+
+  private static final Tenant TENANT = Tenant.ABC;
+
+  private PipelineMetricsService pipelineMetricsService;
+
+  @BeforeMethod
+  public void setUp() throws Exception {
+    super.setUp();
+    try (MockedStatic<CaffeineCacheFactory> mockedCacheFactory =
+        Mockito.mockStatic(CaffeineCacheFactory.class)) {
+      mockedCacheFactory
+          .when(() -> CaffeineCacheFactory.createCache(any(Vertx.class), anyString()))
+          .thenReturn(Caffeine.newBuilder().build());
+      pipelineMetricsService = new PipelineMetricsService(BaseTest.getReactiveVertx());
+    }
+  }
+
+  private static PipelineMetricsSnapshot snapshot(long timestamp) {
+    return PipelineMetricsSnapshot.builder()
+        .tenant("ABC")
+        .timestamp(timestamp)
+        .partitionLags(
+            List.of(
+                PartitionLagMetrics.builder()
+                    .topic("logs.orders")
+                    .partition(0)
+                    .endOffset(1_000L)
+                    .committedOffset(900L)
+                    .lag(100L)
+                    .lagSeconds(12.5)
+                    .build(),
+                PartitionLagMetrics.builder()
+                    .topic("logs.orders")
+                    .partition(1)
+                    .endOffset(500L)
+                    .committedOffset(450L)
+                    .lag(50L)
+                    .lagSeconds(3)
+                    .build()))
+        .serviceLastWriteTimestamps(Map.of("orders", 1_700_000_000L))
+        .build();
+  }
+
+  @Test
+  public void testGetFreshSnapshot_ReturnsRecentSnapshot() {
+    pipelineMetricsService.putSnapshot(TENANT, snapshot(System.currentTimeMillis()));
+
+    Assert.assertNotNull(pipelineMetricsService.getFreshSnapshot(TENANT));
+  }
+
+  @Test
+  public void testGetFreshSnapshot_WhenCollectorStalled_ReturnsNull() {
+    long stale =
+        System.currentTimeMillis()
+            - TimeUnit.SECONDS.toMillis(
+                3L * ApplicationConstants.PIPELINE_METRICS_REFRESH_INTERVAL_SECONDS);
+    pipelineMetricsService.putSnapshot(TENANT, snapshot(stale));
+
+    Assert.assertNull(pipelineMetricsService.getFreshSnapshot(TENANT));
+    Assert.assertNotNull(pipelineMetricsService.getSnapshot(TENANT));
+  }
+
+  @Test
+  public void testGetFreshSnapshot_BeforeFirstRefresh_ReturnsNull() {
+    Assert.assertNull(pipelineMetricsService.getFreshSnapshot(TENANT));
+  }
+
+  @Test
+  public void testGetPrometheusMetrics_RendersSnapshotsOfConfiguredTenants() {
+    pipelineMetricsService.putSnapshot(TENANT, snapshot(System.currentTimeMillis()));
+    ApplicationConfig applicationConfig = new ApplicationConfig();
+    applicationConfig.setTenants(List.of(ApplicationTestConfig.createMockTenantConfig("ABC")));
+
+    String metrics;
+    try (MockedStatic<ApplicationConfigProvider> mockedProvider =
+        Mockito.mockStatic(ApplicationConfigProvider.class)) {
+      mockedProvider
+          .when(ApplicationConfigProvider::getApplicationConfig)
+          .thenReturn(applicationConfig);
+      metrics = pipelineMetricsService.getPrometheusMetrics();
+    }
+
+    Assert.assertTrue(metrics.contains("# TYPE logwise_kafka_lag_records gauge\n"));
+    Assert.assertTrue(
+        metrics.contains(
+            "logwise_kafka_end_offset{tenant=\"ABC\",topic=\"logs.orders\",partition=\"0\"} 1000\n"));
+    Assert.assertTrue(
+        metrics.contains(
+            "logwise_spark_committed_offset{tenant=\"ABC\",topic=\"logs.orders\",partition=\"1\"}"
+                + " 450\n"));
+    Assert.assertTrue(
+        metrics.contains(
+            "logwise_kafka_lag_records{tenant=\"ABC\",topic=\"logs.orders\",partition=\"0\"} 100\n"));
+    Assert.assertTrue(
+        metrics.contains(
+            "logwise_kafka_topic_lag_records{tenant=\"ABC\",topic=\"logs.orders\"} 150\n"));
+    Assert.assertTrue(
+        metrics.contains(
+            "logwise_kafka_topic_lag_seconds{tenant=\"ABC\",topic=\"logs.orders\"} 12.5\n"));
+    Assert.assertTrue(
+        metrics.contains(
+            "logwise_service_last_write_timestamp_seconds{tenant=\"ABC\",service=\"orders\"}"
+                + " 1700000000\n"));
+    Assert.assertTrue(metrics.contains("logwise_pipeline_metrics_refresh_timestamp_seconds{"));
+  }
+}
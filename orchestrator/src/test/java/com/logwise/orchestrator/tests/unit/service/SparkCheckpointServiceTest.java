@@ -0,0 +1,269 @@
+package com.logwise.orchestrator.tests.unit.service;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.logwise.orchestrator.CaffeineCacheFactory;
+import com.logwise.orchestrator.client.ObjectStoreClient;
+import com.logwise.orchestrator.config.ApplicationConfig;
+import com.logwise.orchestrator.dto.kafka.SparkCheckpointOffsets;
+import com.logwise.orchestrator.enums.Tenant;
+import com.logwise.orchestrator.factory.ObjectStoreFactory;
+import com.logwise.orchestrator.service.SparkCheckpointService;
+import com.logwise.orchestrator.setup.BaseTest;
+import com.logwise.orchestrator.testconfig.ApplicationTestConfig;
+import com.logwise.orchestrator.util.ApplicationConfigUtil;
+import io.reactivex.Single;
+import io.vertx.reactivex.core.Vertx;
+import java.util.Arrays;
+import java.util.Collections;
+import org.apache.kafka.common.TopicPartition;
+import org.mockito.MockedStatic;
+import org.mockito.Mockito;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/** Unit tests for SparkCheckpointService. */
+public class SparkCheckpointServiceTest extends BaseTest {
+
+  private static final Tenant TENANT = Tenant.ABC;
+  private static final TopicPartition ORDERS_0 = new TopicPartition("logs.orders", 0);
+  private static final TopicPartition PAYMENTS_0 = new TopicPartition("logs.payments", 0);
+
+  private MockedStatic<ApplicationConfigUtil> mockedConfigUtil;
+  private MockedStatic<ObjectStoreFactory> mockedObjectStoreFactory;
+  private ObjectStoreClient mockObjectStoreClient;
+  private SparkCheckpointService sparkCheckpointService;
+
+  private static String offsetsFile(long offset) {
+    return "v1\n{\"batchWatermarkMs\":0}\n{\"logs.orders\":{\"0\":" + offset + "}}";
+  }
+
+  @BeforeMethod
+  public void setUp() throws Exception {
+    super.setUp();
+    ApplicationConfig.TenantConfig tenantConfig =
+        ApplicationTestConfig.createMockTenantConfig("ABC");
+    tenantConfig.getSpark().setCheckPointDir("checkpoint");
+    mockedConfigUtil = Mockito.mockStatic(ApplicationConfigUtil.class);
+    mockedConfigUtil
+        .when(() -> ApplicationConfigUtil.getTenantConfig(TENANT))
+        .thenReturn(tenantConfig);
+    mockObjectStoreClient = mock(ObjectStoreClient.class);
+    when(mockObjectStoreClient.listObjects(anyString()))
+        .thenReturn(Single.just(Collections.emptyList()));
+    when(mockObjectStoreClient.listObjects(anyString(), anyString()))
+        .thenReturn(Single.just(Collections.emptyList()));
+    when(mockObjectStoreClient.listCommonPrefix(anyString(), anyString()))
+        .thenReturn(Single.just(Collections.emptyList()));
+    mockedObjectStoreFactory = Mockito.mockStatic(ObjectStoreFactory.class);
+    mockedObjectStoreFactory
+        .when(() -> ObjectStoreFactory.getClient(TENANT))
+        .thenReturn(mockObjectStoreClient);
+
+    try (MockedStatic<CaffeineCacheFactory> mockedCacheFactory =
+        Mockito.mockStatic(CaffeineCacheFactory.class)) {
+      mockedCacheFactory
+          .when(() -> CaffeineCacheFactory.createCache(any(Vertx.class), anyString()))
+          .thenReturn(Caffeine.newBuilder().build());
+      sparkCheckpointService = new SparkCheckpointService(BaseTest.getReactiveVertx());
+    }
+  }
+
+  @AfterMethod
+  public void tearDown() {
+    mockedConfigUtil.close();
+    mockedObjectStoreFactory.close();
+  }
+
+  @Test
+  public void testGetCheckpointOffsets_OnFirstRead_ListsCommitsAndReadsLatestOffsets() {
+    when(mockObjectStoreClient.listObjects("checkpoint/commits/"))
+        .thenReturn(
+            Single.just(
+                Arrays.asList(
+                    "checkpoint/commits/9",
+                    "checkpoint/commits/12",
+                    "checkpoint/commits/.12.crc")));
+    when(mockObjectStoreClient.readFileContent("checkpoint/offsets/12"))
+        .thenReturn(Single.just(offsetsFile(500L)));
+
+    SparkCheckpointOffsets result =
+        sparkCheckpointService.getCheckpointOffsets(TENANT).blockingGet();
+
+    Assert.assertTrue(result.isAvailable());
+    Assert.assertEquals(result.getBatchId(), Long.valueOf(12L));
+    Assert.assertEquals(result.getCheckpointPath(), "checkpoint");
+    Assert.assertEquals(result.getOffsets(), Collections.singletonMap(ORDERS_0, 500L));
+  }
+
+  @Test
+  public void testGetCheckpointOffsets_WithoutNewCommit_ReturnsCachedOffsets() {
+    when(mockObjectStoreClient.listObjects("checkpoint/commits/"))
+        .thenReturn(Single.just(Collections.singletonList("checkpoint/commits/12")));
+    when(mockObjectStoreClient.readFileContent("checkpoint/offsets/12"))
+        .thenReturn(Single.just(offsetsFile(500L)));
+    when(mockObjectStoreClient.listObjects("checkpoint/commits/", "checkpoint/commits/1"))
+        .thenReturn(Single.just(Collections.singletonList("checkpoint/commits/12")));
+    SparkCheckpointOffsets first =
+        sparkCheckpointService.getCheckpointOffsets(TENANT).blockingGet();
+
+    SparkCheckpointOffsets second =
+        sparkCheckpointService.getCheckpointOffsets(TENANT).blockingGet();
+
+    Assert.assertSame(second, first);
+    verify(mockObjectStoreClient, times(1)).listObjects("checkpoint/commits/");
+    verify(mockObjectStoreClient).listObjects("checkpoint/commits/", "checkpoint/commits/1");
+    verify(mockObjectStoreClient, times(1)).readFileContent(anyString());
+  }
+
+  @Test
+  public void testGetCheckpointOffsets_WithNewCommits_ReadsOnlyLatestNewOffsets() {
+    when(mockObjectStoreClient.listObjects("checkpoint/commits/"))
+        .thenReturn(Single.just(Collections.singletonList("checkpoint/commits/12")));
+    when(mockObjectStoreClient.readFileContent("checkpoint/offsets/12"))
+        .thenReturn(Single.just(offsetsFile(500L)));
+    sparkCheckpointService.getCheckpointOffsets(TENANT).blockingGet();
+    when(mockObjectStoreClient.listObjects("checkpoint/commits/", "checkpoint/commits/1"))
+        .thenReturn(
+            Single.just(
+                Arrays.asList(
+                    "checkpoint/commits/12", "checkpoint/commits/13", "checkpoint/commits/14")));
+    when(mockObjectStoreClient.readFileContent("checkpoint/offsets/14"))
+        .thenReturn(Single.just(offsetsFile(900L)));
+
+    SparkCheckpointOffsets result =
+        sparkCheckpointService.getCheckpointOffsets(TENANT).blockingGet();
+
+    Assert.assertEquals(result.getBatchId(), Long.valueOf(14L));
+    Assert.assertEquals(result.getOffsets(), Collections.singletonMap(ORDERS_0, 900L));
+    verify(mockObjectStoreClient, times(1)).listObjects("checkpoint/commits/");
+    verify(mockObjectStoreClient, never()).readFileContent("checkpoint/offsets/13");
+  }
+
+  @Test
+  public void testGetCheckpointOffsets_WhenCachedBatchWasPurged_ListsCommitsAgain() {
+    when(mockObjectStoreClient.listObjects("checkpoint/commits/"))
+        .thenReturn(
+            Single.just(Collections.singletonList("checkpoint/commits/12")),
+            Single.just(Collections.singletonList("checkpoint/commits/3")));
+    when(mockObjectStoreClient.readFileContent("checkpoint/offsets/12"))
+        .thenReturn(Single.just(offsetsFile(500L)));
+    when(mockObjectStoreClient.readFileContent("checkpoint/offsets/3"))
+        .thenReturn(Single.just(offsetsFile(40L)));
+    sparkCheckpointService.getCheckpointOffsets(TENANT).blockingGet();
+    when(mockObjectStoreClient.listObjects("checkpoint/commits/", "checkpoint/commits/1"))
+        .thenReturn(Single.just(Collections.emptyList()));
+
+    SparkCheckpointOffsets result =
+        sparkCheckpointService.getCheckpointOffsets(TENANT).blockingGet();
+
+    Assert.assertEquals(result.getBatchId(), Long.valueOf(3L));
+    verify(mockObjectStoreClient, times(2)).listObjects("checkpoint/commits/");
+  }
+
+  @Test
+  public void testGetCheckpointOffsets_WhenBatchIdGainsADigit_ListsCommitsAgain() {
+    when(mockObjectStoreClient.listObjects("checkpoint/commits/"))
+        .thenReturn(
+            Single.just(Collections.singletonList("checkpoint/commits/98")),
+            Single.just(
+                Arrays.asList(
+                    "checkpoint/commits/98",
+                    "checkpoint/commits/99",
+                    "checkpoint/commits/100",
+                    "checkpoint/commits/101")));
+    when(mockObjectStoreClient.readFileContent("checkpoint/offsets/98"))
+        .thenReturn(Single.just(offsetsFile(500L)));
+    when(mockObjectStoreClient.readFileContent("checkpoint/offsets/101"))
+        .thenReturn(Single.just(offsetsFile(900L)));
+    sparkCheckpointService.getCheckpointOffsets(TENANT).blockingGet();
+    when(mockObjectStoreClient.listObjects("checkpoint/commits/", "checkpoint/commits/9"))
+        .thenReturn(Single.just(Arrays.asList("checkpoint/commits/98", "checkpoint/commits/99")));
+
+    SparkCheckpointOffsets result =
+        sparkCheckpointService.getCheckpointOffsets(TENANT).blockingGet();
+
+    Assert.assertEquals(result.getBatchId(), Long.valueOf(101L));
+    Assert.assertEquals(result.getOffsets(), Collections.singletonMap(ORDERS_0, 900L));
+    verify(mockObjectStoreClient, times(2)).listObjects("checkpoint/commits/");
+  }
+
+  @Test
+  public void testGetCheckpointOffsets_WithoutCommits_ReturnsUnavailable() {
+    SparkCheckpointOffsets result =
+        sparkCheckpointService.getCheckpointOffsets(TENANT).blockingGet();
+
+    Assert.assertFalse(result.isAvailable());
+    verify(mockObjectStoreClient, never()).readFileContent(anyString());
+  }
+
+  @Test
+  public void testInvalidate_ListsCommitsAgainOnNextRead() {
+    when(mockObjectStoreClient.listObjects("checkpoint/commits/"))
+        .thenReturn(Single.just(Collections.singletonList("checkpoint/commits/12")));
+    when(mockObjectStoreClient.readFileContent("checkpoint/offsets/12"))
+        .thenReturn(Single.just(offsetsFile(500L)));
+    sparkCheckpointService.getCheckpointOffsets(TENANT).blockingGet();
+
+    sparkCheckpointService.invalidate(TENANT);
+    sparkCheckpointService.getCheckpointOffsets(TENANT).blockingGet();
+
+    verify(mockObjectStoreClient, times(2)).listObjects("checkpoint/commits/");
+  }
+
+  @Test
+  public void testGetCheckpointOffsets_WithTopicGroups_MergesOffsetsOfEveryCheckpoint() {
+    when(mockObjectStoreClient.listCommonPrefix("checkpoint-", "/"))
+        .thenReturn(Single.just(Arrays.asList("checkpoint-payments/", "checkpoint-old.backup/")));
+    when(mockObjectStoreClient.listObjects("checkpoint/commits/"))
+        .thenReturn(Single.just(Collections.singletonList("checkpoint/commits/12")));
+    when(mockObjectStoreClient.readFileContent("checkpoint/offsets/12"))
+        .thenReturn(Single.just(offsetsFile(500L)));
+    when(mockObjectStoreClient.listObjects("checkpoint-payments/commits/"))
+        .thenReturn(Single.just(Collections.singletonList("checkpoint-payments/commits/3")));
+    when(mockObjectStoreClient.readFileContent("checkpoint-payments/offsets/3"))
+        .thenReturn(Single.just("v1\n{\"batchWatermarkMs\":0}\n{\"logs.payments\":{\"0\":70}}"));
+
+    SparkCheckpointOffsets result =
+        sparkCheckpointService.getCheckpointOffsets(TENANT).blockingGet();
+
+    Assert.assertTrue(result.isAvailable());
+    Assert.assertEquals(result.getCheckpointPath(), "checkpoint");
+    Assert.assertEquals(result.getBatchId(), Long.valueOf(12L));
+    Assert.assertEquals(result.getOffsets().get(ORDERS_0), Long.valueOf(500L));
+    Assert.assertEquals(result.getOffsets().get(PAYMENTS_0), Long.valueOf(70L));
+    Assert.assertEquals(result.getOffsets().size(), 2);
+    verify(mockObjectStoreClient, never()).listObjects("checkpoint-old.backup/commits/");
+  }
+
+  @Test
+  public void testGetCheckpointOffsets_WithTopicGroups_ReadsOnlyNewCommitsOfEachCheckpoint() {
+    when(mockObjectStoreClient.listCommonPrefix("checkpoint-", "/"))
+        .thenReturn(Single.just(Collections.singletonList("checkpoint-payments/")));
+    when(mockObjectStoreClient.listObjects("checkpoint/commits/"))
+        .thenReturn(Single.just(Collections.singletonList("checkpoint/commits/12")));
+    when(mockObjectStoreClient.readFileContent("checkpoint/offsets/12"))
+        .thenReturn(Single.just(offsetsFile(500L)));
+    when(mockObjectStoreClient.listObjects("checkpoint-payments/commits/"))
+        .thenReturn(Single.just(Collections.singletonList("checkpoint-payments/commits/3")));
+    when(mockObjectStoreClient.readFileContent("checkpoint-payments/offsets/3"))
+        .thenReturn(Single.just("v1\n{\"batchWatermarkMs\":0}\n{\"logs.payments\":{\"0\":70}}"));
+    when(mockObjectStoreClient.listObjects("checkpoint/commits/", "checkpoint/commits/1"))
+        .thenReturn(Single.just(Collections.singletonList("checkpoint/commits/12")));
+    when(mockObjectStoreClient.listObjects(
+            "checkpoint-payments/commits/", "checkpoint-payments/commits/"))
+        .thenReturn(Single.just(Collections.singletonList("checkpoint-payments/commits/3")));
+    sparkCheckpointService.getCheckpointOffsets(TENANT).blockingGet();
+
+    sparkCheckpointService.getCheckpointOffsets(TENANT).blockingGet();
+
+    verify(mockObjectStoreClient, times(1)).listObjects("checkpoint/commits/");
+    verify(mockObjectStoreClient, times(1)).listObjects("checkpoint-payments/commits/");
+    verify(mockObjectStoreClient, times(2)).readFileContent(anyString());
+  }
+}
@@ -4,17 +4,21 @@ import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.logwise.orchestrator.client.kafka.KafkaClient;
 import com.logwise.orchestrator.config.ApplicationConfig;
 import com.logwise.orchestrator.dao.SparkScaleOverrideDao;
 import com.logwise.orchestrator.dao.SparkStageHistoryDao;
 import com.logwise.orchestrator.dto.entity.SparkScaleOverride;
 import com.logwise.orchestrator.dto.entity.SparkStageHistory;
+import com.logwise.orchestrator.dto.kafka.SparkCheckpointOffsets;
 import com.logwise.orchestrator.dto.request.SubmitSparkJobRequest;
 import com.logwise.orchestrator.dto.request.UpdateSparkScaleOverrideRequest;
 import com.logwise.orchestrator.dto.response.GetSparkStageHistoryResponse;
 import com.logwise.orchestrator.dto.response.SparkMasterJsonResponse;
 import com.logwise.orchestrator.dto.response.SparkMasterJsonResponse.Driver;
 import com.logwise.orchestrator.enums.Tenant;
+import com.logwise.orchestrator.factory.KafkaClientFactory;
+import com.logwise.orchestrator.service.SparkCheckpointService;
 import com.logwise.orchestrator.service.SparkService;
 import com.logwise.orchestrator.setup.BaseTest;
 import com.logwise.orchestrator.testconfig.ApplicationTestConfig;
@@ -27,7 +31,10 @@ import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import org.apache.kafka.common.TopicPartition;
 import org.mockito.MockedStatic;
 import org.mockito.Mockito;
 import org.testng.Assert;
@@ -42,6 +49,8 @@ public class SparkServiceTest extends BaseTest {
   private ObjectMapper mockObjectMapper;
   private SparkStageHistoryDao mockSparkStageHistoryDao;
   private SparkScaleOverrideDao mockSparkScaleOverrideDao;
+  private KafkaClientFactory mockKafkaClientFactory;
+  private SparkCheckpointService mockSparkCheckpointService;
 
   @BeforeMethod
   public void setUp() throws Exception {
@@ -50,6 +59,8 @@ public class SparkServiceTest extends BaseTest {
     mockObjectMapper = mock(ObjectMapper.class);
     mockSparkStageHistoryDao = mock(SparkStageHistoryDao.class);
     mockSparkScaleOverrideDao = mock(SparkScaleOverrideDao.class);
+    mockKafkaClientFactory = mock(KafkaClientFactory.class);
+    mockSparkCheckpointService = mock(SparkCheckpointService.class);
     io.vertx.reactivex.core.Vertx reactiveVertx = BaseTest.getReactiveVertx();
     sparkService =
         new SparkService(
@@ -57,7 +68,9 @@ public class SparkServiceTest extends BaseTest {
             mockWebClient,
             mockObjectMapper,
             mockSparkStageHistoryDao,
-            mockSparkScaleOverrideDao);
+            mockSparkScaleOverrideDao,
+            mockKafkaClientFactory,
+            mockSparkCheckpointService);
     io.vertx.reactivex.ext.web.client.WebClient reactiveWebClient =
         mock(io.vertx.reactivex.ext.web.client.WebClient.class);
     when(mockWebClient.getWebClient()).thenReturn(reactiveWebClient);
@@ -345,6 +358,153 @@ public class SparkServiceTest extends BaseTest {
     Assert.assertTrue(endpoint.contains("us-west-2"));
   }
 
+  @Test
+  public void testGetSparkSubmitRequestBody_WithCompressionCodec_PassesCodecAppArg()
+      throws Exception {
+    Method method =
+        SparkService.class.getDeclaredMethod(
+            "getSparkSubmitRequestBody",
+            ApplicationConfig.TenantConfig.class,
+            Integer.class,
+            Integer.class);
+    method.setAccessible(true);
+
+    ApplicationConfig.TenantConfig tenantConfig =
+        ApplicationTestConfig.createMockTenantConfig("ABC");
+    tenantConfig.getSpark().setParquetCompressionCodec("zstd");
+
+    SubmitSparkJobRequest request =
+        (SubmitSparkJobRequest) method.invoke(null, tenantConfig, null, null);
+
+    Assert.assertTrue(request.getAppArgs().contains("spark.parquet.compression.codec=zstd"));
+  }
+
+  @Test
+  public void testGetSparkSubmitRequestBody_WithoutCompressionCodec_OmitsCodecAppArg()
+      throws Exception {
+    Method method =
+        SparkService.class.getDeclaredMethod(
+            "getSparkSubmitRequestBody",
+            ApplicationConfig.TenantConfig.class,
+            Integer.class,
+            Integer.class);
+    method.setAccessible(true);
+
+    ApplicationConfig.TenantConfig tenantConfig =
+        ApplicationTestConfig.createMockTenantConfig("ABC");
+    tenantConfig.getSpark().setParquetCompressionCodec(null);
+
+    SubmitSparkJobRequest request =
+        (SubmitSparkJobRequest) method.invoke(null, tenantConfig, null, null);
+
+    Assert.assertTrue(
+        request.getAppArgs().stream()
+            .noneMatch(arg -> arg.startsWith("spark.parquet.compression.codec=")));
+  }
+
+  @Test
+  public void testGetSparkSubmitRequestBody_WithPartitionGranularity_PassesDefaultAndOverrides()
+      throws Exception {
+    Method method =
+        SparkService.class.getDeclaredMethod(
+            "getSparkSubmitRequestBody",
+            ApplicationConfig.TenantConfig.class,
+            Integer.class,
+            Integer.class);
+    method.setAccessible(true);
+
+    ApplicationConfig.TenantConfig tenantConfig =
+        ApplicationTestConfig.createMockTenantConfig("ABC");
+    ApplicationConfig.ServicePartitionGranularityConfig override =
+        new ApplicationConfig.ServicePartitionGranularityConfig();
+    override.setServiceName("payments-api");
+    override.setGranularity("minute");
+    tenantConfig.getSpark().setPartitionGranularity("hour");
+    tenantConfig.getSpark().setServicePartitionGranularities(List.of(override));
+
+    SubmitSparkJobRequest request =
+        (SubmitSparkJobRequest) method.invoke(null, tenantConfig, null, null);
+
+    Assert.assertTrue(request.getAppArgs().contains("s3.partition.granularity.default=hour"));
+    Assert.assertTrue(
+        request.getAppArgs().contains("s3.partition.granularity.services.\"payments-api\"=minute"));
+  }
+
+  @Test
+  public void testGetSparkSubmitRequestBody_WithSortByTimestamp_PassesSortAppArg()
+      throws Exception {
+    Method method =
+        SparkService.class.getDeclaredMethod(
+            "getSparkSubmitRequestBody",
+            ApplicationConfig.TenantConfig.class,
+            Integer.class,
+            Integer.class);
+    method.setAccessible(true);
+
+    ApplicationConfig.TenantConfig tenantConfig =
+        ApplicationTestConfig.createMockTenantConfig("ABC");
+    tenantConfig.getSpark().setSortByTimestamp(true);
+
+    SubmitSparkJobRequest request =
+        (SubmitSparkJobRequest) method.invoke(null, tenantConfig, null, null);
+
+    Assert.assertTrue(request.getAppArgs().contains("s3.sortByTimestamp.enable=true"));
+  }
+
+  @Test
+  public void testGetSparkSubmitRequestBody_WithSortByTimestampServices_PassesOneArgPerService()
+      throws Exception {
+    Method method =
+        SparkService.class.getDeclaredMethod(
+            "getSparkSubmitRequestBody",
+            ApplicationConfig.TenantConfig.class,
+            Integer.class,
+            Integer.class);
+    method.setAccessible(true);
+
+    ApplicationConfig.TenantConfig tenantConfig =
+        ApplicationTestConfig.createMockTenantConfig("ABC");
+    tenantConfig.getSpark().setSortByTimestampServices(List.of("checkout"));
+
+    SubmitSparkJobRequest request =
+        (SubmitSparkJobRequest) method.invoke(null, tenantConfig, null, null);
+
+    Assert.assertTrue(
+        request.getAppArgs().contains("s3.sortByTimestamp.services.\"checkout\"=true"));
+  }
+
+  @Test
+  public void testGetSparkSubmitRequestBody_WithKafkaConsumer_PassesOnlySetOptions()
+      throws Exception {
+    Method method =
+        SparkService.class.getDeclaredMethod(
+            "getSparkSubmitRequestBody",
+            ApplicationConfig.TenantConfig.class,
+            Integer.class,
+            Integer.class);
+    method.setAccessible(true);
+
+    ApplicationConfig.TenantConfig tenantConfig =
+        ApplicationTestConfig.createMockTenantConfig("ABC");
+    ApplicationConfig.SparkKafkaConsumerConfig kafkaConsumer =
+        new ApplicationConfig.SparkKafkaConsumerConfig();
+    kafkaConsumer.setMaxPartitionFetchBytes(10485760L);
+    kafkaConsumer.setPollTimeoutMs(30000L);
+    kafkaConsumer.setMinPartitions(24);
+    tenantConfig.getSpark().setKafkaConsumer(kafkaConsumer);
+
+    SubmitSparkJobRequest request =
+        (SubmitSparkJobRequest) method.invoke(null, tenantConfig, null, null);
+
+    Assert.assertTrue(
+        request.getAppArgs().contains("kafka.consumer.maxPartitionFetchBytes=10485760"));
+    Assert.assertTrue(request.getAppArgs().contains("kafka.consumer.pollTimeoutMs=30000"));
+    Assert.assertTrue(request.getAppArgs().contains("kafka.minPartitions=24"));
+    Assert.assertTrue(
+        request.getAppArgs().stream()
+            .noneMatch(arg -> arg.startsWith("kafka.consumer.fetchMaxBytes=")));
+  }
+
   @Test
   public void testGetSparkSubmitRequestBody_WithUsEast1Region_SetsCorrectEndpoint()
       throws Exception {
@@ -400,6 +560,7 @@ public class SparkServiceTest extends BaseTest {
       result.blockingAwait();
 
       verify(mockObjectStoreClient, atLeastOnce()).deleteFile(anyString());
+      verify(mockSparkCheckpointService).invalidate(tenant);
     }
   }
 
@@ -1303,6 +1464,82 @@ public class SparkServiceTest extends BaseTest {
     }
   }
 
+  @Test
+  public void testGetKafkaLag_WithCheckpointOffsets_SubtractsCommittedFromEndOffsets()
+      throws Exception {
+    Tenant tenant = Tenant.ABC;
+    TopicPartition orders0 = new TopicPartition("logs.orders", 0);
+    TopicPartition orders1 = new TopicPartition("logs.orders", 1);
+
+    try (MockedStatic<ApplicationConfigUtil> mockedConfigUtil =
+        Mockito.mockStatic(ApplicationConfigUtil.class)) {
+      ApplicationConfig.TenantConfig tenantConfig =
+          ApplicationTestConfig.createMockTenantConfig("ABC");
+      mockedConfigUtil
+          .when(() -> ApplicationConfigUtil.getTenantConfig(tenant))
+          .thenReturn(tenantConfig);
+      Map<TopicPartition, Long> committed = new HashMap<>();
+      committed.put(orders0, 1000L);
+      committed.put(orders1, 2000L);
+      when(mockSparkCheckpointService.getCheckpointOffsets(tenant))
+          .thenReturn(
+              Single.just(
+                  SparkCheckpointOffsets.builder()
+                      .checkpointPath("checkpoint")
+                      .batchId(3L)
+                      .offsets(committed)
+                      .available(true)
+                      .build()));
+      KafkaClient mockKafkaClient = mock(KafkaClient.class);
+      Map<TopicPartition, Long> endOffsets = new HashMap<>();
+      endOffsets.put(orders0, 1500L);
+      endOffsets.put(orders1, 2000L);
+      when(mockKafkaClient.getEndOffsets(anyList())).thenReturn(Single.just(endOffsets));
+      when(mockKafkaClientFactory.getKafkaClient(tenant)).thenReturn(mockKafkaClient);
+
+      Method method = SparkService.class.getDeclaredMethod("getKafkaLag", Tenant.class);
+      method.setAccessible(true);
+      Long lag = ((Single<Long>) method.invoke(sparkService, tenant)).blockingGet();
+
+      Assert.assertEquals(lag, Long.valueOf(500L));
+      verify(mockKafkaClient, never()).close();
+    }
+  }
+
+  @Test
+  public void testGetLagExpectedExecutorCount_WithLag_AddsRecordsToDrainItWithinSla()
+      throws Exception {
+    Method method =
+        SparkService.class.getDeclaredMethod(
+            "getLagExpectedExecutorCount",
+            List.class,
+            long.class,
+            ApplicationConfig.TenantConfig.class);
+    method.setAccessible(true);
+
+    ApplicationConfig.TenantConfig tenantConfig =
+        ApplicationTestConfig.createMockTenantConfig("ABC");
+    ApplicationConfig.SparkConfig sparkConfig = tenantConfig.getSpark();
+    sparkConfig.setPerCoreLogsProcess(1000);
+    sparkConfig.setExecutorCoresPerMachine(4);
+    sparkConfig.getLagScaling().setDrainSlaSeconds(600);
+    sparkConfig.getLagScaling().setBatchIntervalSeconds(60);
+
+    List<SparkStageHistory> history = new ArrayList<>();
+    for (int i = 0; i < 5; i++) {
+      SparkStageHistory stageHistory = new SparkStageHistory();
+      stageHistory.setInputRecords(8000L);
+      history.add(stageHistory);
+    }
+
+    // 8000 per batch plus 120000 / (600 / 60) to drain = 20000 records, 20 cores, 5 workers
+    Integer result = (Integer) method.invoke(sparkService, history, 120_000L, tenantConfig);
+    Integer withoutLag = (Integer) method.invoke(sparkService, history, 0L, tenantConfig);
+
+    Assert.assertEquals(result, Integer.valueOf(5));
+    Assert.assertEquals(withoutLag, Integer.valueOf(2));
+  }
+
   // ========== Comprehensive Tests for getExpectedExecutorCount ==========
 
   @Test
@@ -0,0 +1,38 @@
+package com.logwise.orchestrator.tests.unit.util;
+
+import com.logwise.orchestrator.util.PrometheusUtils;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/** Unit tests for PrometheusUtils. */
+public class PrometheusUtilsTest {
+
+  @Test
+  public void testAppendGauge_WritesHelpAndType() {
+    StringBuilder builder = new StringBuilder();
+
+    PrometheusUtils.appendGauge(builder, "logwise_kafka_lag_records", "Records not yet read.");
+
+    Assert.assertEquals(
+        builder.toString(),
+        "# HELP logwise_kafka_lag_records Records not yet read.\n"
+            + "# TYPE logwise_kafka_lag_records gauge\n");
+  }
+
+  @Test
+  public void testAppendSample_WithLabels_EscapesValues() {
+    Map<String, String> labels = new LinkedHashMap<>();
+    labels.put("tenant", "ABC");
+    labels.put("service", "a\"b\\c");
+    StringBuilder builder = new StringBuilder();
+
+    PrometheusUtils.appendSample(builder, "logwise_lag", labels, 42);
+    PrometheusUtils.appendSample(builder, "logwise_lag_seconds", Map.of(), 1.5);
+
+    Assert.assertEquals(
+        builder.toString(),
+        "logwise_lag{tenant=\"ABC\",service=\"a\\\"b\\\\c\"} 42\n" + "logwise_lag_seconds 1.5\n");
+  }
+}
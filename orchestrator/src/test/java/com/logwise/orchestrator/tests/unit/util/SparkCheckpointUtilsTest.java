@@ -0,0 +1,46 @@
+package com.logwise.orchestrator.tests.unit.util;
+
+import com.logwise.orchestrator.util.SparkCheckpointUtils;
+import java.util.Map;
+import org.apache.kafka.common.TopicPartition;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/** Unit tests for SparkCheckpointUtils. */
+public class SparkCheckpointUtilsTest {
+
+  private static final String OFFSETS_FILE =
+      "v1\n"
+          + "{\"batchWatermarkMs\":0,\"batchTimestampMs\":1700000000000,\"conf\":{}}\n"
+          + "{\"logs.orders\":{\"0\":1200,\"1\":800},\"logs.search\":{\"0\":42}}";
+
+  @Test
+  public void testGetBatchId_WithBatchFile_ReturnsBatchId() {
+    Assert.assertEquals(
+        SparkCheckpointUtils.getBatchId("checkpoint/commits/125"), Long.valueOf(125));
+  }
+
+  @Test
+  public void testGetBatchId_WithOtherFile_ReturnsNull() {
+    Assert.assertNull(SparkCheckpointUtils.getBatchId("checkpoint/commits/.125.crc"));
+    Assert.assertNull(SparkCheckpointUtils.getBatchId("checkpoint/offsets/"));
+  }
+
+  @Test
+  public void testParseOffsets_WithKafkaSource_ReturnsOffsetPerPartition() {
+    Map<TopicPartition, Long> offsets = SparkCheckpointUtils.parseOffsets(OFFSETS_FILE);
+
+    Assert.assertEquals(offsets.size(), 3);
+    Assert.assertEquals(offsets.get(new TopicPartition("logs.orders", 0)), Long.valueOf(1200));
+    Assert.assertEquals(offsets.get(new TopicPartition("logs.orders", 1)), Long.valueOf(800));
+    Assert.assertEquals(offsets.get(new TopicPartition("logs.search", 0)), Long.valueOf(42));
+  }
+
+  @Test
+  public void testParseOffsets_WithoutSourceOffsets_ReturnsEmpty() {
+    Map<TopicPartition, Long> offsets =
+        SparkCheckpointUtils.parseOffsets("v1\n{\"batchWatermarkMs\":0}\n-");
+
+    Assert.assertTrue(offsets.isEmpty());
+  }
+}
@@ -0,0 +1,46 @@
+package com.logwise.orchestrator.tests.unit.verticle;
+
+import static org.mockito.Mockito.*;
+
+import com.logwise.orchestrator.config.ApplicationConfig;
+import com.logwise.orchestrator.config.ApplicationConfigProvider;
+import com.logwise.orchestrator.enums.Tenant;
+import com.logwise.orchestrator.service.MetricsCollectorService;
+import com.logwise.orchestrator.setup.BaseTest;
+import com.logwise.orchestrator.testconfig.ApplicationTestConfig;
+import com.logwise.orchestrator.verticle.MetricsCollectorVerticle;
+import io.reactivex.Completable;
+import java.lang.reflect.Method;
+import java.util.List;
+import org.mockito.MockedStatic;
+import org.mockito.Mockito;
+import org.testng.annotations.Test;
+
+/** Unit tests for MetricsCollectorVerticle. */
+public class MetricsCollectorVerticleTest extends BaseTest {
+
+  @Test
+  public void testRefreshSnapshots_RefreshesEveryTenantDespiteErrors() throws Exception {
+    MetricsCollectorService mockMetricsCollectorService = mock(MetricsCollectorService.class);
+    when(mockMetricsCollectorService.refreshSnapshot(Tenant.ABC))
+        .thenReturn(Completable.error(new RuntimeException("object store down")))
+        .thenReturn(Completable.complete());
+    ApplicationConfig applicationConfig = new ApplicationConfig();
+    applicationConfig.setTenants(List.of(ApplicationTestConfig.createMockTenantConfig("ABC")));
+    MetricsCollectorVerticle verticle = new MetricsCollectorVerticle(mockMetricsCollectorService);
+    Method refreshSnapshots = MetricsCollectorVerticle.class.getDeclaredMethod("refreshSnapshots");
+    refreshSnapshots.setAccessible(true);
+
+    try (MockedStatic<ApplicationConfigProvider> mockedProvider =
+        Mockito.mockStatic(ApplicationConfigProvider.class)) {
+      mockedProvider
+          .when(ApplicationConfigProvider::getApplicationConfig)
+          .thenReturn(applicationConfig);
+      refreshSnapshots.invoke(verticle);
+      // a failed refresh does not block the next one
+      refreshSnapshots.invoke(verticle);
+    }
+
+    verify(mockMetricsCollectorService, times(2)).refreshSnapshot(Tenant.ABC);
+  }
+}
@@ -0,0 +1,88 @@
+package com.logwise.spark.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Properties;
+import java.util.stream.Collectors;
+import kafka.server.KafkaServerStartable;
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.AdminClientConfig;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.zookeeper.server.ServerCnxnFactory;
+import org.apache.zookeeper.server.ZooKeeperServer;
+
+/** Single in-process ZooKeeper and Kafka broker listening on 127.0.0.1, for benchmarks only. */
+final class EmbeddedKafkaCluster implements AutoCloseable {
+  static final String HOST = "127.0.0.1";
+
+  private final ServerCnxnFactory zooKeeperFactory;
+  private final KafkaServerStartable broker;
+  private final int port;
+
+  EmbeddedKafkaCluster(Path dataDir, int partitions) throws IOException, InterruptedException {
+    File zooKeeperDir = Files.createDirectories(dataDir.resolve("zookeeper")).toFile();
+    zooKeeperFactory = ServerCnxnFactory.createFactory(new InetSocketAddress(HOST, 0), 1024);
+    zooKeeperFactory.startup(new ZooKeeperServer(zooKeeperDir, zooKeeperDir, 500));
+
+    port = getFreePort();
+    Properties props = new Properties();
+    props.put("broker.id", "0");
+    props.put("zookeeper.connect", HOST + ":" + zooKeeperFactory.getLocalPort());
+    props.put("listeners", "PLAINTEXT://" + HOST + ":" + port);
+    props.put("log.dirs", dataDir.resolve("kafka").toString());
+    props.put("num.partitions", String.valueOf(partitions));
+    props.put("auto.create.topics.enable", "false");
+    props.put("offsets.topic.replication.factor", "1");
+    props.put("transaction.state.log.replication.factor", "1");
+    props.put("transaction.state.log.min.isr", "1");
+    props.put("group.initial.rebalance.delay.ms", "0");
+    try {
+      broker = KafkaServerStartable.fromProps(props);
+      broker.startup();
+    } catch (RuntimeException | LinkageError e) {
+      // ZooKeeper threads are not daemons and would keep the JVM from exiting
+      zooKeeperFactory.shutdown();
+      throw e;
+    }
+  }
+
+  int getPort() {
+    return port;
+  }
+
+  String getBootstrapServers() {
+    return HOST + ":" + port;
+  }
+
+  void createTopics(List<String> topics, int partitions) throws Exception {
+    Properties props = new Properties();
+    props.put(AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG, getBootstrapServers());
+    try (AdminClient adminClient = AdminClient.create(props)) {
+      adminClient
+          .createTopics(
+              topics.stream()
+                  .map(topic -> new NewTopic(topic, partitions, (short) 1))
+                  .collect(Collectors.toList()))
+          .all()
+          .get();
+    }
+  }
+
+  @Override
+  public void close() {
+    broker.shutdown();
+    broker.awaitShutdown();
+    zooKeeperFactory.shutdown();
+  }
+
+  private static int getFreePort() throws IOException {
+    try (ServerSocket socket = new ServerSocket(0)) {
+      return socket.getLocalPort();
+    }
+  }
+}
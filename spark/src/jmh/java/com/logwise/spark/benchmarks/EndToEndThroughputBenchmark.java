@@ -0,0 +1,371 @@
+package com.logwise.spark.benchmarks;
+
+import static org.apache.spark.sql.functions.*;
+
+import com.google.inject.util.Modules;
+import com.google.protobuf.Timestamp;
+import com.logwise.spark.clients.LogCentralOrchestratorClient;
+import com.logwise.spark.clients.SparkMasterClient;
+import com.logwise.spark.configs.ApplicationConfig;
+import com.logwise.spark.constants.Constants;
+import com.logwise.spark.constants.StreamName;
+import com.logwise.spark.dto.request.ScaleSparkClusterRequest;
+import com.logwise.spark.dto.response.GetServiceDetailsResponse;
+import com.logwise.spark.dto.response.SparkMasterJsonResponse;
+import com.logwise.spark.guice.injectors.ApplicationInjector;
+import com.logwise.spark.guice.modules.MainModule;
+import com.logwise.spark.protobuf.VectorLogs;
+import com.logwise.spark.singleton.CurrentSparkSession;
+import com.logwise.spark.stream.StreamFactory;
+import com.typesafe.config.Config;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.apache.commons.io.FileUtils;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.LocatedFileStatus;
+import org.apache.hadoop.fs.RemoteIterator;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.spark.sql.Dataset;
+import org.apache.spark.sql.Row;
+import org.apache.spark.sql.RowFactory;
+import org.apache.spark.sql.SparkSession;
+import org.apache.spark.sql.streaming.StreamingQuery;
+import org.apache.spark.sql.streaming.StreamingQueryListener;
+import org.apache.spark.sql.streaming.StreamingQueryProgress;
+import org.apache.spark.sql.types.DataTypes;
+import org.apache.spark.sql.types.StructType;
+
+/**
+ * End-to-end throughput of {@code ApplicationLogsStreamToS3} on one machine: an embedded Kafka
+ * broker, Spark {@code local[*]} and a local Parquet directory in place of S3.
+ *
+ * <p>A producer writes {@link VectorLogs} records at a fixed rate, round robin over {@code
+ * --topics} topics matching {@code kafka.topic.prefix.application}, while the stream started by
+ * {@code PushLogsToS3SparkJob} runs unchanged with the application config. Only the Spark master is
+ * replaced: it reports the local cores as used, so {@code maxOffsetsPerTrigger} is {@code cores *
+ * spark.eventProcessPerCore.count}, which makes the report usable to size that value and the
+ * orchestrator's {@code perCoreLogsProcess}.
+ *
+ * <p>Reported after {@code --warmup} seconds: the records/sec sustained by the query, the duration
+ * of its micro-batches, the latency from record timestamp to the close of the Parquet file holding
+ * it, and the number and size of the written files.
+ *
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:exec \
+ *   -Dbenchmark.main=com.logwise.spark.benchmarks.EndToEndThroughputBenchmark \
+ *   -Dbenchmark.args="--rate 200000 --topics 50 spark.eventProcessPerCore.count=500000"
+ * </pre>
+ *
+ * Arguments not starting with {@code --} are config overrides, as for {@code MainApplication}.
+ */
+public final class EndToEndThroughputBenchmark {
+  private static final String TOPIC_PREFIX = "logs.benchmark-";
+  private static final int MESSAGE_POOL_SIZE = 1024;
+  private static final double[] PERCENTILES = {0.5, 0.9, 0.99, 1.0};
+
+  private static final Map<String, String> DEFAULT_OPTIONS = new HashMap<>();
+
+  static {
+    DEFAULT_OPTIONS.put("rate", "50000");
+    DEFAULT_OPTIONS.put("topics", "20");
+    DEFAULT_OPTIONS.put("partitions", "4");
+    DEFAULT_OPTIONS.put("services", "100");
+    DEFAULT_OPTIONS.put("messageBytes", "512");
+    DEFAULT_OPTIONS.put("warmup", "60");
+    DEFAULT_OPTIONS.put("duration", "300");
+    DEFAULT_OPTIONS.put("trigger", "10");
+  }
+
+  private EndToEndThroughputBenchmark() {}
+
+  public static void main(String[] args) throws Exception {
+    Map<String, String> options = new HashMap<>(DEFAULT_OPTIONS);
+    List<String> configOverrides = new ArrayList<>();
+    for (int i = 0; i < args.length; i++) {
+      if (args[i].startsWith("--")) {
+        options.put(args[i].substring(2), args[++i]);
+      } else {
+        configOverrides.add(args[i]);
+      }
+    }
+    int topics = Integer.parseInt(options.get("topics"));
+    int partitions = Integer.parseInt(options.get("partitions"));
+    long warmupMillis = TimeUnit.SECONDS.toMillis(Long.parseLong(options.get("warmup")));
+    long durationMillis = TimeUnit.SECONDS.toMillis(Long.parseLong(options.get("duration")));
+
+    Path workDir = Files.createTempDirectory("logwise-e2e-benchmark");
+    try (EmbeddedKafkaCluster kafka = new EmbeddedKafkaCluster(workDir, partitions)) {
+      kafka.createTopics(
+          IntStream.range(0, topics).mapToObj(i -> TOPIC_PREFIX + i).collect(Collectors.toList()),
+          partitions);
+
+      Config config = getConfig(configOverrides, kafka.getPort(), options, workDir);
+      int cores = Runtime.getRuntime().availableProcessors();
+      SparkMasterJsonResponse sparkMaster = new SparkMasterJsonResponse();
+      sparkMaster.setCoresused(cores);
+      ApplicationInjector.initInjection(
+          Modules.override(new MainModule(config))
+              .with(
+                  binder -> {
+                    binder.bind(SparkMasterClient.class).toInstance(() -> sparkMaster);
+                    binder
+                        .bind(LogCentralOrchestratorClient.class)
+                        .toInstance(new NoOrchestratorClient());
+                  }));
+      System.setProperty("spark.master", "local[" + cores + "]");
+      System.setProperty("spark.app.name", EndToEndThroughputBenchmark.class.getSimpleName());
+      SparkSession sparkSession = CurrentSparkSession.getInstance().getSparkSession();
+      ProgressCollector progress = new ProgressCollector();
+      sparkSession.streams().addListener(progress);
+
+      AtomicBoolean producing = new AtomicBoolean(true);
+      AtomicLong produced = new AtomicLong();
+      Thread producer =
+          new Thread(() -> produce(kafka.getBootstrapServers(), options, producing, produced));
+      producer.start();
+      List<StreamingQuery> queries =
+          StreamFactory.getStream(StreamName.APPLICATION_LOGS_STREAM_TO_S3)
+              .startStreams(sparkSession);
+
+      long start = System.currentTimeMillis();
+      Thread.sleep(warmupMillis + durationMillis);
+      producing.set(false);
+      producer.join();
+      long drainDeadline =
+          System.currentTimeMillis()
+              + TimeUnit.SECONDS.toMillis(4L * config.getLong("spark.processing.time.seconds"));
+      while (progress.getInputRows() < produced.get()
+          && System.currentTimeMillis() < drainDeadline) {
+        Thread.sleep(1_000);
+      }
+      for (StreamingQuery query : queries) {
+        query.stop();
+      }
+
+      System.out.printf(
+          "%nRecords produced: %d, consumed: %d, cores: %d, maxOffsetsPerTrigger: %d%n",
+          produced.get(),
+          progress.getInputRows(),
+          cores,
+          cores * config.getLong("spark.eventProcessPerCore.count"));
+      progress.report(start + warmupMillis);
+      reportOutput(sparkSession, config.getString("s3.path.logs.application"), start);
+    } finally {
+      FileUtils.deleteQuietly(workDir.toFile());
+    }
+    System.exit(0);
+  }
+
+  /**
+   * Layers the benchmark settings under the command line overrides and over {@code
+   * application.conf}, so S3 and checkpoint paths point into the work directory and offsets per
+   * trigger depend on the cores alone.
+   */
+  private static Config getConfig(
+      List<String> configOverrides, int kafkaPort, Map<String, String> options, Path workDir) {
+    List<String> args = new ArrayList<>(configOverrides);
+    args.addAll(
+        Arrays.asList(
+            "X-Tenant-Name=benchmark",
+            // read by MainModule, whose clients are replaced in main
+            "logCentral.orchestrator.url=\"http://" + EmbeddedKafkaCluster.HOST + ":1\"",
+            "spark.master.host=\"http://" + EmbeddedKafkaCluster.HOST + ":1\"",
+            "s3.bucket=benchmark",
+            "kafka.cluster.dns=" + EmbeddedKafkaCluster.HOST,
+            "kafka.bootstrap.servers.port=" + kafkaPort,
+            "kafka.startingOffsets=earliest",
+            "s3.path.logs.application=" + workDir.resolve("logs").toUri(),
+            "s3.path.checkpoint.application=" + workDir.resolve("checkpoint").toUri(),
+            "spark.processing.time.seconds=" + options.get("trigger"),
+            "spark.offsetPerTrigger.min=1",
+            "spark.offsetPerTrigger.buffer=0",
+            "spark.offsetPerTrigger.adaptive.enable=false",
+            "spark.scale.downscale.enable=false",
+            "spark.scale.upscale.enable=false",
+            // the query is started once, not restarted by PushLogsToS3SparkJob after each batch
+            "spark.streamingquery.longRunning.enable=true",
+            "sparkConfig.\"spark.dynamicAllocation.enabled\"=false",
+            "sparkConfig.\"spark.shuffle.service.enabled\"=false"));
+    return ApplicationConfig.getConfig(args.toArray(new String[0]));
+  }
+
+  /** Sends records at {@code --rate} per second until {@code producing} is cleared. */
+  private static void produce(
+      String bootstrapServers,
+      Map<String, String> options,
+      AtomicBoolean producing,
+      AtomicLong produced) {
+    long rate = Long.parseLong(options.get("rate"));
+    int topics = Integer.parseInt(options.get("topics"));
+    int services = Integer.parseInt(options.get("services"));
+    int messageBytes = Integer.parseInt(options.get("messageBytes"));
+    Random random = new Random(rate);
+    String[] messages = new String[MESSAGE_POOL_SIZE];
+    for (int i = 0; i < messages.length; i++) {
+      messages[i] = LogCorpus.message(random, messageBytes);
+    }
+
+    Properties props = new Properties();
+    props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+    props.put(ProducerConfig.ACKS_CONFIG, "1");
+    props.put(ProducerConfig.LINGER_MS_CONFIG, "5");
+    props.put(ProducerConfig.BATCH_SIZE_CONFIG, String.valueOf(256 * 1024));
+    try (KafkaProducer<byte[], byte[]> producer =
+        new KafkaProducer<>(props, new ByteArraySerializer(), new ByteArraySerializer())) {
+      long startNanos = System.nanoTime();
+      long sent = 0;
+      while (producing.get()) {
+        long due = (System.nanoTime() - startNanos) * rate / TimeUnit.SECONDS.toNanos(1);
+        if (sent >= due) {
+          Thread.sleep(1);
+          continue;
+        }
+        for (; sent < due; sent++) {
+          long nowMillis = System.currentTimeMillis();
+          byte[] value =
+              VectorLogs.newBuilder()
+                  .setServiceName("service-" + random.nextInt(services))
+                  .setLogLevel("INFO")
+                  .setMessage(messages[(int) (sent % MESSAGE_POOL_SIZE)])
+                  .setTimestamp(
+                      Timestamp.newBuilder()
+                          .setSeconds(nowMillis / 1_000)
+                          .setNanos((int) (nowMillis % 1_000) * 1_000_000))
+                  .build()
+                  .toByteArray();
+          producer.send(new ProducerRecord<>(TOPIC_PREFIX + (sent % topics), value));
+        }
+        produced.set(sent);
+      }
+      producer.flush();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * Prints the latency from record timestamp to the modification time of its Parquet file, and the
+   * number and size of the files written after {@code since}.
+   */
+  private static void reportOutput(SparkSession sparkSession, String path, long since)
+      throws Exception {
+    org.apache.hadoop.fs.Path root = new org.apache.hadoop.fs.Path(path);
+    FileSystem fs = root.getFileSystem(sparkSession.sparkContext().hadoopConfiguration());
+    List<Row> files = new ArrayList<>();
+    long bytes = 0;
+    RemoteIterator<LocatedFileStatus> iterator = fs.listFiles(root, true);
+    while (iterator.hasNext()) {
+      LocatedFileStatus file = iterator.next();
+      if (file.getPath().getName().endsWith(".parquet") && file.getModificationTime() >= since) {
+        files.add(RowFactory.create(file.getPath().getName(), file.getModificationTime()));
+        bytes += file.getLen();
+      }
+    }
+    System.out.printf(
+        "Output files: %d, total: %d bytes, average: %d bytes%n",
+        files.size(), bytes, files.isEmpty() ? 0 : bytes / files.size());
+    if (files.isEmpty()) {
+      return;
+    }
+
+    StructType fileSchema =
+        new StructType()
+            .add("file_name", DataTypes.StringType)
+            .add("modification_time", DataTypes.LongType);
+    Dataset<Row> latencies =
+        sparkSession
+            .read()
+            .parquet(path)
+            .withColumn("file_name", substring_index(input_file_name(), "/", -1))
+            .join(sparkSession.createDataFrame(files, fileSchema), "file_name")
+            .select(
+                col("modification_time")
+                    .minus(expr("unix_millis(" + Constants.APPLICATION_LOG_COLUMN_TIMESTAMP + ")"))
+                    .as("latency_ms"));
+    double[] quantiles = latencies.stat().approxQuantile("latency_ms", PERCENTILES, 0.001);
+    System.out.printf(
+        "Latency to file close (ms): p50 %.0f, p90 %.0f, p99 %.0f, max %.0f%n",
+        quantiles[0], quantiles[1], quantiles[2], quantiles[3]);
+  }
+
+  /** Drops the stage history posted after every micro-batch, there is no orchestrator. */
+  private static final class NoOrchestratorClient implements LogCentralOrchestratorClient {
+    @Override
+    public Map<String, Object> postScaleSparkCluster(
+        Map<String, String> headers, ScaleSparkClusterRequest request) {
+      return Collections.emptyMap();
+    }
+
+    @Override
+    public GetServiceDetailsResponse getServiceDetails(Map<String, String> headers) {
+      throw new UnsupportedOperationException("kafka.fairShare.enable is not supported");
+    }
+  }
+
+  /** Collects the progress of every micro-batch of the benchmarked query. */
+  private static final class ProgressCollector extends StreamingQueryListener {
+    private final List<StreamingQueryProgress> batches = new CopyOnWriteArrayList<>();
+
+    long getInputRows() {
+      return batches.stream().mapToLong(StreamingQueryProgress::numInputRows).sum();
+    }
+
+    /** Prints the rows per second and batch durations of the batches that ended after warmup. */
+    void report(long measuredFrom) {
+      List<StreamingQueryProgress> measured =
+          batches.stream()
+              .filter(batch -> batch.numInputRows() > 0)
+              .filter(batch -> batch.batchDuration() > 0)
+              .filter(batch -> Instant.parse(batch.timestamp()).toEpochMilli() >= measuredFrom)
+              .collect(Collectors.toList());
+      if (measured.isEmpty()) {
+        System.out.println("No micro-batch completed after warmup");
+        return;
+      }
+      long rows = measured.stream().mapToLong(StreamingQueryProgress::numInputRows).sum();
+      long busyMillis = measured.stream().mapToLong(StreamingQueryProgress::batchDuration).sum();
+      long[] durations =
+          measured.stream().mapToLong(StreamingQueryProgress::batchDuration).sorted().toArray();
+      System.out.printf(
+          "Micro-batches: %d, records: %d, sustained: %.0f records/sec (%.0f per core)%n",
+          measured.size(),
+          rows,
+          rows * 1_000.0 / busyMillis,
+          rows * 1_000.0 / busyMillis / Runtime.getRuntime().availableProcessors());
+      System.out.printf(
+          "Batch duration (ms): p50 %d, p90 %d, max %d%n",
+          durations[durations.length / 2],
+          durations[(int) (durations.length * 0.9)],
+          durations[durations.length - 1]);
+    }
+
+    @Override
+    public void onQueryStarted(QueryStartedEvent event) {}
+
+    @Override
+    public void onQueryProgress(QueryProgressEvent event) {
+      batches.add(event.progress());
+    }
+
+    @Override
+    public void onQueryTerminated(QueryTerminatedEvent event) {}
+  }
+}
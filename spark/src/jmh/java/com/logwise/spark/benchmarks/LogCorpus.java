@@ -0,0 +1,59 @@
+package com.logwise.spark.benchmarks;
+
+import com.google.protobuf.Timestamp;
+import com.logwise.spark.protobuf.VectorLogs;
+import java.util.Random;
+
+/**
+ * Deterministic corpus of serialized {@link VectorLogs} records shaped like a Kafka partition:
+ * timestamps advance in arrival order, services are drawn from a fixed pool and messages are
+ * printable log text of a fixed size.
+ */
+final class LogCorpus {
+  static final int RECORDS = 1024;
+
+  private static final long START_EPOCH_SECOND = 1_700_000_000L;
+  private static final String WORDS =
+      "GET POST /api/v1/orders user_id=42 status=200 latency_ms=17 cache=miss retry=0 "
+          + "INFO WARN ERROR request completed upstream timeout connection reset ";
+
+  final byte[][] values = new byte[RECORDS][];
+  final Timestamp[] timestamps = new Timestamp[RECORDS];
+
+  LogCorpus(int messageBytes, int serviceCount) {
+    Random random = new Random(messageBytes * 31L + serviceCount);
+    long micros = START_EPOCH_SECOND * 1_000_000L;
+    for (int i = 0; i < RECORDS; i++) {
+      micros += random.nextInt(50_000);
+      Timestamp timestamp =
+          Timestamp.newBuilder()
+              .setSeconds(micros / 1_000_000L)
+              .setNanos((int) (micros % 1_000_000L) * 1_000)
+              .build();
+      timestamps[i] = timestamp;
+      values[i] =
+          VectorLogs.newBuilder()
+              .setServiceName("service-" + random.nextInt(serviceCount))
+              .setLogLevel("INFO")
+              .setMessage(message(random, messageBytes))
+              .setTimestamp(timestamp)
+              .setHost("ip-10-0-0-" + random.nextInt(serviceCount))
+              .setPod("pod-" + random.nextInt(serviceCount * 4))
+              .putAttributes("http.method", "GET")
+              .putAttributes("http.status_code", String.valueOf(200 + random.nextInt(4) * 100))
+              .build()
+              .toByteArray();
+    }
+  }
+
+  static String message(Random random, int messageBytes) {
+    StringBuilder message = new StringBuilder(messageBytes);
+    message.append("trace_id=").append(Long.toHexString(random.nextLong())).append(' ');
+    while (message.length() < messageBytes) {
+      int start = random.nextInt(WORDS.length());
+      message.append(WORDS, start, Math.min(WORDS.length(), start + 16));
+    }
+    message.setLength(messageBytes);
+    return message.toString();
+  }
+}
@@ -0,0 +1,161 @@
+package com.logwise.spark.benchmarks;
+
+import static org.apache.spark.sql.functions.col;
+
+import com.logwise.spark.constants.Constants;
+import com.logwise.spark.expressions.TimePartitionKeys;
+import com.logwise.spark.expressions.VectorLogsDecoder;
+import com.logwise.spark.protobuf.VectorLogs;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.apache.commons.io.FileUtils;
+import org.apache.spark.api.java.JavaSparkContext;
+import org.apache.spark.sql.Dataset;
+import org.apache.spark.sql.Row;
+import org.apache.spark.sql.RowFactory;
+import org.apache.spark.sql.SparkSession;
+import org.apache.spark.sql.types.DataTypes;
+import org.apache.spark.sql.types.StructType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Time to write a batch of decoded records as Parquet for each compression codec of the S3 sink,
+ * and the size of the written files.
+ *
+ * <p>Records are decoded and partitioned like {@code ApplicationLogsStreamToS3} and written with a
+ * local Spark session to a temporary directory. {@code sample} is an optional recorded file of
+ * length-delimited {@link VectorLogs} messages as produced by {@code writeDelimitedTo}; without it
+ * {@code records} synthetic records of {@link LogCorpus} are written. The Parquet size and the
+ * protobuf to Parquet ratio are printed once per codec. On Spark 3.1, lz4 and zstd rely on the
+ * native Hadoop codecs and fail when those are not installed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+public class ParquetCodecBenchmark {
+
+  @Param({"uncompressed", "snappy", "gzip", "lz4", "zstd"})
+  String codec;
+
+  @Param({""})
+  String sample;
+
+  @Param({"200000"})
+  int records;
+
+  private SparkSession spark;
+  private Dataset<Row> logs;
+  private long payloadBytes;
+  private long parquetBytes;
+  private Path output;
+
+  @Setup
+  public void setUp() throws IOException {
+    List<byte[]> payloads =
+        sample.isEmpty() ? synthesizeSample(records) : readRecordedSample(Paths.get(sample));
+    payloadBytes = payloads.stream().mapToLong(payload -> payload.length).sum();
+    spark =
+        SparkSession.builder()
+            .master("local[*]")
+            .appName("parquet-codec-benchmark")
+            .config("spark.sql.session.timeZone", "UTC")
+            .config("spark.sql.parquet.outputTimestampType", "TIMESTAMP_MICROS")
+            .config("spark.ui.enabled", "false")
+            .getOrCreate();
+    List<Row> rows = new ArrayList<>(payloads.size());
+    payloads.forEach(payload -> rows.add(RowFactory.create((Object) payload)));
+    logs =
+        spark
+            .createDataFrame(
+                JavaSparkContext.fromSparkContext(spark.sparkContext()).parallelize(rows),
+                new StructType().add("value", DataTypes.BinaryType))
+            .select(VectorLogsDecoder.decode(col("value")))
+            .select(
+                col("*"), TimePartitionKeys.derive(col(Constants.APPLICATION_LOG_COLUMN_TIMESTAMP)))
+            .cache();
+    logs.count();
+  }
+
+  @Setup(Level.Iteration)
+  public void createOutput() throws IOException {
+    output = Files.createTempDirectory("parquet-codec-" + codec);
+  }
+
+  @Benchmark
+  public void write() {
+    logs.write()
+        .option("compression", codec)
+        .partitionBy(Constants.APPLICATION_LOG_S3_PARTITION_COLUMNS)
+        .parquet(output.resolve("logs").toString());
+  }
+
+  @TearDown(Level.Iteration)
+  public void deleteOutput() throws IOException {
+    try (Stream<Path> files = Files.walk(output)) {
+      parquetBytes =
+          files
+              .filter(file -> file.toString().endsWith(".parquet"))
+              .mapToLong(file -> file.toFile().length())
+              .sum();
+    }
+    FileUtils.deleteDirectory(output.toFile());
+  }
+
+  @TearDown
+  public void tearDown() {
+    if (parquetBytes > 0) {
+      System.out.printf(
+          "%n%s: %,d protobuf bytes written as %,d parquet bytes, ratio %.2f%n",
+          codec, payloadBytes, parquetBytes, (double) payloadBytes / parquetBytes);
+    }
+    spark.stop();
+  }
+
+  private static List<byte[]> readRecordedSample(Path sample) throws IOException {
+    List<byte[]> payloads = new ArrayList<>();
+    try (InputStream in = Files.newInputStream(sample)) {
+      VectorLogs log;
+      while ((log = VectorLogs.parseDelimitedFrom(in)) != null) {
+        payloads.add(log.toByteArray());
+      }
+    }
+    return payloads;
+  }
+
+  /** Repeats corpora of several services and message sizes up to the number of records. */
+  private static List<byte[]> synthesizeSample(int records) {
+    List<byte[]> payloads = new ArrayList<>(records);
+    for (int seed = 0; payloads.size() < records; seed++) {
+      LogCorpus corpus = new LogCorpus(100 + (seed % 8) * 50, 4 + seed % 4);
+      for (byte[] value : corpus.values) {
+        if (payloads.size() == records) {
+          break;
+        }
+        payloads.add(value);
+      }
+    }
+    return payloads;
+  }
+}
@@ -0,0 +1,141 @@
+package com.logwise.spark.benchmarks;
+
+import static org.apache.spark.sql.functions.*;
+
+import com.google.protobuf.Timestamp;
+import com.logwise.spark.constants.Constants;
+import com.logwise.spark.expressions.TimePartitionKeys;
+import com.logwise.spark.schema.Schema;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.apache.spark.sql.Column;
+import org.apache.spark.sql.Row;
+import org.apache.spark.sql.SparkSession;
+import org.apache.spark.sql.catalyst.InternalRow;
+import org.apache.spark.sql.catalyst.expressions.BoundReference;
+import org.apache.spark.sql.catalyst.expressions.Expression;
+import org.apache.spark.sql.catalyst.expressions.GenericInternalRow;
+import org.apache.spark.sql.catalyst.expressions.UnsafeProjection;
+import org.apache.spark.sql.catalyst.expressions.UnsafeRow;
+import org.apache.spark.sql.catalyst.plans.logical.Project;
+import org.apache.spark.sql.types.DataTypes;
+import org.apache.spark.sql.types.StructType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import scala.collection.Seq;
+
+/**
+ * Per-record cost of deriving the year/month/day/hour/minute partition values with {@link
+ * TimePartitionKeys}, for timestamps in arrival order, as read from one Kafka partition, and
+ * shuffled, which defeats the cached minute.
+ *
+ * <p>{@code toUnsafeRow} and {@code yearLpadProjections} compare it with the former {@code
+ * year}/{@code lpad(month(...))} projections, both producing the {@link UnsafeRow} the streaming
+ * plan writes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TimePartitionKeysBenchmark {
+  private static final String TIME_ZONE = "UTC";
+
+  @Param({"true", "false"})
+  boolean arrivalOrder;
+
+  private InternalRow[] rows;
+  private TimePartitionKeys partitionKeys;
+  private UnsafeProjection toUnsafe;
+  private UnsafeProjection yearLpad;
+
+  @Setup
+  public void setUp() {
+    List<InternalRow> timestampRows = new ArrayList<>();
+    for (Timestamp timestamp : new LogCorpus(100, 1).timestamps) {
+      long micros = timestamp.getSeconds() * 1_000_000L + timestamp.getNanos() / 1_000;
+      timestampRows.add(new GenericInternalRow(new Object[] {micros}));
+    }
+    if (!arrivalOrder) {
+      Collections.shuffle(timestampRows, new Random(7));
+    }
+    rows = timestampRows.toArray(new InternalRow[0]);
+    partitionKeys =
+        new TimePartitionKeys(new BoundReference(0, DataTypes.TimestampType, true), TIME_ZONE);
+    toUnsafe = UnsafeProjection.create(Schema.getTimePartitionSchema());
+    yearLpad = yearLpadProjection();
+  }
+
+  /** Builds the former projections from the plan Spark analyzes for them. */
+  @SuppressWarnings("unchecked")
+  private static UnsafeProjection yearLpadProjection() {
+    SparkSession spark =
+        SparkSession.builder()
+            .master("local[1]")
+            .appName("time-partition-keys-benchmark")
+            .config("spark.sql.session.timeZone", TIME_ZONE)
+            .config("spark.ui.enabled", "false")
+            .getOrCreate();
+    try {
+      Column timestamp = col(Constants.APPLICATION_LOG_COLUMN_TIMESTAMP);
+      Project project =
+          (Project)
+              spark
+                  .createDataFrame(
+                      Collections.<Row>emptyList(),
+                      new StructType()
+                          .add(Constants.APPLICATION_LOG_COLUMN_TIMESTAMP, DataTypes.TimestampType))
+                  .select(
+                      year(timestamp),
+                      lpad(month(timestamp), 2, "0"),
+                      lpad(dayofmonth(timestamp), 2, "0"),
+                      lpad(hour(timestamp), 2, "0"),
+                      lpad(minute(timestamp), 2, "0"))
+                  .queryExecution()
+                  .analyzed();
+      return UnsafeProjection.create(
+          (Seq<Expression>) (Seq<?>) project.projectList(), project.child().output());
+    } finally {
+      spark.stop();
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(LogCorpus.RECORDS)
+  public void derive(Blackhole blackhole) {
+    for (InternalRow row : rows) {
+      blackhole.consume(partitionKeys.eval(row));
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(LogCorpus.RECORDS)
+  public void toUnsafeRow(Blackhole blackhole) {
+    for (InternalRow row : rows) {
+      blackhole.consume(toUnsafe.apply(partitionKeys.eval(row).toIterator().next()));
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(LogCorpus.RECORDS)
+  public void yearLpadProjections(Blackhole blackhole) {
+    for (InternalRow row : rows) {
+      blackhole.consume(yearLpad.apply(row));
+    }
+  }
+}
@@ -0,0 +1,49 @@
+package com.logwise.spark.benchmarks;
+
+import com.google.protobuf.Timestamp;
+import com.logwise.spark.utils.ApplicationUtils;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/** Per-record cost of formatting a proto {@code Timestamp} with {@link ApplicationUtils}. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TimestampConversionBenchmark {
+  private Timestamp[] timestamps;
+
+  @Setup
+  public void setUp() {
+    timestamps = new LogCorpus(100, 1).timestamps;
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(LogCorpus.RECORDS)
+  public void convertProtoTimestampToIso(Blackhole blackhole) {
+    for (Timestamp timestamp : timestamps) {
+      blackhole.consume(ApplicationUtils.convertProtoTimestampToIso(timestamp));
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(LogCorpus.RECORDS)
+  public void convertProtoTimestampToSqlTimestamp(Blackhole blackhole) {
+    for (Timestamp timestamp : timestamps) {
+      blackhole.consume(ApplicationUtils.convertProtoTimestampToSqlTimestamp(timestamp));
+    }
+  }
+}
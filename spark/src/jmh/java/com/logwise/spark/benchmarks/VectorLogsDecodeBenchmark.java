@@ -0,0 +1,70 @@
+package com.logwise.spark.benchmarks;
+
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.logwise.spark.expressions.VectorLogsDecoder;
+import com.logwise.spark.protobuf.VectorLogs;
+import com.logwise.spark.schema.Schema;
+import java.util.concurrent.TimeUnit;
+import org.apache.spark.sql.catalyst.expressions.UnsafeProjection;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Per-record cost of turning a Kafka value into the row written to S3.
+ *
+ * <p>Scores are records per second; with {@code -prof gc}, {@code gc.alloc.rate.norm} is the bytes
+ * allocated per record. {@link #parseFrom} is the generated protobuf parser, kept as the baseline
+ * the streaming query used before {@link VectorLogsDecoder}. {@link #decodeToUnsafeRow} is the row
+ * mapping of {@code ApplicationLogsStreamToS3}: the decoder plus the projection into the {@code
+ * UnsafeRow} handed to the Parquet writer.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class VectorLogsDecodeBenchmark {
+
+  @Param({"100", "1024", "16384", "65536"})
+  int messageBytes;
+
+  @Param({"1", "100"})
+  int serviceCount;
+
+  private LogCorpus corpus;
+  private UnsafeProjection projection;
+
+  @Setup
+  public void setUp() {
+    corpus = new LogCorpus(messageBytes, serviceCount);
+    projection = UnsafeProjection.create(Schema.getVectorApplicationLogsSchema());
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(LogCorpus.RECORDS)
+  public void parseFrom(Blackhole blackhole) throws InvalidProtocolBufferException {
+    for (byte[] value : corpus.values) {
+      blackhole.consume(VectorLogs.parseFrom(value));
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(LogCorpus.RECORDS)
+  public void decodeToUnsafeRow(Blackhole blackhole) throws InvalidProtocolBufferException {
+    for (byte[] value : corpus.values) {
+      blackhole.consume(projection.apply(VectorLogsDecoder.decodeRow(value)));
+    }
+  }
+}
@@ -1,6 +1,7 @@
 package com.logwise.spark.clients;
 
 import com.logwise.spark.dto.request.ScaleSparkClusterRequest;
+import com.logwise.spark.dto.response.GetServiceDetailsResponse;
 import feign.HeaderMap;
 import feign.RequestLine;
 import java.util.Map;
@@ -9,4 +10,7 @@ public interface LogCentralOrchestratorClient {
   @RequestLine("POST /scale-spark-cluster")
   Map<String, Object> postScaleSparkCluster(
       @HeaderMap Map<String, String> headers, ScaleSparkClusterRequest request);
+
+  @RequestLine("GET /service-details")
+  GetServiceDetailsResponse getServiceDetails(@HeaderMap Map<String, String> headers);
 }
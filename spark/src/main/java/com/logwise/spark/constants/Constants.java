@@ -2,9 +2,7 @@ package com.logwise.spark.constants;
 
 import static org.apache.commons.lang.RandomStringUtils.randomAlphanumeric;
 
-import com.google.common.collect.ImmutableMap;
 import java.time.Duration;
-import java.util.Map;
 import lombok.experimental.UtilityClass;
 
 @UtilityClass
@@ -17,20 +15,73 @@ public class Constants {
   public final String APPLICATION_LOGS_TO_S3_QUERY_NAME = "Export Application Logs To S3";
 
   public final String APPLICATION_LOGS_KAFKA_GROUP_ID = "app-spark-" + randomAlphanumeric(5);
+  public final String DEFAULT_TOPIC_GROUP_NAME = "default";
 
   public final String WRITE_STREAM_PARQUET_FORMAT = "parquet";
   public final String WRITE_STREAM_BQ_FORMAT = "com.google.cloud.spark.bigquery";
-  public final String WRITE_STREAM_GZIP_COMPRESSION = "gzip";
 
   // Config Keys
   public final String CONFIG_KEY_SPARK_CONFIG = "sparkConfig";
   public final String CONFIG_KEY_SPARK_HADOOP_CONFIG = "sparkHadoopConfig";
+  public final String CONFIG_KEY_PARQUET_COMPRESSION_CODEC = "spark.parquet.compression.codec";
+  public final String CONFIG_KEY_STREAMING_QUERY_LONG_RUNNING =
+      "spark.streamingquery.longRunning.enable";
+  public final String CONFIG_KEY_PARTITION_GRANULARITY_DEFAULT = "s3.partition.granularity.default";
+  public final String CONFIG_KEY_PARTITION_GRANULARITY_SERVICES =
+      "s3.partition.granularity.services";
+  public final String CONFIG_KEY_SORT_BY_TIMESTAMP = "s3.sortByTimestamp.enable";
+  public final String CONFIG_KEY_SORT_BY_TIMESTAMP_SERVICES = "s3.sortByTimestamp.services";
+  public final String CONFIG_KEY_CLUSTER_BY = "s3.clusterBy";
+  public final String CONFIG_KEY_TOKEN_PATTERNS = "s3.tokens.patterns";
+  public final String CONFIG_KEY_TOPIC_GROUPS = "kafka.topic.groups";
+  public final String CONFIG_KEY_DEAD_LETTER_ENABLE = "s3.deadLetter.enable";
+  public final String CONFIG_KEY_DEAD_LETTER_PATH = "s3.path.deadLetter.application";
+  public final String CONFIG_KEY_FAIR_SHARE_ENABLE = "kafka.fairShare.enable";
+  public final String CONFIG_KEY_FAIR_SHARE_TOPIC_PREFIX = "kafka.fairShare.topicPrefix";
+  public final String CONFIG_KEY_FAIR_SHARE_REFRESH_MINUTES = "kafka.fairShare.refresh.minutes";
+  public final String CONFIG_KEY_KAFKA_FETCH_MAX_BYTES = "kafka.consumer.fetchMaxBytes";
+  public final String CONFIG_KEY_KAFKA_MAX_PARTITION_FETCH_BYTES =
+      "kafka.consumer.maxPartitionFetchBytes";
+  public final String CONFIG_KEY_KAFKA_FETCH_MIN_BYTES = "kafka.consumer.fetchMinBytes";
+  public final String CONFIG_KEY_KAFKA_RECEIVE_BUFFER_BYTES = "kafka.consumer.receiveBufferBytes";
+  public final String CONFIG_KEY_KAFKA_POLL_TIMEOUT_MS = "kafka.consumer.pollTimeoutMs";
+  public final String CONFIG_KEY_KAFKA_MIN_PARTITIONS = "kafka.minPartitions";
+  public final String CONFIG_KEY_KAFKA_SPLIT_HOT_PARTITIONS = "kafka.splitHotPartitions.enable";
+
+  // Log Compaction
+  public final String COMPACTION_DIR = "_compaction";
+  public final String COMPACTION_LOG_DIR = "_log";
+  public final String COMPACTED_FILE_PREFIX = "compacted-";
+  public final String SPARK_METADATA_DIR = "_spark_metadata";
+
+  // Micro-batch Writes
+  public final String BATCH_STAGING_DIR = "_batches";
+
+  // Dead Letters
+  public final String DEAD_LETTER_RECORDS_ACCUMULATOR = "deadLetterRecords";
+  public final String DEAD_LETTER_COLUMN_BATCH_ID = "batch_id";
+
+  // Kafka Source Columns
+  public final String KAFKA_COLUMN_VALUE = "value";
+  public final String KAFKA_COLUMN_TOPIC = "topic";
+  public final String KAFKA_COLUMN_PARTITION = "partition";
+  public final String KAFKA_COLUMN_OFFSET = "offset";
+
+  // Kafka Source Options
+  public final String KAFKA_OPTION_TRIGGER_SIZE_CONTROLLER = "logwise.triggerSizeController";
+  public final String KAFKA_OPTION_FAIR_SHARE = "logwise.fairShare";
+  public final String KAFKA_OPTION_MAX_OFFSETS_PER_TASK = "logwise.maxOffsetsPerTask";
 
   // Column Names
+  public final String APPLICATION_LOG_COLUMN_ATTRIBUTES = "attributes";
   public final String APPLICATION_LOG_COLUMN_DDSOURCE = "ddsource";
+  public final String APPLICATION_LOG_COLUMN_DECODE_ERROR = "decode_error";
   public final String APPLICATION_LOG_COLUMN_DDTAGS = "ddtags";
+  public final String APPLICATION_LOG_COLUMN_HOST = "host";
   public final String APPLICATION_LOG_COLUMN_HOSTNAME = "hostname";
+  public final String APPLICATION_LOG_COLUMN_LOG_LEVEL = "log_level";
   public final String APPLICATION_LOG_COLUMN_MESSAGE = "message";
+  public final String APPLICATION_LOG_COLUMN_POD = "pod";
   public final String APPLICATION_LOG_COLUMN_SERVICE_NAME = "service_name";
   public final String APPLICATION_LOG_COLUMN_SOURCE_TYPE = "source_type";
   public final String APPLICATION_LOG_COLUMN_STATUS = "status";
@@ -50,6 +101,13 @@ public class Constants {
     Constants.APPLICATION_LOG_COLUMN_HOUR,
     Constants.APPLICATION_LOG_COLUMN_MINUTE
   };
+  public final String[] APPLICATION_LOG_S3_HOUR_PARTITION_COLUMNS = {
+    Constants.APPLICATION_LOG_COLUMN_SERVICE_NAME,
+    Constants.APPLICATION_LOG_COLUMN_YEAR,
+    Constants.APPLICATION_LOG_COLUMN_MONTH,
+    Constants.APPLICATION_LOG_COLUMN_DAY,
+    Constants.APPLICATION_LOG_COLUMN_HOUR
+  };
 
   // Kafka Consumer Config
   public final String KEY_DESERIALIZER_CLASS_CONFIG_VALUE =
@@ -60,10 +118,6 @@ public class Constants {
   public final String AUTO_OFFSET_RESET_CONFIG_VALUE = "earliest";
   public final Duration KAFKA_CONSUMER_TIMEOUT = Duration.ofSeconds(10);
 
-  public final Map<String, String> QUERY_NAME_TO_STAGE_MAP =
-      ImmutableMap.of(
-          APPLICATION_LOGS_TO_S3_QUERY_NAME, "start at ApplicationLogsStreamToS3.java:57");
-
   public final int FEIGN_DEFAULT_CONNECTION_TIMEOUT_IN_SECONDS = 5;
   public final int FEIGN_DEFAULT_READ_TIMEOUT_IN_SECONDS = 10;
   public final int FEIGN_DEFAULT_RETRY_COUNT = 3;
@@ -6,7 +6,8 @@ import lombok.Getter;
 @Getter
 @AllArgsConstructor
 public enum JobName {
-  PUSH_LOGS_TO_S3("push-logs-to-s3");
+  PUSH_LOGS_TO_S3("push-logs-to-s3"),
+  COMPACT_LOGS_IN_S3("compact-logs-in-s3");
   private final String value;
 
   public static JobName fromValue(String value) {
@@ -0,0 +1,36 @@
+package com.logwise.spark.constants;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Depth of the time partitions a service is written with under {@code s3.path.logs.application}.
+ *
+ * <p>Every granularity has its own root, so the directories under a root all have the same
+ * partition columns: minute partitions are written to the path itself and hour partitions to a
+ * sibling path with the {@code -hourly} suffix.
+ */
+@Getter
+@AllArgsConstructor
+public enum PartitionGranularity {
+  HOUR("hour", Constants.APPLICATION_LOG_S3_HOUR_PARTITION_COLUMNS, "-hourly"),
+  MINUTE("minute", Constants.APPLICATION_LOG_S3_PARTITION_COLUMNS, "");
+
+  private final String value;
+  private final String[] partitionColumns;
+  private final String pathSuffix;
+
+  /** Returns the root the partitions of this granularity are written to for the given path. */
+  public String getPath(String path) {
+    return (path.endsWith("/") ? path.substring(0, path.length() - 1) : path) + pathSuffix;
+  }
+
+  public static PartitionGranularity fromValue(String value) {
+    for (PartitionGranularity granularity : PartitionGranularity.values()) {
+      if (granularity.getValue().equalsIgnoreCase(value)) {
+        return granularity;
+      }
+    }
+    throw new IllegalArgumentException("Invalid value: " + value);
+  }
+}
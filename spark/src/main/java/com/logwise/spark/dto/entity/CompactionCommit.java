@@ -0,0 +1,18 @@
+package com.logwise.spark.dto.entity;
+
+import java.util.List;
+import lombok.Data;
+
+/**
+ * One compacted partition, as recorded in the compaction log. Once the commit is written the
+ * compaction is applied by moving {@code stagedFiles} to {@code compactedFiles} and deleting {@code
+ * sourceFiles}, which can be repeated until it completes.
+ */
+@Data
+public class CompactionCommit {
+  private Long batchId;
+  private String partition;
+  private List<String> sourceFiles;
+  private List<String> stagedFiles;
+  private List<String> compactedFiles;
+}
@@ -1,6 +1,7 @@
 package com.logwise.spark.dto.entity;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.logwise.spark.constants.Constants;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NonNull;
@@ -22,4 +23,28 @@ public class KafkaReadStreamOptions {
   String assign;
   String startingOffsetsByTimestamp;
   String minPartitions;
+
+  @JsonProperty("kafka.fetch.max.bytes")
+  String fetchMaxBytes;
+
+  @JsonProperty("kafka.max.partition.fetch.bytes")
+  String maxPartitionFetchBytes;
+
+  @JsonProperty("kafka.fetch.min.bytes")
+  String fetchMinBytes;
+
+  @JsonProperty("kafka.receive.buffer.bytes")
+  String receiveBufferBytes;
+
+  @JsonProperty("kafkaConsumer.pollTimeoutMs")
+  String pollTimeoutMs;
+
+  @JsonProperty(Constants.KAFKA_OPTION_TRIGGER_SIZE_CONTROLLER)
+  String triggerSizeController;
+
+  @JsonProperty(Constants.KAFKA_OPTION_FAIR_SHARE)
+  String fairShare;
+
+  @JsonProperty(Constants.KAFKA_OPTION_MAX_OFFSETS_PER_TASK)
+  String maxOffsetsPerTask;
 }
@@ -0,0 +1,13 @@
+package com.logwise.spark.dto.entity;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.Data;
+
+/** Ingestion budget of a service, from the {@code service_details} of the orchestrator. */
+@Data
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class ServiceDetails {
+  private String serviceName;
+  private Integer ingestionWeight;
+  private Long minOffsetsPerTrigger;
+}
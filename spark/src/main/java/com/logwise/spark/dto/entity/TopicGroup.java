@@ -0,0 +1,19 @@
+package com.logwise.spark.dto.entity;
+
+import lombok.Builder;
+import lombok.Data;
+import lombok.NonNull;
+
+/** A set of Kafka topics read by its own streaming query, checkpoint and offsets per trigger. */
+@Data
+@Builder
+public class TopicGroup {
+  @NonNull String name;
+  @NonNull String queryName;
+  @NonNull String subscribePattern;
+  @NonNull String checkpointLocation;
+  @NonNull String groupIdPrefix;
+
+  /** Fraction of the offsets per trigger of the job given to this group. */
+  double offsetsPerTriggerShare;
+}
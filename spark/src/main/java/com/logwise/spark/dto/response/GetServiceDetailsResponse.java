@@ -0,0 +1,15 @@
+package com.logwise.spark.dto.response;
+
+import com.logwise.spark.dto.entity.ServiceDetails;
+import java.util.List;
+import lombok.Data;
+
+@Data
+public class GetServiceDetailsResponse {
+  private ResponseData data;
+
+  @Data
+  public static class ResponseData {
+    private List<ServiceDetails> serviceDetails;
+  }
+}
@@ -0,0 +1,40 @@
+package com.logwise.spark.expressions;
+
+import static org.apache.spark.sql.functions.*;
+
+import com.logwise.spark.constants.Constants;
+import java.util.Map;
+import java.util.TreeMap;
+import lombok.experimental.UtilityClass;
+import org.apache.spark.sql.Column;
+
+/**
+ * Extracts high-cardinality tokens such as trace or request ids from the log message into columns
+ * of their own, so lookups by id read a narrow column instead of every message. The lookups still
+ * read every row group: the ids are random, so the min/max statistics do not prune them, and the
+ * Parquet version of Spark 3.1 writes no bloom filters.
+ *
+ * <p>Each token is configured under {@code s3.tokens.patterns} as a column name and a regex whose
+ * first group is the token. Rows without a match get a null token.
+ */
+@UtilityClass
+public class MessageTokens {
+
+  /**
+   * Returns one string column per pattern, in column name order so the file schema is stable.
+   *
+   * @param patterns token column name to regex with one capturing group
+   */
+  public Column[] extract(Map<String, String> patterns) {
+    return new TreeMap<>(patterns)
+        .entrySet().stream()
+            .map(
+                entry -> {
+                  Column token =
+                      regexp_extract(
+                          col(Constants.APPLICATION_LOG_COLUMN_MESSAGE), entry.getValue(), 1);
+                  return when(token.notEqual(lit("")), token).as(entry.getKey());
+                })
+            .toArray(Column[]::new);
+  }
+}
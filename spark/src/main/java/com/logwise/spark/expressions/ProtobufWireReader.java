@@ -0,0 +1,128 @@
+package com.logwise.spark.expressions;
+
+import com.google.protobuf.InvalidProtocolBufferException;
+
+/**
+ * Minimal cursor over a protobuf wire-format buffer.
+ *
+ * <p>Only the primitives needed to walk {@code VectorLogs} payloads are implemented. Reads never
+ * copy the underlying array, so length-delimited fields can be wrapped in place by the caller.
+ */
+final class ProtobufWireReader {
+  static final int WIRETYPE_VARINT = 0;
+  static final int WIRETYPE_FIXED64 = 1;
+  static final int WIRETYPE_LENGTH_DELIMITED = 2;
+  static final int WIRETYPE_FIXED32 = 5;
+
+  private final byte[] buffer;
+  private int position;
+  private int limit;
+
+  ProtobufWireReader(byte[] buffer) {
+    this.buffer = buffer;
+    this.position = 0;
+    this.limit = buffer.length;
+  }
+
+  static int getFieldNumber(int tag) {
+    return tag >>> 3;
+  }
+
+  static int getWireType(int tag) {
+    return tag & 0x7;
+  }
+
+  byte[] getBuffer() {
+    return buffer;
+  }
+
+  int getPosition() {
+    return position;
+  }
+
+  boolean isAtEnd() {
+    return position >= limit;
+  }
+
+  int readTag() throws InvalidProtocolBufferException {
+    int tag = (int) readRawVarint64();
+    if (getFieldNumber(tag) == 0) {
+      throw new InvalidProtocolBufferException("Protocol message contained an invalid tag (zero).");
+    }
+    return tag;
+  }
+
+  long readRawVarint64() throws InvalidProtocolBufferException {
+    long result = 0;
+    for (int shift = 0; shift < 64; shift += 7) {
+      if (position >= limit) {
+        throw truncated();
+      }
+      byte b = buffer[position++];
+      result |= (long) (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        return result;
+      }
+    }
+    throw new InvalidProtocolBufferException("Protocol message contained a malformed varint.");
+  }
+
+  /** Reads a length prefix and checks that the delimited bytes fit inside the current limit. */
+  int readLength() throws InvalidProtocolBufferException {
+    long length = readRawVarint64();
+    if (length < 0 || length > limit - position) {
+      throw truncated();
+    }
+    return (int) length;
+  }
+
+  void skipBytes(int length) throws InvalidProtocolBufferException {
+    if (length < 0 || length > limit - position) {
+      throw truncated();
+    }
+    position += length;
+  }
+
+  /**
+   * Restricts reads to the next {@code length} bytes, used for embedded messages.
+   *
+   * @return the previous limit, to be handed back to {@link #popLimit(int)}
+   */
+  int pushLimit(int length) throws InvalidProtocolBufferException {
+    if (length < 0 || length > limit - position) {
+      throw truncated();
+    }
+    int oldLimit = limit;
+    limit = position + length;
+    return oldLimit;
+  }
+
+  void popLimit(int oldLimit) {
+    limit = oldLimit;
+  }
+
+  void skipField(int tag) throws InvalidProtocolBufferException {
+    switch (getWireType(tag)) {
+      case WIRETYPE_VARINT:
+        readRawVarint64();
+        break;
+      case WIRETYPE_FIXED64:
+        skipBytes(8);
+        break;
+      case WIRETYPE_LENGTH_DELIMITED:
+        skipBytes(readLength());
+        break;
+      case WIRETYPE_FIXED32:
+        skipBytes(4);
+        break;
+      default:
+        throw new InvalidProtocolBufferException(
+            "Protocol message tag had unsupported wire type: " + getWireType(tag));
+    }
+  }
+
+  private static InvalidProtocolBufferException truncated() {
+    return new InvalidProtocolBufferException(
+        "While parsing a protocol message, the input ended unexpectedly in the middle of a field.");
+  }
+}
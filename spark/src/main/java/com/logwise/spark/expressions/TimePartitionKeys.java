@@ -0,0 +1,158 @@
+package com.logwise.spark.expressions;
+
+import com.logwise.spark.schema.Schema;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Objects;
+import org.apache.spark.sql.Column;
+import org.apache.spark.sql.catalyst.InternalRow;
+import org.apache.spark.sql.catalyst.analysis.TypeCheckResult;
+import org.apache.spark.sql.catalyst.expressions.Expression;
+import org.apache.spark.sql.catalyst.expressions.GenericInternalRow;
+import org.apache.spark.sql.catalyst.util.DateTimeConstants;
+import org.apache.spark.sql.internal.SQLConf;
+import org.apache.spark.sql.types.DataTypes;
+import org.apache.spark.sql.types.StructType;
+import org.apache.spark.unsafe.types.UTF8String;
+import scala.collection.TraversableOnce;
+
+/**
+ * Catalyst generator that derives the year/month/day/hour/minute partition values of a
+ * TimestampType column in a single pass, laid out as {@link Schema#getTimePartitionSchema()}.
+ *
+ * <p>Month, day, hour and minute are zero-padded values taken from a shared table of {@link
+ * UTF8String} instances. The five values of the current minute are kept and reused for every
+ * following row of the same minute, which is the common case for a Kafka partition read in offset
+ * order, so a row normally costs one range check instead of a calendar conversion.
+ */
+public class TimePartitionKeys extends UnaryGenerator {
+  private static final UTF8String[] TWO_DIGIT_VALUES = new UTF8String[60];
+  private static final Object[] NULL_KEYS = new Object[5];
+
+  static {
+    for (int i = 0; i < TWO_DIGIT_VALUES.length; i++) {
+      TWO_DIGIT_VALUES[i] = UTF8String.fromString(String.format("%02d", i));
+    }
+  }
+
+  private final String timeZoneId;
+  private transient ZoneId zoneId;
+  private transient MinuteKeys currentMinute;
+
+  public TimePartitionKeys(Expression child, String timeZoneId) {
+    super(child);
+    this.timeZoneId = timeZoneId;
+  }
+
+  /**
+   * Derives the time partition columns of a timestamp column in the session time zone.
+   *
+   * @param timestamp a TimestampType column
+   * @return a column expanding to the year, month, day, hour and minute partition columns
+   */
+  public static Column derive(Column timestamp) {
+    return derive(timestamp, SQLConf.get().sessionLocalTimeZone());
+  }
+
+  public static Column derive(Column timestamp, String timeZoneId) {
+    return toColumn(new TimePartitionKeys(timestamp.expr(), timeZoneId));
+  }
+
+  @Override
+  public TraversableOnce<InternalRow> eval(InternalRow input) {
+    Object value = child().eval(input);
+    if (value == null) {
+      return singleRow(new GenericInternalRow(NULL_KEYS));
+    }
+    long micros = (Long) value;
+    MinuteKeys keys = currentMinute;
+    if (keys == null || micros < keys.startMicros || micros >= keys.endMicros) {
+      keys = computeMinuteKeys(micros);
+      currentMinute = keys;
+    }
+    return singleRow(new GenericInternalRow(keys.values));
+  }
+
+  private MinuteKeys computeMinuteKeys(long micros) {
+    long epochSecond = Math.floorDiv(micros, DateTimeConstants.MICROS_PER_SECOND);
+    ZoneOffset offset = getZoneId().getRules().getOffset(Instant.ofEpochSecond(epochSecond));
+    LocalDateTime local = LocalDateTime.ofEpochSecond(epochSecond, 0, offset);
+    long minuteStartMicros =
+        (epochSecond - local.getSecond()) * DateTimeConstants.MICROS_PER_SECOND;
+    Object[] values = {
+      UTF8String.fromString(Integer.toString(local.getYear())),
+      TWO_DIGIT_VALUES[local.getMonthValue()],
+      TWO_DIGIT_VALUES[local.getDayOfMonth()],
+      TWO_DIGIT_VALUES[local.getHour()],
+      TWO_DIGIT_VALUES[local.getMinute()]
+    };
+    return new MinuteKeys(
+        minuteStartMicros, minuteStartMicros + DateTimeConstants.MICROS_PER_MINUTE, values);
+  }
+
+  private ZoneId getZoneId() {
+    if (zoneId == null) {
+      zoneId = ZoneId.of(timeZoneId);
+    }
+    return zoneId;
+  }
+
+  public String timeZoneId() {
+    return timeZoneId;
+  }
+
+  @Override
+  public StructType elementSchema() {
+    return Schema.getTimePartitionSchema();
+  }
+
+  @Override
+  public TypeCheckResult checkInputDataTypes() {
+    if (DataTypes.TimestampType.equals(child().dataType())) {
+      return super.checkInputDataTypes();
+    }
+    return new TypeCheckResult.TypeCheckFailure(
+        prettyName() + " expects a timestamp input but got " + child().dataType().catalogString());
+  }
+
+  @Override
+  public String prettyName() {
+    return "time_partition_keys";
+  }
+
+  @Override
+  public int productArity() {
+    return 2;
+  }
+
+  @Override
+  public Object productElement(int n) {
+    return n == 1 ? timeZoneId : super.productElement(n);
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    return super.equals(other)
+        && Objects.equals(timeZoneId, ((TimePartitionKeys) other).timeZoneId);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(super.hashCode(), timeZoneId);
+  }
+
+  /** Partition values shared by every timestamp in {@code [startMicros, endMicros)}. */
+  private static final class MinuteKeys {
+    private final long startMicros;
+    private final long endMicros;
+    private final Object[] values;
+
+    private MinuteKeys(long startMicros, long endMicros, Object[] values) {
+      this.startMicros = startMicros;
+      this.endMicros = endMicros;
+      this.values = values;
+    }
+  }
+}
@@ -0,0 +1,97 @@
+package com.logwise.spark.expressions;
+
+import com.logwise.spark.constants.Constants;
+import com.logwise.spark.schema.Schema;
+import java.util.Objects;
+import org.apache.spark.sql.Column;
+import org.apache.spark.sql.catalyst.InternalRow;
+import org.apache.spark.sql.catalyst.expressions.Expression;
+import org.apache.spark.sql.catalyst.expressions.GenericInternalRow;
+import org.apache.spark.sql.types.DataTypes;
+import org.apache.spark.sql.types.StructType;
+import org.apache.spark.unsafe.types.UTF8String;
+import org.apache.spark.util.LongAccumulator;
+import scala.collection.TraversableOnce;
+
+/**
+ * {@link VectorLogsDecoder} that does not fail the task on a corrupt or schema-mismatched payload.
+ *
+ * <p>Rows carry an extra {@link Constants#APPLICATION_LOG_COLUMN_DECODE_ERROR} column. It is null
+ * for decoded records. For a record that cannot be decoded it holds the error, the application log
+ * columns are null and the dead letter accumulator is incremented, so the sink can route the raw
+ * record to the dead letter path and let the batch finish.
+ *
+ * <p>The accumulator is updated while the expression is evaluated, so a retried task or a batch
+ * that is recomputed, e.g. after a persisted block was evicted, counts its records again. The count
+ * is an upper bound for monitoring; the dead letter path holds the exact records.
+ */
+public class TolerantVectorLogsDecoder extends VectorLogsDecoder {
+  private static final int NUM_FIELDS = Schema.getVectorApplicationLogsSchema().size() + 1;
+  private static final int DECODE_ERROR_ORDINAL = NUM_FIELDS - 1;
+
+  private final LongAccumulator deadLetters;
+
+  public TolerantVectorLogsDecoder(Expression child, LongAccumulator deadLetters) {
+    super(child);
+    this.deadLetters = deadLetters;
+  }
+
+  /**
+   * Decodes a binary Kafka value column, turning undecodable records into dead letter rows.
+   *
+   * @param kafkaValue the Kafka {@code value} column
+   * @param deadLetters counts the records that could not be decoded
+   * @return a column expanding to the application log columns and the decode error column
+   */
+  public static Column decode(Column kafkaValue, LongAccumulator deadLetters) {
+    return toColumn(new TolerantVectorLogsDecoder(kafkaValue.expr(), deadLetters));
+  }
+
+  @Override
+  public TraversableOnce<InternalRow> eval(InternalRow input) {
+    byte[] bytes = (byte[]) child().eval(input);
+    if (bytes == null) {
+      return noRows();
+    }
+    try {
+      return singleRow(decodeRow(bytes, NUM_FIELDS));
+    } catch (Exception e) {
+      deadLetters.add(1L);
+      Object[] values = new Object[NUM_FIELDS];
+      values[DECODE_ERROR_ORDINAL] = UTF8String.fromString(String.valueOf(e));
+      return singleRow(new GenericInternalRow(values));
+    }
+  }
+
+  @Override
+  public StructType elementSchema() {
+    return Schema.getVectorApplicationLogsSchema()
+        .add(Constants.APPLICATION_LOG_COLUMN_DECODE_ERROR, DataTypes.StringType);
+  }
+
+  @Override
+  public String prettyName() {
+    return "decode_vector_logs_tolerant";
+  }
+
+  @Override
+  public int productArity() {
+    return 2;
+  }
+
+  @Override
+  public Object productElement(int n) {
+    return n == 1 ? deadLetters : super.productElement(n);
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    return super.equals(other)
+        && Objects.equals(deadLetters, ((TolerantVectorLogsDecoder) other).deadLetters);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(super.hashCode(), deadLetters);
+  }
+}
@@ -0,0 +1,125 @@
+package com.logwise.spark.expressions;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Objects;
+import org.apache.spark.sql.Column;
+import org.apache.spark.sql.catalyst.InternalRow;
+import org.apache.spark.sql.catalyst.analysis.MultiAlias;
+import org.apache.spark.sql.catalyst.expressions.Expression;
+import org.apache.spark.sql.catalyst.expressions.Generator;
+import org.apache.spark.sql.catalyst.expressions.codegen.CodegenContext;
+import org.apache.spark.sql.catalyst.expressions.codegen.CodegenFallback;
+import org.apache.spark.sql.catalyst.expressions.codegen.ExprCode;
+import org.apache.spark.sql.types.ArrayType;
+import org.apache.spark.sql.types.DataType;
+import org.apache.spark.sql.types.StructType;
+import scala.collection.Iterator$;
+import scala.collection.JavaConverters;
+import scala.collection.Seq;
+import scala.collection.TraversableOnce;
+
+/**
+ * Base class for the single-input Catalyst generators of the ingest path.
+ *
+ * <p>Each generator turns one input value into at most one row of {@link #elementSchema()}, so
+ * several output columns are produced by a single evaluation instead of one projection per column.
+ * Evaluation is interpreted ({@link CodegenFallback}) and called from the whole-stage generated
+ * code of the {@code Generate} operator. Subclasses must expose a public constructor taking the
+ * child expression, followed by any extra product elements they add, which Catalyst uses to copy
+ * the node.
+ */
+public abstract class UnaryGenerator extends Expression
+    implements Generator, CodegenFallback, Serializable {
+  private final Expression child;
+  private final Seq<Expression> children;
+
+  protected UnaryGenerator(Expression child) {
+    this.child = child;
+    this.children = JavaConverters.asScalaBuffer(Arrays.asList(child)).toList();
+  }
+
+  /**
+   * Wraps a generator so that each field of its element schema becomes a top-level column.
+   *
+   * @param generator the generator to expose
+   * @return a column expanding to one output column per element schema field
+   */
+  protected static Column toColumn(UnaryGenerator generator) {
+    Seq<String> names =
+        JavaConverters.asScalaBuffer(Arrays.asList(generator.elementSchema().fieldNames())).toSeq();
+    return new Column(new MultiAlias(generator, names));
+  }
+
+  @SuppressWarnings("unchecked")
+  protected static TraversableOnce<InternalRow> noRows() {
+    return (TraversableOnce<InternalRow>) (TraversableOnce<?>) Iterator$.MODULE$.empty();
+  }
+
+  protected static TraversableOnce<InternalRow> singleRow(InternalRow row) {
+    return Iterator$.MODULE$.single(row);
+  }
+
+  public Expression child() {
+    return child;
+  }
+
+  @Override
+  public abstract TraversableOnce<InternalRow> eval(InternalRow input);
+
+  @Override
+  public DataType dataType() {
+    return new ArrayType(elementSchema(), false);
+  }
+
+  @Override
+  public boolean foldable() {
+    return false;
+  }
+
+  @Override
+  public boolean nullable() {
+    return false;
+  }
+
+  @Override
+  public ExprCode doGenCode(CodegenContext ctx, ExprCode ev) {
+    return CodegenFallback.super.doGenCode(ctx, ev);
+  }
+
+  @Override
+  public Seq<Expression> children() {
+    return children;
+  }
+
+  @Override
+  public int productArity() {
+    return 1;
+  }
+
+  @Override
+  public Object productElement(int n) {
+    if (n == 0) {
+      return child;
+    }
+    throw new IndexOutOfBoundsException(String.valueOf(n));
+  }
+
+  @Override
+  public boolean canEqual(Object that) {
+    return that != null && that.getClass() == getClass();
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    return canEqual(other) && child.equals(((UnaryGenerator) other).child);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(getClass(), child);
+  }
+
+  @Override
+  public abstract StructType elementSchema();
+}
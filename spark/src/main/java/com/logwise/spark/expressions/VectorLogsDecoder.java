@@ -0,0 +1,227 @@
+package com.logwise.spark.expressions;
+
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.google.protobuf.Timestamp;
+import com.logwise.spark.protobuf.VectorLogs;
+import com.logwise.spark.schema.Schema;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.SneakyThrows;
+import org.apache.spark.sql.Column;
+import org.apache.spark.sql.catalyst.InternalRow;
+import org.apache.spark.sql.catalyst.analysis.TypeCheckResult;
+import org.apache.spark.sql.catalyst.expressions.Expression;
+import org.apache.spark.sql.catalyst.expressions.GenericInternalRow;
+import org.apache.spark.sql.catalyst.util.ArrayBasedMapData;
+import org.apache.spark.sql.catalyst.util.DateTimeConstants;
+import org.apache.spark.sql.catalyst.util.GenericArrayData;
+import org.apache.spark.sql.catalyst.util.MapData;
+import org.apache.spark.sql.types.DataTypes;
+import org.apache.spark.sql.types.StructType;
+import org.apache.spark.unsafe.types.UTF8String;
+import scala.collection.TraversableOnce;
+
+/**
+ * Catalyst generator that decodes the protobuf {@link VectorLogs} payload of the Kafka {@code
+ * value} column straight into an {@link InternalRow} laid out as {@link
+ * Schema#getVectorApplicationLogsSchema()}.
+ *
+ * <p>The wire format is walked in place: string fields become {@link UTF8String} slices of the
+ * value bytes and are copied once, by the generated projection, into the output {@code UnsafeRow}.
+ * The proto {@code Timestamp} is carried as epoch microseconds, the internal form of Spark's
+ * TimestampType. No {@link VectorLogs}, {@code Row} or {@code String} is built per record. Missing
+ * fields decode to the proto3 defaults, and a null value (Kafka tombstone) yields no row.
+ *
+ * <p>The {@code attributes} map becomes a Spark map column. As in protobuf, a key repeated on the
+ * wire keeps its last value.
+ */
+public class VectorLogsDecoder extends UnaryGenerator {
+  private static final int MESSAGE_ORDINAL = 0;
+  private static final int TIMESTAMP_ORDINAL = 1;
+  private static final int SERVICE_NAME_ORDINAL = 2;
+  private static final int LOG_LEVEL_ORDINAL = 3;
+  private static final int HOST_ORDINAL = 4;
+  private static final int POD_ORDINAL = 5;
+  private static final int ATTRIBUTES_ORDINAL = 6;
+  private static final int MAP_ENTRY_KEY_FIELD_NUMBER = 1;
+  private static final int MAP_ENTRY_VALUE_FIELD_NUMBER = 2;
+
+  public VectorLogsDecoder(Expression child) {
+    super(child);
+  }
+
+  /**
+   * Decodes a binary Kafka value column into the application log columns.
+   *
+   * @param kafkaValue the Kafka {@code value} column
+   * @return a column expanding to one output column per field of the application logs schema
+   */
+  public static Column decode(Column kafkaValue) {
+    return toColumn(new VectorLogsDecoder(kafkaValue.expr()));
+  }
+
+  /**
+   * Decodes one serialized {@link VectorLogs} message.
+   *
+   * @param bytes the protobuf wire-format payload
+   * @return a row laid out as {@link Schema#getVectorApplicationLogsSchema()}
+   * @throws InvalidProtocolBufferException if the payload is truncated or malformed
+   */
+  public static InternalRow decodeRow(byte[] bytes) throws InvalidProtocolBufferException {
+    return decodeRow(bytes, ATTRIBUTES_ORDINAL + 1);
+  }
+
+  /**
+   * Decodes one serialized {@link VectorLogs} message into a row of {@code numFields} fields, the
+   * ones past the application log columns left null.
+   */
+  static InternalRow decodeRow(byte[] bytes, int numFields) throws InvalidProtocolBufferException {
+    ProtobufWireReader reader = new ProtobufWireReader(bytes);
+    UTF8String message = UTF8String.EMPTY_UTF8;
+    UTF8String serviceName = UTF8String.EMPTY_UTF8;
+    UTF8String logLevel = UTF8String.EMPTY_UTF8;
+    UTF8String host = UTF8String.EMPTY_UTF8;
+    UTF8String pod = UTF8String.EMPTY_UTF8;
+    List<UTF8String> attributeKeys = null;
+    List<UTF8String> attributeValues = null;
+    long seconds = 0L;
+    int nanos = 0;
+
+    while (!reader.isAtEnd()) {
+      int tag = reader.readTag();
+      int fieldNumber = ProtobufWireReader.getFieldNumber(tag);
+      boolean lengthDelimited =
+          ProtobufWireReader.getWireType(tag) == ProtobufWireReader.WIRETYPE_LENGTH_DELIMITED;
+
+      if (lengthDelimited && fieldNumber == VectorLogs.MESSAGE_FIELD_NUMBER) {
+        message = readString(reader);
+      } else if (lengthDelimited && fieldNumber == VectorLogs.SERVICE_NAME_FIELD_NUMBER) {
+        serviceName = readString(reader);
+      } else if (lengthDelimited && fieldNumber == VectorLogs.LOG_LEVEL_FIELD_NUMBER) {
+        logLevel = readString(reader);
+      } else if (lengthDelimited && fieldNumber == VectorLogs.HOST_FIELD_NUMBER) {
+        host = readString(reader);
+      } else if (lengthDelimited && fieldNumber == VectorLogs.POD_FIELD_NUMBER) {
+        pod = readString(reader);
+      } else if (lengthDelimited && fieldNumber == VectorLogs.ATTRIBUTES_FIELD_NUMBER) {
+        if (attributeKeys == null) {
+          attributeKeys = new ArrayList<>();
+          attributeValues = new ArrayList<>();
+        }
+        readAttribute(reader, attributeKeys, attributeValues);
+      } else if (lengthDelimited && fieldNumber == VectorLogs.TIMESTAMP_FIELD_NUMBER) {
+        int oldLimit = reader.pushLimit(reader.readLength());
+        while (!reader.isAtEnd()) {
+          int timestampTag = reader.readTag();
+          int timestampField = ProtobufWireReader.getFieldNumber(timestampTag);
+          boolean varint =
+              ProtobufWireReader.getWireType(timestampTag) == ProtobufWireReader.WIRETYPE_VARINT;
+          if (varint && timestampField == Timestamp.SECONDS_FIELD_NUMBER) {
+            seconds = reader.readRawVarint64();
+          } else if (varint && timestampField == Timestamp.NANOS_FIELD_NUMBER) {
+            nanos = (int) reader.readRawVarint64();
+          } else {
+            reader.skipField(timestampTag);
+          }
+        }
+        reader.popLimit(oldLimit);
+      } else {
+        reader.skipField(tag);
+      }
+    }
+
+    Object[] values = new Object[numFields];
+    values[MESSAGE_ORDINAL] = message;
+    values[TIMESTAMP_ORDINAL] = toEpochMicros(seconds, nanos);
+    values[SERVICE_NAME_ORDINAL] = serviceName;
+    values[LOG_LEVEL_ORDINAL] = logLevel;
+    values[HOST_ORDINAL] = host;
+    values[POD_ORDINAL] = pod;
+    values[ATTRIBUTES_ORDINAL] = toMapData(attributeKeys, attributeValues);
+    return new GenericInternalRow(values);
+  }
+
+  /** Reads one {@code map<string, string>} entry, replacing the value of a key already read. */
+  private static void readAttribute(
+      ProtobufWireReader reader, List<UTF8String> keys, List<UTF8String> values)
+      throws InvalidProtocolBufferException {
+    UTF8String key = UTF8String.EMPTY_UTF8;
+    UTF8String value = UTF8String.EMPTY_UTF8;
+    int oldLimit = reader.pushLimit(reader.readLength());
+    while (!reader.isAtEnd()) {
+      int entryTag = reader.readTag();
+      int entryField = ProtobufWireReader.getFieldNumber(entryTag);
+      boolean lengthDelimited =
+          ProtobufWireReader.getWireType(entryTag) == ProtobufWireReader.WIRETYPE_LENGTH_DELIMITED;
+      if (lengthDelimited && entryField == MAP_ENTRY_KEY_FIELD_NUMBER) {
+        key = readString(reader);
+      } else if (lengthDelimited && entryField == MAP_ENTRY_VALUE_FIELD_NUMBER) {
+        value = readString(reader);
+      } else {
+        reader.skipField(entryTag);
+      }
+    }
+    reader.popLimit(oldLimit);
+
+    int index = keys.indexOf(key);
+    if (index >= 0) {
+      values.set(index, value);
+    } else {
+      keys.add(key);
+      values.add(value);
+    }
+  }
+
+  private static MapData toMapData(List<UTF8String> keys, List<UTF8String> values) {
+    if (keys == null) {
+      return new ArrayBasedMapData(
+          new GenericArrayData(new Object[0]), new GenericArrayData(new Object[0]));
+    }
+    return new ArrayBasedMapData(
+        new GenericArrayData(keys.toArray()), new GenericArrayData(values.toArray()));
+  }
+
+  /** Converts a proto {@code Timestamp} to the epoch microseconds backing Spark's TimestampType. */
+  static long toEpochMicros(long seconds, int nanos) {
+    return Math.addExact(
+        Math.multiplyExact(seconds, DateTimeConstants.MICROS_PER_SECOND),
+        nanos / DateTimeConstants.NANOS_PER_MICROS);
+  }
+
+  private static UTF8String readString(ProtobufWireReader reader)
+      throws InvalidProtocolBufferException {
+    int length = reader.readLength();
+    int offset = reader.getPosition();
+    reader.skipBytes(length);
+    return UTF8String.fromBytes(reader.getBuffer(), offset, length);
+  }
+
+  @Override
+  @SneakyThrows
+  public TraversableOnce<InternalRow> eval(InternalRow input) {
+    byte[] bytes = (byte[]) child().eval(input);
+    if (bytes == null) {
+      return noRows();
+    }
+    return singleRow(decodeRow(bytes));
+  }
+
+  @Override
+  public StructType elementSchema() {
+    return Schema.getVectorApplicationLogsSchema();
+  }
+
+  @Override
+  public TypeCheckResult checkInputDataTypes() {
+    if (DataTypes.BinaryType.equals(child().dataType())) {
+      return super.checkInputDataTypes();
+    }
+    return new TypeCheckResult.TypeCheckFailure(
+        prettyName() + " expects a binary input but got " + child().dataType().catalogString());
+  }
+
+  @Override
+  public String prettyName() {
+    return "decode_vector_logs";
+  }
+}
@@ -2,7 +2,9 @@ package com.logwise.spark.jobs;
 
 import com.logwise.spark.constants.JobName;
 import com.logwise.spark.guice.injectors.ApplicationInjector;
+import com.logwise.spark.jobs.impl.CompactLogsInS3SparkJob;
 import com.logwise.spark.jobs.impl.PushLogsToS3SparkJob;
+import com.logwise.spark.services.LogCompactionService;
 import com.typesafe.config.Config;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.spark.sql.SparkSession;
@@ -17,6 +19,9 @@ public class JobFactory {
       case PUSH_LOGS_TO_S3:
         return new PushLogsToS3SparkJob(
             ApplicationInjector.getInstance(Config.class), sparkSession);
+      case COMPACT_LOGS_IN_S3:
+        return new CompactLogsInS3SparkJob(
+            ApplicationInjector.getInstance(LogCompactionService.class), sparkSession);
       default:
         throw new IllegalArgumentException("Invalid job name: " + jobName);
     }
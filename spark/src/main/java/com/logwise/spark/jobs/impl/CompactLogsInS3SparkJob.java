@@ -0,0 +1,51 @@
+package com.logwise.spark.jobs.impl;
+
+import com.google.inject.Inject;
+import com.logwise.spark.constants.JobName;
+import com.logwise.spark.jobs.SparkJob;
+import com.logwise.spark.services.LogCompactionService;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import lombok.RequiredArgsConstructor;
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.spark.sql.SparkSession;
+
+/**
+ * Batch job that merges the small files written by {@link PushLogsToS3SparkJob} into files of the
+ * target size, one closed partition at a time. It runs once and is meant to be scheduled next to
+ * the streaming job.
+ */
+@Slf4j
+@RequiredArgsConstructor(onConstructor = @__({@Inject}))
+public class CompactLogsInS3SparkJob implements SparkJob<Void> {
+  private final LogCompactionService logCompactionService;
+  private final SparkSession sparkSession;
+  private final AtomicBoolean stopRequested = new AtomicBoolean(false);
+
+  @Override
+  public JobName getJobName() {
+    return JobName.COMPACT_LOGS_IN_S3;
+  }
+
+  @Override
+  public Long timeout() {
+    // Bounded by the number of closed partitions, stop() ends it between two partitions.
+    return Long.MAX_VALUE;
+  }
+
+  @Override
+  @SneakyThrows
+  public CompletableFuture<Void> start() {
+    log.info("Starting Job: {}", getJobName());
+    int compactedPartitions = logCompactionService.compact(sparkSession, stopRequested::get);
+    log.info("Job {} compacted {} partitions", getJobName(), compactedPartitions);
+    return CompletableFuture.completedFuture(null);
+  }
+
+  @Override
+  public void stop() {
+    log.info("Stopping Job {} after the current partition", getJobName());
+    stopRequested.set(true);
+  }
+}
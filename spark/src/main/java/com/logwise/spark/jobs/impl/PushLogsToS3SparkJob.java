@@ -1,6 +1,7 @@
 package com.logwise.spark.jobs.impl;
 
 import com.google.inject.Inject;
+import com.logwise.spark.constants.Constants;
 import com.logwise.spark.constants.JobName;
 import com.logwise.spark.constants.StreamName;
 import com.logwise.spark.stream.StreamFactory;
@@ -29,7 +30,7 @@ public class PushLogsToS3SparkJob extends AbstractSparkStreamSparkJob<Void> {
     this.pushLogsToS3Thread = new Thread(getPushLogsToS3Runnable());
   }
 
-  @NonFinal private Thread pushLogsToS3Thread;
+  @NonFinal private volatile Thread pushLogsToS3Thread;
   @NonFinal private Long pushLogsToS3ThreadStartTime = null;
 
   private static final List<PushLogsToS3SparkJob> RUNNING_JOBS = new CopyOnWriteArrayList<>();
@@ -71,8 +72,9 @@ public class PushLogsToS3SparkJob extends AbstractSparkStreamSparkJob<Void> {
     log.info("Started Monitoring Job: {}", getJobName());
     long timeOutInMillis =
         TimeUnit.MINUTES.toMillis(config.getLong("spark.streamingquery.timeout.minutes"));
+    boolean longRunning = config.getBoolean(Constants.CONFIG_KEY_STREAMING_QUERY_LONG_RUNNING);
     while (true) {
-      if (isJobTimeOut(timeOutInMillis)) {
+      if (!longRunning && isJobTimeOut(timeOutInMillis)) {
         log.error(
             "Job {} timed out after {} minutes",
             getJobName(),
@@ -86,9 +88,12 @@ public class PushLogsToS3SparkJob extends AbstractSparkStreamSparkJob<Void> {
   }
 
   private void startGetPushLogsToS3Runnable() {
-    pushLogsToS3Thread.start();
+    // A thread runs once, every run of the queries gets a new one. The run is registered before
+    // the thread starts, as a run failing right away unregisters it
+    pushLogsToS3Thread = new Thread(getPushLogsToS3Runnable());
     pushLogsToS3ThreadStartTime = System.currentTimeMillis();
     RUNNING_JOBS.add(this);
+    pushLogsToS3Thread.start();
     log.info("Started Job {}: Time: {}", getJobName(), pushLogsToS3ThreadStartTime);
   }
 
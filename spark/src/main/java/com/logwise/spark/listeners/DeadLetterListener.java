@@ -0,0 +1,90 @@
+package com.logwise.spark.listeners;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.spark.sql.streaming.StreamingQueryListener;
+import org.apache.spark.sql.streaming.StreamingQueryProgress;
+import org.apache.spark.util.LongAccumulator;
+
+/**
+ * DeadLetterListener logs the number of records every completed micro-batch could not decode and
+ * wrote to the dead-letter path instead.
+ *
+ * <p>The dead-letter accumulator of a query is registered under the query name on the driver, where
+ * the tasks of a micro-batch have merged their counts into it before its progress is posted. A
+ * query registered again after a restart starts counting from zero. The count is approximate: a
+ * retried or recomputed task adds its records again, see {@code TolerantVectorLogsDecoder}.
+ */
+@Slf4j
+public class DeadLetterListener extends StreamingQueryListener {
+  private static final Map<String, DeadLetterCounter> COUNTERS = new ConcurrentHashMap<>();
+
+  @RequiredArgsConstructor
+  private static class DeadLetterCounter {
+    private final LongAccumulator accumulator;
+    private final AtomicLong reported = new AtomicLong(0L);
+  }
+
+  /**
+   * Registers the dead-letter accumulator of a query, replacing the one of a previous run.
+   *
+   * @param queryName the streaming query name
+   * @param accumulator the accumulator the decoder adds undecodable records to
+   */
+  public static void register(String queryName, LongAccumulator accumulator) {
+    COUNTERS.put(queryName, new DeadLetterCounter(accumulator));
+  }
+
+  @Override
+  public void onQueryStarted(QueryStartedEvent event) {}
+
+  /**
+   * Logs the dead-letter records of the micro-batch, as a warning when there are any.
+   *
+   * @param event The query progress event.
+   */
+  @Override
+  public void onQueryProgress(QueryProgressEvent event) {
+    StreamingQueryProgress progress = event.progress();
+    if (!COUNTERS.containsKey(progress.name())) {
+      return;
+    }
+    long deadLetterRecords = getBatchDeadLetterRecords(progress.name());
+    if (deadLetterRecords > 0) {
+      log.warn(
+          "Micro-batch [{}] of query [{}] wrote {} undecodable records out of {} to the dead-letter"
+              + " path",
+          progress.batchId(),
+          progress.name(),
+          deadLetterRecords,
+          progress.numInputRows());
+    } else {
+      log.info(
+          "Micro-batch [{}] of query [{}] wrote no dead-letter records",
+          progress.batchId(),
+          progress.name());
+    }
+  }
+
+  @Override
+  public void onQueryTerminated(QueryTerminatedEvent event) {}
+
+  /**
+   * Returns the dead-letter records of the query since the previous call, which the progress
+   * listener makes once per micro-batch.
+   *
+   * @param queryName the streaming query name
+   * @return the records added to the accumulator since the last call, 0 for an unknown query
+   */
+  static long getBatchDeadLetterRecords(String queryName) {
+    DeadLetterCounter counter = COUNTERS.get(queryName);
+    if (counter == null) {
+      return 0L;
+    }
+    long total = counter.accumulator.value();
+    return total - counter.reported.getAndSet(total);
+  }
+}
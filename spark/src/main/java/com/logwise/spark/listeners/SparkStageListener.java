@@ -4,28 +4,51 @@ import com.google.inject.Inject;
 import com.logwise.spark.constants.Constants;
 import com.logwise.spark.dto.entity.SparkStageHistory;
 import com.logwise.spark.jobs.impl.PushLogsToS3SparkJob;
+import com.logwise.spark.services.SparkMasterService;
 import com.logwise.spark.services.SparkScaleService;
 import com.logwise.spark.singleton.CurrentSparkSession;
+import com.typesafe.config.Config;
 import java.util.Map;
+import java.util.Properties;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.spark.scheduler.SparkListener;
+import org.apache.spark.scheduler.SparkListenerEvent;
 import org.apache.spark.scheduler.SparkListenerStageCompleted;
 import org.apache.spark.scheduler.SparkListenerStageSubmitted;
+import org.apache.spark.sql.execution.streaming.StreamExecution;
 import org.apache.spark.sql.streaming.StreamingQuery;
+import org.apache.spark.sql.streaming.StreamingQueryListener.QueryProgressEvent;
+import org.apache.spark.sql.streaming.StreamingQueryListener.QueryStartedEvent;
 import org.apache.spark.sql.streaming.StreamingQueryManager;
 import scala.Option;
 
 /**
  * SparkStageListener listens to Spark stage events and manages the execution of streaming queries.
- * It tracks stage submission and completion, updates metrics, and stops queries when necessary.
+ * It tracks stage submission and completion, updates metrics, and stops queries when necessary. The
+ * stages of a streaming query, whatever its sink, are tracked under the query id Spark sets on
+ * every job of the query, and other stages under their name.
+ *
+ * <p>A streaming query completes once its progress reports a micro-batch that ran stages, so the
+ * several jobs a {@code foreachBatch} writer runs in one micro-batch count once. The first stage
+ * submitted after that belongs to the next micro-batch and stops the query. A query started again,
+ * under the id kept in its checkpoint, counts from zero.
+ *
+ * <p>With {@code spark.streamingquery.longRunning.enable} the queries are never stopped: the stage
+ * history of each query is reported after every micro-batch instead of once per query run. Stage
+ * metrics are kept per streaming query, and the reports are sent from a background thread so the
+ * listener bus is not blocked on the Spark master and the orchestrator.
  */
 @Slf4j
 @RequiredArgsConstructor(onConstructor = @__({@Inject}))
 public class SparkStageListener extends SparkListener {
+  private final Config config;
   private final SparkScaleService sparkScaleService;
+  private final SparkMasterService sparkMasterService;
 
   private static class StageMetrics {
     Long inputRecords = 0L;
@@ -37,7 +60,19 @@ public class SparkStageListener extends SparkListener {
   private static final Map<String, Integer> STAGE_COMPLETION_MAP = new ConcurrentHashMap<>();
   private static final Map<String, Integer> STAGE_SUBMITTED_MAP = new ConcurrentHashMap<>();
   private static final Set<Integer> PENDING_STOP_STAGE_IDS = ConcurrentHashMap.newKeySet();
-  private static volatile StageMetrics stageMetrics = new StageMetrics();
+  // Stages that are not run by a streaming query are collected under NO_QUERY_ID
+  private static final String NO_QUERY_ID = "";
+  private static final Map<Integer, String> STAGE_QUERY_IDS = new ConcurrentHashMap<>();
+  // Streaming queries that completed a stage in the micro-batch in progress
+  private static final Set<String> BATCH_STAGE_QUERY_IDS = ConcurrentHashMap.newKeySet();
+  private static final Map<String, StageMetrics> STAGE_METRICS = new ConcurrentHashMap<>();
+  private static final ExecutorService STAGE_HISTORY_EXECUTOR =
+      Executors.newSingleThreadExecutor(
+          runnable -> {
+            Thread thread = new Thread(runnable, "stage-history-reporter");
+            thread.setDaemon(true);
+            return thread;
+          });
 
   /**
    * Handles the event when a stage is submitted.
@@ -46,11 +81,21 @@ public class SparkStageListener extends SparkListener {
    */
   @Override
   public void onStageSubmitted(SparkListenerStageSubmitted stageSubmitted) {
-    String stageName = stageSubmitted.stageInfo().name();
     int stageId = stageSubmitted.stageInfo().stageId();
+    Properties properties = stageSubmitted.properties();
+    String queryId =
+        properties == null ? null : properties.getProperty(StreamExecution.QUERY_ID_KEY());
+    if (queryId != null) {
+      STAGE_QUERY_IDS.put(stageId, queryId);
+    }
+    String stageName = queryId == null ? stageSubmitted.stageInfo().name() : queryId;
     STAGE_SUBMITTED_MAP.merge(stageName, 1, Integer::sum);
     log.info("Total submitted stages: {}", STAGE_SUBMITTED_MAP);
 
+    if (isLongRunning()) {
+      return;
+    }
+
     if (isAllStagesCompletedAtLeastOnce()) {
       log.info("All stages completed at least once");
       completeExecution();
@@ -71,8 +116,14 @@ public class SparkStageListener extends SparkListener {
   @Override
   public void onStageCompleted(SparkListenerStageCompleted stageCompleted) {
     String status = stageCompleted.stageInfo().getStatusString();
-    String stageName = stageCompleted.stageInfo().name();
-    STAGE_COMPLETION_MAP.merge(stageName, 1, Integer::sum);
+    String queryId = STAGE_QUERY_IDS.remove(stageCompleted.stageInfo().stageId());
+    String stageName = queryId == null ? stageCompleted.stageInfo().name() : queryId;
+    if (queryId == null) {
+      STAGE_COMPLETION_MAP.merge(stageName, 1, Integer::sum);
+    } else {
+      // The micro-batch may run more stages, it completes with the progress of the query
+      BATCH_STAGE_QUERY_IDS.add(queryId);
+    }
     log.info(
         "Stage [{}] completed with status: [{}]. Completed stages map: {}",
         stageName,
@@ -92,24 +143,57 @@ public class SparkStageListener extends SparkListener {
           currentInputRecords,
           currentOutputBytes);
 
-      stageMetrics.inputRecords = Math.max(currentInputRecords, stageMetrics.inputRecords);
-      stageMetrics.outputBytes = Math.max(currentOutputBytes, stageMetrics.outputBytes);
-      if (completionTime.nonEmpty() && completionTime.isDefined()) {
-        stageMetrics.completionTime =
-            Math.max(stageMetrics.completionTime, Long.parseLong(completionTime.get().toString()));
+      STAGE_METRICS.compute(
+          queryId == null ? NO_QUERY_ID : queryId,
+          (key, stageMetrics) -> {
+            StageMetrics metrics = stageMetrics == null ? new StageMetrics() : stageMetrics;
+            metrics.inputRecords = Math.max(currentInputRecords, metrics.inputRecords);
+            metrics.outputBytes = Math.max(currentOutputBytes, metrics.outputBytes);
+            if (completionTime.nonEmpty() && completionTime.isDefined()) {
+              metrics.completionTime =
+                  Math.max(metrics.completionTime, Long.parseLong(completionTime.get().toString()));
+            }
+            if (submissionTime.nonEmpty() && submissionTime.isDefined()) {
+              long currentSubmissionTime = Long.parseLong(submissionTime.get().toString());
+              metrics.submissionTime =
+                  metrics.submissionTime.equals(0L)
+                      ? currentSubmissionTime
+                      : Math.min(metrics.submissionTime, currentSubmissionTime);
+            }
+            return metrics;
+          });
+    }
+  }
+
+  /**
+   * Handles streaming query events, which Spark also posts to the listener bus. A query progress
+   * event completes the micro-batch of the query if it ran stages, and in long-running mode reports
+   * its stage history. A query start resets the counts of the query.
+   *
+   * @param event The listener bus event.
+   */
+  @Override
+  public void onOtherEvent(SparkListenerEvent event) {
+    if (event instanceof QueryStartedEvent) {
+      String queryId = ((QueryStartedEvent) event).id().toString();
+      STAGE_COMPLETION_MAP.remove(queryId);
+      STAGE_SUBMITTED_MAP.remove(queryId);
+      BATCH_STAGE_QUERY_IDS.remove(queryId);
+    } else if (event instanceof QueryProgressEvent) {
+      QueryProgressEvent progressEvent = (QueryProgressEvent) event;
+      String queryId = progressEvent.progress().id().toString();
+      if (BATCH_STAGE_QUERY_IDS.remove(queryId)) {
+        STAGE_COMPLETION_MAP.merge(queryId, 1, Integer::sum);
       }
-      if (submissionTime.nonEmpty() && submissionTime.isDefined()) {
-        long currentSubmissionTime = Long.parseLong(submissionTime.get().toString());
-        stageMetrics.submissionTime =
-            stageMetrics.submissionTime.equals(0L)
-                ? currentSubmissionTime
-                : Math.min(stageMetrics.submissionTime, currentSubmissionTime);
+      if (isLongRunning()) {
+        completeBatch(progressEvent);
       }
     }
   }
 
   /**
-   * Stops the streaming query associated with the given stage name.
+   * Stops the streaming query associated with the given stage name, which is the id of the query
+   * for the stages a streaming query runs.
    *
    * @param stageName The name of the stage to stop.
    */
@@ -123,8 +207,7 @@ public class SparkStageListener extends SparkListener {
               PENDING_STOP_STAGE_IDS.add(stageId);
               for (StreamingQuery query : activeQueries) {
                 String queryName = query.name();
-                String expectedStageName = Constants.QUERY_NAME_TO_STAGE_MAP.get(queryName);
-                if (stageName.equals(expectedStageName)) {
+                if (stageName.equals(query.id().toString())) {
                   log.info("Stopping stream query: [{}] for stage: [{}]", queryName, stageName);
                   try {
                     query.stop();
@@ -161,16 +244,76 @@ public class SparkStageListener extends SparkListener {
     }
 
     SparkStageHistory sparkStageHistory = sparkScaleService.getCurrentSparkStageHistory();
-    sparkStageHistory.setInputRecords(stageMetrics.inputRecords);
-    sparkStageHistory.setOutputBytes(stageMetrics.outputBytes);
-    sparkStageHistory.setSubmissionTime(stageMetrics.submissionTime);
-    sparkStageHistory.setCompletionTime(stageMetrics.completionTime);
-    sparkStageHistory.setStatus("succeeded");
+    StageMetrics runMetrics = new StageMetrics();
+    STAGE_METRICS.values().forEach(queryMetrics -> mergeStageMetrics(runMetrics, queryMetrics));
+    setStageMetrics(sparkStageHistory, runMetrics);
 
     sparkScaleService.updateStageHistory(sparkStageHistory);
     PushLogsToS3SparkJob.stopAllRunningJobs();
   }
 
+  /**
+   * Reports the stage history of the micro-batch that just completed and starts collecting metrics
+   * of the query for the next one. Progress events of idle triggers ran no stage and are not
+   * reported.
+   *
+   * @param progressEvent The progress event of the completed micro-batch.
+   */
+  private void completeBatch(QueryProgressEvent progressEvent) {
+    StageMetrics batchMetrics = STAGE_METRICS.remove(progressEvent.progress().id().toString());
+    if (batchMetrics == null || batchMetrics.submissionTime.equals(0L)) {
+      return;
+    }
+    log.info(
+        "Micro-batch [{}] of query [{}] completed",
+        progressEvent.progress().batchId(),
+        progressEvent.progress().name());
+    STAGE_HISTORY_EXECUTOR.execute(() -> reportBatch(batchMetrics));
+  }
+
+  private void reportBatch(StageMetrics batchMetrics) {
+    try {
+      SparkStageHistory currentSparkStageHistory = sparkScaleService.getCurrentSparkStageHistory();
+      Integer coresUsed = sparkMasterService.getCoresUsed();
+      SparkStageHistory sparkStageHistory = new SparkStageHistory();
+      sparkStageHistory.setTenant(config.getString("tenant.name"));
+      sparkStageHistory.setCoresUsed(
+          coresUsed != null || currentSparkStageHistory == null
+              ? coresUsed
+              : currentSparkStageHistory.getCoresUsed());
+      setStageMetrics(sparkStageHistory, batchMetrics);
+
+      sparkScaleService.updateStageHistory(sparkStageHistory);
+    } catch (Exception e) {
+      log.error("Error in reporting stage history", e);
+    }
+  }
+
+  private static void mergeStageMetrics(StageMetrics target, StageMetrics source) {
+    target.inputRecords = Math.max(target.inputRecords, source.inputRecords);
+    target.outputBytes = Math.max(target.outputBytes, source.outputBytes);
+    target.completionTime = Math.max(target.completionTime, source.completionTime);
+    if (!source.submissionTime.equals(0L)) {
+      target.submissionTime =
+          target.submissionTime.equals(0L)
+              ? source.submissionTime
+              : Math.min(target.submissionTime, source.submissionTime);
+    }
+  }
+
+  private static void setStageMetrics(
+      SparkStageHistory sparkStageHistory, StageMetrics completedStageMetrics) {
+    sparkStageHistory.setInputRecords(completedStageMetrics.inputRecords);
+    sparkStageHistory.setOutputBytes(completedStageMetrics.outputBytes);
+    sparkStageHistory.setSubmissionTime(completedStageMetrics.submissionTime);
+    sparkStageHistory.setCompletionTime(completedStageMetrics.completionTime);
+    sparkStageHistory.setStatus("succeeded");
+  }
+
+  private boolean isLongRunning() {
+    return config.getBoolean(Constants.CONFIG_KEY_STREAMING_QUERY_LONG_RUNNING);
+  }
+
   /**
    * Checks if all stages have been completed at least once.
    *
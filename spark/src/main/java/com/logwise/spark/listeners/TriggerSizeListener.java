@@ -0,0 +1,34 @@
+package com.logwise.spark.listeners;
+
+import com.logwise.spark.stream.source.TriggerSizeController;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.spark.sql.streaming.StreamingQueryListener;
+import org.apache.spark.sql.streaming.StreamingQueryProgress;
+
+/**
+ * TriggerSizeListener feeds the progress of every completed micro-batch to the {@link
+ * TriggerSizeController} registered for the query, if any.
+ */
+@Slf4j
+public class TriggerSizeListener extends StreamingQueryListener {
+
+  @Override
+  public void onQueryStarted(QueryStartedEvent event) {}
+
+  /**
+   * Re-sizes the offsets per trigger of the query from the batch duration and input rows.
+   *
+   * @param event The query progress event.
+   */
+  @Override
+  public void onQueryProgress(QueryProgressEvent event) {
+    StreamingQueryProgress progress = event.progress();
+    TriggerSizeController.get(progress.name())
+        .ifPresent(
+            controller ->
+                controller.onBatchCompleted(progress.numInputRows(), progress.batchDuration()));
+  }
+
+  @Override
+  public void onQueryTerminated(QueryTerminatedEvent event) {}
+}
@@ -29,6 +29,10 @@ public final class LogwiseVector extends com.google.protobuf.GeneratedFile {
       internal_static_logwise_vector_logs_VectorLogs_descriptor;
   static final com.google.protobuf.GeneratedMessage.FieldAccessorTable
       internal_static_logwise_vector_logs_VectorLogs_fieldAccessorTable;
+  static final com.google.protobuf.Descriptors.Descriptor
+      internal_static_logwise_vector_logs_VectorLogs_AttributesEntry_descriptor;
+  static final com.google.protobuf.GeneratedMessage.FieldAccessorTable
+      internal_static_logwise_vector_logs_VectorLogs_AttributesEntry_fieldAccessorTable;
 
   public static com.google.protobuf.Descriptors.FileDescriptor getDescriptor() {
     return descriptor;
@@ -39,11 +43,15 @@ public final class LogwiseVector extends com.google.protobuf.GeneratedFile {
   static {
     java.lang.String[] descriptorData = {
       "\n\024logwise-vector.proto\022\023logwise.vector.l"
-          + "ogs\032\037google/protobuf/timestamp.proto\"u\n\n"
-          + "VectorLogs\022\024\n\014service_name\030\001 \001(\t\022\017\n\007mess"
-          + "age\030\002 \001(\t\022\021\n\tlog_level\030\003 \001(\t\022-\n\ttimestam"
-          + "p\030\004 \001(\0132\032.google.protobuf.TimestampB\036\n\032c"
-          + "om.logwise.spark.protobufP\001b\006proto3"
+          + "ogs\032\037google/protobuf/timestamp.proto\"\210\002\n"
+          + "\nVectorLogs\022\024\n\014service_name\030\001 \001(\t\022\017\n\007mes"
+          + "sage\030\002 \001(\t\022\021\n\tlog_level\030\003 \001(\t\022-\n\ttimesta"
+          + "mp\030\004 \001(\0132\032.google.protobuf.Timestamp\022\014\n\004"
+          + "host\030\005 \001(\t\022\013\n\003pod\030\006 \001(\t\022C\n\nattributes\030\007 "
+          + "\003(\0132/.logwise.vector.logs.VectorLogs.Att"
+          + "ributesEntry\0321\n\017AttributesEntry\022\013\n\003key\030\001"
+          + " \001(\t\022\r\n\005value\030\002 \001(\t:\0028\001B\036\n\032com.logwise.s"
+          + "park.protobufP\001b\006proto3"
     };
     descriptor =
         com.google.protobuf.Descriptors.FileDescriptor.internalBuildGeneratedFileFrom(
@@ -56,7 +64,15 @@ public final class LogwiseVector extends com.google.protobuf.GeneratedFile {
         new com.google.protobuf.GeneratedMessage.FieldAccessorTable(
             internal_static_logwise_vector_logs_VectorLogs_descriptor,
             new java.lang.String[] {
-              "ServiceName", "Message", "LogLevel", "Timestamp",
+              "ServiceName", "Message", "LogLevel", "Timestamp", "Host", "Pod", "Attributes",
+            });
+    internal_static_logwise_vector_logs_VectorLogs_AttributesEntry_descriptor =
+        internal_static_logwise_vector_logs_VectorLogs_descriptor.getNestedType(0);
+    internal_static_logwise_vector_logs_VectorLogs_AttributesEntry_fieldAccessorTable =
+        new com.google.protobuf.GeneratedMessage.FieldAccessorTable(
+            internal_static_logwise_vector_logs_VectorLogs_AttributesEntry_descriptor,
+            new java.lang.String[] {
+              "Key", "Value",
             });
     descriptor.resolveAllFeaturesImmutable();
     com.google.protobuf.TimestampProto.getDescriptor();
@@ -32,6 +32,8 @@ public final class VectorLogs extends com.google.protobuf.GeneratedMessage
     serviceName_ = "";
     message_ = "";
     logLevel_ = "";
+    host_ = "";
+    pod_ = "";
   }
 
   public static final com.google.protobuf.Descriptors.Descriptor getDescriptor() {
@@ -39,6 +41,18 @@ public final class VectorLogs extends com.google.protobuf.GeneratedMessage
         .internal_static_logwise_vector_logs_VectorLogs_descriptor;
   }
 
+  @SuppressWarnings({"rawtypes"})
+  @java.lang.Override
+  protected com.google.protobuf.MapFieldReflectionAccessor internalGetMapFieldReflection(
+      int number) {
+    switch (number) {
+      case 7:
+        return internalGetAttributes();
+      default:
+        throw new RuntimeException("Invalid map field number: " + number);
+    }
+  }
+
   @java.lang.Override
   protected com.google.protobuf.GeneratedMessage.FieldAccessorTable
       internalGetFieldAccessorTable() {
@@ -202,6 +216,163 @@ public final class VectorLogs extends com.google.protobuf.GeneratedMessage
     return timestamp_ == null ? com.google.protobuf.Timestamp.getDefaultInstance() : timestamp_;
   }
 
+  public static final int HOST_FIELD_NUMBER = 5;
+
+  @SuppressWarnings("serial")
+  private volatile java.lang.Object host_ = "";
+
+  /**
+   * <code>string host = 5;</code>
+   *
+   * @return The host.
+   */
+  @java.lang.Override
+  public java.lang.String getHost() {
+    java.lang.Object ref = host_;
+    if (ref instanceof java.lang.String) {
+      return (java.lang.String) ref;
+    } else {
+      com.google.protobuf.ByteString bs = (com.google.protobuf.ByteString) ref;
+      java.lang.String s = bs.toStringUtf8();
+      host_ = s;
+      return s;
+    }
+  }
+
+  /**
+   * <code>string host = 5;</code>
+   *
+   * @return The bytes for host.
+   */
+  @java.lang.Override
+  public com.google.protobuf.ByteString getHostBytes() {
+    java.lang.Object ref = host_;
+    if (ref instanceof java.lang.String) {
+      com.google.protobuf.ByteString b =
+          com.google.protobuf.ByteString.copyFromUtf8((java.lang.String) ref);
+      host_ = b;
+      return b;
+    } else {
+      return (com.google.protobuf.ByteString) ref;
+    }
+  }
+
+  public static final int POD_FIELD_NUMBER = 6;
+
+  @SuppressWarnings("serial")
+  private volatile java.lang.Object pod_ = "";
+
+  /**
+   * <code>string pod = 6;</code>
+   *
+   * @return The pod.
+   */
+  @java.lang.Override
+  public java.lang.String getPod() {
+    java.lang.Object ref = pod_;
+    if (ref instanceof java.lang.String) {
+      return (java.lang.String) ref;
+    } else {
+      com.google.protobuf.ByteString bs = (com.google.protobuf.ByteString) ref;
+      java.lang.String s = bs.toStringUtf8();
+      pod_ = s;
+      return s;
+    }
+  }
+
+  /**
+   * <code>string pod = 6;</code>
+   *
+   * @return The bytes for pod.
+   */
+  @java.lang.Override
+  public com.google.protobuf.ByteString getPodBytes() {
+    java.lang.Object ref = pod_;
+    if (ref instanceof java.lang.String) {
+      com.google.protobuf.ByteString b =
+          com.google.protobuf.ByteString.copyFromUtf8((java.lang.String) ref);
+      pod_ = b;
+      return b;
+    } else {
+      return (com.google.protobuf.ByteString) ref;
+    }
+  }
+
+  public static final int ATTRIBUTES_FIELD_NUMBER = 7;
+
+  private static final class AttributesDefaultEntryHolder {
+    static final com.google.protobuf.MapEntry<java.lang.String, java.lang.String> defaultEntry =
+        com.google.protobuf.MapEntry.<java.lang.String, java.lang.String>newDefaultInstance(
+            com.logwise.spark.protobuf.LogwiseVector
+                .internal_static_logwise_vector_logs_VectorLogs_AttributesEntry_descriptor,
+            com.google.protobuf.WireFormat.FieldType.STRING,
+            "",
+            com.google.protobuf.WireFormat.FieldType.STRING,
+            "");
+  }
+
+  @SuppressWarnings("serial")
+  private com.google.protobuf.MapField<java.lang.String, java.lang.String> attributes_;
+
+  private com.google.protobuf.MapField<java.lang.String, java.lang.String> internalGetAttributes() {
+    if (attributes_ == null) {
+      return com.google.protobuf.MapField.emptyMapField(AttributesDefaultEntryHolder.defaultEntry);
+    }
+    return attributes_;
+  }
+
+  public int getAttributesCount() {
+    return internalGetAttributes().getMap().size();
+  }
+
+  /** <code>map&lt;string, string&gt; attributes = 7;</code> */
+  @java.lang.Override
+  public boolean containsAttributes(java.lang.String key) {
+    if (key == null) {
+      throw new NullPointerException("map key");
+    }
+    return internalGetAttributes().getMap().containsKey(key);
+  }
+
+  /** Use {@link #getAttributesMap()} instead. */
+  @java.lang.Override
+  @java.lang.Deprecated
+  public java.util.Map<java.lang.String, java.lang.String> getAttributes() {
+    return getAttributesMap();
+  }
+
+  /** <code>map&lt;string, string&gt; attributes = 7;</code> */
+  @java.lang.Override
+  public java.util.Map<java.lang.String, java.lang.String> getAttributesMap() {
+    return internalGetAttributes().getMap();
+  }
+
+  /** <code>map&lt;string, string&gt; attributes = 7;</code> */
+  @java.lang.Override
+  public /* nullable */ java.lang.String getAttributesOrDefault(
+      java.lang.String key,
+      /* nullable */
+      java.lang.String defaultValue) {
+    if (key == null) {
+      throw new NullPointerException("map key");
+    }
+    java.util.Map<java.lang.String, java.lang.String> map = internalGetAttributes().getMap();
+    return map.containsKey(key) ? map.get(key) : defaultValue;
+  }
+
+  /** <code>map&lt;string, string&gt; attributes = 7;</code> */
+  @java.lang.Override
+  public java.lang.String getAttributesOrThrow(java.lang.String key) {
+    if (key == null) {
+      throw new NullPointerException("map key");
+    }
+    java.util.Map<java.lang.String, java.lang.String> map = internalGetAttributes().getMap();
+    if (!map.containsKey(key)) {
+      throw new java.lang.IllegalArgumentException();
+    }
+    return map.get(key);
+  }
+
   private byte memoizedIsInitialized = -1;
 
   @java.lang.Override
@@ -228,6 +399,14 @@ public final class VectorLogs extends com.google.protobuf.GeneratedMessage
     if (((bitField0_ & 0x00000001) != 0)) {
       output.writeMessage(4, getTimestamp());
     }
+    if (!com.google.protobuf.GeneratedMessage.isStringEmpty(host_)) {
+      com.google.protobuf.GeneratedMessage.writeString(output, 5, host_);
+    }
+    if (!com.google.protobuf.GeneratedMessage.isStringEmpty(pod_)) {
+      com.google.protobuf.GeneratedMessage.writeString(output, 6, pod_);
+    }
+    com.google.protobuf.GeneratedMessage.serializeStringMapTo(
+        output, internalGetAttributes(), AttributesDefaultEntryHolder.defaultEntry, 7);
     getUnknownFields().writeTo(output);
   }
 
@@ -249,6 +428,22 @@ public final class VectorLogs extends com.google.protobuf.GeneratedMessage
     if (((bitField0_ & 0x00000001) != 0)) {
       size += com.google.protobuf.CodedOutputStream.computeMessageSize(4, getTimestamp());
     }
+    if (!com.google.protobuf.GeneratedMessage.isStringEmpty(host_)) {
+      size += com.google.protobuf.GeneratedMessage.computeStringSize(5, host_);
+    }
+    if (!com.google.protobuf.GeneratedMessage.isStringEmpty(pod_)) {
+      size += com.google.protobuf.GeneratedMessage.computeStringSize(6, pod_);
+    }
+    for (java.util.Map.Entry<java.lang.String, java.lang.String> entry :
+        internalGetAttributes().getMap().entrySet()) {
+      com.google.protobuf.MapEntry<java.lang.String, java.lang.String> attributes__ =
+          AttributesDefaultEntryHolder.defaultEntry
+              .newBuilderForType()
+              .setKey(entry.getKey())
+              .setValue(entry.getValue())
+              .build();
+      size += com.google.protobuf.CodedOutputStream.computeMessageSize(7, attributes__);
+    }
     size += getUnknownFields().getSerializedSize();
     memoizedSize = size;
     return size;
@@ -271,6 +466,9 @@ public final class VectorLogs extends com.google.protobuf.GeneratedMessage
     if (hasTimestamp()) {
       if (!getTimestamp().equals(other.getTimestamp())) return false;
     }
+    if (!getHost().equals(other.getHost())) return false;
+    if (!getPod().equals(other.getPod())) return false;
+    if (!internalGetAttributes().equals(other.internalGetAttributes())) return false;
     if (!getUnknownFields().equals(other.getUnknownFields())) return false;
     return true;
   }
@@ -292,6 +490,14 @@ public final class VectorLogs extends com.google.protobuf.GeneratedMessage
       hash = (37 * hash) + TIMESTAMP_FIELD_NUMBER;
       hash = (53 * hash) + getTimestamp().hashCode();
     }
+    hash = (37 * hash) + HOST_FIELD_NUMBER;
+    hash = (53 * hash) + getHost().hashCode();
+    hash = (37 * hash) + POD_FIELD_NUMBER;
+    hash = (53 * hash) + getPod().hashCode();
+    if (!internalGetAttributes().getMap().isEmpty()) {
+      hash = (37 * hash) + ATTRIBUTES_FIELD_NUMBER;
+      hash = (53 * hash) + internalGetAttributes().hashCode();
+    }
     hash = (29 * hash) + getUnknownFields().hashCode();
     memoizedHashCode = hash;
     return hash;
@@ -402,6 +608,29 @@ public final class VectorLogs extends com.google.protobuf.GeneratedMessage
           .internal_static_logwise_vector_logs_VectorLogs_descriptor;
     }
 
+    @SuppressWarnings({"rawtypes"})
+    @java.lang.Override
+    protected com.google.protobuf.MapFieldReflectionAccessor internalGetMapFieldReflection(
+        int number) {
+      switch (number) {
+        case 7:
+          return internalGetAttributes();
+        default:
+          throw new RuntimeException("Invalid map field number: " + number);
+      }
+    }
+
+    @SuppressWarnings({"rawtypes"})
+    protected com.google.protobuf.MapFieldReflectionAccessor internalGetMutableMapFieldReflection(
+        int number) {
+      switch (number) {
+        case 7:
+          return internalGetMutableAttributes();
+        default:
+          throw new RuntimeException("Invalid map field number: " + number);
+      }
+    }
+
     @java.lang.Override
     protected com.google.protobuf.GeneratedMessage.FieldAccessorTable
         internalGetFieldAccessorTable() {
@@ -440,6 +669,9 @@ public final class VectorLogs extends com.google.protobuf.GeneratedMessage
         timestampBuilder_.dispose();
         timestampBuilder_ = null;
       }
+      host_ = "";
+      pod_ = "";
+      internalGetMutableAttributes().clear();
       return this;
     }
 
@@ -490,6 +722,16 @@ public final class VectorLogs extends com.google.protobuf.GeneratedMessage
         result.timestamp_ = timestampBuilder_ == null ? timestamp_ : timestampBuilder_.build();
         to_bitField0_ |= 0x00000001;
       }
+      if (((from_bitField0_ & 0x00000010) != 0)) {
+        result.host_ = host_;
+      }
+      if (((from_bitField0_ & 0x00000020) != 0)) {
+        result.pod_ = pod_;
+      }
+      if (((from_bitField0_ & 0x00000040) != 0)) {
+        result.attributes_ = internalGetAttributes();
+        result.attributes_.makeImmutable();
+      }
       result.bitField0_ |= to_bitField0_;
     }
 
@@ -523,6 +765,18 @@ public final class VectorLogs extends com.google.protobuf.GeneratedMessage
       if (other.hasTimestamp()) {
         mergeTimestamp(other.getTimestamp());
       }
+      if (!other.getHost().isEmpty()) {
+        host_ = other.host_;
+        bitField0_ |= 0x00000010;
+        onChanged();
+      }
+      if (!other.getPod().isEmpty()) {
+        pod_ = other.pod_;
+        bitField0_ |= 0x00000020;
+        onChanged();
+      }
+      internalGetMutableAttributes().mergeFrom(other.internalGetAttributes());
+      bitField0_ |= 0x00000040;
       this.mergeUnknownFields(other.getUnknownFields());
       onChanged();
       return this;
@@ -574,6 +828,30 @@ public final class VectorLogs extends com.google.protobuf.GeneratedMessage
                 bitField0_ |= 0x00000008;
                 break;
               } // case 34
+            case 42:
+              {
+                host_ = input.readStringRequireUtf8();
+                bitField0_ |= 0x00000010;
+                break;
+              } // case 42
+            case 50:
+              {
+                pod_ = input.readStringRequireUtf8();
+                bitField0_ |= 0x00000020;
+                break;
+              } // case 50
+            case 58:
+              {
+                com.google.protobuf.MapEntry<java.lang.String, java.lang.String> attributes__ =
+                    input.readMessage(
+                        AttributesDefaultEntryHolder.defaultEntry.getParserForType(),
+                        extensionRegistry);
+                internalGetMutableAttributes()
+                    .getMutableMap()
+                    .put(attributes__.getKey(), attributes__.getValue());
+                bitField0_ |= 0x00000040;
+                break;
+              } // case 58
             default:
               {
                 if (!super.parseUnknownField(input, extensionRegistry, tag)) {
@@ -958,6 +1236,287 @@ public final class VectorLogs extends com.google.protobuf.GeneratedMessage
       return timestampBuilder_;
     }
 
+    private java.lang.Object host_ = "";
+
+    /**
+     * <code>string host = 5;</code>
+     *
+     * @return The host.
+     */
+    public java.lang.String getHost() {
+      java.lang.Object ref = host_;
+      if (!(ref instanceof java.lang.String)) {
+        com.google.protobuf.ByteString bs = (com.google.protobuf.ByteString) ref;
+        java.lang.String s = bs.toStringUtf8();
+        host_ = s;
+        return s;
+      } else {
+        return (java.lang.String) ref;
+      }
+    }
+
+    /**
+     * <code>string host = 5;</code>
+     *
+     * @return The bytes for host.
+     */
+    public com.google.protobuf.ByteString getHostBytes() {
+      java.lang.Object ref = host_;
+      if (ref instanceof String) {
+        com.google.protobuf.ByteString b =
+            com.google.protobuf.ByteString.copyFromUtf8((java.lang.String) ref);
+        host_ = b;
+        return b;
+      } else {
+        return (com.google.protobuf.ByteString) ref;
+      }
+    }
+
+    /**
+     * <code>string host = 5;</code>
+     *
+     * @param value The host to set.
+     * @return This builder for chaining.
+     */
+    public Builder setHost(java.lang.String value) {
+      if (value == null) {
+        throw new NullPointerException();
+      }
+      host_ = value;
+      bitField0_ |= 0x00000010;
+      onChanged();
+      return this;
+    }
+
+    /**
+     * <code>string host = 5;</code>
+     *
+     * @return This builder for chaining.
+     */
+    public Builder clearHost() {
+      host_ = getDefaultInstance().getHost();
+      bitField0_ = (bitField0_ & ~0x00000010);
+      onChanged();
+      return this;
+    }
+
+    /**
+     * <code>string host = 5;</code>
+     *
+     * @param value The bytes for host to set.
+     * @return This builder for chaining.
+     */
+    public Builder setHostBytes(com.google.protobuf.ByteString value) {
+      if (value == null) {
+        throw new NullPointerException();
+      }
+      checkByteStringIsUtf8(value);
+      host_ = value;
+      bitField0_ |= 0x00000010;
+      onChanged();
+      return this;
+    }
+
+    private java.lang.Object pod_ = "";
+
+    /**
+     * <code>string pod = 6;</code>
+     *
+     * @return The pod.
+     */
+    public java.lang.String getPod() {
+      java.lang.Object ref = pod_;
+      if (!(ref instanceof java.lang.String)) {
+        com.google.protobuf.ByteString bs = (com.google.protobuf.ByteString) ref;
+        java.lang.String s = bs.toStringUtf8();
+        pod_ = s;
+        return s;
+      } else {
+        return (java.lang.String) ref;
+      }
+    }
+
+    /**
+     * <code>string pod = 6;</code>
+     *
+     * @return The bytes for pod.
+     */
+    public com.google.protobuf.ByteString getPodBytes() {
+      java.lang.Object ref = pod_;
+      if (ref instanceof String) {
+        com.google.protobuf.ByteString b =
+            com.google.protobuf.ByteString.copyFromUtf8((java.lang.String) ref);
+        pod_ = b;
+        return b;
+      } else {
+        return (com.google.protobuf.ByteString) ref;
+      }
+    }
+
+    /**
+     * <code>string pod = 6;</code>
+     *
+     * @param value The pod to set.
+     * @return This builder for chaining.
+     */
+    public Builder setPod(java.lang.String value) {
+      if (value == null) {
+        throw new NullPointerException();
+      }
+      pod_ = value;
+      bitField0_ |= 0x00000020;
+      onChanged();
+      return this;
+    }
+
+    /**
+     * <code>string pod = 6;</code>
+     *
+     * @return This builder for chaining.
+     */
+    public Builder clearPod() {
+      pod_ = getDefaultInstance().getPod();
+      bitField0_ = (bitField0_ & ~0x00000020);
+      onChanged();
+      return this;
+    }
+
+    /**
+     * <code>string pod = 6;</code>
+     *
+     * @param value The bytes for pod to set.
+     * @return This builder for chaining.
+     */
+    public Builder setPodBytes(com.google.protobuf.ByteString value) {
+      if (value == null) {
+        throw new NullPointerException();
+      }
+      checkByteStringIsUtf8(value);
+      pod_ = value;
+      bitField0_ |= 0x00000020;
+      onChanged();
+      return this;
+    }
+
+    private com.google.protobuf.MapField<java.lang.String, java.lang.String> attributes_;
+
+    private com.google.protobuf.MapField<java.lang.String, java.lang.String>
+        internalGetAttributes() {
+      if (attributes_ == null) {
+        return com.google.protobuf.MapField.emptyMapField(
+            AttributesDefaultEntryHolder.defaultEntry);
+      }
+      return attributes_;
+    }
+
+    private com.google.protobuf.MapField<java.lang.String, java.lang.String>
+        internalGetMutableAttributes() {
+      if (attributes_ == null) {
+        attributes_ =
+            com.google.protobuf.MapField.newMapField(AttributesDefaultEntryHolder.defaultEntry);
+      }
+      if (!attributes_.isMutable()) {
+        attributes_ = attributes_.copy();
+      }
+      bitField0_ |= 0x00000040;
+      onChanged();
+      return attributes_;
+    }
+
+    public int getAttributesCount() {
+      return internalGetAttributes().getMap().size();
+    }
+
+    /** <code>map&lt;string, string&gt; attributes = 7;</code> */
+    @java.lang.Override
+    public boolean containsAttributes(java.lang.String key) {
+      if (key == null) {
+        throw new NullPointerException("map key");
+      }
+      return internalGetAttributes().getMap().containsKey(key);
+    }
+
+    /** Use {@link #getAttributesMap()} instead. */
+    @java.lang.Override
+    @java.lang.Deprecated
+    public java.util.Map<java.lang.String, java.lang.String> getAttributes() {
+      return getAttributesMap();
+    }
+
+    /** <code>map&lt;string, string&gt; attributes = 7;</code> */
+    @java.lang.Override
+    public java.util.Map<java.lang.String, java.lang.String> getAttributesMap() {
+      return internalGetAttributes().getMap();
+    }
+
+    /** <code>map&lt;string, string&gt; attributes = 7;</code> */
+    @java.lang.Override
+    public /* nullable */ java.lang.String getAttributesOrDefault(
+        java.lang.String key,
+        /* nullable */
+        java.lang.String defaultValue) {
+      if (key == null) {
+        throw new NullPointerException("map key");
+      }
+      java.util.Map<java.lang.String, java.lang.String> map = internalGetAttributes().getMap();
+      return map.containsKey(key) ? map.get(key) : defaultValue;
+    }
+
+    /** <code>map&lt;string, string&gt; attributes = 7;</code> */
+    @java.lang.Override
+    public java.lang.String getAttributesOrThrow(java.lang.String key) {
+      if (key == null) {
+        throw new NullPointerException("map key");
+      }
+      java.util.Map<java.lang.String, java.lang.String> map = internalGetAttributes().getMap();
+      if (!map.containsKey(key)) {
+        throw new java.lang.IllegalArgumentException();
+      }
+      return map.get(key);
+    }
+
+    public Builder clearAttributes() {
+      bitField0_ = (bitField0_ & ~0x00000040);
+      internalGetMutableAttributes().getMutableMap().clear();
+      return this;
+    }
+
+    /** <code>map&lt;string, string&gt; attributes = 7;</code> */
+    public Builder removeAttributes(java.lang.String key) {
+      if (key == null) {
+        throw new NullPointerException("map key");
+      }
+      internalGetMutableAttributes().getMutableMap().remove(key);
+      return this;
+    }
+
+    /** Use alternate mutation accessors instead. */
+    @java.lang.Deprecated
+    public java.util.Map<java.lang.String, java.lang.String> getMutableAttributes() {
+      bitField0_ |= 0x00000040;
+      return internalGetMutableAttributes().getMutableMap();
+    }
+
+    /** <code>map&lt;string, string&gt; attributes = 7;</code> */
+    public Builder putAttributes(java.lang.String key, java.lang.String value) {
+      if (key == null) {
+        throw new NullPointerException("map key");
+      }
+      if (value == null) {
+        throw new NullPointerException("map value");
+      }
+      internalGetMutableAttributes().getMutableMap().put(key, value);
+      bitField0_ |= 0x00000040;
+      return this;
+    }
+
+    /** <code>map&lt;string, string&gt; attributes = 7;</code> */
+    public Builder putAllAttributes(java.util.Map<java.lang.String, java.lang.String> values) {
+      internalGetMutableAttributes().getMutableMap().putAll(values);
+      bitField0_ |= 0x00000040;
+      return this;
+    }
+
     // @@protoc_insertion_point(builder_scope:logwise.vector.logs.VectorLogs)
   }
 
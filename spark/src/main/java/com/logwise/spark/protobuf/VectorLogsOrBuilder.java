@@ -69,4 +69,55 @@ public interface VectorLogsOrBuilder
 
   /** <code>.google.protobuf.Timestamp timestamp = 4;</code> */
   com.google.protobuf.TimestampOrBuilder getTimestampOrBuilder();
+
+  /**
+   * <code>string host = 5;</code>
+   *
+   * @return The host.
+   */
+  java.lang.String getHost();
+
+  /**
+   * <code>string host = 5;</code>
+   *
+   * @return The bytes for host.
+   */
+  com.google.protobuf.ByteString getHostBytes();
+
+  /**
+   * <code>string pod = 6;</code>
+   *
+   * @return The pod.
+   */
+  java.lang.String getPod();
+
+  /**
+   * <code>string pod = 6;</code>
+   *
+   * @return The bytes for pod.
+   */
+  com.google.protobuf.ByteString getPodBytes();
+
+  /** <code>map&lt;string, string&gt; attributes = 7;</code> */
+  int getAttributesCount();
+
+  /** <code>map&lt;string, string&gt; attributes = 7;</code> */
+  boolean containsAttributes(java.lang.String key);
+
+  /** Use {@link #getAttributesMap()} instead. */
+  @java.lang.Deprecated
+  java.util.Map<java.lang.String, java.lang.String> getAttributes();
+
+  /** <code>map&lt;string, string&gt; attributes = 7;</code> */
+  java.util.Map<java.lang.String, java.lang.String> getAttributesMap();
+
+  /** <code>map&lt;string, string&gt; attributes = 7;</code> */
+  /* nullable */
+  java.lang.String getAttributesOrDefault(
+      java.lang.String key,
+      /* nullable */
+      java.lang.String defaultValue);
+
+  /** <code>map&lt;string, string&gt; attributes = 7;</code> */
+  java.lang.String getAttributesOrThrow(java.lang.String key);
 }
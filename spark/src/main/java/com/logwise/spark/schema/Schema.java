@@ -11,7 +11,22 @@ public class Schema {
   public StructType getVectorApplicationLogsSchema() {
     return new StructType()
         .add(Constants.APPLICATION_LOG_COLUMN_MESSAGE, DataTypes.StringType)
-        .add(Constants.APPLICATION_LOG_COLUMN_TIMESTAMP, DataTypes.StringType)
-        .add(Constants.APPLICATION_LOG_COLUMN_SERVICE_NAME, DataTypes.StringType);
+        .add(Constants.APPLICATION_LOG_COLUMN_TIMESTAMP, DataTypes.TimestampType)
+        .add(Constants.APPLICATION_LOG_COLUMN_SERVICE_NAME, DataTypes.StringType)
+        .add(Constants.APPLICATION_LOG_COLUMN_LOG_LEVEL, DataTypes.StringType)
+        .add(Constants.APPLICATION_LOG_COLUMN_HOST, DataTypes.StringType)
+        .add(Constants.APPLICATION_LOG_COLUMN_POD, DataTypes.StringType)
+        .add(
+            Constants.APPLICATION_LOG_COLUMN_ATTRIBUTES,
+            DataTypes.createMapType(DataTypes.StringType, DataTypes.StringType, false));
+  }
+
+  public StructType getTimePartitionSchema() {
+    return new StructType()
+        .add(Constants.APPLICATION_LOG_COLUMN_YEAR, DataTypes.StringType)
+        .add(Constants.APPLICATION_LOG_COLUMN_MONTH, DataTypes.StringType)
+        .add(Constants.APPLICATION_LOG_COLUMN_DAY, DataTypes.StringType)
+        .add(Constants.APPLICATION_LOG_COLUMN_HOUR, DataTypes.StringType)
+        .add(Constants.APPLICATION_LOG_COLUMN_MINUTE, DataTypes.StringType);
   }
 }
@@ -0,0 +1,417 @@
+package com.logwise.spark.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.inject.Inject;
+import com.logwise.spark.constants.Constants;
+import com.logwise.spark.constants.PartitionGranularity;
+import com.logwise.spark.dto.entity.CompactionCommit;
+import com.logwise.spark.utils.ConfigUtils;
+import com.typesafe.config.Config;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.spark.sql.Column;
+import org.apache.spark.sql.Dataset;
+import org.apache.spark.sql.Row;
+import org.apache.spark.sql.SparkSession;
+import org.apache.spark.sql.functions;
+import org.apache.spark.sql.internal.SQLConf;
+
+/**
+ * Merges the small Parquet files of closed partitions under {@code s3.path.logs.application}, and
+ * under the root of every other {@link PartitionGranularity} of it that exists.
+ *
+ * <p>A partition is closed once none of its files was written for {@code
+ * compaction.closedAfter.minutes}. Its files smaller than {@code compaction.targetFileSize.bytes}
+ * are rewritten into files of about that size inside the same partition directory, so the paths
+ * read by Athena do not change. The rewritten rows keep the {@code s3.clusterBy} and {@code
+ * s3.sortByTimestamp} order of the streaming writer, which merging the files would otherwise lose.
+ *
+ * <p>Each partition is one batch of the compaction log under {@code _compaction/_log}. The
+ * rewritten files are staged under {@code _compaction/<batchId>}, the commit is written atomically,
+ * and only then are the staged files moved into the partition and the sources deleted. A run that
+ * fails or dies after the commit is completed by the next run.
+ *
+ * <p>Only the time partitions of the last {@code compaction.lookback.hours} before the closing
+ * delay are listed, older partitions were compacted by earlier runs.
+ *
+ * <p>Files are only merged within their own leaf partition, e.g. one {@code minute=} directory of
+ * the minute granularity. They are never merged into hour-level files, which would change the paths
+ * Athena reads.
+ *
+ * <p>The paths are meant to be read by Athena, which lists the partition directories. The {@code
+ * _spark_metadata} log of the file sink still lists the source files after they are deleted, so a
+ * Spark batch read of the root fails on them. Spark readers have to skip the log by reading the
+ * partition directories, e.g. {@code root/service_name=*} with the {@code basePath} option set to
+ * the root, as compaction itself does by reading the source files by path.
+ */
+@Slf4j
+@RequiredArgsConstructor(onConstructor = @__({@Inject}))
+public class LogCompactionService {
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+  private static final List<String> TIME_PARTITION_COLUMNS =
+      Arrays.asList(
+          Constants.APPLICATION_LOG_COLUMN_YEAR,
+          Constants.APPLICATION_LOG_COLUMN_MONTH,
+          Constants.APPLICATION_LOG_COLUMN_DAY,
+          Constants.APPLICATION_LOG_COLUMN_HOUR,
+          Constants.APPLICATION_LOG_COLUMN_MINUTE);
+  private static final List<ChronoUnit> TIME_PARTITION_UNITS =
+      Arrays.asList(
+          ChronoUnit.YEARS,
+          ChronoUnit.MONTHS,
+          ChronoUnit.DAYS,
+          ChronoUnit.HOURS,
+          ChronoUnit.MINUTES);
+
+  private final Config config;
+
+  /**
+   * Compacts every closed partition that has at least two small files.
+   *
+   * @param sparkSession session used to rewrite the files
+   * @param stopRequested checked between partitions, stops the run when it returns true
+   * @return the number of compacted partitions
+   */
+  public int compact(SparkSession sparkSession, BooleanSupplier stopRequested) throws IOException {
+    int compactedPartitions = 0;
+    for (PartitionGranularity granularity : PartitionGranularity.values()) {
+      Path root = new Path(granularity.getPath(config.getString("s3.path.logs.application")));
+      FileSystem fs = root.getFileSystem(sparkSession.sparkContext().hadoopConfiguration());
+      if (fs.exists(root)) {
+        if (fs.exists(new Path(root, Constants.SPARK_METADATA_DIR))) {
+          log.info(
+              "Compacting {}, its {} log keeps listing the replaced files",
+              root,
+              Constants.SPARK_METADATA_DIR);
+        }
+        compactedPartitions += compact(sparkSession, fs, root, stopRequested);
+      }
+    }
+    return compactedPartitions;
+  }
+
+  private int compact(
+      SparkSession sparkSession, FileSystem fs, Path root, BooleanSupplier stopRequested)
+      throws IOException {
+    Path compactionDir = new Path(root, Constants.COMPACTION_DIR);
+    Path logDir = new Path(compactionDir, Constants.COMPACTION_LOG_DIR);
+
+    long batchId = recoverLatestCommit(fs, compactionDir, logDir) + 1;
+    long closedBefore =
+        System.currentTimeMillis()
+            - TimeUnit.MINUTES.toMillis(config.getLong("compaction.closedAfter.minutes"));
+    long targetFileSize = config.getLong("compaction.targetFileSize.bytes");
+
+    long lookbackStart =
+        closedBefore - TimeUnit.HOURS.toMillis(config.getLong("compaction.lookback.hours"));
+    ZoneId zoneId = ZoneId.of(SQLConf.get().sessionLocalTimeZone());
+
+    int compactedPartitions = 0;
+    for (Path partition : getPartitions(fs, root, zoneId, lookbackStart, closedBefore)) {
+      if (stopRequested.getAsBoolean()) {
+        log.info("Compaction stopped after {} partitions", compactedPartitions);
+        break;
+      }
+      List<FileStatus> sources = getCompactionSources(fs, partition, closedBefore, targetFileSize);
+      if (sources.size() < 2) {
+        continue;
+      }
+      CompactionCommit commit;
+      try {
+        commit =
+            stagePartition(
+                sparkSession, fs, compactionDir, partition, sources, batchId, targetFileSize);
+      } catch (Exception e) {
+        log.error("Error in compacting partition: {}", partition, e);
+        continue;
+      }
+      // Once the commit is written a failure ends the run, the next run completes the commit before
+      // reusing its staging directory.
+      writeCommit(fs, logDir, commit);
+      applyCommit(fs, compactionDir, commit);
+      fs.delete(new Path(logDir, String.valueOf(batchId - 1)), false);
+      batchId++;
+      compactedPartitions++;
+    }
+    return compactedPartitions;
+  }
+
+  /**
+   * Lists the directories holding data files, skipping hidden and {@code _} directories. Time
+   * partition directories ({@code year=} down to {@code minute=}) are only descended into when
+   * their time range overlaps {@code [from, until)}, so the partitions that are still open or were
+   * compacted by earlier runs are not listed.
+   */
+  List<Path> getPartitions(FileSystem fs, Path dir, ZoneId zoneId, long from, long until)
+      throws IOException {
+    int[] time = new int[TIME_PARTITION_COLUMNS.size()];
+    Arrays.fill(time, -1);
+    return getPartitions(fs, dir, time, zoneId, from, until);
+  }
+
+  private List<Path> getPartitions(
+      FileSystem fs, Path dir, int[] time, ZoneId zoneId, long from, long until)
+      throws IOException {
+    List<Path> partitions = new ArrayList<>();
+    boolean hasDataFiles = false;
+    for (FileStatus status : fs.listStatus(dir)) {
+      if (!isVisible(status.getPath())) {
+        continue;
+      }
+      if (status.isDirectory()) {
+        int[] childTime = withTimePartition(time, status.getPath().getName());
+        if (overlaps(childTime, zoneId, from, until)) {
+          partitions.addAll(getPartitions(fs, status.getPath(), childTime, zoneId, from, until));
+        }
+      } else {
+        hasDataFiles = true;
+      }
+    }
+    if (hasDataFiles) {
+      partitions.add(dir);
+    }
+    return partitions;
+  }
+
+  /** Returns the time fields with the value of a {@code <column>=<value>} directory name added. */
+  private static int[] withTimePartition(int[] time, String name) {
+    int separator = name.indexOf('=');
+    int index = separator < 0 ? -1 : TIME_PARTITION_COLUMNS.indexOf(name.substring(0, separator));
+    if (index < 0) {
+      return time;
+    }
+    int[] childTime = time.clone();
+    try {
+      childTime[index] = Integer.parseInt(name.substring(separator + 1));
+    } catch (NumberFormatException e) {
+      return time;
+    }
+    return childTime;
+  }
+
+  /** Whether the time range of the given partition fields overlaps {@code [from, until)}. */
+  private static boolean overlaps(int[] time, ZoneId zoneId, long from, long until) {
+    int finest = -1;
+    while (finest + 1 < time.length && time[finest + 1] >= 0) {
+      finest++;
+    }
+    if (finest < 0) {
+      return true;
+    }
+    LocalDateTime start =
+        LocalDateTime.of(
+            time[0],
+            Math.max(time[1], 1),
+            Math.max(time[2], 1),
+            Math.max(time[3], 0),
+            Math.max(time[4], 0));
+    LocalDateTime end = start.plus(1, TIME_PARTITION_UNITS.get(finest));
+    return end.atZone(zoneId).toInstant().toEpochMilli() > from
+        && start.atZone(zoneId).toInstant().toEpochMilli() < until;
+  }
+
+  /**
+   * Returns the files of a closed partition that are smaller than the target size, or nothing if a
+   * file of the partition was written after {@code closedBefore}.
+   */
+  List<FileStatus> getCompactionSources(
+      FileSystem fs, Path partition, long closedBefore, long targetFileSize) throws IOException {
+    List<FileStatus> dataFiles = getDataFiles(fs, partition);
+    if (dataFiles.stream().anyMatch(file -> file.getModificationTime() >= closedBefore)) {
+      return new ArrayList<>();
+    }
+    return dataFiles.stream()
+        .filter(file -> file.getLen() < targetFileSize)
+        .collect(Collectors.toList());
+  }
+
+  /** Rewrites the sources into the staging directory of the batch and returns its commit. */
+  private CompactionCommit stagePartition(
+      SparkSession sparkSession,
+      FileSystem fs,
+      Path compactionDir,
+      Path partition,
+      List<FileStatus> sources,
+      long batchId,
+      long targetFileSize)
+      throws IOException {
+    Path stagingDir = new Path(compactionDir, String.valueOf(batchId));
+    fs.delete(stagingDir, true);
+
+    long totalSize = sources.stream().mapToLong(FileStatus::getLen).sum();
+    int numFiles = (int) Math.max(1, (totalSize + targetFileSize - 1) / targetFileSize);
+    log.info(
+        "Compacting {} files ({} bytes) of partition {} into {} files",
+        sources.size(),
+        totalSize,
+        partition,
+        numFiles);
+
+    rewriteFiles(sparkSession, sources, numFiles, stagingDir);
+
+    List<FileStatus> stagedFiles = getDataFiles(fs, stagingDir);
+    CompactionCommit commit = new CompactionCommit();
+    commit.setBatchId(batchId);
+    commit.setPartition(partition.toString());
+    commit.setSourceFiles(
+        sources.stream().map(file -> file.getPath().toString()).collect(Collectors.toList()));
+    commit.setStagedFiles(
+        stagedFiles.stream().map(file -> file.getPath().toString()).collect(Collectors.toList()));
+    commit.setCompactedFiles(
+        stagedFiles.stream()
+            .map(
+                file ->
+                    new Path(
+                            partition,
+                            Constants.COMPACTED_FILE_PREFIX
+                                + batchId
+                                + "-"
+                                + file.getPath().getName())
+                        .toString())
+            .collect(Collectors.toList()));
+    return commit;
+  }
+
+  /** Rewrites the source files into {@code numFiles} Parquet files under the staging directory. */
+  void rewriteFiles(
+      SparkSession sparkSession, List<FileStatus> sources, int numFiles, Path stagingDir) {
+    Dataset<Row> rows =
+        sparkSession
+            .read()
+            .parquet(sources.stream().map(file -> file.getPath().toString()).toArray(String[]::new))
+            .coalesce(numFiles);
+    Column[] sortColumns =
+        getSortColumns(rows.columns(), getServiceName(sources.get(0).getPath().getParent()));
+    if (sortColumns.length > 0) {
+      rows = rows.sortWithinPartitions(sortColumns);
+    }
+    rows.write()
+        .option("compression", config.getString(Constants.CONFIG_KEY_PARQUET_COMPRESSION_CODEC))
+        .parquet(stagingDir.toString());
+  }
+
+  /**
+   * Orders rows by the configured cluster columns and, with {@code s3.sortByTimestamp.enable} or
+   * for a service of {@code s3.sortByTimestamp.services}, by timestamp. Columns missing from files
+   * written before they existed are left out.
+   *
+   * @param serviceName the service of the partition, null if the path has none
+   */
+  Column[] getSortColumns(String[] columns, String serviceName) {
+    List<String> clusterColumns =
+        config.hasPath(Constants.CONFIG_KEY_CLUSTER_BY)
+            ? config.getStringList(Constants.CONFIG_KEY_CLUSTER_BY)
+            : Collections.emptyList();
+    boolean sortByTimestamp =
+        (config.hasPath(Constants.CONFIG_KEY_SORT_BY_TIMESTAMP)
+                && config.getBoolean(Constants.CONFIG_KEY_SORT_BY_TIMESTAMP))
+            || Boolean.parseBoolean(
+                ConfigUtils.getConfigMap(config, Constants.CONFIG_KEY_SORT_BY_TIMESTAMP_SERVICES)
+                    .get(serviceName));
+    List<String> available = Arrays.asList(columns);
+    return Stream.concat(
+            clusterColumns.stream(),
+            sortByTimestamp
+                ? Stream.of(Constants.APPLICATION_LOG_COLUMN_TIMESTAMP)
+                : Stream.<String>empty())
+        .filter(available::contains)
+        .map(functions::col)
+        .toArray(Column[]::new);
+  }
+
+  /** Returns the value of the {@code service_name=} directory the partition is under, if any. */
+  static String getServiceName(Path partition) {
+    String prefix = Constants.APPLICATION_LOG_COLUMN_SERVICE_NAME + "=";
+    for (Path dir = partition; dir != null; dir = dir.getParent()) {
+      if (dir.getName().startsWith(prefix)) {
+        return dir.getName().substring(prefix.length());
+      }
+    }
+    return null;
+  }
+
+  /** Moves the staged files into the partition and deletes the sources. Safe to repeat. */
+  void applyCommit(FileSystem fs, Path compactionDir, CompactionCommit commit) throws IOException {
+    for (int i = 0; i < commit.getStagedFiles().size(); i++) {
+      Path staged = new Path(commit.getStagedFiles().get(i));
+      Path compacted = new Path(commit.getCompactedFiles().get(i));
+      if (!fs.exists(compacted) && !fs.rename(staged, compacted)) {
+        throw new IOException("Failed to move " + staged + " to " + compacted);
+      }
+    }
+    for (String source : commit.getSourceFiles()) {
+      fs.delete(new Path(source), false);
+    }
+    fs.delete(new Path(compactionDir, String.valueOf(commit.getBatchId())), true);
+    log.info(
+        "Compacted partition {}: {} files replaced by {}",
+        commit.getPartition(),
+        commit.getSourceFiles().size(),
+        commit.getCompactedFiles().size());
+  }
+
+  /**
+   * Completes the latest commit of the compaction log, which a previous run may have left half
+   * applied.
+   *
+   * @return the latest batch id, or -1 when nothing was compacted yet
+   */
+  long recoverLatestCommit(FileSystem fs, Path compactionDir, Path logDir) throws IOException {
+    if (!fs.exists(logDir)) {
+      return -1L;
+    }
+    long latestBatchId =
+        Arrays.stream(fs.listStatus(logDir))
+            .map(status -> status.getPath().getName())
+            .filter(name -> name.chars().allMatch(Character::isDigit))
+            .mapToLong(Long::parseLong)
+            .max()
+            .orElse(-1L);
+    if (latestBatchId >= 0) {
+      try (InputStream in = fs.open(new Path(logDir, String.valueOf(latestBatchId)))) {
+        applyCommit(fs, compactionDir, MAPPER.readValue(in, CompactionCommit.class));
+      }
+    }
+    return latestBatchId;
+  }
+
+  private void writeCommit(FileSystem fs, Path logDir, CompactionCommit commit) throws IOException {
+    Path commitFile = new Path(logDir, String.valueOf(commit.getBatchId()));
+    Path tempFile = new Path(logDir, "." + commit.getBatchId() + ".tmp");
+    try (OutputStream out = fs.create(tempFile, true)) {
+      out.write(MAPPER.writeValueAsBytes(commit));
+    }
+    if (!fs.rename(tempFile, commitFile)) {
+      throw new IOException("Failed to commit compaction batch " + commit.getBatchId());
+    }
+  }
+
+  private static List<FileStatus> getDataFiles(FileSystem fs, Path dir) throws IOException {
+    return Arrays.stream(fs.listStatus(dir))
+        .filter(status -> status.isFile() && isVisible(status.getPath()))
+        .sorted()
+        .collect(Collectors.toList());
+  }
+
+  private static boolean isVisible(Path path) {
+    String name = path.getName();
+    return !name.startsWith("_") && !name.startsWith(".");
+  }
+}
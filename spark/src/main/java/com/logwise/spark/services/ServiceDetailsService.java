@@ -0,0 +1,29 @@
+package com.logwise.spark.services;
+
+import com.google.inject.Inject;
+import com.logwise.spark.clients.LogCentralOrchestratorClient;
+import com.logwise.spark.constants.Constants;
+import com.logwise.spark.dto.entity.ServiceDetails;
+import com.typesafe.config.Config;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
+@RequiredArgsConstructor(onConstructor = @__({@Inject}))
+public class ServiceDetailsService {
+  private final Config config;
+  private final LogCentralOrchestratorClient logCentralOrchestratorClient;
+
+  /** Returns the service details of the tenant, including their ingestion weights. */
+  public List<ServiceDetails> getServiceDetails() {
+    Map<String, String> headers =
+        Collections.singletonMap(Constants.X_TENANT_NAME, config.getString("tenant.name"));
+    List<ServiceDetails> serviceDetails =
+        logCentralOrchestratorClient.getServiceDetails(headers).getData().getServiceDetails();
+    log.info("Fetched {} service details", serviceDetails.size());
+    return serviceDetails;
+  }
+}
@@ -2,6 +2,8 @@ package com.logwise.spark.singleton;
 
 import com.logwise.spark.constants.Constants;
 import com.logwise.spark.guice.injectors.ApplicationInjector;
+import com.logwise.spark.listeners.DeadLetterListener;
+import com.logwise.spark.listeners.TriggerSizeListener;
 import com.logwise.spark.utils.ConfigUtils;
 import com.logwise.spark.utils.SparkUtils;
 import com.typesafe.config.Config;
@@ -43,10 +45,14 @@ public class CurrentSparkSession {
     ConfigUtils.getSparkConfig(config).forEach(sparkConf::set);
     ConfigUtils.getSparkHadoopConfig(config).forEach(sparkContext.hadoopConfiguration()::set);
 
-    return SparkSession.builder()
-        .appName(Constants.APP_NAME)
-        .sparkContext(sparkContext)
-        .config(sparkConf)
-        .getOrCreate();
+    SparkSession session =
+        SparkSession.builder()
+            .appName(Constants.APP_NAME)
+            .sparkContext(sparkContext)
+            .config(sparkConf)
+            .getOrCreate();
+    session.streams().addListener(new TriggerSizeListener());
+    session.streams().addListener(new DeadLetterListener());
+    return session;
   }
 }
@@ -4,13 +4,20 @@ import com.google.inject.Inject;
 import com.logwise.spark.constants.Constants;
 import com.logwise.spark.dto.entity.KafkaReadStreamOptions;
 import com.logwise.spark.dto.entity.SparkStageHistory;
+import com.logwise.spark.dto.entity.TopicGroup;
+import com.logwise.spark.guice.injectors.ApplicationInjector;
 import com.logwise.spark.services.KafkaService;
+import com.logwise.spark.services.ServiceDetailsService;
 import com.logwise.spark.services.SparkMasterService;
 import com.logwise.spark.services.SparkScaleService;
 import com.logwise.spark.stream.Stream;
+import com.logwise.spark.stream.source.TopicBudgets;
+import com.logwise.spark.stream.source.TopicGroups;
+import com.logwise.spark.stream.source.TriggerSizeController;
 import com.logwise.spark.utils.SparkUtils;
 import com.typesafe.config.Config;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.spark.sql.Dataset;
@@ -26,6 +33,11 @@ public abstract class AbstractApplicationLogsStream implements Stream {
   private final SparkMasterService sparkMasterService;
   private final SparkScaleService sparkScaleService;
 
+  /**
+   * Starts one query per topic group of {@code kafka.topic.groups}, so a noisy group does not hold
+   * back the micro-batches of the others. Without groups a single query reads every application
+   * topic.
+   */
   @Override
   public List<StreamingQuery> startStreams(SparkSession sparkSession) {
     Long maxOffset = getMaxOffsetPerTrigger();
@@ -33,27 +45,82 @@ public abstract class AbstractApplicationLogsStream implements Stream {
     log.info("maxOffset: {}", maxOffset);
 
     String kafkaHostname = config.getString("kafka.cluster.dns");
+    String kafkaBootstrapServers = kafkaService.getKafkaBootstrapServerIp(kafkaHostname);
+    String fairShare = registerTopicBudgets();
+
+    List<StreamingQuery> streamingQueries = new ArrayList<>();
+    for (TopicGroup topicGroup : TopicGroups.getTopicGroups(config)) {
+      streamingQueries.add(
+          startStream(sparkSession, topicGroup, kafkaBootstrapServers, maxOffset, fairShare));
+    }
+    return streamingQueries;
+  }
+
+  private StreamingQuery startStream(
+      SparkSession sparkSession,
+      TopicGroup topicGroup,
+      String kafkaBootstrapServers,
+      Long maxOffset,
+      String fairShare) {
+    long groupMaxOffset =
+        Math.max(1L, Math.round(maxOffset * topicGroup.getOffsetsPerTriggerShare()));
+    log.info(
+        "Starting topic group [{}] on pattern {} with maxOffset: {}",
+        topicGroup.getName(),
+        topicGroup.getSubscribePattern(),
+        groupMaxOffset);
 
     KafkaReadStreamOptions appKafkaReadStreamOptions =
         KafkaReadStreamOptions.builder()
             .failOnDataLoss("false")
-            .maxOffsetsPerTrigger(String.valueOf(maxOffset))
+            .maxOffsetsPerTrigger(String.valueOf(groupMaxOffset))
             .startingOffsets(config.getString("kafka.startingOffsets"))
-            .subscribePattern(config.getString("kafka.topic.prefix.application"))
-            .kafkaBootstrapServers(kafkaService.getKafkaBootstrapServerIp(kafkaHostname))
+            .subscribePattern(topicGroup.getSubscribePattern())
+            .kafkaBootstrapServers(kafkaBootstrapServers)
             .maxRatePerPartition(config.getString("kafka.maxRatePerPartition"))
-            .groupIdPrefix(Constants.APPLICATION_LOGS_KAFKA_GROUP_ID)
+            .groupIdPrefix(topicGroup.getGroupIdPrefix())
+            .triggerSizeController(registerTriggerSizeController(topicGroup, groupMaxOffset))
+            .fairShare(fairShare)
+            .fetchMaxBytes(getOptionalString(Constants.CONFIG_KEY_KAFKA_FETCH_MAX_BYTES))
+            .maxPartitionFetchBytes(
+                getOptionalString(Constants.CONFIG_KEY_KAFKA_MAX_PARTITION_FETCH_BYTES))
+            .fetchMinBytes(getOptionalString(Constants.CONFIG_KEY_KAFKA_FETCH_MIN_BYTES))
+            .receiveBufferBytes(getOptionalString(Constants.CONFIG_KEY_KAFKA_RECEIVE_BUFFER_BYTES))
+            .pollTimeoutMs(getOptionalString(Constants.CONFIG_KEY_KAFKA_POLL_TIMEOUT_MS))
+            .minPartitions(getOptionalString(Constants.CONFIG_KEY_KAFKA_MIN_PARTITIONS))
+            .maxOffsetsPerTask(getMaxOffsetsPerTask())
             .build();
 
     Dataset<Row> appKafkaReadStreamDataset =
         SparkUtils.getKafkaReadStream(sparkSession, appKafkaReadStreamOptions);
 
-    Dataset<Row> appLogsStream = appKafkaReadStreamDataset.selectExpr("value");
+    Dataset<Row> appLogsStream =
+        isDeadLetterEnabled()
+            ? appKafkaReadStreamDataset.selectExpr(
+                Constants.KAFKA_COLUMN_VALUE,
+                Constants.KAFKA_COLUMN_TOPIC,
+                Constants.KAFKA_COLUMN_PARTITION,
+                Constants.KAFKA_COLUMN_OFFSET)
+            : appKafkaReadStreamDataset.selectExpr(Constants.KAFKA_COLUMN_VALUE);
 
-    StreamingQuery appLogsStreamingQuery = getVectorApplicationLogsStreamQuery(appLogsStream);
-    List<StreamingQuery> streamingQueries = new ArrayList<>();
-    streamingQueries.add(appLogsStreamingQuery);
-    return streamingQueries;
+    return getVectorApplicationLogsStreamQuery(appLogsStream, topicGroup);
+  }
+
+  /** Returns the config value, or null so that the Kafka source keeps its default. */
+  private String getOptionalString(String path) {
+    return config.hasPath(path) ? config.getString(path) : null;
+  }
+
+  /**
+   * Returns the offsets one core processes in a micro-batch, beyond which the range of a partition
+   * is read in several tasks, or null when hot partitions are not split.
+   */
+  private String getMaxOffsetsPerTask() {
+    if (!config.hasPath(Constants.CONFIG_KEY_KAFKA_SPLIT_HOT_PARTITIONS)
+        || !config.getBoolean(Constants.CONFIG_KEY_KAFKA_SPLIT_HOT_PARTITIONS)) {
+      return null;
+    }
+    return String.valueOf(config.getLong("spark.eventProcessPerCore.count"));
   }
 
   private Long getMaxOffsetPerTrigger() {
@@ -87,6 +154,47 @@ public abstract class AbstractApplicationLogsStream implements Stream {
     return maxOffset;
   }
 
+  /**
+   * Registers the controller that re-sizes {@code maxOffsetsPerTrigger} between micro-batches.
+   *
+   * @return the controller name to pass to the Kafka source, or null when adaptive sizing is off
+   */
+  private String registerTriggerSizeController(TopicGroup topicGroup, long maxOffset) {
+    if (!config.getBoolean("spark.offsetPerTrigger.adaptive.enable")) {
+      return null;
+    }
+    String queryName = topicGroup.getQueryName();
+    TriggerSizeController.register(
+        queryName, config, maxOffset, topicGroup.getOffsetsPerTriggerShare());
+    return queryName;
+  }
+
+  /**
+   * Registers the per-topic budgets that split each micro-batch across services by their ingestion
+   * weight.
+   *
+   * @return the fair share option to pass to the Kafka source, or null when fair share is off
+   */
+  private String registerTopicBudgets() {
+    if (!config.hasPath(Constants.CONFIG_KEY_FAIR_SHARE_ENABLE)
+        || !config.getBoolean(Constants.CONFIG_KEY_FAIR_SHARE_ENABLE)) {
+      return null;
+    }
+    ServiceDetailsService serviceDetailsService =
+        ApplicationInjector.getInstance(ServiceDetailsService.class);
+    TopicBudgets.register(
+        config.getString(Constants.CONFIG_KEY_FAIR_SHARE_TOPIC_PREFIX),
+        TimeUnit.MINUTES.toMillis(config.getLong(Constants.CONFIG_KEY_FAIR_SHARE_REFRESH_MINUTES)),
+        serviceDetailsService::getServiceDetails);
+    return "true";
+  }
+
+  /** Whether undecodable records go to the dead letter path instead of failing the batch. */
+  protected boolean isDeadLetterEnabled() {
+    return config.hasPath(Constants.CONFIG_KEY_DEAD_LETTER_ENABLE)
+        && config.getBoolean(Constants.CONFIG_KEY_DEAD_LETTER_ENABLE);
+  }
+
   private void setCurrentSparkStageHistory(Integer coreUsed) {
     SparkStageHistory sparkStageHistory = new SparkStageHistory();
     sparkStageHistory.setCoresUsed(coreUsed);
@@ -95,5 +203,5 @@ public abstract class AbstractApplicationLogsStream implements Stream {
   }
 
   protected abstract StreamingQuery getVectorApplicationLogsStreamQuery(
-      Dataset<Row> kafkaValueTopicStream);
+      Dataset<Row> kafkaValueTopicStream, TopicGroup topicGroup);
 }
@@ -4,26 +4,39 @@ import static org.apache.spark.sql.functions.*;
 
 import com.google.inject.Inject;
 import com.logwise.spark.constants.Constants;
-import com.logwise.spark.protobuf.VectorLogs;
-import com.logwise.spark.schema.Schema;
+import com.logwise.spark.constants.PartitionGranularity;
+import com.logwise.spark.dto.entity.TopicGroup;
+import com.logwise.spark.expressions.MessageTokens;
+import com.logwise.spark.expressions.TimePartitionKeys;
+import com.logwise.spark.expressions.TolerantVectorLogsDecoder;
+import com.logwise.spark.expressions.VectorLogsDecoder;
+import com.logwise.spark.listeners.DeadLetterListener;
 import com.logwise.spark.services.KafkaService;
 import com.logwise.spark.services.SparkMasterService;
 import com.logwise.spark.services.SparkScaleService;
-import com.logwise.spark.utils.ApplicationUtils;
+import com.logwise.spark.stream.sink.PartitionGranularityBatchWriter;
+import com.logwise.spark.stream.source.TopicGroups;
 import com.logwise.spark.utils.ConfigUtils;
 import com.typesafe.config.Config;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.spark.api.java.function.MapFunction;
+import org.apache.spark.sql.Column;
 import org.apache.spark.sql.Dataset;
 import org.apache.spark.sql.Row;
-import org.apache.spark.sql.RowFactory;
-import org.apache.spark.sql.catalyst.encoders.ExpressionEncoder;
-import org.apache.spark.sql.catalyst.encoders.RowEncoder;
+import org.apache.spark.sql.streaming.DataStreamWriter;
 import org.apache.spark.sql.streaming.OutputMode;
 import org.apache.spark.sql.streaming.StreamingQuery;
 import org.apache.spark.sql.streaming.Trigger;
+import org.apache.spark.util.LongAccumulator;
 
 @Slf4j
 public class ApplicationLogsStreamToS3 extends AbstractApplicationLogsStream {
@@ -37,56 +50,132 @@ public class ApplicationLogsStreamToS3 extends AbstractApplicationLogsStream {
     super(config, kafkaService, sparkMasterService, sparkScaleService);
   }
 
-  private StreamingQuery pushApplicationLogsToS3(Dataset<Row> flattenedDataFrame) {
+  @SneakyThrows
+  private StreamingQuery pushApplicationLogsToS3(
+      Dataset<Row> flattenedDataFrame, TopicGroup topicGroup) {
     log.info("Starting To Push Application Logs to S3...");
     Trigger trigger =
         Trigger.ProcessingTime(config.getInt("spark.processing.time.seconds"), TimeUnit.SECONDS);
     Map<String, String> configMap = ConfigUtils.getSparkConfig(config);
-    return flattenedDataFrame
-        .writeStream()
-        .queryName(Constants.APPLICATION_LOGS_TO_S3_QUERY_NAME)
-        .trigger(trigger)
-        .outputMode(OutputMode.Append())
-        .format(Constants.WRITE_STREAM_PARQUET_FORMAT)
-        .partitionBy(Constants.APPLICATION_LOG_S3_PARTITION_COLUMNS)
-        .option("compression", Constants.WRITE_STREAM_GZIP_COMPRESSION)
-        .option("checkpointLocation", config.getString("s3.path.checkpoint.application"))
-        .options(configMap)
-        .start(config.getString("s3.path.logs.application"));
+    DataStreamWriter<Row> writer =
+        flattenedDataFrame
+            .writeStream()
+            .queryName(topicGroup.getQueryName())
+            .trigger(trigger)
+            .outputMode(OutputMode.Append())
+            .option("checkpointLocation", topicGroup.getCheckpointLocation())
+            .options(configMap);
+    return withS3Sink(writer).start();
   }
 
-  protected StreamingQuery getVectorApplicationLogsStreamQuery(Dataset<Row> kafkaValueTopicStream) {
+  /**
+   * Uses the file sink when every service shares the default partition granularity, rows are
+   * written in arrival order without clustering, a single query writes the path and every record
+   * decodes, and a foreachBatch writer otherwise, since a streaming query cannot sort, a file sink
+   * has a single partition layout and a single path, and its metadata log belongs to one query.
+   */
+  private DataStreamWriter<Row> withS3Sink(DataStreamWriter<Row> writer) {
+    String path = config.getString("s3.path.logs.application");
+    Map<String, String> parquetOptions = new HashMap<>();
+    parquetOptions.put(
+        "compression", config.getString(Constants.CONFIG_KEY_PARQUET_COMPRESSION_CODEC));
+    PartitionGranularity defaultGranularity =
+        PartitionGranularity.fromValue(
+            config.getString(Constants.CONFIG_KEY_PARTITION_GRANULARITY_DEFAULT));
+    Map<String, PartitionGranularity> serviceGranularities =
+        ConfigUtils.getConfigMap(config, Constants.CONFIG_KEY_PARTITION_GRANULARITY_SERVICES)
+            .entrySet()
+            .stream()
+            .filter(entry -> PartitionGranularity.fromValue(entry.getValue()) != defaultGranularity)
+            .collect(
+                Collectors.toMap(
+                    Map.Entry::getKey, entry -> PartitionGranularity.fromValue(entry.getValue())));
+    boolean sortByTimestamp = config.getBoolean(Constants.CONFIG_KEY_SORT_BY_TIMESTAMP);
+    List<String> timestampSortedServices =
+        ConfigUtils.getConfigMap(config, Constants.CONFIG_KEY_SORT_BY_TIMESTAMP_SERVICES)
+            .entrySet()
+            .stream()
+            .filter(entry -> Boolean.parseBoolean(entry.getValue()))
+            .map(Map.Entry::getKey)
+            .sorted()
+            .collect(Collectors.toList());
+    List<String> clusterColumns =
+        config.hasPath(Constants.CONFIG_KEY_CLUSTER_BY)
+            ? config.getStringList(Constants.CONFIG_KEY_CLUSTER_BY)
+            : Collections.emptyList();
+    log.info(
+        "Partitioning logs by {} with service overrides: {}, clustered by: {}, sorted by timestamp:"
+            + " {}, sorted by timestamp for services: {}",
+        defaultGranularity.getValue(),
+        serviceGranularities,
+        clusterColumns,
+        sortByTimestamp,
+        timestampSortedServices);
+
+    boolean deadLetterEnabled = isDeadLetterEnabled();
+    if (serviceGranularities.isEmpty()
+        && !sortByTimestamp
+        && timestampSortedServices.isEmpty()
+        && clusterColumns.isEmpty()
+        && !TopicGroups.isEnabled(config)
+        && !deadLetterEnabled) {
+      return writer
+          .format(Constants.WRITE_STREAM_PARQUET_FORMAT)
+          .partitionBy(defaultGranularity.getPartitionColumns())
+          .options(parquetOptions)
+          .option("path", defaultGranularity.getPath(path));
+    }
+    return writer.foreachBatch(
+        new PartitionGranularityBatchWriter(
+            path,
+            parquetOptions,
+            defaultGranularity,
+            new HashMap<>(serviceGranularities),
+            sortByTimestamp,
+            new ArrayList<>(timestampSortedServices),
+            new ArrayList<>(clusterColumns),
+            deadLetterEnabled ? config.getString(Constants.CONFIG_KEY_DEAD_LETTER_PATH) : null));
+  }
+
+  protected StreamingQuery getVectorApplicationLogsStreamQuery(
+      Dataset<Row> kafkaValueTopicStream, TopicGroup topicGroup) {
     log.info("Creating Vector Application Logs DataFrame from Kafka Stream with Proto Format");
-    ExpressionEncoder<Row> rowEncoder = RowEncoder.apply(Schema.getVectorApplicationLogsSchema());
-    Dataset<Row> stream =
+    Column[] columns =
+        Stream.concat(
+                Stream.of(
+                    col("*"),
+                    TimePartitionKeys.derive(col(Constants.APPLICATION_LOG_COLUMN_TIMESTAMP))),
+                Arrays.stream(
+                    MessageTokens.extract(
+                        ConfigUtils.getConfigMap(config, Constants.CONFIG_KEY_TOKEN_PATTERNS))))
+            .toArray(Column[]::new);
+    Dataset<Row> stream = decode(kafkaValueTopicStream, topicGroup).select(columns);
+    return pushApplicationLogsToS3(stream, topicGroup);
+  }
+
+  /**
+   * Decodes the Kafka values. With dead letters enabled, the Kafka columns are kept next to the
+   * decoded ones and undecodable records are counted in an accumulator named after {@link
+   * Constants#DEAD_LETTER_RECORDS_ACCUMULATOR} and the query, instead of failing the task. {@link
+   * DeadLetterListener} logs the count of every micro-batch.
+   */
+  private Dataset<Row> decode(Dataset<Row> kafkaValueTopicStream, TopicGroup topicGroup) {
+    if (!isDeadLetterEnabled()) {
+      return kafkaValueTopicStream.select(
+          VectorLogsDecoder.decode(col(Constants.KAFKA_COLUMN_VALUE)));
+    }
+    LongAccumulator deadLetters =
         kafkaValueTopicStream
-            .map(
-                (MapFunction<Row, Row>)
-                    row -> {
-                      byte[] bytes = row.getAs("value");
-                      VectorLogs vectorLogs = VectorLogs.parseFrom(bytes);
-                      // Schema order: message, timestamp, service_name
-                      return RowFactory.create(
-                          vectorLogs.getMessage() != null ? vectorLogs.getMessage() : "",
-                          ApplicationUtils.convertProtoTimestampToIso(vectorLogs.getTimestamp()),
-                          vectorLogs.getServiceName() != null ? vectorLogs.getServiceName() : "");
-                    },
-                rowEncoder)
-            .withColumn(
-                Constants.APPLICATION_LOG_COLUMN_YEAR,
-                year(col(Constants.APPLICATION_LOG_COLUMN_TIMESTAMP)))
-            .withColumn(
-                Constants.APPLICATION_LOG_COLUMN_MONTH,
-                lpad(month(col(Constants.APPLICATION_LOG_COLUMN_TIMESTAMP)), 2, "0"))
-            .withColumn(
-                Constants.APPLICATION_LOG_COLUMN_DAY,
-                lpad(dayofmonth(col(Constants.APPLICATION_LOG_COLUMN_TIMESTAMP)), 2, "0"))
-            .withColumn(
-                Constants.APPLICATION_LOG_COLUMN_HOUR,
-                lpad(hour(col(Constants.APPLICATION_LOG_COLUMN_TIMESTAMP)), 2, "0"))
-            .withColumn(
-                Constants.APPLICATION_LOG_COLUMN_MINUTE,
-                lpad(minute(col(Constants.APPLICATION_LOG_COLUMN_TIMESTAMP)), 2, "0"));
-    return pushApplicationLogsToS3(stream);
+            .sparkSession()
+            .sparkContext()
+            .longAccumulator(
+                Constants.DEAD_LETTER_RECORDS_ACCUMULATOR + " - " + topicGroup.getQueryName());
+    DeadLetterListener.register(topicGroup.getQueryName(), deadLetters);
+    return kafkaValueTopicStream.select(
+        col(Constants.KAFKA_COLUMN_TOPIC),
+        col(Constants.KAFKA_COLUMN_PARTITION),
+        col(Constants.KAFKA_COLUMN_OFFSET),
+        col(Constants.KAFKA_COLUMN_VALUE),
+        TolerantVectorLogsDecoder.decode(col(Constants.KAFKA_COLUMN_VALUE), deadLetters));
   }
 }
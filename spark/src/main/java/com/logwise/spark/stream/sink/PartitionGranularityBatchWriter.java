@@ -0,0 +1,257 @@
+package com.logwise.spark.stream.sink;
+
+import static org.apache.spark.sql.functions.*;
+
+import com.logwise.spark.constants.Constants;
+import com.logwise.spark.constants.PartitionGranularity;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.LocatedFileStatus;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.fs.RemoteIterator;
+import org.apache.spark.api.java.function.VoidFunction2;
+import org.apache.spark.sql.Column;
+import org.apache.spark.sql.Dataset;
+import org.apache.spark.sql.Row;
+import org.apache.spark.sql.SaveMode;
+import org.apache.spark.sql.execution.streaming.StreamExecution;
+import org.apache.spark.sql.functions;
+
+/**
+ * Writes each micro-batch of application logs as Parquet, partitioning every service by its own
+ * {@link PartitionGranularity}.
+ *
+ * <p>A file sink has a single {@code partitionBy}, so services overridden to another granularity
+ * than the default are written by a separate write of the same batch, to the root of their
+ * granularity. Services without an override, including rows without a service name, use the default
+ * granularity. The batch is persisted only when more than one write reads it. An empty batch writes
+ * no data files, so there is nothing to publish.
+ *
+ * <p>Without the metadata log of the file sink, a batch that is replayed after a failure must not
+ * add its rows twice. Each write goes to a staging directory of the query and batch, overwritten by
+ * a replay, and its files are then moved into their partitions with the query id and batch id as
+ * file name prefix, after deleting the files a previous attempt of the batch moved there.
+ *
+ * <p>With {@code sortByTimestamp}, the rows of each task are sorted by their partition and then by
+ * timestamp before writing. The writer already sorts by partition, so this adds no shuffle, and
+ * each file holds a narrow, ordered time range whose Parquet statistics let readers skip it. With
+ * {@code timestampSortedServices} only the rows of those services are sorted by timestamp; the
+ * service name is the first partition column, so every file holds the rows of one service.
+ *
+ * <p>With {@code clusterColumns}, such as {@code log_level} and {@code host}, the rows are sorted
+ * by them after the partition and before the timestamp. The directory layout is unchanged, but the
+ * rows of a level or host are contiguous within each file, so the Parquet row group statistics let
+ * a query on one level skip the rows of the others.
+ *
+ * <p>With a {@code deadLetterPath}, the batch comes from the tolerant decoder. Rows with a decode
+ * error are written there with their Kafka topic, partition, offset and raw value, partitioned by
+ * topic, and the Kafka columns are dropped from the rows written to {@code path}.
+ */
+@Slf4j
+@Getter
+@RequiredArgsConstructor
+public class PartitionGranularityBatchWriter implements VoidFunction2<Dataset<Row>, Long> {
+  private static final String[] DEAD_LETTER_COLUMNS = {
+    Constants.KAFKA_COLUMN_TOPIC,
+    Constants.KAFKA_COLUMN_PARTITION,
+    Constants.KAFKA_COLUMN_OFFSET,
+    Constants.KAFKA_COLUMN_VALUE,
+    Constants.APPLICATION_LOG_COLUMN_DECODE_ERROR
+  };
+
+  private final String path;
+  private final Map<String, String> options;
+  private final PartitionGranularity defaultGranularity;
+  private final Map<String, PartitionGranularity> serviceGranularities;
+  private final boolean sortByTimestamp;
+  private final List<String> timestampSortedServices;
+  private final List<String> clusterColumns;
+  private final String deadLetterPath;
+
+  @Override
+  public void call(Dataset<Row> batch, Long batchId) throws IOException {
+    List<PartitionGranularity> granularities =
+        Arrays.stream(PartitionGranularity.values())
+            .filter(
+                granularity ->
+                    granularity == defaultGranularity
+                        || serviceGranularities.containsValue(granularity))
+            .collect(Collectors.toList());
+    // every write reads the batch from Kafka and decodes it again unless it is persisted
+    boolean persist = granularities.size() + (deadLetterPath != null ? 1 : 0) > 1;
+    if (persist) {
+      batch.persist();
+    }
+    try {
+      Configuration hadoopConf = batch.sparkSession().sparkContext().hadoopConfiguration();
+      String batchKey =
+          String.format(
+              "%s-%d",
+              batch.sparkSession().sparkContext().getLocalProperty(StreamExecution.QUERY_ID_KEY()),
+              batchId);
+      Dataset<Row> logs = batch;
+      if (deadLetterPath != null) {
+        writeDeadLetters(
+            batch.filter(col(Constants.APPLICATION_LOG_COLUMN_DECODE_ERROR).isNotNull()),
+            batchId,
+            hadoopConf,
+            batchKey);
+        logs =
+            batch
+                .filter(col(Constants.APPLICATION_LOG_COLUMN_DECODE_ERROR).isNull())
+                .drop(DEAD_LETTER_COLUMNS);
+      }
+      for (PartitionGranularity granularity : granularities) {
+        write(logs.filter(getFilter(granularity)), granularity, hadoopConf, batchKey);
+      }
+      log.debug("Wrote batch {} to {}", batchId, path);
+    } finally {
+      if (persist) {
+        batch.unpersist();
+      }
+    }
+  }
+
+  /** Writes the undecodable records of the batch, if any, to the dead letter path. */
+  private void writeDeadLetters(
+      Dataset<Row> deadLetters, long batchId, Configuration hadoopConf, String batchKey)
+      throws IOException {
+    if (deadLetters.isEmpty()) {
+      return;
+    }
+    Path staging = getStagingDir(deadLetterPath, batchKey);
+    deadLetters
+        .select(
+            col(Constants.KAFKA_COLUMN_TOPIC),
+            col(Constants.KAFKA_COLUMN_PARTITION),
+            col(Constants.KAFKA_COLUMN_OFFSET),
+            col(Constants.KAFKA_COLUMN_VALUE),
+            col(Constants.APPLICATION_LOG_COLUMN_DECODE_ERROR),
+            lit(batchId).as(Constants.DEAD_LETTER_COLUMN_BATCH_ID))
+        .write()
+        .mode(SaveMode.Overwrite)
+        .partitionBy(Constants.KAFKA_COLUMN_TOPIC)
+        .parquet(staging.toString());
+    publish(staging.getFileSystem(hadoopConf), staging, new Path(deadLetterPath), batchKey);
+    log.warn("Wrote undecodable records of batch {} to {}", batchId, deadLetterPath);
+  }
+
+  /** Selects the rows of the services written with the given granularity. */
+  Column getFilter(PartitionGranularity granularity) {
+    Column serviceName = col(Constants.APPLICATION_LOG_COLUMN_SERVICE_NAME);
+    if (granularity == defaultGranularity) {
+      Object[] overridden =
+          serviceGranularities.entrySet().stream()
+              .filter(entry -> entry.getValue() != defaultGranularity)
+              .map(Map.Entry::getKey)
+              .toArray();
+      return not(coalesce(serviceName.isin(overridden), lit(false)));
+    }
+    Object[] services =
+        serviceGranularities.entrySet().stream()
+            .filter(entry -> entry.getValue() == granularity)
+            .map(Map.Entry::getKey)
+            .toArray();
+    return coalesce(serviceName.isin(services), lit(false));
+  }
+
+  /**
+   * Orders rows by the partition columns of the granularity, then by the cluster columns and, with
+   * {@code sortByTimestamp} or for the {@code timestampSortedServices}, by timestamp.
+   */
+  Column[] getSortColumns(PartitionGranularity granularity) {
+    Column timestamp = col(Constants.APPLICATION_LOG_COLUMN_TIMESTAMP);
+    return Stream.of(
+            Stream.concat(Arrays.stream(granularity.getPartitionColumns()), clusterColumns.stream())
+                .map(functions::col),
+            sortByTimestamp
+                ? Stream.of(timestamp)
+                : timestampSortedServices.isEmpty()
+                    ? Stream.<Column>empty()
+                    : Stream.of(
+                        when(
+                            col(Constants.APPLICATION_LOG_COLUMN_SERVICE_NAME)
+                                .isin(timestampSortedServices.toArray()),
+                            timestamp)))
+        .flatMap(columns -> columns)
+        .toArray(Column[]::new);
+  }
+
+  private void write(
+      Dataset<Row> rows,
+      PartitionGranularity granularity,
+      Configuration hadoopConf,
+      String batchKey)
+      throws IOException {
+    if (sortByTimestamp || !timestampSortedServices.isEmpty() || !clusterColumns.isEmpty()) {
+      rows = rows.sortWithinPartitions(getSortColumns(granularity));
+    }
+    String root = granularity.getPath(path);
+    Path staging = getStagingDir(root, batchKey);
+    rows.write()
+        .mode(SaveMode.Overwrite)
+        .partitionBy(granularity.getPartitionColumns())
+        .options(options)
+        .parquet(staging.toString());
+    publish(staging.getFileSystem(hadoopConf), staging, new Path(root), batchKey);
+  }
+
+  private static Path getStagingDir(String root, String batchKey) {
+    return new Path(new Path(root, Constants.BATCH_STAGING_DIR), batchKey);
+  }
+
+  /**
+   * Moves the data files of the staging directory to the same partitions under the root, prefixed
+   * with the batch key, and deletes the staging directory. The files with the prefix already in a
+   * partition were moved there by an earlier attempt of the batch and are deleted first.
+   */
+  void publish(FileSystem fs, Path staging, Path root, String batchKey) throws IOException {
+    if (!fs.exists(staging)) {
+      return;
+    }
+    String filePrefix = batchKey + "-";
+    String stagingPath = fs.makeQualified(staging).toUri().getPath();
+    List<Path> files = new ArrayList<>();
+    RemoteIterator<LocatedFileStatus> listing = fs.listFiles(staging, true);
+    while (listing.hasNext()) {
+      Path file = listing.next().getPath();
+      if (!file.getName().startsWith("_") && !file.getName().startsWith(".")) {
+        files.add(file);
+      }
+    }
+    Set<Path> cleanedPartitions = new HashSet<>();
+    for (Path file : files) {
+      String partition = file.getParent().toUri().getPath().substring(stagingPath.length());
+      Path target = partition.isEmpty() ? root : new Path(root, partition.substring(1));
+      if (cleanedPartitions.add(target)) {
+        if (fs.exists(target)) {
+          for (FileStatus previous : fs.listStatus(target)) {
+            if (previous.isFile() && previous.getPath().getName().startsWith(filePrefix)) {
+              fs.delete(previous.getPath(), false);
+            }
+          }
+        } else {
+          fs.mkdirs(target);
+        }
+      }
+      Path published = new Path(target, filePrefix + file.getName());
+      if (!fs.rename(file, published)) {
+        throw new IOException("Failed to move " + file + " to " + published);
+      }
+    }
+    fs.delete(staging, true);
+  }
+}
@@ -0,0 +1,245 @@
+package com.logwise.spark.stream.source;
+
+import com.logwise.spark.constants.Constants;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.spark.sql.connector.catalog.SupportsRead;
+import org.apache.spark.sql.connector.catalog.Table;
+import org.apache.spark.sql.connector.catalog.TableCapability;
+import org.apache.spark.sql.connector.catalog.TableProvider;
+import org.apache.spark.sql.connector.expressions.Transform;
+import org.apache.spark.sql.connector.read.InputPartition;
+import org.apache.spark.sql.connector.read.PartitionReaderFactory;
+import org.apache.spark.sql.connector.read.Scan;
+import org.apache.spark.sql.connector.read.ScanBuilder;
+import org.apache.spark.sql.connector.read.streaming.MicroBatchStream;
+import org.apache.spark.sql.connector.read.streaming.Offset;
+import org.apache.spark.sql.connector.read.streaming.ReadLimit;
+import org.apache.spark.sql.connector.read.streaming.ReadMaxRows;
+import org.apache.spark.sql.connector.read.streaming.SupportsAdmissionControl;
+import org.apache.spark.sql.kafka010.KafkaSourceOffset;
+import org.apache.spark.sql.kafka010.KafkaSourceProvider;
+import org.apache.spark.sql.sources.DataSourceRegister;
+import org.apache.spark.sql.types.StructType;
+import org.apache.spark.sql.util.CaseInsensitiveStringMap;
+import scala.collection.JavaConverters;
+
+/**
+ * Micro-batch Kafka source whose offsets per trigger follow a {@link TriggerSizeController}.
+ *
+ * <p>Schema, offsets, partitions and readers are those of Spark's {@code kafka} source, so the
+ * checkpoint stays compatible with it. Only the read limit handed to {@code latestOffset} is
+ * replaced, on every micro-batch, with the current limit of the controller named by the {@link
+ * Constants#KAFKA_OPTION_TRIGGER_SIZE_CONTROLLER} option. Without a registered controller the
+ * source behaves like the plain one and uses {@code maxOffsetsPerTrigger}.
+ *
+ * <p>With the {@link Constants#KAFKA_OPTION_FAIR_SHARE} option and registered {@link TopicBudgets},
+ * the end offsets of a limited micro-batch are chosen by {@link WeightedFairAllocator} instead of
+ * in proportion to the lag of each partition.
+ *
+ * <p>With the {@link Constants#KAFKA_OPTION_MAX_OFFSETS_PER_TASK} option, {@link
+ * HotPartitionSplitter} reads the range of a partition holding more offsets than that in several
+ * tasks.
+ */
+public class AdaptiveKafkaSourceProvider implements TableProvider, DataSourceRegister {
+  private final KafkaSourceProvider kafkaSourceProvider = new KafkaSourceProvider();
+
+  @Override
+  public String shortName() {
+    return "logwise-kafka";
+  }
+
+  @Override
+  public StructType inferSchema(CaseInsensitiveStringMap options) {
+    return kafkaSourceProvider.inferSchema(options);
+  }
+
+  @Override
+  public Table getTable(
+      StructType schema, Transform[] partitioning, Map<String, String> properties) {
+    return new AdaptiveKafkaTable(
+        (SupportsRead) kafkaSourceProvider.getTable(schema, partitioning, properties));
+  }
+
+  static class AdaptiveKafkaTable implements SupportsRead {
+    private final SupportsRead kafkaTable;
+
+    AdaptiveKafkaTable(SupportsRead kafkaTable) {
+      this.kafkaTable = kafkaTable;
+    }
+
+    @Override
+    public String name() {
+      return kafkaTable.name();
+    }
+
+    @Override
+    public StructType schema() {
+      return kafkaTable.schema();
+    }
+
+    @Override
+    public Set<TableCapability> capabilities() {
+      return EnumSet.of(TableCapability.MICRO_BATCH_READ);
+    }
+
+    @Override
+    public ScanBuilder newScanBuilder(CaseInsensitiveStringMap options) {
+      ScanBuilder kafkaScanBuilder = kafkaTable.newScanBuilder(options);
+      String controllerName = options.get(Constants.KAFKA_OPTION_TRIGGER_SIZE_CONTROLLER);
+      boolean fairShare = options.getBoolean(Constants.KAFKA_OPTION_FAIR_SHARE, false);
+      long maxOffsetsPerTask = options.getLong(Constants.KAFKA_OPTION_MAX_OFFSETS_PER_TASK, 0L);
+      return () ->
+          new AdaptiveKafkaScan(
+              kafkaScanBuilder.build(), controllerName, fairShare, maxOffsetsPerTask);
+    }
+  }
+
+  static class AdaptiveKafkaScan implements Scan {
+    private final Scan kafkaScan;
+    private final String controllerName;
+    private final boolean fairShare;
+    private final long maxOffsetsPerTask;
+
+    AdaptiveKafkaScan(
+        Scan kafkaScan, String controllerName, boolean fairShare, long maxOffsetsPerTask) {
+      this.kafkaScan = kafkaScan;
+      this.controllerName = controllerName;
+      this.fairShare = fairShare;
+      this.maxOffsetsPerTask = maxOffsetsPerTask;
+    }
+
+    @Override
+    public StructType readSchema() {
+      return kafkaScan.readSchema();
+    }
+
+    @Override
+    public String description() {
+      return kafkaScan.description();
+    }
+
+    @Override
+    public MicroBatchStream toMicroBatchStream(String checkpointLocation) {
+      return new AdaptiveMicroBatchStream(
+          kafkaScan.toMicroBatchStream(checkpointLocation),
+          controllerName,
+          fairShare,
+          maxOffsetsPerTask);
+    }
+  }
+
+  static class AdaptiveMicroBatchStream implements MicroBatchStream, SupportsAdmissionControl {
+    private final MicroBatchStream kafkaStream;
+    private final String controllerName;
+    private final boolean fairShare;
+    private final long maxOffsetsPerTask;
+
+    AdaptiveMicroBatchStream(
+        MicroBatchStream kafkaStream,
+        String controllerName,
+        boolean fairShare,
+        long maxOffsetsPerTask) {
+      this.kafkaStream = kafkaStream;
+      this.controllerName = controllerName;
+      this.fairShare = fairShare;
+      this.maxOffsetsPerTask = maxOffsetsPerTask;
+    }
+
+    @Override
+    public ReadLimit getDefaultReadLimit() {
+      return kafkaStream instanceof SupportsAdmissionControl
+          ? ((SupportsAdmissionControl) kafkaStream).getDefaultReadLimit()
+          : ReadLimit.allAvailable();
+    }
+
+    @Override
+    public Offset latestOffset(Offset startOffset, ReadLimit limit) {
+      if (!(kafkaStream instanceof SupportsAdmissionControl)) {
+        return kafkaStream.latestOffset();
+      }
+      ReadLimit readLimit =
+          TriggerSizeController.get(controllerName)
+              .map(TriggerSizeController::getReadLimit)
+              .orElse(limit);
+      if (fairShare && readLimit instanceof ReadMaxRows && TopicBudgets.get().isPresent()) {
+        return fairShareLatestOffset(
+            startOffset, ((ReadMaxRows) readLimit).maxRows(), TopicBudgets.get().get());
+      }
+      return ((SupportsAdmissionControl) kafkaStream).latestOffset(startOffset, readLimit);
+    }
+
+    /** Reads up to the latest offsets and lets the allocator cut them down to the budget. */
+    private Offset fairShareLatestOffset(Offset startOffset, long maxRows, TopicBudgets budgets) {
+      Offset available =
+          ((SupportsAdmissionControl) kafkaStream)
+              .latestOffset(startOffset, ReadLimit.allAvailable());
+      budgets.refreshIfStale();
+      Map<TopicPartition, Long> end =
+          WeightedFairAllocator.allocate(
+              toPartitionOffsets(startOffset),
+              toPartitionOffsets(available),
+              maxRows,
+              budgets::getWeight,
+              budgets::getMinOffsetsPerTrigger);
+      Map<TopicPartition, Object> partitionToOffsets = new HashMap<>(end);
+      return KafkaSourceOffset.apply(
+          scala.collection.immutable.Map$.MODULE$
+              .<TopicPartition, Object>empty()
+              .$plus$plus(JavaConverters.mapAsScalaMap(partitionToOffsets)));
+    }
+
+    private static Map<TopicPartition, Long> toPartitionOffsets(Offset offset) {
+      Map<TopicPartition, Long> partitionOffsets = new HashMap<>();
+      JavaConverters.mapAsJavaMap(
+              KafkaSourceOffset.getPartitionOffsets(
+                  (org.apache.spark.sql.execution.streaming.Offset) offset))
+          .forEach((partition, position) -> partitionOffsets.put(partition, (Long) position));
+      return partitionOffsets;
+    }
+
+    @Override
+    public Offset latestOffset() {
+      return kafkaStream.latestOffset();
+    }
+
+    @Override
+    public InputPartition[] planInputPartitions(Offset start, Offset end) {
+      return HotPartitionSplitter.split(
+          kafkaStream.planInputPartitions(start, end), maxOffsetsPerTask);
+    }
+
+    @Override
+    public PartitionReaderFactory createReaderFactory() {
+      return kafkaStream.createReaderFactory();
+    }
+
+    @Override
+    public Offset initialOffset() {
+      return kafkaStream.initialOffset();
+    }
+
+    @Override
+    public Offset deserializeOffset(String json) {
+      return kafkaStream.deserializeOffset(json);
+    }
+
+    @Override
+    public void commit(Offset end) {
+      kafkaStream.commit(end);
+    }
+
+    @Override
+    public void stop() {
+      kafkaStream.stop();
+    }
+
+    @Override
+    public String toString() {
+      return kafkaStream.toString();
+    }
+  }
+}
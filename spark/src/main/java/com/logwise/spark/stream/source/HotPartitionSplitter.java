@@ -0,0 +1,93 @@
+package com.logwise.spark.stream.source;
+
+import java.util.ArrayList;
+import java.util.List;
+import lombok.experimental.UtilityClass;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.spark.sql.connector.read.InputPartition;
+import org.apache.spark.sql.kafka010.KafkaBatchInputPartition;
+import org.apache.spark.sql.kafka010.KafkaOffsetRange;
+import scala.Option;
+
+/**
+ * Splits the offset range of a hot Kafka partition into several tasks of a micro-batch.
+ *
+ * <p>Spark reads each Kafka partition of a micro-batch in one task unless {@code minPartitions} is
+ * set, and that option is fixed for the lifetime of the query. Here the number of tasks follows the
+ * lag read by each micro-batch: a partition whose range holds more than {@code maxOffsetsPerTask}
+ * offsets is cut into contiguous, equally sized ranges of at most that many offsets. As in Spark's
+ * own splitting, the split ranges have no preferred location.
+ */
+@Slf4j
+@UtilityClass
+public class HotPartitionSplitter {
+
+  /**
+   * Splits the Kafka input partitions whose range exceeds {@code maxOffsetsPerTask}.
+   *
+   * @param partitions input partitions planned by the Kafka source
+   * @param maxOffsetsPerTask offsets read by one task, not positive to keep the partitions
+   *     unchanged
+   * @return the partitions with every hot range replaced by its splits
+   */
+  public InputPartition[] split(InputPartition[] partitions, long maxOffsetsPerTask) {
+    if (maxOffsetsPerTask <= 0) {
+      return partitions;
+    }
+    List<InputPartition> splits = new ArrayList<>(partitions.length);
+    int hotPartitions = 0;
+    for (InputPartition partition : partitions) {
+      if (!(partition instanceof KafkaBatchInputPartition)) {
+        splits.add(partition);
+        continue;
+      }
+      KafkaBatchInputPartition kafkaPartition = (KafkaBatchInputPartition) partition;
+      List<KafkaOffsetRange> ranges = splitRange(kafkaPartition.offsetRange(), maxOffsetsPerTask);
+      if (ranges.size() > 1) {
+        hotPartitions++;
+      }
+      for (KafkaOffsetRange range : ranges) {
+        splits.add(
+            ranges.size() == 1
+                ? kafkaPartition
+                : KafkaBatchInputPartition.apply(
+                    range,
+                    kafkaPartition.executorKafkaParams(),
+                    kafkaPartition.pollTimeoutMs(),
+                    kafkaPartition.failOnDataLoss(),
+                    kafkaPartition.includeHeaders()));
+      }
+    }
+    if (hotPartitions > 0) {
+      log.info(
+          "Split {} hot Kafka partitions, reading {} partitions in {} tasks",
+          hotPartitions,
+          partitions.length,
+          splits.size());
+    }
+    return splits.toArray(new InputPartition[0]);
+  }
+
+  List<KafkaOffsetRange> splitRange(KafkaOffsetRange range, long maxOffsetsPerTask) {
+    long size = range.size();
+    long taskCount = getTaskCount(size, maxOffsetsPerTask);
+    List<KafkaOffsetRange> ranges = new ArrayList<>();
+    if (taskCount <= 1) {
+      ranges.add(range);
+      return ranges;
+    }
+    for (long task = 0; task < taskCount; task++) {
+      ranges.add(
+          KafkaOffsetRange.apply(
+              range.topicPartition(),
+              range.fromOffset() + size * task / taskCount,
+              range.fromOffset() + size * (task + 1) / taskCount,
+              Option.empty()));
+    }
+    return ranges;
+  }
+
+  private long getTaskCount(long size, long maxOffsetsPerTask) {
+    return size <= 0 ? 1L : (size + maxOffsetsPerTask - 1) / maxOffsetsPerTask;
+  }
+}
@@ -0,0 +1,107 @@
+package com.logwise.spark.stream.source;
+
+import com.logwise.spark.dto.entity.ServiceDetails;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Per-topic ingestion budgets used by {@link WeightedFairAllocator}, built from the {@code
+ * ingestionWeight} and {@code minOffsetsPerTrigger} of the services in the orchestrator.
+ *
+ * <p>A topic belongs to the service named by the topic minus {@code kafka.fairShare.topicPrefix}.
+ * Topics of unknown services get weight 1 and no guarantee. The budgets are fetched again on the
+ * driver once they are older than the refresh interval; a failed fetch keeps the previous budgets.
+ */
+@Slf4j
+public class TopicBudgets {
+  private static volatile TopicBudgets instance;
+
+  private final String topicPrefix;
+  private final long refreshMillis;
+  private final Supplier<List<ServiceDetails>> serviceDetailsSupplier;
+  private volatile Map<String, ServiceDetails> serviceDetailsByName = Collections.emptyMap();
+  private volatile long refreshedAt = -1L;
+
+  TopicBudgets(
+      String topicPrefix,
+      long refreshMillis,
+      Supplier<List<ServiceDetails>> serviceDetailsSupplier) {
+    this.topicPrefix = topicPrefix;
+    this.refreshMillis = refreshMillis;
+    this.serviceDetailsSupplier = serviceDetailsSupplier;
+  }
+
+  /**
+   * Registers the budgets of the job, replacing the previous ones.
+   *
+   * @param topicPrefix prefix stripped from a topic to get its service name
+   * @param refreshMillis age after which the budgets are fetched again
+   * @param serviceDetailsSupplier fetches the service details from the orchestrator
+   */
+  public static TopicBudgets register(
+      String topicPrefix,
+      long refreshMillis,
+      Supplier<List<ServiceDetails>> serviceDetailsSupplier) {
+    instance = new TopicBudgets(topicPrefix, refreshMillis, serviceDetailsSupplier);
+    log.info(
+        "Registered topic budgets for prefix [{}], refreshed every {} ms",
+        topicPrefix,
+        refreshMillis);
+    return instance;
+  }
+
+  public static Optional<TopicBudgets> get() {
+    return Optional.ofNullable(instance);
+  }
+
+  static void clear() {
+    instance = null;
+  }
+
+  /** Fetches the budgets again if they are older than the refresh interval. */
+  public void refreshIfStale() {
+    long now = System.currentTimeMillis();
+    if (refreshedAt >= 0 && now - refreshedAt < refreshMillis) {
+      return;
+    }
+    refreshedAt = now;
+    try {
+      serviceDetailsByName =
+          serviceDetailsSupplier.get().stream()
+              .filter(serviceDetails -> serviceDetails.getServiceName() != null)
+              .collect(
+                  Collectors.toMap(
+                      ServiceDetails::getServiceName,
+                      details -> details,
+                      (first, second) -> first));
+      log.info("Refreshed topic budgets of {} services", serviceDetailsByName.size());
+    } catch (Exception e) {
+      log.error("Error in refreshing topic budgets, keeping the previous ones: ", e);
+    }
+  }
+
+  public double getWeight(String topic) {
+    return getServiceDetails(topic)
+        .map(ServiceDetails::getIngestionWeight)
+        .map(weight -> Math.max(1, weight))
+        .orElse(1);
+  }
+
+  public long getMinOffsetsPerTrigger(String topic) {
+    return getServiceDetails(topic)
+        .map(ServiceDetails::getMinOffsetsPerTrigger)
+        .map(minimum -> Math.max(0L, minimum))
+        .orElse(0L);
+  }
+
+  private Optional<ServiceDetails> getServiceDetails(String topic) {
+    String serviceName =
+        topic.startsWith(topicPrefix) ? topic.substring(topicPrefix.length()) : topic;
+    return Optional.ofNullable(serviceDetailsByName.get(serviceName));
+  }
+}
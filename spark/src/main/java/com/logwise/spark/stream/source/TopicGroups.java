@@ -0,0 +1,104 @@
+package com.logwise.spark.stream.source;
+
+import com.logwise.spark.constants.Constants;
+import com.logwise.spark.dto.entity.TopicGroup;
+import com.typesafe.config.Config;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import lombok.experimental.UtilityClass;
+
+/**
+ * Splits the application log topics into the groups of {@code kafka.topic.groups}.
+ *
+ * <p>Each configured group subscribes to its own pattern and gets its share of the offsets per
+ * trigger. The default group keeps the query name and checkpoint of the single query used without
+ * groups, subscribes to {@code kafka.topic.prefix.application} minus the topics of every other
+ * group, and gets the remaining share.
+ */
+@UtilityClass
+public class TopicGroups {
+  private final String VALID_NAME = "[A-Za-z0-9_-]+";
+
+  public boolean isEnabled(Config config) {
+    return config.hasPath(Constants.CONFIG_KEY_TOPIC_GROUPS)
+        && !config.getConfigList(Constants.CONFIG_KEY_TOPIC_GROUPS).isEmpty();
+  }
+
+  /**
+   * Returns the configured groups followed by the default group.
+   *
+   * @throws IllegalArgumentException if a group is invalid, the shares leave nothing to the default
+   *     group, or the queries are not long running
+   */
+  public List<TopicGroup> getTopicGroups(Config config) {
+    String checkpointLocation = config.getString("s3.path.checkpoint.application");
+    List<TopicGroup> topicGroups = new ArrayList<>();
+    if (isEnabled(config)) {
+      if (!config.getBoolean(Constants.CONFIG_KEY_STREAMING_QUERY_LONG_RUNNING)) {
+        // A stop-and-restart run ends once every query completed a micro-batch, so a group whose
+        // topics are idle holds the other groups back until the job times out.
+        throw new IllegalArgumentException(
+            Constants.CONFIG_KEY_TOPIC_GROUPS
+                + " requires "
+                + Constants.CONFIG_KEY_STREAMING_QUERY_LONG_RUNNING);
+      }
+      Set<String> names = new HashSet<>(Collections.singleton(Constants.DEFAULT_TOPIC_GROUP_NAME));
+      for (Config group : config.getConfigList(Constants.CONFIG_KEY_TOPIC_GROUPS)) {
+        String name = group.getString("name");
+        double share = group.getDouble("share");
+        if (!name.matches(VALID_NAME) || !names.add(name)) {
+          throw new IllegalArgumentException("Invalid or duplicate topic group name: " + name);
+        }
+        if (share <= 0 || share >= 1) {
+          throw new IllegalArgumentException("Share of topic group " + name + " not in (0, 1)");
+        }
+        topicGroups.add(
+            TopicGroup.builder()
+                .name(name)
+                .queryName(Constants.APPLICATION_LOGS_TO_S3_QUERY_NAME + " - " + name)
+                .subscribePattern(group.getString("pattern"))
+                .checkpointLocation(checkpointLocation + "-" + name)
+                .groupIdPrefix(Constants.APPLICATION_LOGS_KAFKA_GROUP_ID + "-" + name)
+                .offsetsPerTriggerShare(share)
+                .build());
+      }
+    }
+
+    double remainingShare =
+        1 - topicGroups.stream().mapToDouble(TopicGroup::getOffsetsPerTriggerShare).sum();
+    if (remainingShare <= 0) {
+      throw new IllegalArgumentException("Topic group shares leave nothing to the default group");
+    }
+    topicGroups.add(
+        TopicGroup.builder()
+            .name(Constants.DEFAULT_TOPIC_GROUP_NAME)
+            .queryName(Constants.APPLICATION_LOGS_TO_S3_QUERY_NAME)
+            .subscribePattern(
+                getDefaultSubscribePattern(
+                    config.getString("kafka.topic.prefix.application"), topicGroups))
+            .checkpointLocation(checkpointLocation)
+            .groupIdPrefix(Constants.APPLICATION_LOGS_KAFKA_GROUP_ID)
+            .offsetsPerTriggerShare(remainingShare)
+            .build());
+    return topicGroups;
+  }
+
+  /**
+   * Excludes the topics of the other groups from the application topic pattern. Kafka matches a
+   * subscribe pattern against the whole topic name, so each exclusion is anchored at both ends.
+   */
+  String getDefaultSubscribePattern(String applicationPattern, List<TopicGroup> otherGroups) {
+    if (otherGroups.isEmpty()) {
+      return applicationPattern;
+    }
+    String excluded =
+        otherGroups.stream()
+            .map(group -> "(?:" + group.getSubscribePattern() + ")$")
+            .collect(Collectors.joining("|"));
+    return "(?!" + excluded + ")(?:" + applicationPattern + ")";
+  }
+}
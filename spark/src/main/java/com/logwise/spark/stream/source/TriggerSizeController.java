@@ -0,0 +1,179 @@
+package com.logwise.spark.stream.source;
+
+import com.typesafe.config.Config;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.spark.sql.connector.read.streaming.ReadLimit;
+
+/**
+ * Feedback controller for the offsets per trigger of a streaming query.
+ *
+ * <p>After every micro-batch the limit is re-sized from the measured throughput ({@code
+ * numInputRows / batchDuration}) so that the next batch takes {@code targetBatchFraction} of the
+ * trigger interval. A batch that overran the target shrinks the limit. A batch that finished early
+ * grows it, but only if it was bounded by the limit rather than by the available offsets. Each step
+ * changes the limit by at most {@code maxStepFactor} and the result stays within {@code
+ * spark.offsetPerTrigger.min} and {@code spark.offsetPerTrigger.max}.
+ *
+ * <p>Controllers are registered per query name on the driver, where both the Kafka source and the
+ * query progress listener look them up. A controller outlives its query, so a restarted query keeps
+ * the limit learned by the previous run. When the query is restarted with another initial limit,
+ * sized from the cores of the executors, the learned limit is scaled by the same factor.
+ */
+@Slf4j
+public class TriggerSizeController {
+  private static final Map<String, TriggerSizeController> CONTROLLERS = new ConcurrentHashMap<>();
+  private static final double LIMIT_BOUND_FRACTION = 0.9;
+
+  private final long minOffsetsPerTrigger;
+  private final long maxOffsetsPerTrigger;
+  private final long targetBatchMillis;
+  private final double maxStepFactor;
+  private final AtomicLong offsetsPerTrigger;
+  private final AtomicLong initialOffsetsPerTrigger;
+
+  TriggerSizeController(
+      long initialOffsetsPerTrigger,
+      long minOffsetsPerTrigger,
+      long maxOffsetsPerTrigger,
+      long targetBatchMillis,
+      double maxStepFactor) {
+    this.minOffsetsPerTrigger = minOffsetsPerTrigger;
+    this.maxOffsetsPerTrigger = maxOffsetsPerTrigger;
+    this.targetBatchMillis = targetBatchMillis;
+    this.maxStepFactor = maxStepFactor;
+    this.offsetsPerTrigger = new AtomicLong(clamp(initialOffsetsPerTrigger));
+    this.initialOffsetsPerTrigger = new AtomicLong(initialOffsetsPerTrigger);
+  }
+
+  /**
+   * Registers the controller of a query, keeping the existing one if the query ran before.
+   *
+   * @param queryName the streaming query name
+   * @param config application config holding the {@code spark.offsetPerTrigger.*} settings
+   * @param initialOffsetsPerTrigger the starting limit sized from the cores of the executors
+   * @return the controller of the query
+   */
+  public static TriggerSizeController register(
+      String queryName, Config config, long initialOffsetsPerTrigger) {
+    return register(queryName, config, initialOffsetsPerTrigger, 1.0);
+  }
+
+  /**
+   * Registers the controller of a query that reads a share of the topics, whose limit stays within
+   * that share of {@code spark.offsetPerTrigger.min} and {@code spark.offsetPerTrigger.max}.
+   *
+   * @param share fraction of the offsets per trigger of the job given to the query
+   */
+  public static TriggerSizeController register(
+      String queryName, Config config, long initialOffsetsPerTrigger, double share) {
+    TriggerSizeController registered =
+        CONTROLLERS.computeIfAbsent(
+            queryName,
+            name -> {
+              long targetBatchMillis =
+                  (long)
+                      (TimeUnit.SECONDS.toMillis(config.getLong("spark.processing.time.seconds"))
+                          * config.getDouble(
+                              "spark.offsetPerTrigger.adaptive.targetBatchFraction"));
+              TriggerSizeController controller =
+                  new TriggerSizeController(
+                      initialOffsetsPerTrigger,
+                      Math.max(1L, (long) (config.getLong("spark.offsetPerTrigger.min") * share)),
+                      Math.max(1L, (long) (config.getLong("spark.offsetPerTrigger.max") * share)),
+                      targetBatchMillis,
+                      config.getDouble("spark.offsetPerTrigger.adaptive.maxStepFactor"));
+              log.info(
+                  "Registered trigger size controller for query [{}] starting at {} offsets, target batch {} ms",
+                  name,
+                  controller.getOffsetsPerTrigger(),
+                  targetBatchMillis);
+              return controller;
+            });
+    registered.onInitialOffsetsPerTriggerChanged(initialOffsetsPerTrigger);
+    return registered;
+  }
+
+  /**
+   * Scales the learned limit by the change of the initial limit, which follows the cores of the
+   * executors, so a query restarted after the executors were scaled does not keep a limit learned
+   * for the old count.
+   */
+  void onInitialOffsetsPerTriggerChanged(long initial) {
+    long previousInitial = initialOffsetsPerTrigger.getAndSet(initial);
+    if (previousInitial == initial || previousInitial <= 0) {
+      return;
+    }
+    long current = offsetsPerTrigger.get();
+    long next = clamp((long) ((double) current * initial / previousInitial));
+    if (offsetsPerTrigger.compareAndSet(current, next) && next != current) {
+      log.info(
+          "Offsets per trigger {} -> {} after the initial limit changed from {} to {}",
+          current,
+          next,
+          previousInitial,
+          initial);
+    }
+  }
+
+  public static Optional<TriggerSizeController> get(String queryName) {
+    return queryName == null ? Optional.empty() : Optional.ofNullable(CONTROLLERS.get(queryName));
+  }
+
+  static void clear() {
+    CONTROLLERS.clear();
+  }
+
+  public long getOffsetsPerTrigger() {
+    return offsetsPerTrigger.get();
+  }
+
+  public ReadLimit getReadLimit() {
+    return ReadLimit.maxRows(offsetsPerTrigger.get());
+  }
+
+  /**
+   * Re-sizes the limit from a completed micro-batch.
+   *
+   * @param numInputRows rows read by the batch
+   * @param batchDurationMillis wall-clock duration of the batch
+   * @return the limit for the next batch
+   */
+  public long onBatchCompleted(long numInputRows, long batchDurationMillis) {
+    long current = offsetsPerTrigger.get();
+    if (numInputRows <= 0 || batchDurationMillis <= 0) {
+      return current;
+    }
+
+    double sizedForTarget = (double) numInputRows * targetBatchMillis / batchDurationMillis;
+    long next;
+    if (batchDurationMillis > targetBatchMillis) {
+      next = (long) Math.max(sizedForTarget, current / maxStepFactor);
+      next = Math.min(next, current);
+    } else if (numInputRows >= current * LIMIT_BOUND_FRACTION) {
+      next = (long) Math.min(sizedForTarget, current * maxStepFactor);
+      next = Math.max(next, current);
+    } else {
+      return current;
+    }
+
+    next = clamp(next);
+    if (offsetsPerTrigger.compareAndSet(current, next) && next != current) {
+      log.info(
+          "Offsets per trigger {} -> {} after batch of {} rows in {} ms",
+          current,
+          next,
+          numInputRows,
+          batchDurationMillis);
+    }
+    return offsetsPerTrigger.get();
+  }
+
+  private long clamp(long value) {
+    return Math.min(maxOffsetsPerTrigger, Math.max(minOffsetsPerTrigger, value));
+  }
+}
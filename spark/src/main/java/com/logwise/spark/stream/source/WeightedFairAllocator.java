@@ -0,0 +1,171 @@
+package com.logwise.spark.stream.source;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToLongFunction;
+import lombok.experimental.UtilityClass;
+import org.apache.kafka.common.TopicPartition;
+
+/**
+ * Splits the offsets per trigger of a micro-batch across topics by weighted max-min fairness.
+ *
+ * <p>Spark's Kafka source splits the budget in proportion to the lag of each partition, so one
+ * backlogged topic takes nearly all of it. Here every topic first gets its minimum guarantee,
+ * capped by its lag. The rest is shared in proportion to the topic weights, and whatever a topic
+ * cannot use goes to the others. Within a topic the budget is split across partitions in proportion
+ * to their lag, as Spark does. When the budget covers every lag, all available offsets are read.
+ */
+@UtilityClass
+public class WeightedFairAllocator {
+
+  /**
+   * Returns the end offsets of the next micro-batch.
+   *
+   * @param start offsets the micro-batch starts from
+   * @param available latest available offsets; partitions missing from {@code start} are new and
+   *     read up to these offsets
+   * @param budget offsets per trigger of the micro-batch
+   * @param weightOfTopic share weight of a topic
+   * @param minimumOfTopic offsets per trigger guaranteed to a topic
+   */
+  public Map<TopicPartition, Long> allocate(
+      Map<TopicPartition, Long> start,
+      Map<TopicPartition, Long> available,
+      long budget,
+      ToDoubleFunction<String> weightOfTopic,
+      ToLongFunction<String> minimumOfTopic) {
+    Map<String, Map<TopicPartition, Long>> lagsByTopic = new TreeMap<>();
+    available.forEach(
+        (partition, latest) -> {
+          Long from = start.get(partition);
+          if (from != null && latest > from) {
+            lagsByTopic
+                .computeIfAbsent(partition.topic(), topic -> new HashMap<>())
+                .put(partition, latest - from);
+          }
+        });
+
+    Map<String, Long> demands = new TreeMap<>();
+    lagsByTopic.forEach((topic, lags) -> demands.put(topic, sum(lags)));
+    Map<TopicPartition, Long> end = new HashMap<>(available);
+    if (demands.values().stream().mapToLong(Long::longValue).sum() <= budget) {
+      return end;
+    }
+
+    Map<String, Long> topicBudgets =
+        splitAcrossTopics(demands, budget, weightOfTopic, minimumOfTopic);
+    lagsByTopic.forEach(
+        (topic, lags) ->
+            splitAcrossPartitions(lags, topicBudgets.get(topic))
+                .forEach(
+                    (partition, offsets) -> end.put(partition, start.get(partition) + offsets)));
+    return end;
+  }
+
+  /** Gives each topic its capped minimum, then water-fills the rest by weight. */
+  Map<String, Long> splitAcrossTopics(
+      Map<String, Long> demands,
+      long budget,
+      ToDoubleFunction<String> weightOfTopic,
+      ToLongFunction<String> minimumOfTopic) {
+    Map<String, Long> allocation = new TreeMap<>();
+    long guaranteed = 0;
+    for (Map.Entry<String, Long> demand : demands.entrySet()) {
+      long minimum =
+          Math.min(demand.getValue(), Math.max(0L, minimumOfTopic.applyAsLong(demand.getKey())));
+      allocation.put(demand.getKey(), minimum);
+      guaranteed += minimum;
+    }
+    if (guaranteed > budget) {
+      // The guarantees alone exceed the budget, so they shrink together.
+      double scale = (double) budget / guaranteed;
+      allocation.replaceAll((topic, minimum) -> (long) (minimum * scale));
+      return allocation;
+    }
+
+    long remaining = budget - guaranteed;
+    TreeSet<String> unsatisfied = new TreeSet<>();
+    demands.forEach(
+        (topic, demand) -> {
+          if (allocation.get(topic) < demand) {
+            unsatisfied.add(topic);
+          }
+        });
+    while (remaining > 0 && !unsatisfied.isEmpty()) {
+      double totalWeight = unsatisfied.stream().mapToDouble(weightOfTopic).sum();
+      List<String> satisfied = new ArrayList<>();
+      for (String topic : unsatisfied) {
+        long need = demands.get(topic) - allocation.get(topic);
+        if (need <= remaining * weightOfTopic.applyAsDouble(topic) / totalWeight) {
+          satisfied.add(topic);
+        }
+      }
+      if (satisfied.isEmpty()) {
+        // Every topic wants more than its fair share: hand it out and stop.
+        long handedOut = 0;
+        for (String topic : unsatisfied) {
+          long share = (long) (remaining * weightOfTopic.applyAsDouble(topic) / totalWeight);
+          allocation.merge(topic, share, Long::sum);
+          handedOut += share;
+        }
+        for (String topic : unsatisfied) {
+          if (handedOut >= remaining) {
+            break;
+          }
+          allocation.merge(topic, 1L, Long::sum);
+          handedOut++;
+        }
+        break;
+      }
+      for (String topic : satisfied) {
+        remaining -= demands.get(topic) - allocation.get(topic);
+        allocation.put(topic, demands.get(topic));
+        unsatisfied.remove(topic);
+      }
+    }
+    return allocation;
+  }
+
+  /** Splits the budget of a topic in proportion to the lag of its partitions. */
+  Map<TopicPartition, Long> splitAcrossPartitions(
+      Map<TopicPartition, Long> lags, long topicBudget) {
+    long demand = sum(lags);
+    if (topicBudget >= demand) {
+      return lags;
+    }
+    List<TopicPartition> partitions = new ArrayList<>(lags.keySet());
+    partitions.sort(Comparator.comparingInt(TopicPartition::partition));
+    Map<TopicPartition, Long> allocation = new HashMap<>();
+    long assigned = 0;
+    for (TopicPartition partition : partitions) {
+      long offsets = (long) ((double) lags.get(partition) * topicBudget / demand);
+      allocation.put(partition, offsets);
+      assigned += offsets;
+    }
+    // Rounding leftovers go to the partitions with the most lag left.
+    partitions.sort(
+        Comparator.comparingLong(
+                (TopicPartition partition) -> lags.get(partition) - allocation.get(partition))
+            .reversed());
+    for (TopicPartition partition : partitions) {
+      if (assigned >= topicBudget) {
+        break;
+      }
+      if (allocation.get(partition) < lags.get(partition)) {
+        allocation.merge(partition, 1L, Long::sum);
+        assigned++;
+      }
+    }
+    return allocation;
+  }
+
+  private long sum(Map<TopicPartition, Long> lags) {
+    return lags.values().stream().mapToLong(Long::longValue).sum();
+  }
+}
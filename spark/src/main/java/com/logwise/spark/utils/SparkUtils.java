@@ -5,6 +5,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.logwise.spark.dto.entity.KafkaReadStreamOptions;
 import com.logwise.spark.guice.injectors.ApplicationInjector;
 import com.logwise.spark.listeners.SparkStageListener;
+import com.logwise.spark.stream.source.AdaptiveKafkaSourceProvider;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
@@ -58,7 +59,7 @@ public class SparkUtils {
         session ->
             session
                 .readStream()
-                .format("kafka")
+                .format(getKafkaSourceFormat(kafkaReadStreamOptions))
                 .options(getKafkaOptionsMap(kafkaReadStreamOptions))
                 .load());
   }
@@ -73,6 +74,14 @@ public class SparkUtils {
     return streamReaderFunction.apply(sparkSession);
   }
 
+  private String getKafkaSourceFormat(KafkaReadStreamOptions kafkaReadStreamOptions) {
+    return kafkaReadStreamOptions.getTriggerSizeController() == null
+            && kafkaReadStreamOptions.getFairShare() == null
+            && kafkaReadStreamOptions.getMaxOffsetsPerTask() == null
+        ? "kafka"
+        : AdaptiveKafkaSourceProvider.class.getName();
+  }
+
   private Map<String, String> getKafkaOptionsMap(KafkaReadStreamOptions kafkaReadStreamOptions) {
     return mapper
         .convertValue(kafkaReadStreamOptions, new TypeReference<Map<String, String>>() {})
@@ -62,6 +62,7 @@ public class MockConfigHelper {
     configMap.put("kafka.bootstrap.servers.port", "9092");
     configMap.put("tenant.name", "test-tenant");
     configMap.put("spark.streamingquery.timeout.minutes", 60);
+    configMap.put("spark.streamingquery.longRunning.enable", false);
     configMap.put("spark.streams.name", java.util.Arrays.asList("APPLICATION_LOGS_STREAM_TO_S3"));
     return createNestedConfig(configMap);
   }
@@ -2,8 +2,11 @@ package com.logwise.spark.configs;
 
 import static org.testng.Assert.*;
 
+import com.logwise.spark.constants.Constants;
+import com.logwise.spark.utils.ConfigUtils;
 import com.typesafe.config.Config;
 import java.lang.reflect.Method;
+import java.util.Collections;
 import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
@@ -191,6 +194,45 @@ public class ApplicationConfigTest {
         "Should have correct value from application.conf");
   }
 
+  @Test
+  public void testGetConfig_CompressionCodecArgOverridesSinkAndSparkConfig() {
+    String configArg1 = Constants.CONFIG_KEY_PARQUET_COMPRESSION_CODEC + "=zstd";
+    String configArg2 = "tenant.name=test-tenant";
+    String configArg3 = "s3.bucket=test-bucket";
+
+    Config defaultConfig = ApplicationConfig.getConfig(configArg2, configArg3);
+    Config config = ApplicationConfig.getConfig(configArg1, configArg2, configArg3);
+
+    assertEquals(defaultConfig.getString(Constants.CONFIG_KEY_PARQUET_COMPRESSION_CODEC), "snappy");
+    assertEquals(config.getString(Constants.CONFIG_KEY_PARQUET_COMPRESSION_CODEC), "zstd");
+    assertEquals(
+        ConfigUtils.getSparkConfig(config).get("spark.sql.parquet.compression.codec"),
+        "zstd",
+        "Spark SQL codec should follow the sink codec");
+  }
+
+  @Test
+  public void testGetConfig_PartitionGranularityArgsOverrideDefaultAndServices() {
+    String configArg1 = Constants.CONFIG_KEY_PARTITION_GRANULARITY_DEFAULT + "=hour";
+    String configArg2 =
+        Constants.CONFIG_KEY_PARTITION_GRANULARITY_SERVICES + ".\"payments-api\"=minute";
+    String configArg3 = "tenant.name=test-tenant";
+    String configArg4 = "s3.bucket=test-bucket";
+
+    Config defaultConfig = ApplicationConfig.getConfig(configArg3, configArg4);
+    Config config = ApplicationConfig.getConfig(configArg1, configArg2, configArg3, configArg4);
+
+    assertEquals(
+        defaultConfig.getString(Constants.CONFIG_KEY_PARTITION_GRANULARITY_DEFAULT), "minute");
+    assertTrue(
+        ConfigUtils.getConfigMap(defaultConfig, Constants.CONFIG_KEY_PARTITION_GRANULARITY_SERVICES)
+            .isEmpty());
+    assertEquals(config.getString(Constants.CONFIG_KEY_PARTITION_GRANULARITY_DEFAULT), "hour");
+    assertEquals(
+        ConfigUtils.getConfigMap(config, Constants.CONFIG_KEY_PARTITION_GRANULARITY_SERVICES),
+        Collections.singletonMap("payments-api", "minute"));
+  }
+
   @Test
   public void testGetConfig_SystemPropertiesAvailableForAccess() {
     String customPropertyKey = "custom.test.property";
@@ -14,9 +14,14 @@ public class ConstantsTest {
     Assert.assertNotNull(Constants.APPLICATION_LOGS_KAFKA_GROUP_ID);
     Assert.assertNotNull(Constants.WRITE_STREAM_PARQUET_FORMAT);
     Assert.assertNotNull(Constants.WRITE_STREAM_BQ_FORMAT);
-    Assert.assertNotNull(Constants.WRITE_STREAM_GZIP_COMPRESSION);
     Assert.assertNotNull(Constants.CONFIG_KEY_SPARK_CONFIG);
     Assert.assertNotNull(Constants.CONFIG_KEY_SPARK_HADOOP_CONFIG);
+    Assert.assertNotNull(Constants.CONFIG_KEY_PARQUET_COMPRESSION_CODEC);
+    Assert.assertNotNull(Constants.CONFIG_KEY_STREAMING_QUERY_LONG_RUNNING);
+    Assert.assertNotNull(Constants.CONFIG_KEY_PARTITION_GRANULARITY_DEFAULT);
+    Assert.assertNotNull(Constants.CONFIG_KEY_PARTITION_GRANULARITY_SERVICES);
+    Assert.assertNotNull(Constants.CONFIG_KEY_SORT_BY_TIMESTAMP);
+    Assert.assertNotNull(Constants.CONFIG_KEY_TOKEN_PATTERNS);
   }
 
   @Test
@@ -35,6 +40,9 @@ public class ConstantsTest {
   public void testConstants_PartitionColumnsAreNotNull() {
     Assert.assertNotNull(Constants.APPLICATION_LOG_S3_PARTITION_COLUMNS);
     Assert.assertTrue(Constants.APPLICATION_LOG_S3_PARTITION_COLUMNS.length > 0);
+    Assert.assertEquals(
+        Constants.APPLICATION_LOG_S3_HOUR_PARTITION_COLUMNS.length,
+        Constants.APPLICATION_LOG_S3_PARTITION_COLUMNS.length - 1);
   }
 
   @Test
@@ -54,10 +62,4 @@ public class ConstantsTest {
     Assert.assertTrue(Constants.FEIGN_DEFAULT_RETRY_MAX_PERIOD_IN_MILLIS > 0);
     Assert.assertTrue(Constants.FEIGN_DEFAULT_RETRY_PERIOD_IN_MILLIS > 0);
   }
-
-  @Test
-  public void testConstants_QueryNameToStageMapIsNotNull() {
-    Assert.assertNotNull(Constants.QUERY_NAME_TO_STAGE_MAP);
-    Assert.assertFalse(Constants.QUERY_NAME_TO_STAGE_MAP.isEmpty());
-  }
 }
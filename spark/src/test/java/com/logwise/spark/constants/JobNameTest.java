@@ -18,6 +18,15 @@ public class JobNameTest {
     assertEquals(jobName.getValue(), "push-logs-to-s3");
   }
 
+  @Test
+  public void testFromValue_WithCompactionValue_ReturnsJobName() {
+    // Act
+    JobName jobName = JobName.fromValue("compact-logs-in-s3");
+
+    // Assert
+    assertEquals(jobName, JobName.COMPACT_LOGS_IN_S3);
+  }
+
   @Test(expectedExceptions = IllegalArgumentException.class)
   public void testFromValue_WithInvalidValue_ThrowsException() {
     // Act - should throw IllegalArgumentException
@@ -65,8 +74,9 @@ public class JobNameTest {
 
     // Assert
     assertNotNull(values);
-    assertEquals(values.length, 1, "Should have one job name");
+    assertEquals(values.length, 2, "Should have two job names");
     assertEquals(values[0], JobName.PUSH_LOGS_TO_S3);
+    assertEquals(values[1], JobName.COMPACT_LOGS_IN_S3);
   }
 
   @Test
@@ -0,0 +1,36 @@
+package com.logwise.spark.constants;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class PartitionGranularityTest {
+
+  @Test
+  public void testFromValue_IsCaseInsensitive() {
+    Assert.assertEquals(PartitionGranularity.fromValue("hour"), PartitionGranularity.HOUR);
+    Assert.assertEquals(PartitionGranularity.fromValue("MINUTE"), PartitionGranularity.MINUTE);
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void testFromValue_WithUnknownValue_Throws() {
+    PartitionGranularity.fromValue("day");
+  }
+
+  @Test
+  public void testGetPartitionColumns_HourStopsAtHour() {
+    Assert.assertEquals(
+        PartitionGranularity.HOUR.getPartitionColumns(),
+        Constants.APPLICATION_LOG_S3_HOUR_PARTITION_COLUMNS);
+    Assert.assertEquals(
+        PartitionGranularity.MINUTE.getPartitionColumns(),
+        Constants.APPLICATION_LOG_S3_PARTITION_COLUMNS);
+  }
+
+  @Test
+  public void testGetPath_HourIsWrittenToASiblingRoot() {
+    Assert.assertEquals(
+        PartitionGranularity.HOUR.getPath("s3a://bucket/logs/"), "s3a://bucket/logs-hourly");
+    Assert.assertEquals(
+        PartitionGranularity.MINUTE.getPath("s3a://bucket/logs/"), "s3a://bucket/logs");
+  }
+}
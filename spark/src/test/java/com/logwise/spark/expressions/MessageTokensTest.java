@@ -0,0 +1,41 @@
+package com.logwise.spark.expressions;
+
+import static org.testng.Assert.*;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import org.apache.spark.sql.Column;
+import org.apache.spark.sql.catalyst.expressions.Alias;
+import org.testng.annotations.Test;
+
+/**
+ * Unit tests for MessageTokens.
+ *
+ * <p>Tests verify the token columns derived from the configured patterns.
+ */
+public class MessageTokensTest {
+
+  @Test
+  public void testExtract_WithPatterns_ReturnsOneAliasedColumnPerPatternInNameOrder() {
+    // Arrange
+    Map<String, String> patterns = new HashMap<>();
+    patterns.put("trace_id", "trace_id=([0-9a-f]{32})");
+    patterns.put("request_id", "request_id=(\\S+)");
+
+    // Act
+    Column[] columns = MessageTokens.extract(patterns);
+
+    // Assert
+    assertEquals(columns.length, 2);
+    assertEquals(((Alias) columns[0].expr()).name(), "request_id");
+    assertEquals(((Alias) columns[1].expr()).name(), "trace_id");
+    assertTrue(
+        columns[1].toString().contains("regexp_extract(message, trace_id=([0-9a-f]{32}), 1)"));
+  }
+
+  @Test
+  public void testExtract_WithoutPatterns_ReturnsNoColumns() {
+    assertEquals(MessageTokens.extract(Collections.emptyMap()).length, 0);
+  }
+}
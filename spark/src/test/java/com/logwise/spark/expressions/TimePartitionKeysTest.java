@@ -0,0 +1,158 @@
+package com.logwise.spark.expressions;
+
+import static org.testng.Assert.*;
+
+import com.logwise.spark.schema.Schema;
+import java.time.Instant;
+import java.util.Arrays;
+import org.apache.spark.sql.Column;
+import org.apache.spark.sql.catalyst.InternalRow;
+import org.apache.spark.sql.catalyst.analysis.MultiAlias;
+import org.apache.spark.sql.catalyst.expressions.BoundReference;
+import org.apache.spark.sql.catalyst.expressions.GenericInternalRow;
+import org.apache.spark.sql.catalyst.expressions.Literal;
+import org.apache.spark.sql.catalyst.util.DateTimeUtils;
+import org.apache.spark.sql.functions;
+import org.apache.spark.sql.types.DataTypes;
+import org.testng.annotations.Test;
+import scala.collection.Iterator;
+
+/**
+ * Unit tests for TimePartitionKeys.
+ *
+ * <p>Tests verify the zero-padded partition values, their reuse within a minute and the time zone
+ * handling of the generator.
+ */
+public class TimePartitionKeysTest {
+
+  private static final int YEAR_ORDINAL = 0;
+  private static final int MINUTE_ORDINAL = 4;
+
+  private static TimePartitionKeys boundGenerator(String timeZoneId) {
+    return new TimePartitionKeys(new BoundReference(0, DataTypes.TimestampType, true), timeZoneId);
+  }
+
+  private static InternalRow evalSingle(TimePartitionKeys generator, Object micros) {
+    Iterator<InternalRow> rows =
+        generator.eval(new GenericInternalRow(new Object[] {micros})).toIterator();
+    assertTrue(rows.hasNext());
+    InternalRow row = rows.next();
+    assertFalse(rows.hasNext());
+    return row;
+  }
+
+  private static String[] keys(InternalRow row) {
+    String[] keys = new String[row.numFields()];
+    for (int i = 0; i < keys.length; i++) {
+      keys[i] = row.isNullAt(i) ? null : row.getUTF8String(i).toString();
+    }
+    return keys;
+  }
+
+  private static long micros(String iso) {
+    return DateTimeUtils.instantToMicros(Instant.parse(iso));
+  }
+
+  @Test
+  public void testEval_WithUtcTimestamp_ReturnsZeroPaddedKeys() {
+    // Act
+    InternalRow row = evalSingle(boundGenerator("UTC"), micros("2024-03-05T07:09:59.999999Z"));
+
+    // Assert
+    assertEquals(keys(row), new String[] {"2024", "03", "05", "07", "09"});
+  }
+
+  @Test
+  public void testEval_WithNonUtcZone_UsesLocalTime() {
+    // Act - 2024-01-01T00:30Z is 2024-01-01T06:00 in Asia/Kolkata (+05:30)
+    InternalRow row = evalSingle(boundGenerator("Asia/Kolkata"), micros("2024-01-01T00:30:00Z"));
+
+    // Assert
+    assertEquals(keys(row), new String[] {"2024", "01", "01", "06", "00"});
+  }
+
+  @Test
+  public void testEval_WithinSameMinute_ReusesCachedValues() {
+    // Arrange
+    TimePartitionKeys generator = boundGenerator("UTC");
+
+    // Act
+    InternalRow first = evalSingle(generator, micros("2024-12-31T23:59:00Z"));
+    InternalRow second = evalSingle(generator, micros("2024-12-31T23:59:59.999999Z"));
+
+    // Assert
+    assertSame(first.getUTF8String(YEAR_ORDINAL), second.getUTF8String(YEAR_ORDINAL));
+    assertSame(first.getUTF8String(MINUTE_ORDINAL), second.getUTF8String(MINUTE_ORDINAL));
+  }
+
+  @Test
+  public void testEval_AcrossMinuteBoundaries_RecomputesKeys() {
+    // Arrange
+    TimePartitionKeys generator = boundGenerator("UTC");
+
+    // Act
+    String[] before = keys(evalSingle(generator, micros("2024-12-31T23:59:59.999999Z")));
+    String[] after = keys(evalSingle(generator, micros("2025-01-01T00:00:00Z")));
+    String[] backwards = keys(evalSingle(generator, micros("2024-12-31T23:58:30Z")));
+
+    // Assert
+    assertEquals(before, new String[] {"2024", "12", "31", "23", "59"});
+    assertEquals(after, new String[] {"2025", "01", "01", "00", "00"});
+    assertEquals(backwards, new String[] {"2024", "12", "31", "23", "58"});
+  }
+
+  @Test
+  public void testEval_WithPreEpochTimestamp_FloorsToMinute() {
+    // Act
+    InternalRow row = evalSingle(boundGenerator("UTC"), micros("1969-12-31T23:59:59.5Z"));
+
+    // Assert
+    assertEquals(keys(row), new String[] {"1969", "12", "31", "23", "59"});
+  }
+
+  @Test
+  public void testEval_WithNullTimestamp_ReturnsNullKeys() {
+    // Act
+    InternalRow row = evalSingle(boundGenerator("UTC"), null);
+
+    // Assert
+    assertEquals(row.numFields(), Schema.getTimePartitionSchema().size());
+    for (int i = 0; i < row.numFields(); i++) {
+      assertTrue(row.isNullAt(i));
+    }
+  }
+
+  @Test
+  public void testCheckInputDataTypes_WithStringInput_Fails() {
+    // Arrange
+    TimePartitionKeys generator =
+        new TimePartitionKeys(Literal.create("x", DataTypes.StringType), "UTC");
+
+    // Act & Assert
+    assertTrue(generator.checkInputDataTypes().isFailure());
+    assertTrue(boundGenerator("UTC").checkInputDataTypes().isSuccess());
+  }
+
+  @Test
+  public void testEquals_ConsidersTimeZone() {
+    // Act & Assert
+    assertEquals(boundGenerator("UTC"), boundGenerator("UTC"));
+    assertEquals(boundGenerator("UTC").hashCode(), boundGenerator("UTC").hashCode());
+    assertNotEquals(boundGenerator("UTC"), boundGenerator("Asia/Kolkata"));
+  }
+
+  @Test
+  public void testDerive_ReturnsColumnAliasedToPartitionColumns() {
+    // Act
+    Column column = TimePartitionKeys.derive(functions.col("timestamp"), "UTC");
+
+    // Assert
+    assertTrue(column.expr() instanceof MultiAlias);
+    MultiAlias alias = (MultiAlias) column.expr();
+    assertTrue(alias.child() instanceof TimePartitionKeys);
+    assertEquals(((TimePartitionKeys) alias.child()).timeZoneId(), "UTC");
+    assertEquals(
+        scala.collection.JavaConverters.seqAsJavaList(alias.names()),
+        Arrays.asList(Schema.getTimePartitionSchema().fieldNames()));
+  }
+}
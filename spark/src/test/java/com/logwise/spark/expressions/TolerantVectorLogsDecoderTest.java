@@ -0,0 +1,95 @@
+package com.logwise.spark.expressions;
+
+import static org.testng.Assert.*;
+
+import com.logwise.spark.constants.Constants;
+import com.logwise.spark.protobuf.VectorLogs;
+import com.logwise.spark.schema.Schema;
+import java.util.Arrays;
+import org.apache.spark.sql.catalyst.InternalRow;
+import org.apache.spark.sql.catalyst.expressions.Expression;
+import org.apache.spark.sql.catalyst.expressions.Literal;
+import org.apache.spark.sql.types.DataTypes;
+import org.apache.spark.util.LongAccumulator;
+import org.testng.annotations.Test;
+import scala.collection.Iterator;
+
+/**
+ * Unit tests for TolerantVectorLogsDecoder.
+ *
+ * <p>Tests verify that undecodable payloads become dead letter rows counted by the accumulator
+ * instead of failing the evaluation.
+ */
+public class TolerantVectorLogsDecoderTest {
+
+  private static final int MESSAGE_ORDINAL = 0;
+  private static final int DECODE_ERROR_ORDINAL = Schema.getVectorApplicationLogsSchema().size();
+
+  private static Expression binary(byte[] bytes) {
+    return Literal.create(bytes, DataTypes.BinaryType);
+  }
+
+  @Test
+  public void testEval_WithValidPayload_ReturnsRowWithoutDecodeError() {
+    // Arrange
+    byte[] bytes = VectorLogs.newBuilder().setMessage("hello").build().toByteArray();
+    LongAccumulator deadLetters = new LongAccumulator();
+    TolerantVectorLogsDecoder decoder = new TolerantVectorLogsDecoder(binary(bytes), deadLetters);
+
+    // Act
+    Iterator<InternalRow> rows = decoder.eval(null).toIterator();
+
+    // Assert
+    InternalRow row = rows.next();
+    assertFalse(rows.hasNext());
+    assertEquals(row.numFields(), DECODE_ERROR_ORDINAL + 1);
+    assertEquals(row.getUTF8String(MESSAGE_ORDINAL).toString(), "hello");
+    assertTrue(row.isNullAt(DECODE_ERROR_ORDINAL));
+    assertEquals(deadLetters.value(), Long.valueOf(0L));
+  }
+
+  @Test
+  public void testEval_WithTruncatedPayload_ReturnsDeadLetterRowAndCountsIt() {
+    // Arrange
+    byte[] bytes = VectorLogs.newBuilder().setMessage("Test log message").build().toByteArray();
+    byte[] truncated = Arrays.copyOf(bytes, bytes.length - 3);
+    LongAccumulator deadLetters = new LongAccumulator();
+    TolerantVectorLogsDecoder decoder =
+        new TolerantVectorLogsDecoder(binary(truncated), deadLetters);
+
+    // Act
+    Iterator<InternalRow> rows = decoder.eval(null).toIterator();
+
+    // Assert
+    InternalRow row = rows.next();
+    assertFalse(rows.hasNext());
+    assertTrue(row.isNullAt(MESSAGE_ORDINAL));
+    assertFalse(row.isNullAt(DECODE_ERROR_ORDINAL));
+    assertTrue(row.getUTF8String(DECODE_ERROR_ORDINAL).toString().contains("Protocol"));
+    assertEquals(deadLetters.value(), Long.valueOf(1L));
+  }
+
+  @Test
+  public void testEval_WithNullValue_ReturnsNoRows() {
+    // Arrange
+    TolerantVectorLogsDecoder decoder =
+        new TolerantVectorLogsDecoder(binary(null), new LongAccumulator());
+
+    // Act & Assert
+    assertFalse(decoder.eval(null).toIterator().hasNext());
+  }
+
+  @Test
+  public void testElementSchema_AddsDecodeErrorColumn() {
+    // Arrange
+    TolerantVectorLogsDecoder decoder =
+        new TolerantVectorLogsDecoder(binary(new byte[0]), new LongAccumulator());
+
+    // Assert
+    assertEquals(
+        decoder.elementSchema(),
+        Schema.getVectorApplicationLogsSchema()
+            .add(Constants.APPLICATION_LOG_COLUMN_DECODE_ERROR, DataTypes.StringType));
+    assertEquals(decoder.productArity(), 2);
+  }
+}
@@ -0,0 +1,269 @@
+package com.logwise.spark.expressions;
+
+import static org.testng.Assert.*;
+
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.google.protobuf.Timestamp;
+import com.logwise.spark.protobuf.VectorLogs;
+import com.logwise.spark.schema.Schema;
+import com.logwise.spark.utils.ApplicationUtils;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import org.apache.spark.sql.Column;
+import org.apache.spark.sql.catalyst.InternalRow;
+import org.apache.spark.sql.catalyst.analysis.MultiAlias;
+import org.apache.spark.sql.catalyst.expressions.Literal;
+import org.apache.spark.sql.catalyst.util.DateTimeUtils;
+import org.apache.spark.sql.catalyst.util.MapData;
+import org.apache.spark.sql.functions;
+import org.apache.spark.sql.types.DataTypes;
+import org.testng.annotations.Test;
+import scala.collection.Iterator;
+
+/**
+ * Unit tests for VectorLogsDecoder.
+ *
+ * <p>Tests verify that the wire-format decoder produces the same values as {@link
+ * VectorLogs#parseFrom(byte[])} and that it behaves as a Catalyst generator.
+ */
+public class VectorLogsDecoderTest {
+
+  private static final int MESSAGE_ORDINAL = 0;
+  private static final int TIMESTAMP_ORDINAL = 1;
+  private static final int SERVICE_NAME_ORDINAL = 2;
+  private static final int LOG_LEVEL_ORDINAL = 3;
+  private static final int HOST_ORDINAL = 4;
+  private static final int POD_ORDINAL = 5;
+  private static final int ATTRIBUTES_ORDINAL = 6;
+
+  private static Map<String, String> attributes(InternalRow row) {
+    MapData attributes = row.getMap(ATTRIBUTES_ORDINAL);
+    Map<String, String> map = new HashMap<>();
+    for (int i = 0; i < attributes.numElements(); i++) {
+      map.put(
+          attributes.keyArray().getUTF8String(i).toString(),
+          attributes.valueArray().getUTF8String(i).toString());
+    }
+    return map;
+  }
+
+  @Test
+  public void testDecodeRow_WithAllFields_MatchesSchemaOrder() throws Exception {
+    // Arrange
+    byte[] bytes =
+        VectorLogs.newBuilder()
+            .setServiceName("api-service")
+            .setMessage("Test log message")
+            .setLogLevel("info")
+            .setTimestamp(Timestamp.newBuilder().setSeconds(1609459200L).setNanos(500000000))
+            .setHost("ip-10-0-0-1")
+            .setPod("api-service-7d9f-x2k4")
+            .putAttributes("http.method", "GET")
+            .putAttributes("http.status_code", "500")
+            .build()
+            .toByteArray();
+
+    // Act
+    InternalRow row = VectorLogsDecoder.decodeRow(bytes);
+
+    // Assert
+    assertEquals(row.numFields(), Schema.getVectorApplicationLogsSchema().size());
+    assertEquals(row.getUTF8String(MESSAGE_ORDINAL).toString(), "Test log message");
+    assertEquals(row.getLong(TIMESTAMP_ORDINAL), 1609459200500000L);
+    assertEquals(row.getUTF8String(SERVICE_NAME_ORDINAL).toString(), "api-service");
+    assertEquals(row.getUTF8String(LOG_LEVEL_ORDINAL).toString(), "info");
+    assertEquals(row.getUTF8String(HOST_ORDINAL).toString(), "ip-10-0-0-1");
+    assertEquals(row.getUTF8String(POD_ORDINAL).toString(), "api-service-7d9f-x2k4");
+    assertEquals(
+        attributes(row), VectorLogs.parseFrom(bytes).getAttributesMap(), "attributes should match");
+  }
+
+  @Test
+  public void testDecodeRow_WithRepeatedAttributeKey_KeepsLastValue() throws Exception {
+    // Arrange - two map entries with the same key, as a concatenation of two messages
+    byte[] first = VectorLogs.newBuilder().putAttributes("env", "staging").build().toByteArray();
+    byte[] second =
+        VectorLogs.newBuilder()
+            .putAttributes("env", "prod")
+            .putAttributes("region", "eu-west-1")
+            .build()
+            .toByteArray();
+    byte[] bytes = Arrays.copyOf(first, first.length + second.length);
+    System.arraycopy(second, 0, bytes, first.length, second.length);
+
+    // Act
+    InternalRow row = VectorLogsDecoder.decodeRow(bytes);
+
+    // Assert
+    MapData attributes = row.getMap(ATTRIBUTES_ORDINAL);
+    assertEquals(attributes.numElements(), 2);
+    assertEquals(attributes(row), VectorLogs.parseFrom(bytes).getAttributesMap());
+  }
+
+  @Test
+  public void testDecodeRow_WithMinimalFields_ReturnsProtoDefaults() throws Exception {
+    // Arrange
+    byte[] bytes = VectorLogs.newBuilder().setMessage("Minimal log").build().toByteArray();
+
+    // Act
+    InternalRow row = VectorLogsDecoder.decodeRow(bytes);
+
+    // Assert
+    assertEquals(row.getUTF8String(MESSAGE_ORDINAL).toString(), "Minimal log");
+    assertEquals(row.getLong(TIMESTAMP_ORDINAL), 0L);
+    assertEquals(row.getUTF8String(SERVICE_NAME_ORDINAL).toString(), "");
+    assertEquals(row.getUTF8String(LOG_LEVEL_ORDINAL).toString(), "");
+    assertEquals(row.getUTF8String(HOST_ORDINAL).toString(), "");
+    assertEquals(row.getUTF8String(POD_ORDINAL).toString(), "");
+    assertEquals(row.getMap(ATTRIBUTES_ORDINAL).numElements(), 0);
+  }
+
+  @Test
+  public void testDecodeRow_WithEmptyPayload_ReturnsProtoDefaults() throws Exception {
+    // Act
+    InternalRow row = VectorLogsDecoder.decodeRow(new byte[0]);
+
+    // Assert
+    assertEquals(row.getUTF8String(MESSAGE_ORDINAL).toString(), "");
+    assertEquals(row.getUTF8String(SERVICE_NAME_ORDINAL).toString(), "");
+  }
+
+  @Test
+  public void testDecodeRow_WithUnicodeMessage_PreservesBytes() throws Exception {
+    // Arrange
+    String message = "Error: éèê 中文 🚀";
+    byte[] bytes =
+        VectorLogs.newBuilder().setMessage(message).setServiceName("svc").build().toByteArray();
+
+    // Act
+    InternalRow row = VectorLogsDecoder.decodeRow(bytes);
+
+    // Assert
+    assertEquals(row.getUTF8String(MESSAGE_ORDINAL).toString(), message);
+    assertEquals(
+        row.getUTF8String(MESSAGE_ORDINAL).getBytes(), message.getBytes(StandardCharsets.UTF_8));
+  }
+
+  @Test
+  public void testDecodeRow_WithUnknownFields_SkipsThem() throws Exception {
+    // Arrange - append a varint field 15 and a fixed64 field 16 the decoder does not know about
+    byte[] known =
+        VectorLogs.newBuilder().setMessage("msg").setServiceName("svc").build().toByteArray();
+    byte[] unknown = {
+      (byte) 0x78, (byte) 0x96, (byte) 0x01, (byte) 0x81, (byte) 0x01, 1, 2, 3, 4, 5, 6, 7, 8
+    };
+    byte[] bytes = Arrays.copyOf(known, known.length + unknown.length);
+    System.arraycopy(unknown, 0, bytes, known.length, unknown.length);
+
+    // Act
+    InternalRow row = VectorLogsDecoder.decodeRow(bytes);
+
+    // Assert
+    assertEquals(row.getUTF8String(MESSAGE_ORDINAL).toString(), "msg");
+    assertEquals(row.getUTF8String(SERVICE_NAME_ORDINAL).toString(), "svc");
+  }
+
+  @Test(expectedExceptions = InvalidProtocolBufferException.class)
+  public void testDecodeRow_WithTruncatedPayload_ThrowsException() throws Exception {
+    // Arrange
+    byte[] bytes = VectorLogs.newBuilder().setMessage("truncated").build().toByteArray();
+
+    // Act
+    VectorLogsDecoder.decodeRow(Arrays.copyOf(bytes, bytes.length - 3));
+  }
+
+  @Test
+  public void testDecodeRow_WithSubMicroNanos_TruncatesToMicros() throws Exception {
+    // Arrange
+    byte[] bytes =
+        VectorLogs.newBuilder()
+            .setTimestamp(Timestamp.newBuilder().setSeconds(1700000000L).setNanos(123456789))
+            .build()
+            .toByteArray();
+
+    // Act
+    InternalRow row = VectorLogsDecoder.decodeRow(bytes);
+
+    // Assert
+    assertEquals(row.getLong(TIMESTAMP_ORDINAL), 1700000000123456L);
+  }
+
+  @Test
+  public void testDecodeRow_MatchesSqlTimestampConversion() throws Exception {
+    // Arrange
+    Timestamp timestamp = Timestamp.newBuilder().setSeconds(1609459200L).setNanos(1000).build();
+    byte[] bytes = VectorLogs.newBuilder().setTimestamp(timestamp).build().toByteArray();
+
+    // Act
+    InternalRow row = VectorLogsDecoder.decodeRow(bytes);
+
+    // Assert
+    assertEquals(
+        row.getLong(TIMESTAMP_ORDINAL),
+        DateTimeUtils.fromJavaTimestamp(
+            ApplicationUtils.convertProtoTimestampToSqlTimestamp(timestamp)));
+  }
+
+  @Test
+  public void testEval_WithBinaryLiteral_ReturnsSingleRow() {
+    // Arrange
+    byte[] bytes = VectorLogs.newBuilder().setMessage("hello").build().toByteArray();
+    VectorLogsDecoder decoder = new VectorLogsDecoder(Literal.create(bytes, DataTypes.BinaryType));
+
+    // Act
+    Iterator<InternalRow> rows = decoder.eval(null).toIterator();
+
+    // Assert
+    assertTrue(rows.hasNext());
+    assertEquals(rows.next().getUTF8String(MESSAGE_ORDINAL).toString(), "hello");
+    assertFalse(rows.hasNext());
+  }
+
+  @Test
+  public void testEval_WithNullValue_ReturnsNoRows() {
+    // Arrange
+    VectorLogsDecoder decoder = new VectorLogsDecoder(Literal.create(null, DataTypes.BinaryType));
+
+    // Act & Assert
+    assertFalse(decoder.eval(null).toIterator().hasNext());
+  }
+
+  @Test
+  public void testCheckInputDataTypes_WithStringInput_Fails() {
+    // Arrange
+    VectorLogsDecoder decoder = new VectorLogsDecoder(Literal.create("x", DataTypes.StringType));
+
+    // Act & Assert
+    assertTrue(decoder.checkInputDataTypes().isFailure());
+    assertTrue(
+        new VectorLogsDecoder(Literal.create(new byte[0], DataTypes.BinaryType))
+            .checkInputDataTypes()
+            .isSuccess());
+  }
+
+  @Test
+  public void testElementSchema_MatchesApplicationLogsSchema() {
+    // Arrange
+    VectorLogsDecoder decoder =
+        new VectorLogsDecoder(Literal.create(new byte[0], DataTypes.BinaryType));
+
+    // Assert
+    assertEquals(decoder.elementSchema(), Schema.getVectorApplicationLogsSchema());
+  }
+
+  @Test
+  public void testDecode_ReturnsColumnAliasedToSchemaFieldNames() {
+    // Act
+    Column column = VectorLogsDecoder.decode(functions.col("value"));
+
+    // Assert
+    assertTrue(column.expr() instanceof MultiAlias);
+    MultiAlias alias = (MultiAlias) column.expr();
+    assertTrue(alias.child() instanceof VectorLogsDecoder);
+    assertEquals(
+        scala.collection.JavaConverters.seqAsJavaList(alias.names()),
+        Arrays.asList(Schema.getVectorApplicationLogsSchema().fieldNames()));
+  }
+}
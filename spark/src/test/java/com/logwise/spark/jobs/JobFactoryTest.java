@@ -8,6 +8,7 @@ import com.logwise.spark.base.MockSparkSessionHelper;
 import com.logwise.spark.constants.JobName;
 import com.logwise.spark.guice.injectors.ApplicationInjector;
 import com.logwise.spark.guice.modules.MainModule;
+import com.logwise.spark.jobs.impl.CompactLogsInS3SparkJob;
 import com.logwise.spark.jobs.impl.PushLogsToS3SparkJob;
 import com.typesafe.config.Config;
 import java.lang.reflect.Field;
@@ -64,6 +65,18 @@ public class JobFactoryTest {
         job instanceof PushLogsToS3SparkJob, "Job should be instance of PushLogsToS3SparkJob");
   }
 
+  @Test
+  public void testGetSparkJob_WithCompactLogsInS3JobName_ReturnsCorrectJob() {
+    // Act
+    SparkJob job = JobFactory.getSparkJob(JobName.COMPACT_LOGS_IN_S3.getValue(), mockSparkSession);
+
+    // Assert
+    assertTrue(
+        job instanceof CompactLogsInS3SparkJob,
+        "Job should be instance of CompactLogsInS3SparkJob");
+    assertEquals(job.getJobName(), JobName.COMPACT_LOGS_IN_S3);
+  }
+
   @Test(expectedExceptions = IllegalArgumentException.class)
   public void testGetSparkJob_WithInvalidJobName_ThrowsException() {
     // Act - should throw IllegalArgumentException
@@ -0,0 +1,66 @@
+package com.logwise.spark.jobs.impl;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static org.testng.Assert.*;
+
+import com.logwise.spark.constants.JobName;
+import com.logwise.spark.services.LogCompactionService;
+import java.util.function.BooleanSupplier;
+import org.apache.spark.sql.SparkSession;
+import org.mockito.ArgumentCaptor;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/**
+ * Unit tests for CompactLogsInS3SparkJob.
+ *
+ * <p>Tests verify that the job runs one compaction pass and that stop() is seen by the service.
+ */
+public class CompactLogsInS3SparkJobTest {
+
+  private LogCompactionService mockLogCompactionService;
+  private SparkSession mockSparkSession;
+  private CompactLogsInS3SparkJob job;
+
+  @BeforeMethod
+  public void setUp() {
+    mockLogCompactionService = mock(LogCompactionService.class);
+    mockSparkSession = mock(SparkSession.class);
+    job = new CompactLogsInS3SparkJob(mockLogCompactionService, mockSparkSession);
+  }
+
+  @Test
+  public void testGetJobName_ReturnsCompactLogsInS3() {
+    assertEquals(job.getJobName(), JobName.COMPACT_LOGS_IN_S3);
+  }
+
+  @Test
+  public void testStart_RunsOneCompactionPass() throws Exception {
+    // Arrange
+    when(mockLogCompactionService.compact(eq(mockSparkSession), any())).thenReturn(3);
+
+    // Act
+    job.start().join();
+
+    // Assert
+    verify(mockLogCompactionService, times(1)).compact(eq(mockSparkSession), any());
+  }
+
+  @Test
+  public void testStop_IsSeenByTheRunningCompaction() throws Exception {
+    // Arrange
+    ArgumentCaptor<BooleanSupplier> stopRequested = ArgumentCaptor.forClass(BooleanSupplier.class);
+    when(mockLogCompactionService.compact(eq(mockSparkSession), stopRequested.capture()))
+        .thenReturn(0);
+    job.start().join();
+    assertFalse(stopRequested.getValue().getAsBoolean());
+
+    // Act
+    job.stop();
+
+    // Assert
+    assertTrue(stopRequested.getValue().getAsBoolean());
+  }
+}
@@ -68,6 +68,7 @@ public class PushLogsToS3SparkJobTest {
     Map<String, Object> configMap = new HashMap<>();
     configMap.put("app.job.name", "PUSH_LOGS_TO_S3");
     configMap.put("spark.streamingquery.timeout.minutes", 1);
+    configMap.put("spark.streamingquery.longRunning.enable", false);
     configMap.put("spark.streams.name", Collections.singletonList("application-logs-stream-to-s3"));
     configMap.put("tenant.name", "test-tenant");
     configMap.put("kafka.bootstrap.servers.port", "9092");
@@ -114,6 +115,19 @@ public class PushLogsToS3SparkJobTest {
     return mockQuery;
   }
 
+  /**
+   * Makes every run of the queries block until the job interrupts it. Static mocks such as {@link
+   * #setupMockStreamFactory} are not seen by the query thread, the session mock is.
+   */
+  private void blockQueriesUntilStopped() {
+    when(mockSparkSession.newSession())
+        .thenAnswer(
+            invocation -> {
+              new CountDownLatch(1).await();
+              return mockSparkSession;
+            });
+  }
+
   /** Starts the job in a daemon thread and returns the thread. */
   private Thread startJobAsync() {
     Thread thread =
@@ -216,6 +230,27 @@ public class PushLogsToS3SparkJobTest {
     assertEquals(PushLogsToS3SparkJob.getStreamingQueriesCount(), 5);
   }
 
+  @Test
+  public void testMonitorJob_WhenQueriesExitTwice_StartsThemAgain() throws Exception {
+    // Arrange - every run of the queries fails right away and exits its thread
+    CountDownLatch runsLatch = new CountDownLatch(3);
+    when(mockSparkSession.newSession())
+        .thenAnswer(
+            invocation -> {
+              runsLatch.countDown();
+              throw new IllegalStateException("Query failed");
+            });
+
+    Thread startThread = startJobAsync();
+    try {
+      // Assert - the monitor starts a third run after the first two exited
+      assertTrue(runsLatch.await(5, TimeUnit.SECONDS), "Queries should be started again");
+      assertTrue(startThread.isAlive(), "Monitor should keep running");
+    } finally {
+      startThread.interrupt();
+    }
+  }
+
   // ========== Error Handling Tests ==========
 
   @Test
@@ -598,6 +633,7 @@ public class PushLogsToS3SparkJobTest {
 
     Thread startThread = null;
     try (MockedStatic<StreamFactory> mockedFactory = setupMockStreamFactory(mockStream)) {
+      blockQueriesUntilStopped();
       // Start the job
       startThread =
           new Thread(
@@ -704,10 +740,81 @@ public class PushLogsToS3SparkJobTest {
     }
   }
 
+  @Test
+  public void testMonitoringLoop_WhenLongRunning_DoesNotStopOnTimeout() throws Exception {
+    // Arrange - a query that keeps running, and a start time far beyond the timeout
+    Config longRunningConfig = createTestConfigWithTimeout(1, true);
+    PushLogsToS3SparkJob longRunningJob =
+        spy(new PushLogsToS3SparkJob(longRunningConfig, mockSparkSession));
+
+    Stream mockStream = mock(Stream.class);
+    StreamingQuery mockQuery = mock(StreamingQuery.class);
+    CountDownLatch queryStopped = new CountDownLatch(1);
+    doAnswer(
+            invocation -> {
+              queryStopped.await();
+              return null;
+            })
+        .when(mockQuery)
+        .awaitTermination();
+    when(mockStream.startStreams(any(SparkSession.class)))
+        .thenReturn(Collections.singletonList(mockQuery));
+
+    Thread startThread = null;
+    try (MockedStatic<StreamFactory> mockedFactory = setupMockStreamFactory(mockStream)) {
+      // The static mock is not seen by the query thread, which blocks on the session instead
+      when(mockSparkSession.newSession())
+          .thenAnswer(
+              invocation -> {
+                queryStopped.await();
+                return mockSparkSession;
+              });
+      startThread =
+          new Thread(
+              () -> {
+                try {
+                  longRunningJob.start();
+                } catch (Exception e) {
+                  // Expected - monitorJob blocks indefinitely
+                }
+              });
+      startThread.setDaemon(true);
+      startThread.start();
+
+      int waitCount = 0;
+      while (!StaticFieldHelper.getRunningJobs().contains(longRunningJob) && waitCount < 50) {
+        Thread.sleep(100);
+        waitCount++;
+      }
+      Field startTimeField =
+          PushLogsToS3SparkJob.class.getDeclaredField("pushLogsToS3ThreadStartTime");
+      startTimeField.setAccessible(true);
+      startTimeField.set(longRunningJob, System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(2));
+
+      // Act - give the monitoring loop several checks
+      Thread.sleep(1000);
+
+      // Assert
+      verify(longRunningJob, never()).stop();
+      assertTrue(StaticFieldHelper.getRunningJobs().contains(longRunningJob));
+    } finally {
+      queryStopped.countDown();
+      longRunningJob.stop();
+      if (startThread != null) {
+        startThread.interrupt();
+      }
+    }
+  }
+
   private Config createTestConfigWithTimeout(long timeoutMinutes) {
+    return createTestConfigWithTimeout(timeoutMinutes, false);
+  }
+
+  private Config createTestConfigWithTimeout(long timeoutMinutes, boolean longRunning) {
     Map<String, Object> configMap = new HashMap<>();
     configMap.put("app.job.name", "push-logs-to-s3");
     configMap.put("spark.streamingquery.timeout.minutes", timeoutMinutes);
+    configMap.put("spark.streamingquery.longRunning.enable", longRunning);
     configMap.put("spark.streams.name", Collections.singletonList("application-logs-stream-to-s3"));
     return ConfigFactory.parseMap(configMap);
   }
@@ -969,6 +1076,7 @@ public class PushLogsToS3SparkJobTest {
     // Test that startGetPushLogsToS3Runnable sets the start time
     // Arrange
     PushLogsToS3SparkJob newJob = spy(new PushLogsToS3SparkJob(mockConfig, mockSparkSession));
+    blockQueriesUntilStopped();
 
     // Use reflection to call startGetPushLogsToS3Runnable
     try {
@@ -994,6 +1102,8 @@ public class PushLogsToS3SparkJobTest {
       assertTrue(startTimeAfter > 0, "Start time should be a positive timestamp");
     } catch (Exception e) {
       // Reflection might fail, but that's okay
+    } finally {
+      newJob.stop();
     }
   }
 
@@ -1003,6 +1113,7 @@ public class PushLogsToS3SparkJobTest {
     // Arrange
     PushLogsToS3SparkJob newJob = spy(new PushLogsToS3SparkJob(mockConfig, mockSparkSession));
     StaticFieldHelper.reset();
+    blockQueriesUntilStopped();
 
     // Use reflection to call startGetPushLogsToS3Runnable
     try {
@@ -1025,6 +1136,7 @@ public class PushLogsToS3SparkJobTest {
     } catch (Exception e) {
       // Reflection might fail, but that's okay
     } finally {
+      newJob.stop();
       StaticFieldHelper.reset();
     }
   }
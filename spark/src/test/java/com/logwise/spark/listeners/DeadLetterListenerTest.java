@@ -0,0 +1,67 @@
+package com.logwise.spark.listeners;
+
+import static org.mockito.Mockito.*;
+import static org.testng.Assert.*;
+
+import org.apache.spark.sql.streaming.StreamingQueryListener.QueryProgressEvent;
+import org.apache.spark.sql.streaming.StreamingQueryProgress;
+import org.apache.spark.util.LongAccumulator;
+import org.testng.annotations.Test;
+
+/**
+ * Unit tests for DeadLetterListener.
+ *
+ * <p>Tests verify that every micro-batch reads the dead-letter records of its own batch from the
+ * accumulator of the query.
+ */
+public class DeadLetterListenerTest {
+
+  private static QueryProgressEvent progressEvent(String name, long batchId) {
+    StreamingQueryProgress progress = mock(StreamingQueryProgress.class);
+    when(progress.name()).thenReturn(name);
+    when(progress.batchId()).thenReturn(batchId);
+    when(progress.numInputRows()).thenReturn(100L);
+    return new QueryProgressEvent(progress);
+  }
+
+  @Test
+  public void testOnQueryProgress_WithRegisteredQuery_ReadsTheRecordsOfEachBatch() {
+    // Arrange
+    LongAccumulator accumulator = new LongAccumulator();
+    DeadLetterListener.register("dead-letter-listener-test", accumulator);
+    DeadLetterListener listener = new DeadLetterListener();
+    accumulator.add(3L);
+
+    // Act & Assert - the first batch reads its 3 records
+    listener.onQueryProgress(progressEvent("dead-letter-listener-test", 0L));
+    accumulator.add(2L);
+    assertEquals(DeadLetterListener.getBatchDeadLetterRecords("dead-letter-listener-test"), 2L);
+
+    // Act & Assert - a batch without dead letters reads none
+    assertEquals(DeadLetterListener.getBatchDeadLetterRecords("dead-letter-listener-test"), 0L);
+  }
+
+  @Test
+  public void testRegister_AfterRestart_CountsFromZero() {
+    // Arrange
+    LongAccumulator previousRun = new LongAccumulator();
+    DeadLetterListener.register("dead-letter-restart-test", previousRun);
+    previousRun.add(5L);
+    DeadLetterListener.getBatchDeadLetterRecords("dead-letter-restart-test");
+    LongAccumulator nextRun = new LongAccumulator();
+    nextRun.add(1L);
+
+    // Act
+    DeadLetterListener.register("dead-letter-restart-test", nextRun);
+
+    // Assert
+    assertEquals(DeadLetterListener.getBatchDeadLetterRecords("dead-letter-restart-test"), 1L);
+  }
+
+  @Test
+  public void testOnQueryProgress_WithUnknownQuery_IsIgnored() {
+    // Act & Assert - no accumulator, nothing to read and nothing thrown
+    new DeadLetterListener().onQueryProgress(progressEvent("unregistered-query", 0L));
+    assertEquals(DeadLetterListener.getBatchDeadLetterRecords("unregistered-query"), 0L);
+  }
+}
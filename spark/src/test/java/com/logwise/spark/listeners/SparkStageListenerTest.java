@@ -6,11 +6,17 @@ import static org.testng.Assert.*;
 import com.logwise.spark.constants.Constants;
 import com.logwise.spark.dto.entity.SparkStageHistory;
 import com.logwise.spark.jobs.impl.PushLogsToS3SparkJob;
+import com.logwise.spark.services.SparkMasterService;
 import com.logwise.spark.services.SparkScaleService;
 import com.logwise.spark.singleton.CurrentSparkSession;
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
 import java.lang.reflect.Field;
+import java.util.HashMap;
 import java.util.Map;
+import java.util.Properties;
 import java.util.Set;
+import java.util.UUID;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import org.apache.spark.executor.InputMetrics;
@@ -20,8 +26,12 @@ import org.apache.spark.scheduler.SparkListenerStageCompleted;
 import org.apache.spark.scheduler.SparkListenerStageSubmitted;
 import org.apache.spark.scheduler.StageInfo;
 import org.apache.spark.sql.SparkSession;
+import org.apache.spark.sql.execution.streaming.StreamExecution;
 import org.apache.spark.sql.streaming.StreamingQuery;
+import org.apache.spark.sql.streaming.StreamingQueryListener.QueryProgressEvent;
+import org.apache.spark.sql.streaming.StreamingQueryListener.QueryStartedEvent;
 import org.apache.spark.sql.streaming.StreamingQueryManager;
+import org.apache.spark.sql.streaming.StreamingQueryProgress;
 import org.mockito.MockedStatic;
 import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeMethod;
@@ -36,17 +46,22 @@ import scala.Option;
  * behavior rather than implementation details.
  */
 public class SparkStageListenerTest {
+  private static final String QUERY_ID = "2c1d7a4e-0000-0000-0000-000000000001";
 
   private SparkStageListener listener;
+  private Config config;
   private SparkScaleService mockSparkScaleService;
+  private SparkMasterService mockSparkMasterService;
   private Map<String, Integer> stageCompletionMap;
   private Map<String, Integer> stageSubmittedMap;
   private Set<Integer> pendingStopStageIds;
 
   @BeforeMethod
   public void setUp() throws Exception {
+    config = createConfig(false);
     mockSparkScaleService = mock(SparkScaleService.class);
-    listener = new SparkStageListener(mockSparkScaleService);
+    mockSparkMasterService = mock(SparkMasterService.class);
+    listener = new SparkStageListener(config, mockSparkScaleService, mockSparkMasterService);
 
     // Reset static state using reflection
     stageCompletionMap = getStaticField("STAGE_COMPLETION_MAP");
@@ -70,6 +85,13 @@ public class SparkStageListenerTest {
     resetStageMetrics();
   }
 
+  private static Config createConfig(boolean longRunning) {
+    Map<String, Object> configMap = new HashMap<>();
+    configMap.put("tenant.name", "test-tenant");
+    configMap.put(Constants.CONFIG_KEY_STREAMING_QUERY_LONG_RUNNING, longRunning);
+    return ConfigFactory.parseMap(configMap);
+  }
+
   @SuppressWarnings("unchecked")
   private <T> T getStaticField(String fieldName) throws Exception {
     Field field = SparkStageListener.class.getDeclaredField(fieldName);
@@ -78,27 +100,42 @@ public class SparkStageListenerTest {
   }
 
   private void resetStageMetrics() throws Exception {
-    // Create a new instance of StageMetrics and set it
-    Class<?> stageMetricsClass =
-        Class.forName("com.logwise.spark.listeners.SparkStageListener$StageMetrics");
-    java.lang.reflect.Constructor<?> constructor = stageMetricsClass.getDeclaredConstructor();
-    constructor.setAccessible(true);
-    Object newMetrics = constructor.newInstance();
-
-    Field field = SparkStageListener.class.getDeclaredField("stageMetrics");
-    field.setAccessible(true);
-    field.set(null, newMetrics);
+    Map<String, ?> stageMetrics = getStaticField("STAGE_METRICS");
+    Map<Integer, String> stageQueryIds = getStaticField("STAGE_QUERY_IDS");
+    Set<String> batchStageQueryIds = getStaticField("BATCH_STAGE_QUERY_IDS");
+    stageMetrics.clear();
+    stageQueryIds.clear();
+    batchStageQueryIds.clear();
+  }
+
+  /** Returns the metrics collected for stages that ran outside a streaming query. */
+  @SuppressWarnings("unchecked")
+  private Object getStageMetrics() throws Exception {
+    Map<String, Object> stageMetrics = getStaticField("STAGE_METRICS");
+    return stageMetrics.computeIfAbsent(
+        "",
+        key -> {
+          try {
+            java.lang.reflect.Constructor<?> constructor =
+                Class.forName("com.logwise.spark.listeners.SparkStageListener$StageMetrics")
+                    .getDeclaredConstructor();
+            constructor.setAccessible(true);
+            return constructor.newInstance();
+          } catch (Exception e) {
+            throw new IllegalStateException(e);
+          }
+        });
   }
 
   private long getMetricValue(String fieldName) throws Exception {
-    Object stageMetrics = getStaticField("stageMetrics");
+    Object stageMetrics = getStageMetrics();
     Field field = stageMetrics.getClass().getDeclaredField(fieldName);
     field.setAccessible(true);
     return (Long) field.get(stageMetrics);
   }
 
   private void setMetricValue(String fieldName, long value) throws Exception {
-    Object stageMetrics = getStaticField("stageMetrics");
+    Object stageMetrics = getStageMetrics();
     Field field = stageMetrics.getClass().getDeclaredField(fieldName);
     field.setAccessible(true);
     field.set(stageMetrics, value);
@@ -149,7 +186,7 @@ public class SparkStageListenerTest {
       mockedJob.when(PushLogsToS3SparkJob::getStreamingQueriesCount).thenReturn(2);
 
       // Act
-      SparkListenerStageSubmitted stageSubmitted = createStageSubmitted(stageName, stageId);
+      SparkListenerStageSubmitted stageSubmitted = createQueryStageSubmitted(stageName, stageId);
       listener.onStageSubmitted(stageSubmitted);
 
       // Assert - stopStage() should not be called because stage is not already
@@ -238,10 +275,8 @@ public class SparkStageListenerTest {
   public void testOnStageSubmitted_WhenStageAlreadyCompleted_CallsStopStage() throws Exception {
     // ==================== SETUP: Get actual stage name from Constants
     // ====================
-    // Use the actual stage name that maps to APPLICATION_LOGS_TO_S3_QUERY_NAME
-    // This ensures we're testing with real stage names used in production
-    String stageName =
-        Constants.QUERY_NAME_TO_STAGE_MAP.get(Constants.APPLICATION_LOGS_TO_S3_QUERY_NAME);
+    // The stages of a streaming query are tracked under the id of the query
+    String stageName = QUERY_ID;
     int stageId = 1;
 
     // ==================== ARRANGE: Set up test conditions ====================
@@ -282,6 +317,7 @@ public class SparkStageListenerTest {
       // Mock active streaming query that matches our stage
       StreamingQuery mockQuery = mock(StreamingQuery.class);
       when(mockQuery.name()).thenReturn(Constants.APPLICATION_LOGS_TO_S3_QUERY_NAME);
+      when(mockQuery.id()).thenReturn(UUID.fromString(QUERY_ID));
       when(mockQueryManager.active()).thenReturn(new StreamingQuery[] {mockQuery});
 
       // Mock query stop methods (called by stopStage() thread)
@@ -294,7 +330,7 @@ public class SparkStageListenerTest {
       }
 
       // ==================== ACT: Trigger the event ====================
-      SparkListenerStageSubmitted stageSubmitted = createStageSubmitted(stageName, stageId);
+      SparkListenerStageSubmitted stageSubmitted = createQueryStageSubmitted(stageName, stageId);
       listener.onStageSubmitted(stageSubmitted);
 
       // ==================== WAIT: Allow async thread to execute ====================
@@ -686,7 +722,8 @@ public class SparkStageListenerTest {
   public void testCompleteExecution_WithNullSparkScaleService_HandlesGracefully() throws Exception {
     // Test the branch: if (sparkScaleService == null) - line 157-161
     // Arrange
-    SparkStageListener listenerWithNullService = new SparkStageListener(null);
+    SparkStageListener listenerWithNullService =
+        new SparkStageListener(config, null, mockSparkMasterService);
     SparkStageHistory mockHistory = new SparkStageHistory();
     when(mockSparkScaleService.getCurrentSparkStageHistory()).thenReturn(mockHistory);
 
@@ -765,8 +802,7 @@ public class SparkStageListenerTest {
   public void testStopStage_HandlesExceptionInStopQuery() throws Exception {
     // Test the exception handling branch in stopStage() when query.stop() throws
     // Arrange
-    String stageName =
-        Constants.QUERY_NAME_TO_STAGE_MAP.get(Constants.APPLICATION_LOGS_TO_S3_QUERY_NAME);
+    String stageName = QUERY_ID;
     int stageId = 1;
     stageCompletionMap.put(stageName, 1);
     stageSubmittedMap.put(stageName, 1);
@@ -787,6 +823,7 @@ public class SparkStageListenerTest {
 
       StreamingQuery mockQuery = mock(StreamingQuery.class);
       when(mockQuery.name()).thenReturn(Constants.APPLICATION_LOGS_TO_S3_QUERY_NAME);
+      when(mockQuery.id()).thenReturn(UUID.fromString(QUERY_ID));
       when(mockQueryManager.active()).thenReturn(new StreamingQuery[] {mockQuery});
 
       // Mock query.stop() to throw exception
@@ -799,7 +836,7 @@ public class SparkStageListenerTest {
       }
 
       // Act
-      SparkListenerStageSubmitted stageSubmitted = createStageSubmitted(stageName, stageId);
+      SparkListenerStageSubmitted stageSubmitted = createQueryStageSubmitted(stageName, stageId);
       listener.onStageSubmitted(stageSubmitted);
 
       // Wait for thread to process
@@ -813,10 +850,9 @@ public class SparkStageListenerTest {
 
   @Test
   public void testStopStage_WhenStageNameDoesNotMatch_DoesNotStopQuery() throws Exception {
-    // Test the else branch: when stageName doesn't match expectedStageName
+    // Test the else branch: when stageName is not the id of the query
     // Arrange
-    String stageName =
-        Constants.QUERY_NAME_TO_STAGE_MAP.get(Constants.APPLICATION_LOGS_TO_S3_QUERY_NAME);
+    String stageName = QUERY_ID;
     int stageId = 1;
     stageCompletionMap.put(stageName, 1);
     stageSubmittedMap.put(stageName, 1);
@@ -835,32 +871,30 @@ public class SparkStageListenerTest {
       StreamingQueryManager mockQueryManager = mock(StreamingQueryManager.class);
       when(mockSparkSession.streams()).thenReturn(mockQueryManager);
 
-      // Create a query with a name that doesn't match the stage
+      // Create a query with an id that doesn't match the stage
       StreamingQuery mockQuery = mock(StreamingQuery.class);
-      when(mockQuery.name()).thenReturn("different-query-name"); // Doesn't match stage
+      when(mockQuery.name()).thenReturn(Constants.APPLICATION_LOGS_TO_S3_QUERY_NAME);
+      when(mockQuery.id()).thenReturn(UUID.randomUUID()); // Doesn't match stage
       when(mockQueryManager.active()).thenReturn(new StreamingQuery[] {mockQuery});
 
       // Act
-      SparkListenerStageSubmitted stageSubmitted = createStageSubmitted(stageName, stageId);
+      SparkListenerStageSubmitted stageSubmitted = createQueryStageSubmitted(stageName, stageId);
       listener.onStageSubmitted(stageSubmitted);
 
       // Wait for thread to process
       Thread.sleep(300);
 
       // Assert - Query should not be stopped because stageName doesn't match
-      // The else branch (when stageName != expectedStageName) should be executed
       verify(mockQuery, never()).stop();
     }
   }
 
   @Test
-  public void testStopStage_WhenQueryNameNotInMap_DoesNotStopQuery() throws Exception {
-    // Test the case where query name is not in QUERY_NAME_TO_STAGE_MAP
-    // This tests the branch: if (stageName.equals(expectedStageName))
-    // when expectedStageName is null (query name not in map)
+  public void testStopStage_WhenStageIsNotRunByAQuery_DoesNotStopQuery() throws Exception {
+    // Test the case where the stage was not run by a streaming query and is tracked under
+    // its name, which is never the id of a query
     // Arrange
-    String stageName =
-        Constants.QUERY_NAME_TO_STAGE_MAP.get(Constants.APPLICATION_LOGS_TO_S3_QUERY_NAME);
+    String stageName = "start at ApplicationLogsStreamToS3.java:68";
     int stageId = 1;
     stageCompletionMap.put(stageName, 1);
     stageSubmittedMap.put(stageName, 1);
@@ -879,9 +913,9 @@ public class SparkStageListenerTest {
       StreamingQueryManager mockQueryManager = mock(StreamingQueryManager.class);
       when(mockSparkSession.streams()).thenReturn(mockQueryManager);
 
-      // Create a query with a name that's not in QUERY_NAME_TO_STAGE_MAP
       StreamingQuery mockQuery = mock(StreamingQuery.class);
-      when(mockQuery.name()).thenReturn("unknown-query-name"); // Not in map
+      when(mockQuery.name()).thenReturn(Constants.APPLICATION_LOGS_TO_S3_QUERY_NAME);
+      when(mockQuery.id()).thenReturn(UUID.fromString(QUERY_ID));
       when(mockQueryManager.active()).thenReturn(new StreamingQuery[] {mockQuery});
 
       // Act
@@ -891,8 +925,7 @@ public class SparkStageListenerTest {
       // Wait for thread to process
       Thread.sleep(300);
 
-      // Assert - Query should not be stopped because query name is not in map
-      // expectedStageName will be null, so stageName.equals(null) will be false
+      // Assert - Query should not be stopped because the stage name is not its id
       verify(mockQuery, never()).stop();
     }
   }
@@ -969,8 +1002,239 @@ public class SparkStageListenerTest {
     assertEquals(totalCompleted, threadCount, "Total completed count should match thread count");
   }
 
+  // ==================== Test micro-batch completion ====================
+
+  @Test
+  public void testOnStageSubmitted_WithTwoStagesInOneBatch_StopsOnlyAtTheNextBatch() {
+    // Arrange
+    when(mockSparkScaleService.getCurrentSparkStageHistory()).thenReturn(new SparkStageHistory());
+
+    try (MockedStatic<PushLogsToS3SparkJob> mockedJob = mockStatic(PushLogsToS3SparkJob.class);
+        MockedStatic<CurrentSparkSession> mockedSession = mockStatic(CurrentSparkSession.class)) {
+      mockedJob.when(PushLogsToS3SparkJob::getStreamingQueriesCount).thenReturn(1);
+
+      // Act - the foreachBatch writer of batch 0 runs a second stage after the first completed
+      runQueryStage(QUERY_ID, 1, 100L, 1000L, 2000000L, 1000000L);
+      runQueryStage(QUERY_ID, 2, 100L, 1000L, 2500000L, 2000000L);
+
+      // Assert - the query is not stopped within its micro-batch
+      assertFalse(stageCompletionMap.containsKey(QUERY_ID));
+      mockedSession.verifyNoInteractions();
+      mockedJob.verify(PushLogsToS3SparkJob::stopAllRunningJobs, never());
+
+      // Act - batch 0 completes and the first stage of batch 1 is submitted
+      listener.onOtherEvent(createQueryProgressEvent(QUERY_ID, 0L));
+      listener.onStageSubmitted(createQueryStageSubmitted(QUERY_ID, 3));
+
+      // Assert
+      assertEquals(stageCompletionMap.get(QUERY_ID), Integer.valueOf(1));
+      mockedJob.verify(PushLogsToS3SparkJob::stopAllRunningJobs);
+    }
+  }
+
+  @Test
+  public void testOnOtherEvent_WhenNoStageRanInTheBatch_DoesNotCompleteTheQuery() {
+    // Act
+    listener.onOtherEvent(createQueryProgressEvent(QUERY_ID, 0L));
+
+    // Assert
+    assertFalse(stageCompletionMap.containsKey(QUERY_ID));
+  }
+
+  @Test
+  public void testOnOtherEvent_WhenQueryStartedAgain_CountsFromZero() {
+    // Arrange - a previous run of the query completed a micro-batch
+    runQueryStage(QUERY_ID, 1, 100L, 1000L, 2000000L, 1000000L);
+    listener.onOtherEvent(createQueryProgressEvent(QUERY_ID, 0L));
+
+    // Act
+    listener.onOtherEvent(
+        new QueryStartedEvent(
+            UUID.fromString(QUERY_ID),
+            UUID.randomUUID(),
+            Constants.APPLICATION_LOGS_TO_S3_QUERY_NAME,
+            "2024-01-01T00:00:00.000Z"));
+
+    // Assert
+    assertFalse(stageCompletionMap.containsKey(QUERY_ID));
+    assertFalse(stageSubmittedMap.containsKey(QUERY_ID));
+  }
+
+  // ==================== Test long-running mode ====================
+
+  @Test
+  public void testOnStageSubmitted_WhenLongRunningAndStageAlreadyCompleted_DoesNotStopQuery() {
+    // Arrange
+    listener =
+        new SparkStageListener(createConfig(true), mockSparkScaleService, mockSparkMasterService);
+    stageCompletionMap.put("stage1", 1);
+
+    try (MockedStatic<CurrentSparkSession> mockedSession = mockStatic(CurrentSparkSession.class);
+        MockedStatic<PushLogsToS3SparkJob> mockedJob = mockStatic(PushLogsToS3SparkJob.class)) {
+      // Act
+      listener.onStageSubmitted(createStageSubmitted("stage1", 1));
+
+      // Assert
+      assertEquals(stageSubmittedMap.get("stage1"), Integer.valueOf(1));
+      mockedSession.verifyNoInteractions();
+      mockedJob.verifyNoInteractions();
+    }
+  }
+
+  @Test
+  public void testOnOtherEvent_WhenLongRunning_ReportsStageHistoryPerBatch() throws Exception {
+    // Arrange
+    listener =
+        new SparkStageListener(createConfig(true), mockSparkScaleService, mockSparkMasterService);
+    when(mockSparkMasterService.getCoresUsed()).thenReturn(8);
+    runQueryStage(QUERY_ID, 1, 100L, 1000L, 2000000L, 1000000L);
+
+    // Act
+    listener.onOtherEvent(createQueryProgressEvent(QUERY_ID, 7L));
+
+    // Assert
+    org.mockito.ArgumentCaptor<SparkStageHistory> captor =
+        org.mockito.ArgumentCaptor.forClass(SparkStageHistory.class);
+    verify(mockSparkScaleService, timeout(2000)).updateStageHistory(captor.capture());
+    SparkStageHistory history = captor.getValue();
+    assertEquals(history.getInputRecords(), Long.valueOf(100L));
+    assertEquals(history.getOutputBytes(), Long.valueOf(1000L));
+    assertEquals(history.getSubmissionTime(), Long.valueOf(1000000L));
+    assertEquals(history.getCompletionTime(), Long.valueOf(2000000L));
+    assertEquals(history.getCoresUsed(), Integer.valueOf(8));
+    assertEquals(history.getTenant(), "test-tenant");
+    assertEquals(history.getStatus(), "succeeded");
+    Map<String, ?> stageMetrics = getStaticField("STAGE_METRICS");
+    assertFalse(stageMetrics.containsKey(QUERY_ID), "Metrics should reset for the next batch");
+  }
+
+  @Test
+  public void testOnOtherEvent_WhenLongRunningWithTwoQueries_ReportsOnlyTheQueryOfTheBatch() {
+    // Arrange
+    listener =
+        new SparkStageListener(createConfig(true), mockSparkScaleService, mockSparkMasterService);
+    String otherQueryId = "2c1d7a4e-0000-0000-0000-000000000002";
+    runQueryStage(QUERY_ID, 1, 100L, 1000L, 2000000L, 1000000L);
+    runQueryStage(otherQueryId, 2, 900L, 9000L, 2500000L, 1500000L);
+
+    // Act
+    listener.onOtherEvent(createQueryProgressEvent(QUERY_ID, 1L));
+    listener.onOtherEvent(createQueryProgressEvent(otherQueryId, 1L));
+
+    // Assert - each batch reports the stages of its own query
+    org.mockito.ArgumentCaptor<SparkStageHistory> captor =
+        org.mockito.ArgumentCaptor.forClass(SparkStageHistory.class);
+    verify(mockSparkScaleService, timeout(2000).times(2)).updateStageHistory(captor.capture());
+    assertEquals(captor.getAllValues().get(0).getInputRecords(), Long.valueOf(100L));
+    assertEquals(captor.getAllValues().get(1).getInputRecords(), Long.valueOf(900L));
+  }
+
+  @Test
+  public void testOnOtherEvent_WhenLongRunning_DoesNotReportOnListenerThread() throws Exception {
+    // Arrange - the Spark master call blocks until the test releases it
+    listener =
+        new SparkStageListener(createConfig(true), mockSparkScaleService, mockSparkMasterService);
+    CountDownLatch release = new CountDownLatch(1);
+    when(mockSparkMasterService.getCoresUsed())
+        .thenAnswer(
+            invocation -> {
+              release.await(5, TimeUnit.SECONDS);
+              return 8;
+            });
+    runQueryStage(QUERY_ID, 1, 100L, 1000L, 2000000L, 1000000L);
+
+    // Act
+    listener.onOtherEvent(createQueryProgressEvent(QUERY_ID, 1L));
+
+    // Assert - the event returned before the report was sent
+    verify(mockSparkScaleService, never()).updateStageHistory(any());
+    release.countDown();
+    verify(mockSparkScaleService, timeout(2000)).updateStageHistory(any());
+  }
+
+  @Test
+  public void testOnOtherEvent_WhenLongRunningAndCoresUnavailable_KeepsCurrentCores() {
+    // Arrange
+    listener =
+        new SparkStageListener(createConfig(true), mockSparkScaleService, mockSparkMasterService);
+    SparkStageHistory currentHistory = new SparkStageHistory();
+    currentHistory.setCoresUsed(4);
+    when(mockSparkScaleService.getCurrentSparkStageHistory()).thenReturn(currentHistory);
+    when(mockSparkMasterService.getCoresUsed()).thenReturn(null);
+    runQueryStage(QUERY_ID, 1, 100L, 1000L, 2000000L, 1000000L);
+
+    // Act
+    listener.onOtherEvent(createQueryProgressEvent(QUERY_ID, 1L));
+
+    // Assert
+    verify(mockSparkScaleService, timeout(2000))
+        .updateStageHistory(argThat(history -> Integer.valueOf(4).equals(history.getCoresUsed())));
+  }
+
+  @Test
+  public void testOnOtherEvent_WhenLongRunningAndNoStageRan_DoesNotReport() throws Exception {
+    // Arrange
+    listener =
+        new SparkStageListener(createConfig(true), mockSparkScaleService, mockSparkMasterService);
+
+    // Act
+    listener.onOtherEvent(createQueryProgressEvent(QUERY_ID, 1L));
+
+    // Assert
+    Thread.sleep(200);
+    verify(mockSparkScaleService, never()).updateStageHistory(any());
+  }
+
+  @Test
+  public void testOnOtherEvent_WhenNotLongRunning_DoesNotReport() throws Exception {
+    // Arrange
+    runQueryStage(QUERY_ID, 1, 100L, 1000L, 2000000L, 1000000L);
+
+    // Act
+    listener.onOtherEvent(createQueryProgressEvent(QUERY_ID, 1L));
+
+    // Assert
+    Thread.sleep(200);
+    verify(mockSparkScaleService, never()).updateStageHistory(any());
+  }
+
   // ==================== Helper Methods ====================
 
+  private QueryProgressEvent createQueryProgressEvent(String queryId, long batchId) {
+    StreamingQueryProgress progress = mock(StreamingQueryProgress.class);
+    when(progress.id()).thenReturn(UUID.fromString(queryId));
+    when(progress.batchId()).thenReturn(batchId);
+    when(progress.name()).thenReturn(Constants.APPLICATION_LOGS_TO_S3_QUERY_NAME);
+    return new QueryProgressEvent(progress);
+  }
+
+  /** Submits and completes a stage run by the given streaming query. */
+  private void runQueryStage(
+      String queryId,
+      int stageId,
+      long inputRecords,
+      long outputBytes,
+      long completionTime,
+      long submissionTime) {
+    listener.onStageSubmitted(createQueryStageSubmitted(queryId, stageId));
+
+    SparkListenerStageCompleted stageCompleted =
+        createStageCompleted(
+            "stage" + stageId, inputRecords, outputBytes, completionTime, submissionTime);
+    when(stageCompleted.stageInfo().stageId()).thenReturn(stageId);
+    listener.onStageCompleted(stageCompleted);
+  }
+
+  /** Creates the submission of a stage run by the given streaming query. */
+  private SparkListenerStageSubmitted createQueryStageSubmitted(String queryId, int stageId) {
+    SparkListenerStageSubmitted stageSubmitted =
+        createStageSubmitted("start at ApplicationLogsStreamToS3.java:68", stageId);
+    Properties properties = new Properties();
+    properties.setProperty(StreamExecution.QUERY_ID_KEY(), queryId);
+    when(stageSubmitted.properties()).thenReturn(properties);
+    return stageSubmitted;
+  }
+
   private SparkListenerStageSubmitted createStageSubmitted(String stageName, int stageId) {
     SparkListenerStageSubmitted stageSubmitted = mock(SparkListenerStageSubmitted.class);
     StageInfo stageInfo = mock(StageInfo.class);
@@ -0,0 +1,59 @@
+package com.logwise.spark.listeners;
+
+import static org.mockito.Mockito.*;
+import static org.testng.Assert.*;
+
+import com.logwise.spark.stream.source.TriggerSizeController;
+import com.typesafe.config.ConfigFactory;
+import java.util.HashMap;
+import java.util.Map;
+import org.apache.spark.sql.streaming.StreamingQueryListener.QueryProgressEvent;
+import org.apache.spark.sql.streaming.StreamingQueryProgress;
+import org.testng.annotations.Test;
+
+/**
+ * Unit tests for TriggerSizeListener.
+ *
+ * <p>Tests verify that micro-batch progress reaches the trigger size controller of the query.
+ */
+public class TriggerSizeListenerTest {
+
+  private static QueryProgressEvent progressEvent(String name, long rows, long durationMillis) {
+    StreamingQueryProgress progress = mock(StreamingQueryProgress.class);
+    when(progress.name()).thenReturn(name);
+    when(progress.numInputRows()).thenReturn(rows);
+    when(progress.batchDuration()).thenReturn(durationMillis);
+    return new QueryProgressEvent(progress);
+  }
+
+  @Test
+  public void testOnQueryProgress_WithRegisteredQuery_ResizesOffsetsPerTrigger() {
+    // Arrange
+    Map<String, Object> configMap = new HashMap<>();
+    configMap.put("spark.processing.time.seconds", 60);
+    configMap.put("spark.offsetPerTrigger.min", 1_000L);
+    configMap.put("spark.offsetPerTrigger.max", 1_000_000L);
+    configMap.put("spark.offsetPerTrigger.adaptive.targetBatchFraction", 0.8);
+    configMap.put("spark.offsetPerTrigger.adaptive.maxStepFactor", 2.0);
+    TriggerSizeController controller =
+        TriggerSizeController.register(
+            "trigger-size-listener-test", ConfigFactory.parseMap(configMap), 100_000L);
+
+    // Act
+    new TriggerSizeListener()
+        .onQueryProgress(progressEvent("trigger-size-listener-test", 100_000L, 60_000L));
+
+    // Assert
+    assertEquals(controller.getOffsetsPerTrigger(), 80_000L);
+  }
+
+  @Test
+  public void testOnQueryProgress_WithUnknownQuery_IsIgnored() {
+    // Arrange
+    QueryProgressEvent event = progressEvent("unregistered-query", 100_000L, 60_000L);
+
+    // Act & Assert - no controller, nothing to update and nothing thrown
+    new TriggerSizeListener().onQueryProgress(event);
+    assertFalse(TriggerSizeController.get("unregistered-query").isPresent());
+  }
+}
@@ -1,5 +1,6 @@
 package com.logwise.spark.protobuf;
 
+import com.google.protobuf.DynamicMessage;
 import com.google.protobuf.InvalidProtocolBufferException;
 import com.google.protobuf.Timestamp;
 import org.testng.Assert;
@@ -213,4 +214,54 @@ public class VectorLogsSerializationTest {
     Assert.assertEquals(deserialized.getTimestamp().getSeconds(), timestamp.getSeconds());
     Assert.assertEquals(deserialized.getTimestamp().getNanos(), timestamp.getNanos());
   }
+
+  @Test
+  public void testSerializeDeserialize_WithHostPodAndAttributes_PreservesThem()
+      throws InvalidProtocolBufferException {
+    // Arrange
+    VectorLogs original =
+        VectorLogs.newBuilder()
+            .setMessage("Request failed")
+            .setHost("ip-10-0-0-1")
+            .setPod("api-service-7d9f-x2k4")
+            .putAttributes("http.method", "GET")
+            .putAttributes("http.status_code", "500")
+            .build();
+
+    // Act
+    VectorLogs deserialized = VectorLogs.parseFrom(original.toByteArray());
+
+    // Assert
+    Assert.assertEquals(deserialized, original);
+    Assert.assertEquals(deserialized.getHost(), "ip-10-0-0-1");
+    Assert.assertEquals(deserialized.getPod(), "api-service-7d9f-x2k4");
+    Assert.assertEquals(deserialized.getAttributesCount(), 2);
+    Assert.assertEquals(deserialized.getAttributesOrThrow("http.status_code"), "500");
+    Assert.assertEquals(deserialized.getAttributesOrDefault("user.id", "none"), "none");
+  }
+
+  @Test
+  public void testDescriptor_WithDynamicMessage_MatchesGeneratedCode()
+      throws InvalidProtocolBufferException {
+    // Arrange
+    VectorLogs original =
+        VectorLogs.newBuilder()
+            .setServiceName("api-service")
+            .setLogLevel("ERROR")
+            .setHost("ip-10-0-0-1")
+            .setPod("api-service-7d9f-x2k4")
+            .putAttributes("env", "prod")
+            .build();
+
+    // Act
+    DynamicMessage dynamic =
+        DynamicMessage.parseFrom(VectorLogs.getDescriptor(), original.toByteArray());
+
+    // Assert
+    Assert.assertEquals(VectorLogs.parseFrom(dynamic.toByteArray()), original);
+    Assert.assertTrue(
+        VectorLogs.getDescriptor()
+            .findFieldByNumber(VectorLogs.ATTRIBUTES_FIELD_NUMBER)
+            .isMapField());
+  }
 }
@@ -3,6 +3,9 @@ package com.logwise.spark.schema;
 import static org.testng.Assert.*;
 
 import com.logwise.spark.constants.Constants;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Collections;
 import org.apache.spark.sql.Dataset;
 import org.apache.spark.sql.Row;
 import org.apache.spark.sql.RowFactory;
@@ -42,11 +45,26 @@ public class SchemaIntegrationTest {
     }
   }
 
+  private static Timestamp timestamp(String isoInstant) {
+    return Timestamp.from(Instant.parse(isoInstant));
+  }
+
+  private static Row logRow(Object message, Timestamp timestamp, String serviceName) {
+    return RowFactory.create(
+        message,
+        timestamp,
+        serviceName,
+        "INFO",
+        "ip-10-0-0-1",
+        "api-service-7d9f-x2k4",
+        Collections.singletonMap("http.method", "GET"));
+  }
+
   @Test
   public void testCreateDataFrame_WithValidSchema_ReturnsDataFrame() {
     // Arrange
     StructType schema = Schema.getVectorApplicationLogsSchema();
-    Row row = RowFactory.create("Test log message", "2021-01-01T00:00:00Z", "api-service");
+    Row row = logRow("Test log message", timestamp("2021-01-01T00:00:00Z"), "api-service");
 
     // Act
     Dataset<Row> df = spark.createDataFrame(java.util.Arrays.asList(row), schema);
@@ -61,7 +79,7 @@ public class SchemaIntegrationTest {
   public void testCreateDataFrame_WithAllRequiredFields_Succeeds() {
     // Arrange
     StructType schema = Schema.getVectorApplicationLogsSchema();
-    Row row = RowFactory.create("Message", "2021-01-01T00:00:00Z", "ServiceName");
+    Row row = logRow("Message", timestamp("2021-01-01T00:00:00Z"), "ServiceName");
 
     // Act
     Dataset<Row> df = spark.createDataFrame(java.util.Arrays.asList(row), schema);
@@ -69,10 +87,14 @@ public class SchemaIntegrationTest {
     // Assert
     assertEquals(df.count(), 1L);
     StructField[] fields = df.schema().fields();
-    assertEquals(fields.length, 3);
+    assertEquals(fields.length, 7);
     assertEquals(fields[0].name(), Constants.APPLICATION_LOG_COLUMN_MESSAGE);
     assertEquals(fields[1].name(), Constants.APPLICATION_LOG_COLUMN_TIMESTAMP);
     assertEquals(fields[2].name(), Constants.APPLICATION_LOG_COLUMN_SERVICE_NAME);
+    assertEquals(fields[3].name(), Constants.APPLICATION_LOG_COLUMN_LOG_LEVEL);
+    assertEquals(fields[4].name(), Constants.APPLICATION_LOG_COLUMN_HOST);
+    assertEquals(fields[5].name(), Constants.APPLICATION_LOG_COLUMN_POD);
+    assertEquals(fields[6].name(), Constants.APPLICATION_LOG_COLUMN_ATTRIBUTES);
   }
 
   @Test(expectedExceptions = ArrayIndexOutOfBoundsException.class)
@@ -80,7 +102,7 @@ public class SchemaIntegrationTest {
     // Arrange
     StructType schema = Schema.getVectorApplicationLogsSchema();
     // Create row with only 2 fields instead of 3
-    Row incompleteRow = RowFactory.create("Message", "2021-01-01T00:00:00Z");
+    Row incompleteRow = RowFactory.create("Message", timestamp("2021-01-01T00:00:00Z"));
 
     // Act - Spark creates DataFrame but Row only has 2 fields
     Dataset<Row> df = spark.createDataFrame(java.util.Arrays.asList(incompleteRow), schema);
@@ -91,7 +113,7 @@ public class SchemaIntegrationTest {
     Row result = df.first();
     // First 2 fields should have values
     assertEquals(result.getString(0), "Message");
-    assertEquals(result.getString(1), "2021-01-01T00:00:00Z");
+    assertEquals(result.getTimestamp(1), timestamp("2021-01-01T00:00:00Z"));
     // Accessing field beyond Row size should throw ArrayIndexOutOfBoundsException
     result.getString(2); // ServiceName - should throw
   }
@@ -102,9 +124,9 @@ public class SchemaIntegrationTest {
     StructType schema = Schema.getVectorApplicationLogsSchema();
     // Create row with integer instead of string for message field
     Row wrongTypeRow =
-        RowFactory.create(
+        logRow(
             12345, // Wrong type - should be String
-            "2021-01-01T00:00:00Z",
+            timestamp("2021-01-01T00:00:00Z"),
             "ServiceName");
 
     // Act - should throw IllegalArgumentException
@@ -115,8 +137,8 @@ public class SchemaIntegrationTest {
   public void testQueryDataFrame_WithSchema_ExecutesSuccessfully() {
     // Arrange
     StructType schema = Schema.getVectorApplicationLogsSchema();
-    Row row1 = RowFactory.create("Error occurred", "2021-01-01T00:00:00Z", "api-service");
-    Row row2 = RowFactory.create("Info message", "2021-01-01T00:01:00Z", "api-service");
+    Row row1 = logRow("Error occurred", timestamp("2021-01-01T00:00:00Z"), "api-service");
+    Row row2 = logRow("Info message", timestamp("2021-01-01T00:01:00Z"), "api-service");
 
     Dataset<Row> df = spark.createDataFrame(java.util.Arrays.asList(row1, row2), schema);
 
@@ -133,8 +155,8 @@ public class SchemaIntegrationTest {
   public void testFilterDataFrame_ByMessageField_ReturnsFilteredResults() {
     // Arrange
     StructType schema = Schema.getVectorApplicationLogsSchema();
-    Row row1 = RowFactory.create("Error occurred", "2021-01-01T00:00:00Z", "api-service");
-    Row row2 = RowFactory.create("Info message", "2021-01-01T00:01:00Z", "api-service");
+    Row row1 = logRow("Error occurred", timestamp("2021-01-01T00:00:00Z"), "api-service");
+    Row row2 = logRow("Info message", timestamp("2021-01-01T00:01:00Z"), "api-service");
 
     Dataset<Row> df = spark.createDataFrame(java.util.Arrays.asList(row1, row2), schema);
 
@@ -158,7 +180,7 @@ public class SchemaIntegrationTest {
   public void testSelectColumns_WithSchema_ReturnsCorrectColumns() {
     // Arrange
     StructType schema = Schema.getVectorApplicationLogsSchema();
-    Row row = RowFactory.create("Test message", "2021-01-01T00:00:00Z", "api-service");
+    Row row = logRow("Test message", timestamp("2021-01-01T00:00:00Z"), "api-service");
 
     Dataset<Row> df = spark.createDataFrame(java.util.Arrays.asList(row), schema);
 
@@ -188,17 +210,22 @@ public class SchemaIntegrationTest {
     assertNotNull(schema.fieldIndex(Constants.APPLICATION_LOG_COLUMN_TIMESTAMP));
     assertNotNull(schema.fieldIndex(Constants.APPLICATION_LOG_COLUMN_SERVICE_NAME));
 
-    // Verify all fields are StringType (as expected for Protobuf string fields)
-    for (StructField field : schema.fields()) {
-      assertEquals(field.dataType(), DataTypes.StringType);
-    }
+    // Verify Protobuf string fields are StringType and the Timestamp message is TimestampType
+    assertEquals(
+        schema.apply(Constants.APPLICATION_LOG_COLUMN_MESSAGE).dataType(), DataTypes.StringType);
+    assertEquals(
+        schema.apply(Constants.APPLICATION_LOG_COLUMN_TIMESTAMP).dataType(),
+        DataTypes.TimestampType);
+    assertEquals(
+        schema.apply(Constants.APPLICATION_LOG_COLUMN_SERVICE_NAME).dataType(),
+        DataTypes.StringType);
   }
 
   @Test
   public void testWriteDataFrame_WithSchema_ValidatesBeforeWrite() {
     // Arrange
     StructType schema = Schema.getVectorApplicationLogsSchema();
-    Row row = RowFactory.create("Test message", "2021-01-01T00:00:00Z", "api-service");
+    Row row = logRow("Test message", timestamp("2021-01-01T00:00:00Z"), "api-service");
 
     Dataset<Row> df = spark.createDataFrame(java.util.Arrays.asList(row), schema);
 
@@ -218,7 +245,7 @@ public class SchemaIntegrationTest {
     // Arrange
     StructType originalSchema = Schema.getVectorApplicationLogsSchema();
 
-    Row originalRow = RowFactory.create("Test message", "2021-01-01T00:00:00Z", "api-service");
+    Row originalRow = logRow("Test message", timestamp("2021-01-01T00:00:00Z"), "api-service");
 
     // Act - Create DataFrame with original schema
     Dataset<Row> df = spark.createDataFrame(java.util.Arrays.asList(originalRow), originalSchema);
@@ -229,8 +256,8 @@ public class SchemaIntegrationTest {
             "new_field", org.apache.spark.sql.functions.lit(null).cast(DataTypes.StringType));
 
     // Assert
-    assertEquals(extended.schema().fields().length, 4);
-    assertEquals(extended.schema().fields()[3].name(), "new_field");
-    assertTrue(extended.schema().fields()[3].nullable());
+    assertEquals(extended.schema().fields().length, 8);
+    assertEquals(extended.schema().fields()[7].name(), "new_field");
+    assertTrue(extended.schema().fields()[7].nullable());
   }
 }
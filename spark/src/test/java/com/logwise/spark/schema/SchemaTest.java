@@ -33,6 +33,10 @@ public class SchemaTest {
     assertNotNull(schema.getFieldIndex(Constants.APPLICATION_LOG_COLUMN_MESSAGE));
     assertNotNull(schema.getFieldIndex(Constants.APPLICATION_LOG_COLUMN_TIMESTAMP));
     assertNotNull(schema.getFieldIndex(Constants.APPLICATION_LOG_COLUMN_SERVICE_NAME));
+    assertNotNull(schema.getFieldIndex(Constants.APPLICATION_LOG_COLUMN_LOG_LEVEL));
+    assertNotNull(schema.getFieldIndex(Constants.APPLICATION_LOG_COLUMN_HOST));
+    assertNotNull(schema.getFieldIndex(Constants.APPLICATION_LOG_COLUMN_POD));
+    assertNotNull(schema.getFieldIndex(Constants.APPLICATION_LOG_COLUMN_ATTRIBUTES));
   }
 
   @Test
@@ -41,16 +45,20 @@ public class SchemaTest {
     StructType schema = Schema.getVectorApplicationLogsSchema();
 
     // Assert
-    assertEquals(schema.fields().length, 3, "Schema should contain exactly 3 fields");
+    assertEquals(schema.fields().length, 7, "Schema should contain exactly 7 fields");
   }
 
   @Test
-  public void testGetVectorApplicationLogsSchema_AllFieldsAreStringType() {
+  public void testGetVectorApplicationLogsSchema_AllScalarFieldsExceptTimestampAreStringType() {
     // Act
     StructType schema = Schema.getVectorApplicationLogsSchema();
 
     // Assert
     for (StructField field : schema.fields()) {
+      if (field.name().equals(Constants.APPLICATION_LOG_COLUMN_TIMESTAMP)
+          || field.name().equals(Constants.APPLICATION_LOG_COLUMN_ATTRIBUTES)) {
+        continue;
+      }
       assertEquals(
           field.dataType(),
           DataTypes.StringType,
@@ -88,7 +96,9 @@ public class SchemaTest {
         Constants.APPLICATION_LOG_COLUMN_TIMESTAMP,
         "Field name should match constant");
     assertEquals(
-        timestampField.dataType(), DataTypes.StringType, "Timestamp field should be StringType");
+        timestampField.dataType(),
+        DataTypes.TimestampType,
+        "Timestamp field should be TimestampType");
   }
 
   @Test
@@ -109,6 +119,19 @@ public class SchemaTest {
         "Service name field should be StringType");
   }
 
+  @Test
+  public void testGetVectorApplicationLogsSchema_AttributesFieldIsStringMap() {
+    // Act
+    StructType schema = Schema.getVectorApplicationLogsSchema();
+    StructField attributesField = schema.apply(Constants.APPLICATION_LOG_COLUMN_ATTRIBUTES);
+
+    // Assert
+    assertEquals(
+        attributesField.dataType(),
+        DataTypes.createMapType(DataTypes.StringType, DataTypes.StringType, false),
+        "Attributes field should be a map of non-null strings");
+  }
+
   @Test
   public void testGetVectorApplicationLogsSchema_IsReusable() {
     // Act - Call method multiple times
@@ -132,4 +155,24 @@ public class SchemaTest {
           "Field types should match across multiple calls");
     }
   }
+
+  @Test
+  public void testGetTimePartitionSchema_MatchesPartitionColumnOrder() {
+    // Act
+    StructType schema = Schema.getTimePartitionSchema();
+
+    // Assert
+    assertEquals(
+        schema.fieldNames(),
+        new String[] {
+          Constants.APPLICATION_LOG_COLUMN_YEAR,
+          Constants.APPLICATION_LOG_COLUMN_MONTH,
+          Constants.APPLICATION_LOG_COLUMN_DAY,
+          Constants.APPLICATION_LOG_COLUMN_HOUR,
+          Constants.APPLICATION_LOG_COLUMN_MINUTE
+        });
+    for (StructField field : schema.fields()) {
+      assertEquals(field.dataType(), DataTypes.StringType, field.name() + " should be StringType");
+    }
+  }
 }
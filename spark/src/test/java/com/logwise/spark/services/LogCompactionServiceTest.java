@@ -0,0 +1,440 @@
+package com.logwise.spark.services;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+import static org.testng.Assert.*;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.logwise.spark.constants.Constants;
+import com.logwise.spark.constants.PartitionGranularity;
+import com.logwise.spark.dto.entity.CompactionCommit;
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
+import com.typesafe.config.ConfigValueFactory;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import org.apache.commons.io.FileUtils;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.spark.SparkContext;
+import org.apache.spark.sql.SparkSession;
+import org.apache.spark.sql.internal.SQLConf;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/**
+ * Unit tests for LogCompactionService on the local filesystem.
+ *
+ * <p>The Spark rewrite is replaced by a concatenation of the source files, so the tests verify
+ * which partitions are compacted, how the files are swapped, and that a commit left half applied by
+ * a previous run is completed.
+ */
+public class LogCompactionServiceTest {
+  private static final ZoneId ZONE_ID = ZoneId.of(SQLConf.get().sessionLocalTimeZone());
+
+  private File root;
+  private Path rootPath;
+  private FileSystem fs;
+  private SparkSession mockSparkSession;
+  private LogCompactionService service;
+
+  @BeforeMethod
+  public void setUp() throws Exception {
+    root = Files.createTempDirectory("logs").toFile();
+    rootPath = new Path(root.toURI().toString());
+    Configuration hadoopConfiguration = new Configuration();
+    fs = FileSystem.getLocal(hadoopConfiguration);
+
+    SparkContext mockSparkContext = mock(SparkContext.class);
+    when(mockSparkContext.hadoopConfiguration()).thenReturn(hadoopConfiguration);
+    mockSparkSession = mock(SparkSession.class);
+    when(mockSparkSession.sparkContext()).thenReturn(mockSparkContext);
+
+    service = spy(new LogCompactionService(createConfig()));
+    doAnswer(
+            invocation -> {
+              List<FileStatus> sources = invocation.getArgument(1);
+              Path stagingDir = invocation.getArgument(3);
+              try (OutputStream out = fs.create(new Path(stagingDir, "part-00000.parquet"))) {
+                for (FileStatus source : sources) {
+                  out.write(FileUtils.readFileToByteArray(new File(source.getPath().toUri())));
+                }
+              }
+              fs.create(new Path(stagingDir, "_SUCCESS")).close();
+              return null;
+            })
+        .when(service)
+        .rewriteFiles(any(), any(), anyInt(), any());
+  }
+
+  @AfterMethod
+  public void tearDown() throws Exception {
+    FileUtils.deleteDirectory(root);
+    fs.delete(getHourlyRootPath(), true);
+  }
+
+  private Path getHourlyRootPath() {
+    return new Path(PartitionGranularity.HOUR.getPath(root.toURI().toString()));
+  }
+
+  private Config createConfig() {
+    Map<String, Object> configMap = new HashMap<>();
+    configMap.put("s3.path.logs.application", root.toURI().toString());
+    configMap.put("compaction.closedAfter.minutes", 15);
+    configMap.put("compaction.targetFileSize.bytes", 1024L);
+    configMap.put("compaction.lookback.hours", 24);
+    configMap.put(Constants.CONFIG_KEY_PARQUET_COMPRESSION_CODEC, "snappy");
+    return ConfigFactory.parseMap(configMap);
+  }
+
+  /** Returns the minute partition of a service holding the events of {@code ageMinutes} ago. */
+  private String minutePartition(String serviceName, long ageMinutes) {
+    ZonedDateTime time = ZonedDateTime.now(ZONE_ID).minusMinutes(ageMinutes);
+    return String.format(
+        "service_name=%s/year=%d/month=%02d/day=%02d/hour=%02d/minute=%02d",
+        serviceName,
+        time.getYear(),
+        time.getMonthValue(),
+        time.getDayOfMonth(),
+        time.getHour(),
+        time.getMinute());
+  }
+
+  /** Writes one small file per batch into the partition and dates the files back. */
+  private Path writePartition(String partition, int batches, long ageMinutes) throws Exception {
+    return writePartition(rootPath, partition, batches, ageMinutes);
+  }
+
+  private Path writePartition(Path dataRoot, String partition, int batches, long ageMinutes)
+      throws Exception {
+    Path dir = new Path(dataRoot, partition);
+    long modificationTime = System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(ageMinutes);
+    for (int i = 0; i < batches; i++) {
+      Path file = new Path(dir, "part-0000" + i + ".parquet");
+      try (OutputStream out = fs.create(file)) {
+        out.write(("batch-" + i + ";").getBytes(StandardCharsets.UTF_8));
+      }
+      fs.setTimes(file, modificationTime, -1);
+    }
+    return dir;
+  }
+
+  private List<String> dataFileNames(Path dir) throws Exception {
+    return Arrays.stream(fs.listStatus(dir))
+        .map(status -> status.getPath().getName())
+        .filter(name -> !name.startsWith("_") && !name.startsWith("."))
+        .sorted()
+        .collect(Collectors.toList());
+  }
+
+  private String content(Path dir, String name) throws Exception {
+    return FileUtils.readFileToString(
+        new File(new Path(dir, name).toUri()), StandardCharsets.UTF_8);
+  }
+
+  @Test
+  public void testCompact_WithClosedPartition_ReplacesSourcesWithCompactedFile() throws Exception {
+    // Arrange
+    Path partition = writePartition(minutePartition("api", 60), 3, 60);
+
+    // Act
+    int compacted = service.compact(mockSparkSession, () -> false);
+
+    // Assert
+    assertEquals(compacted, 1);
+    assertEquals(
+        dataFileNames(partition),
+        Collections.singletonList(Constants.COMPACTED_FILE_PREFIX + "0-part-00000.parquet"));
+    assertEquals(content(partition, "compacted-0-part-00000.parquet"), "batch-0;batch-1;batch-2;");
+    assertFalse(fs.exists(new Path(rootPath, "_compaction/0")));
+    assertTrue(fs.exists(new Path(rootPath, "_compaction/_log/0")));
+  }
+
+  @Test
+  public void testCompact_WithHourlyRoot_CompactsItsPartitionsToo() throws Exception {
+    // Arrange
+    String minutePartition = minutePartition("cron-worker", 120);
+    Path partition =
+        writePartition(
+            getHourlyRootPath(),
+            minutePartition.substring(0, minutePartition.lastIndexOf('/')),
+            3,
+            120);
+
+    // Act
+    int compacted = service.compact(mockSparkSession, () -> false);
+
+    // Assert - the hourly root keeps its own compaction log
+    assertEquals(compacted, 1);
+    assertEquals(
+        dataFileNames(partition),
+        Collections.singletonList(Constants.COMPACTED_FILE_PREFIX + "0-part-00000.parquet"));
+    assertTrue(fs.exists(new Path(getHourlyRootPath(), "_compaction/_log/0")));
+    assertFalse(fs.exists(new Path(rootPath, "_compaction/_log/0")));
+  }
+
+  @Test
+  public void testCompact_WithRecentlyWrittenPartition_LeavesItOpen() throws Exception {
+    // Arrange
+    Path partition = writePartition(minutePartition("api", 1), 3, 1);
+
+    // Act
+    int compacted = service.compact(mockSparkSession, () -> false);
+
+    // Assert
+    assertEquals(compacted, 0);
+    assertEquals(dataFileNames(partition).size(), 3);
+    verify(service, never()).rewriteFiles(any(), any(), anyInt(), any());
+  }
+
+  @Test
+  public void testCompact_WithSingleFilePartition_SkipsIt() throws Exception {
+    // Arrange
+    writePartition(minutePartition("api", 60), 1, 60);
+
+    // Act & Assert
+    assertEquals(service.compact(mockSparkSession, () -> false), 0);
+  }
+
+  @Test
+  public void testCompact_WhenStopRequested_CompactsNothing() throws Exception {
+    // Arrange
+    Path partition = writePartition(minutePartition("api", 60), 3, 60);
+
+    // Act & Assert
+    assertEquals(service.compact(mockSparkSession, () -> true), 0);
+    assertEquals(dataFileNames(partition).size(), 3);
+  }
+
+  @Test
+  public void testCompact_WhenRewriteFails_KeepsSourcesAndWritesNoCommit() throws Exception {
+    // Arrange
+    Path partition = writePartition(minutePartition("api", 60), 2, 60);
+    doThrow(new RuntimeException("Unreadable parquet"))
+        .when(service)
+        .rewriteFiles(any(), any(), anyInt(), any());
+
+    // Act
+    int compacted = service.compact(mockSparkSession, () -> false);
+
+    // Assert
+    assertEquals(compacted, 0);
+    assertEquals(dataFileNames(partition).size(), 2);
+    assertFalse(fs.exists(new Path(rootPath, "_compaction/_log")));
+  }
+
+  @Test
+  public void testGetPartitions_SkipsHiddenAndUnderscoreDirectories() throws Exception {
+    // Arrange
+    Path partition = writePartition(minutePartition("api", 60), 1, 60);
+    writePartition("_spark_metadata", 1, 60);
+    writePartition("_compaction/3", 1, 60);
+
+    // Act
+    List<Path> partitions = service.getPartitions(fs, rootPath, ZONE_ID, 0L, Long.MAX_VALUE);
+
+    // Assert
+    assertEquals(partitions.size(), 1);
+    assertEquals(partitions.get(0).toUri().getPath(), partition.toUri().getPath());
+  }
+
+  @Test
+  public void testGetPartitions_OutsideTimeRange_DoesNotListThem() throws Exception {
+    // Arrange
+    Path partition = writePartition(minutePartition("api", 60), 1, 60);
+    writePartition(minutePartition("api", TimeUnit.DAYS.toMinutes(3)), 1, 60);
+    writePartition(minutePartition("api", 1), 1, 1);
+    long now = System.currentTimeMillis();
+
+    // Act
+    List<Path> partitions =
+        service.getPartitions(
+            fs,
+            rootPath,
+            ZONE_ID,
+            now - TimeUnit.HOURS.toMillis(24),
+            now - TimeUnit.MINUTES.toMillis(15));
+
+    // Assert
+    assertEquals(partitions.size(), 1);
+    assertEquals(partitions.get(0).toUri().getPath(), partition.toUri().getPath());
+  }
+
+  @Test
+  public void testCompact_WhenApplyCommitFailsPartway_AbortsAndNextRunCompletesIt()
+      throws Exception {
+    // Arrange - the first commit moves its staged file and fails before deleting the sources
+    Path apiPartition = writePartition(minutePartition("api", 60), 2, 60);
+    Path webPartition = writePartition(minutePartition("web", 60), 2, 60);
+    AtomicBoolean failed = new AtomicBoolean(false);
+    doAnswer(
+            invocation -> {
+              CompactionCommit commit = invocation.getArgument(2);
+              if (failed.compareAndSet(false, true)) {
+                fs.rename(
+                    new Path(commit.getStagedFiles().get(0)),
+                    new Path(commit.getCompactedFiles().get(0)));
+                throw new IOException("Connection reset");
+              }
+              return invocation.callRealMethod();
+            })
+        .when(service)
+        .applyCommit(any(), any(), any());
+
+    // Act & Assert - the run stops at the failed commit and leaves the next partition alone
+    assertThrows(IOException.class, () -> service.compact(mockSparkSession, () -> false));
+    Path logDir = new Path(rootPath, "_compaction/_log");
+    CompactionCommit commit;
+    try (InputStream in = fs.open(new Path(logDir, "0"))) {
+      commit = new ObjectMapper().readValue(in, CompactionCommit.class);
+    }
+    Path failedPartition = new Path(commit.getPartition());
+    Path otherPartition =
+        failedPartition.toUri().getPath().equals(apiPartition.toUri().getPath())
+            ? webPartition
+            : apiPartition;
+    assertEquals(dataFileNames(failedPartition).size(), 3);
+    assertEquals(dataFileNames(otherPartition).size(), 2);
+    assertFalse(fs.exists(new Path(logDir, "1")));
+
+    // Act - the next run completes the commit before compacting the other partition
+    int compacted = service.compact(mockSparkSession, () -> false);
+
+    // Assert
+    assertEquals(compacted, 1);
+    assertEquals(
+        dataFileNames(failedPartition),
+        Collections.singletonList("compacted-0-part-00000.parquet"));
+    assertEquals(content(failedPartition, "compacted-0-part-00000.parquet"), "batch-0;batch-1;");
+    assertEquals(
+        dataFileNames(otherPartition), Collections.singletonList("compacted-1-part-00000.parquet"));
+    assertFalse(fs.exists(new Path(logDir, "0")));
+    assertTrue(fs.exists(new Path(logDir, "1")));
+  }
+
+  @Test
+  public void testCompact_WithHalfAppliedCommit_CompletesItAndContinuesBatchIds() throws Exception {
+    // Arrange - a commit whose staged file was not moved and whose sources were not deleted
+    Path partition = writePartition(minutePartition("api", 60), 2, 60);
+    Path staged = new Path(rootPath, "_compaction/4/part-00000.parquet");
+    try (OutputStream out = fs.create(staged)) {
+      out.write("batch-0;batch-1;".getBytes(StandardCharsets.UTF_8));
+    }
+    CompactionCommit commit = new CompactionCommit();
+    commit.setBatchId(4L);
+    commit.setPartition(partition.toString());
+    commit.setSourceFiles(
+        Arrays.asList(
+            new Path(partition, "part-00000.parquet").toString(),
+            new Path(partition, "part-00001.parquet").toString()));
+    commit.setStagedFiles(Collections.singletonList(staged.toString()));
+    commit.setCompactedFiles(
+        Collections.singletonList(
+            new Path(partition, "compacted-4-part-00000.parquet").toString()));
+    Path logDir = new Path(rootPath, "_compaction/_log");
+    try (OutputStream out = fs.create(new Path(logDir, "4"))) {
+      out.write(new ObjectMapper().writeValueAsBytes(commit));
+    }
+    Path nextPartition = writePartition(minutePartition("web", 60), 2, 60);
+
+    // Act
+    int compacted = service.compact(mockSparkSession, () -> false);
+
+    // Assert
+    assertEquals(
+        dataFileNames(partition), Collections.singletonList("compacted-4-part-00000.parquet"));
+    assertEquals(compacted, 1);
+    assertEquals(
+        dataFileNames(nextPartition), Collections.singletonList("compacted-5-part-00000.parquet"));
+    assertFalse(fs.exists(new Path(logDir, "4")));
+    assertTrue(fs.exists(new Path(logDir, "5")));
+  }
+
+  @Test
+  public void testGetSortColumns_WithClusterBy_KeepsWriterOrderOfPresentColumns() {
+    // Arrange
+    Config config =
+        createConfig()
+            .withValue(
+                Constants.CONFIG_KEY_CLUSTER_BY,
+                ConfigValueFactory.fromIterable(
+                    Arrays.asList(
+                        Constants.APPLICATION_LOG_COLUMN_LOG_LEVEL,
+                        Constants.APPLICATION_LOG_COLUMN_HOST)))
+            .withValue(Constants.CONFIG_KEY_SORT_BY_TIMESTAMP, ConfigValueFactory.fromAnyRef(true));
+    LogCompactionService clusteredService = new LogCompactionService(config);
+
+    // Act - files written before host existed have no host column
+    String[] sortColumns =
+        Arrays.stream(
+                clusteredService.getSortColumns(
+                    new String[] {
+                      Constants.APPLICATION_LOG_COLUMN_MESSAGE,
+                      Constants.APPLICATION_LOG_COLUMN_TIMESTAMP,
+                      Constants.APPLICATION_LOG_COLUMN_LOG_LEVEL
+                    },
+                    "checkout"))
+            .map(Object::toString)
+            .toArray(String[]::new);
+
+    // Assert
+    assertEquals(
+        sortColumns,
+        new String[] {
+          Constants.APPLICATION_LOG_COLUMN_LOG_LEVEL, Constants.APPLICATION_LOG_COLUMN_TIMESTAMP
+        });
+  }
+
+  @Test
+  public void testGetSortColumns_WithoutClusterByOrSort_KeepsFileOrder() {
+    // Act & Assert
+    assertEquals(
+        service.getSortColumns(
+                new String[] {Constants.APPLICATION_LOG_COLUMN_LOG_LEVEL}, "checkout")
+            .length,
+        0);
+  }
+
+  @Test
+  public void testGetSortColumns_WithSortedServices_SortsOnlyTheirPartitions() {
+    // Arrange
+    Config config =
+        createConfig()
+            .withValue(
+                Constants.CONFIG_KEY_SORT_BY_TIMESTAMP_SERVICES,
+                ConfigValueFactory.fromMap(Collections.singletonMap("checkout", true)));
+    LogCompactionService sortingService = new LogCompactionService(config);
+    String[] columns = {Constants.APPLICATION_LOG_COLUMN_TIMESTAMP};
+
+    // Act & Assert
+    assertEquals(sortingService.getSortColumns(columns, "checkout").length, 1);
+    assertEquals(sortingService.getSortColumns(columns, "payments-api").length, 0);
+  }
+
+  @Test
+  public void testGetServiceName_ReadsTheServiceDirectoryOfThePartition() {
+    assertEquals(
+        LogCompactionService.getServiceName(
+            new Path("s3a://bucket/logs/service_name=checkout/year=2024/month=01/day=02/hour=03")),
+        "checkout");
+    assertNull(LogCompactionService.getServiceName(new Path("s3a://bucket/logs/year=2024")));
+  }
+}
@@ -0,0 +1,46 @@
+package com.logwise.spark.services;
+
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.*;
+import static org.testng.Assert.*;
+
+import com.logwise.spark.base.MockConfigHelper;
+import com.logwise.spark.clients.LogCentralOrchestratorClient;
+import com.logwise.spark.constants.Constants;
+import com.logwise.spark.dto.entity.ServiceDetails;
+import com.logwise.spark.dto.response.GetServiceDetailsResponse;
+import com.typesafe.config.Config;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.testng.annotations.Test;
+
+/** Unit tests for ServiceDetailsService. */
+public class ServiceDetailsServiceTest {
+
+  @Test
+  public void testGetServiceDetails_SendsTenantHeaderAndReturnsServiceDetails() {
+    // Arrange
+    Map<String, Object> configMap = new HashMap<>();
+    configMap.put("tenant.name", "test-tenant");
+    Config config = MockConfigHelper.createConfig(configMap);
+    LogCentralOrchestratorClient client = mock(LogCentralOrchestratorClient.class);
+    ServiceDetails serviceDetails = new ServiceDetails();
+    serviceDetails.setServiceName("orders");
+    serviceDetails.setIngestionWeight(2);
+    GetServiceDetailsResponse.ResponseData data = new GetServiceDetailsResponse.ResponseData();
+    data.setServiceDetails(Collections.singletonList(serviceDetails));
+    GetServiceDetailsResponse response = new GetServiceDetailsResponse();
+    response.setData(data);
+    when(client.getServiceDetails(anyMap())).thenReturn(response);
+
+    // Act
+    List<ServiceDetails> result = new ServiceDetailsService(config, client).getServiceDetails();
+
+    // Assert
+    assertEquals(result, Collections.singletonList(serviceDetails));
+    verify(client)
+        .getServiceDetails(Collections.singletonMap(Constants.X_TENANT_NAME, "test-tenant"));
+  }
+}
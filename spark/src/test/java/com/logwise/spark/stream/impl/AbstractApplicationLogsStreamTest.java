@@ -6,12 +6,18 @@ import static org.mockito.Mockito.mockStatic;
 import static org.testng.Assert.*;
 
 import com.logwise.spark.base.BaseSparkTest;
+import com.logwise.spark.constants.Constants;
+import com.logwise.spark.dto.entity.KafkaReadStreamOptions;
+import com.logwise.spark.dto.entity.TopicGroup;
 import com.logwise.spark.services.KafkaService;
 import com.logwise.spark.services.SparkMasterService;
 import com.logwise.spark.services.SparkScaleService;
+import com.logwise.spark.stream.source.TopicGroups;
 import com.logwise.spark.utils.SparkUtils;
 import com.typesafe.config.Config;
 import com.typesafe.config.ConfigFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -19,6 +25,7 @@ import org.apache.spark.sql.Dataset;
 import org.apache.spark.sql.Row;
 import org.apache.spark.sql.SparkSession;
 import org.apache.spark.sql.streaming.StreamingQuery;
+import org.mockito.ArgumentCaptor;
 import org.mockito.MockedStatic;
 import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeMethod;
@@ -45,6 +52,7 @@ public class AbstractApplicationLogsStreamTest extends BaseSparkTest {
   // Concrete implementation for testing the abstract class
   private static class TestApplicationLogsStream extends AbstractApplicationLogsStream {
     private StreamingQuery mockQuery;
+    private final List<TopicGroup> startedTopicGroups = new ArrayList<>();
 
     public TestApplicationLogsStream(
         Config config,
@@ -58,7 +66,8 @@ public class AbstractApplicationLogsStreamTest extends BaseSparkTest {
 
     @Override
     protected StreamingQuery getVectorApplicationLogsStreamQuery(
-        Dataset<Row> kafkaValueTopicStream) {
+        Dataset<Row> kafkaValueTopicStream, TopicGroup topicGroup) {
+      startedTopicGroups.add(topicGroup);
       return mockQuery;
     }
   }
@@ -86,10 +95,12 @@ public class AbstractApplicationLogsStreamTest extends BaseSparkTest {
   private Config createTestConfig(long startingOffsetsTimestamp, String startingOffsets) {
     Map<String, Object> configMap = new HashMap<>();
     configMap.put("kafka.cluster.dns", "test-kafka-cluster.local");
+    configMap.put("s3.path.checkpoint.application", "s3a://test-bucket/checkpoint/application");
     configMap.put("kafka.startingOffsetsTimestamp", startingOffsetsTimestamp);
     configMap.put("kafka.startingOffsets", startingOffsets);
     configMap.put("kafka.topic.prefix.application", "app-logs-.*");
     configMap.put("kafka.maxRatePerPartition", "1000");
+    configMap.put("spark.offsetPerTrigger.adaptive.enable", false);
     configMap.put("spark.offsetPerTrigger.default", 10000L);
     return ConfigFactory.parseMap(configMap);
   }
@@ -182,7 +193,9 @@ public class AbstractApplicationLogsStreamTest extends BaseSparkTest {
             config, mockKafkaService, mockSparkMasterService, mockSparkScaleService, mockQuery);
     Dataset<Row> mockDataset = mock(Dataset.class);
 
-    StreamingQuery result = testStream.getVectorApplicationLogsStreamQuery(mockDataset);
+    StreamingQuery result =
+        testStream.getVectorApplicationLogsStreamQuery(
+            mockDataset, TopicGroups.getTopicGroups(config).get(0));
 
     assertNotNull(result);
     assertEquals(result, mockQuery);
@@ -272,10 +285,12 @@ public class AbstractApplicationLogsStreamTest extends BaseSparkTest {
     // Arrange
     Map<String, Object> configMap = new HashMap<>();
     configMap.put("kafka.cluster.dns", "test-kafka.local");
+    configMap.put("s3.path.checkpoint.application", "s3a://test-bucket/checkpoint/application");
     configMap.put("kafka.startingOffsetsTimestamp", 0L);
     configMap.put("kafka.startingOffsets", "latest");
     configMap.put("kafka.topic.prefix.application", "app-logs-.*");
     configMap.put("kafka.maxRatePerPartition", "1000");
+    configMap.put("spark.offsetPerTrigger.adaptive.enable", false);
     configMap.put("spark.offsetPerTrigger.default", 50000L);
     config = ConfigFactory.parseMap(configMap);
 
@@ -334,4 +349,145 @@ public class AbstractApplicationLogsStreamTest extends BaseSparkTest {
       assertEquals(config.getString("kafka.startingOffsets"), "earliest");
     }
   }
+
+  @Test
+  public void testStartStreams_WithTopicGroups_StartsOneQueryPerGroupWithItsShare() {
+    // Arrange
+    Map<String, Object> orders = new HashMap<>();
+    orders.put("name", "orders");
+    orders.put("pattern", "app-logs-orders");
+    orders.put("share", 0.25);
+    config =
+        createTestConfig(0L, "latest")
+            .withFallback(
+                ConfigFactory.parseMap(
+                    Map.of(
+                        Constants.CONFIG_KEY_TOPIC_GROUPS,
+                        Arrays.asList(orders),
+                        Constants.CONFIG_KEY_STREAMING_QUERY_LONG_RUNNING,
+                        true)));
+    testStream =
+        new TestApplicationLogsStream(
+            config,
+            mockKafkaService,
+            mockSparkMasterService,
+            mockSparkScaleService,
+            mock(StreamingQuery.class));
+    Dataset<Row> mockKafkaDataset = mock(Dataset.class);
+    when(mockKafkaDataset.selectExpr("value")).thenReturn(mock(Dataset.class));
+    when(mockKafkaService.getKafkaBootstrapServerIp(anyString())).thenReturn("10.0.0.1:9092");
+
+    try (MockedStatic<SparkUtils> mockedSparkUtils = mockStatic(SparkUtils.class)) {
+      mockedSparkUtils
+          .when(() -> SparkUtils.getKafkaReadStream(eq(mockSparkSession), any()))
+          .thenReturn(mockKafkaDataset);
+
+      // Act
+      List<StreamingQuery> result = testStream.startStreams(mockSparkSession);
+
+      // Assert
+      ArgumentCaptor<KafkaReadStreamOptions> options =
+          ArgumentCaptor.forClass(KafkaReadStreamOptions.class);
+      mockedSparkUtils.verify(
+          () -> SparkUtils.getKafkaReadStream(eq(mockSparkSession), options.capture()), times(2));
+      assertEquals(result.size(), 2);
+      assertEquals(options.getAllValues().get(0).getSubscribePattern(), "app-logs-orders");
+      assertEquals(options.getAllValues().get(0).getMaxOffsetsPerTrigger(), "2500");
+      assertEquals(
+          options.getAllValues().get(1).getSubscribePattern(),
+          "(?!(?:app-logs-orders)$)(?:app-logs-.*)");
+      assertEquals(options.getAllValues().get(1).getMaxOffsetsPerTrigger(), "7500");
+      assertEquals(testStream.startedTopicGroups.get(0).getName(), "orders");
+      assertEquals(
+          testStream.startedTopicGroups.get(1).getName(), Constants.DEFAULT_TOPIC_GROUP_NAME);
+      verify(mockKafkaService, times(1)).getKafkaBootstrapServerIp("test-kafka-cluster.local");
+    }
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testStartStreams_WithConsumerTuning_PassesItToKafkaSource() {
+    // Arrange
+    config =
+        createTestConfig(0L, "latest")
+            .withFallback(
+                ConfigFactory.parseMap(
+                    Map.of(
+                        Constants.CONFIG_KEY_KAFKA_FETCH_MAX_BYTES, 52428800,
+                        Constants.CONFIG_KEY_KAFKA_MAX_PARTITION_FETCH_BYTES, 10485760,
+                        Constants.CONFIG_KEY_KAFKA_POLL_TIMEOUT_MS, 30000,
+                        Constants.CONFIG_KEY_KAFKA_MIN_PARTITIONS, 24)));
+    testStream =
+        new TestApplicationLogsStream(
+            config,
+            mockKafkaService,
+            mockSparkMasterService,
+            mockSparkScaleService,
+            mock(StreamingQuery.class));
+    Dataset<Row> mockKafkaDataset = mock(Dataset.class);
+    when(mockKafkaDataset.selectExpr("value")).thenReturn(mock(Dataset.class));
+    when(mockKafkaService.getKafkaBootstrapServerIp(anyString())).thenReturn("10.0.0.1:9092");
+
+    try (MockedStatic<SparkUtils> mockedSparkUtils = mockStatic(SparkUtils.class)) {
+      mockedSparkUtils
+          .when(() -> SparkUtils.getKafkaReadStream(eq(mockSparkSession), any()))
+          .thenReturn(mockKafkaDataset);
+
+      // Act
+      testStream.startStreams(mockSparkSession);
+
+      // Assert - unset options stay null so the Kafka defaults apply
+      ArgumentCaptor<KafkaReadStreamOptions> options =
+          ArgumentCaptor.forClass(KafkaReadStreamOptions.class);
+      mockedSparkUtils.verify(
+          () -> SparkUtils.getKafkaReadStream(eq(mockSparkSession), options.capture()));
+      assertEquals(options.getValue().getFetchMaxBytes(), "52428800");
+      assertEquals(options.getValue().getMaxPartitionFetchBytes(), "10485760");
+      assertEquals(options.getValue().getPollTimeoutMs(), "30000");
+      assertEquals(options.getValue().getMinPartitions(), "24");
+      assertNull(options.getValue().getFetchMinBytes());
+      assertNull(options.getValue().getReceiveBufferBytes());
+      assertNull(options.getValue().getMaxOffsetsPerTask());
+    }
+  }
+
+  @Test
+  public void testStartStreams_WithSplitHotPartitions_PassesEventsPerCoreAsMaxOffsetsPerTask() {
+    // Arrange
+    config =
+        createTestConfig(0L, "latest")
+            .withFallback(
+                ConfigFactory.parseMap(
+                    Map.of(
+                        Constants.CONFIG_KEY_KAFKA_SPLIT_HOT_PARTITIONS,
+                        true,
+                        "spark.eventProcessPerCore.count",
+                        900000L)));
+    testStream =
+        new TestApplicationLogsStream(
+            config,
+            mockKafkaService,
+            mockSparkMasterService,
+            mockSparkScaleService,
+            mock(StreamingQuery.class));
+    Dataset<Row> mockKafkaDataset = mock(Dataset.class);
+    when(mockKafkaDataset.selectExpr("value")).thenReturn(mock(Dataset.class));
+    when(mockKafkaService.getKafkaBootstrapServerIp(anyString())).thenReturn("10.0.0.1:9092");
+
+    try (MockedStatic<SparkUtils> mockedSparkUtils = mockStatic(SparkUtils.class)) {
+      mockedSparkUtils
+          .when(() -> SparkUtils.getKafkaReadStream(eq(mockSparkSession), any()))
+          .thenReturn(mockKafkaDataset);
+
+      // Act
+      testStream.startStreams(mockSparkSession);
+
+      // Assert
+      ArgumentCaptor<KafkaReadStreamOptions> options =
+          ArgumentCaptor.forClass(KafkaReadStreamOptions.class);
+      mockedSparkUtils.verify(
+          () -> SparkUtils.getKafkaReadStream(eq(mockSparkSession), options.capture()));
+      assertEquals(options.getValue().getMaxOffsetsPerTask(), "900000");
+    }
+  }
 }
@@ -7,22 +7,33 @@ import static org.testng.Assert.*;
 
 import com.logwise.spark.base.BaseSparkTest;
 import com.logwise.spark.constants.Constants;
+import com.logwise.spark.constants.PartitionGranularity;
+import com.logwise.spark.dto.entity.TopicGroup;
 import com.logwise.spark.services.KafkaService;
 import com.logwise.spark.services.SparkMasterService;
 import com.logwise.spark.services.SparkScaleService;
+import com.logwise.spark.stream.sink.PartitionGranularityBatchWriter;
+import com.logwise.spark.stream.source.TopicGroups;
 import com.logwise.spark.utils.ConfigUtils;
 import com.typesafe.config.Config;
 import com.typesafe.config.ConfigFactory;
+import com.typesafe.config.ConfigValueFactory;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
-import org.apache.spark.api.java.function.MapFunction;
+import lombok.SneakyThrows;
+import org.apache.spark.SparkContext;
+import org.apache.spark.api.java.function.VoidFunction2;
 import org.apache.spark.sql.Column;
 import org.apache.spark.sql.Dataset;
 import org.apache.spark.sql.Row;
-import org.apache.spark.sql.catalyst.encoders.ExpressionEncoder;
+import org.apache.spark.sql.SparkSession;
 import org.apache.spark.sql.streaming.DataStreamWriter;
 import org.apache.spark.sql.streaming.OutputMode;
 import org.apache.spark.sql.streaming.StreamingQuery;
+import org.apache.spark.util.LongAccumulator;
+import org.mockito.ArgumentCaptor;
 import org.mockito.MockedStatic;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
@@ -45,6 +56,8 @@ public class ApplicationLogsStreamToS3Test extends BaseSparkTest {
   private static final String DEFAULT_TOPIC_PREFIX = "app-logs-.*";
   private static final String DEFAULT_MAX_RATE_PER_PARTITION = "1000";
   private static final long DEFAULT_OFFSET_PER_TRIGGER = 10000L;
+  private static final String DEFAULT_COMPRESSION_CODEC = "zstd";
+  private static final String DEFAULT_PARTITION_GRANULARITY = "minute";
 
   private ApplicationLogsStreamToS3 stream;
   private Config config;
@@ -81,6 +94,10 @@ public class ApplicationLogsStreamToS3Test extends BaseSparkTest {
     configMap.put("kafka.topic.prefix.application", DEFAULT_TOPIC_PREFIX);
     configMap.put("kafka.maxRatePerPartition", DEFAULT_MAX_RATE_PER_PARTITION);
     configMap.put("spark.offsetPerTrigger.default", DEFAULT_OFFSET_PER_TRIGGER);
+    configMap.put(Constants.CONFIG_KEY_PARQUET_COMPRESSION_CODEC, DEFAULT_COMPRESSION_CODEC);
+    configMap.put(
+        Constants.CONFIG_KEY_PARTITION_GRANULARITY_DEFAULT, DEFAULT_PARTITION_GRANULARITY);
+    configMap.put(Constants.CONFIG_KEY_SORT_BY_TIMESTAMP, false);
     // Add empty spark.config to ensure ConfigUtils.getSparkConfig() returns empty
     // map
     configMap.put("spark.config", new HashMap<String, Object>());
@@ -107,21 +124,28 @@ public class ApplicationLogsStreamToS3Test extends BaseSparkTest {
     configMap.put("kafka.topic.prefix.application", DEFAULT_TOPIC_PREFIX);
     configMap.put("kafka.maxRatePerPartition", DEFAULT_MAX_RATE_PER_PARTITION);
     configMap.put("spark.offsetPerTrigger.default", DEFAULT_OFFSET_PER_TRIGGER);
+    configMap.put(Constants.CONFIG_KEY_PARQUET_COMPRESSION_CODEC, DEFAULT_COMPRESSION_CODEC);
+    configMap.put(
+        Constants.CONFIG_KEY_PARTITION_GRANULARITY_DEFAULT, DEFAULT_PARTITION_GRANULARITY);
+    configMap.put(Constants.CONFIG_KEY_SORT_BY_TIMESTAMP, false);
     configMap.put("spark.config", new HashMap<String, Object>());
     return ConfigFactory.parseMap(configMap);
   }
 
+  private static TopicGroup firstTopicGroup(Config config) {
+    return TopicGroups.getTopicGroups(config).get(0);
+  }
+
   /**
-   * Sets up mocks for Spark Dataset transformation chain (map, withColumn).
+   * Sets up mocks for Spark Dataset transformation chain (decode select, partition key select).
    *
    * @param mockKafkaDataset the Kafka dataset mock
    * @return the mapped dataset mock (after transformations)
    */
   private Dataset<Row> setupDatasetTransformationMocks(Dataset<Row> mockKafkaDataset) {
     Dataset<Row> mockMappedDataset = mock(Dataset.class);
-    when(mockKafkaDataset.map(any(MapFunction.class), any(ExpressionEncoder.class)))
-        .thenReturn(mockMappedDataset);
-    when(mockMappedDataset.withColumn(anyString(), any(Column.class)))
+    when(mockKafkaDataset.select(any(Column.class))).thenReturn(mockMappedDataset);
+    when(mockMappedDataset.select(any(Column.class), any(Column.class)))
         .thenReturn(mockMappedDataset);
     return mockMappedDataset;
   }
@@ -132,6 +156,7 @@ public class ApplicationLogsStreamToS3Test extends BaseSparkTest {
    * @param mockMappedDataset the dataset mock to write from
    * @return the mock DataStreamWriter (for verification purposes)
    */
+  @SneakyThrows
   private DataStreamWriter<Row> setupDataStreamWriterMocks(Dataset<Row> mockMappedDataset) {
     DataStreamWriter<Row> mockWriter = mock(DataStreamWriter.class);
     StreamingQuery mockQuery = mock(StreamingQuery.class);
@@ -146,10 +171,14 @@ public class ApplicationLogsStreamToS3Test extends BaseSparkTest {
     doReturn(mockWriter)
         .when(mockWriter)
         .partitionBy(Constants.APPLICATION_LOG_S3_PARTITION_COLUMNS);
+    doReturn(mockWriter)
+        .when(mockWriter)
+        .partitionBy(Constants.APPLICATION_LOG_S3_HOUR_PARTITION_COLUMNS);
     doReturn(mockWriter).when(mockWriter).partitionBy(any(scala.collection.Seq.class));
     doReturn(mockWriter).when(mockWriter).option(anyString(), anyString());
     doReturn(mockWriter).when(mockWriter).options(anyMap());
-    doReturn(mockQuery).when(mockWriter).start(anyString());
+    doReturn(mockWriter).when(mockWriter).foreachBatch(any(VoidFunction2.class));
+    doReturn(mockQuery).when(mockWriter).start();
 
     return mockWriter;
   }
@@ -224,7 +253,8 @@ public class ApplicationLogsStreamToS3Test extends BaseSparkTest {
   }
 
   @Test
-  public void testGetVectorApplicationLogsStreamQuery_CallsPushApplicationLogsToS3() {
+  public void testGetVectorApplicationLogsStreamQuery_CallsPushApplicationLogsToS3()
+      throws Exception {
     // Arrange
     Dataset<Row> mockKafkaDataset = mock(Dataset.class);
     Dataset<Row> mockMappedDataset = setupDatasetTransformationMocks(mockKafkaDataset);
@@ -236,7 +266,8 @@ public class ApplicationLogsStreamToS3Test extends BaseSparkTest {
           .thenReturn(new HashMap<>());
 
       // Act - Call protected method directly (same package, no reflection needed)
-      StreamingQuery result = stream.getVectorApplicationLogsStreamQuery(mockKafkaDataset);
+      StreamingQuery result =
+          stream.getVectorApplicationLogsStreamQuery(mockKafkaDataset, firstTopicGroup(config));
 
       // Assert
       assertNotNull(result, "Should return a StreamingQuery");
@@ -244,10 +275,12 @@ public class ApplicationLogsStreamToS3Test extends BaseSparkTest {
       // Verify that pushApplicationLogsToS3 was called (indirectly through
       // writeStream chain)
       verify(mockMappedDataset, times(1)).writeStream();
-      verify(mockWriter, times(1)).option("compression", Constants.WRITE_STREAM_GZIP_COMPRESSION);
+      verify(mockWriter, times(1))
+          .options(Collections.singletonMap("compression", DEFAULT_COMPRESSION_CODEC));
       verify(mockWriter, times(1))
           .option("checkpointLocation", config.getString("s3.path.checkpoint.application"));
-      verify(mockWriter, times(1)).start(config.getString("s3.path.logs.application"));
+      verify(mockWriter, times(1)).option("path", config.getString("s3.path.logs.application"));
+      verify(mockWriter, times(1)).start();
       verify(mockWriter, times(1)).queryName(Constants.APPLICATION_LOGS_TO_S3_QUERY_NAME);
       verify(mockWriter, times(1)).format(Constants.WRITE_STREAM_PARQUET_FORMAT);
       verify(mockWriter, times(1)).partitionBy(Constants.APPLICATION_LOG_S3_PARTITION_COLUMNS);
@@ -267,14 +300,15 @@ public class ApplicationLogsStreamToS3Test extends BaseSparkTest {
           .thenReturn(new HashMap<>());
 
       // Act
-      StreamingQuery result = stream.getVectorApplicationLogsStreamQuery(mockKafkaDataset);
+      StreamingQuery result =
+          stream.getVectorApplicationLogsStreamQuery(mockKafkaDataset, firstTopicGroup(config));
 
       // Assert
       assertNotNull(result);
-      // Verify map() was called (transforms Kafka data to application logs format)
-      verify(mockKafkaDataset, times(1)).map(any(MapFunction.class), any(ExpressionEncoder.class));
-      // Verify withColumn was called 5 times (year, month, day, hour, minute)
-      verify(mockMappedDataset, times(5)).withColumn(anyString(), any(Column.class));
+      // Verify select() was called with the proto decoder (Kafka value to application logs)
+      verify(mockKafkaDataset, times(1)).select(any(Column.class));
+      // Verify the partition columns (year, month, day, hour, minute) are derived in one select
+      verify(mockMappedDataset, times(1)).select(any(Column.class), any(Column.class));
     }
   }
 
@@ -297,12 +331,14 @@ public class ApplicationLogsStreamToS3Test extends BaseSparkTest {
           .thenReturn(new HashMap<>());
 
       // Act
-      StreamingQuery result = customStream.getVectorApplicationLogsStreamQuery(mockKafkaDataset);
+      StreamingQuery result =
+          customStream.getVectorApplicationLogsStreamQuery(
+              mockKafkaDataset, firstTopicGroup(customConfig));
 
       // Assert - Verify custom config values are used
       assertNotNull(result);
       verify(mockWriter, times(1)).option("checkpointLocation", "s3://custom/checkpoints");
-      verify(mockWriter, times(1)).start("s3://custom/logs");
+      verify(mockWriter, times(1)).option("path", "s3://custom/logs");
     }
   }
 
@@ -321,13 +357,14 @@ public class ApplicationLogsStreamToS3Test extends BaseSparkTest {
           .when(() -> ConfigUtils.getSparkConfig(any(Config.class)))
           .thenReturn(new HashMap<>());
 
-      // Act - The map function should handle null message
-      StreamingQuery result = stream.getVectorApplicationLogsStreamQuery(mockKafkaDataset);
+      // Act - The decoder should handle a missing message
+      StreamingQuery result =
+          stream.getVectorApplicationLogsStreamQuery(mockKafkaDataset, firstTopicGroup(config));
 
       // Assert
       assertNotNull(result);
-      // Verify map was called (which handles null message internally)
-      verify(mockKafkaDataset, times(1)).map(any(MapFunction.class), any(ExpressionEncoder.class));
+      // Verify the decoder was applied (which handles a missing message internally)
+      verify(mockKafkaDataset, times(1)).select(any(Column.class));
     }
   }
 
@@ -346,11 +383,12 @@ public class ApplicationLogsStreamToS3Test extends BaseSparkTest {
           .thenReturn(new HashMap<>());
 
       // Act
-      StreamingQuery result = stream.getVectorApplicationLogsStreamQuery(mockKafkaDataset);
+      StreamingQuery result =
+          stream.getVectorApplicationLogsStreamQuery(mockKafkaDataset, firstTopicGroup(config));
 
       // Assert
       assertNotNull(result);
-      verify(mockKafkaDataset, times(1)).map(any(MapFunction.class), any(ExpressionEncoder.class));
+      verify(mockKafkaDataset, times(1)).select(any(Column.class));
     }
   }
 
@@ -368,11 +406,12 @@ public class ApplicationLogsStreamToS3Test extends BaseSparkTest {
           .thenReturn(new HashMap<>());
 
       // Act
-      StreamingQuery result = stream.getVectorApplicationLogsStreamQuery(mockKafkaDataset);
+      StreamingQuery result =
+          stream.getVectorApplicationLogsStreamQuery(mockKafkaDataset, firstTopicGroup(config));
 
       // Assert
       assertNotNull(result);
-      verify(mockKafkaDataset, times(1)).map(any(MapFunction.class), any(ExpressionEncoder.class));
+      verify(mockKafkaDataset, times(1)).select(any(Column.class));
     }
   }
 
@@ -390,11 +429,12 @@ public class ApplicationLogsStreamToS3Test extends BaseSparkTest {
           .thenReturn(new HashMap<>());
 
       // Act
-      StreamingQuery result = stream.getVectorApplicationLogsStreamQuery(mockKafkaDataset);
+      StreamingQuery result =
+          stream.getVectorApplicationLogsStreamQuery(mockKafkaDataset, firstTopicGroup(config));
 
       // Assert
       assertNotNull(result);
-      verify(mockKafkaDataset, times(1)).map(any(MapFunction.class), any(ExpressionEncoder.class));
+      verify(mockKafkaDataset, times(1)).select(any(Column.class));
     }
   }
 
@@ -417,7 +457,9 @@ public class ApplicationLogsStreamToS3Test extends BaseSparkTest {
           .thenReturn(new HashMap<>());
 
       // Act
-      StreamingQuery result = customStream.getVectorApplicationLogsStreamQuery(mockKafkaDataset);
+      StreamingQuery result =
+          customStream.getVectorApplicationLogsStreamQuery(
+              mockKafkaDataset, firstTopicGroup(customConfig));
 
       // Assert
       assertNotNull(result);
@@ -444,7 +486,8 @@ public class ApplicationLogsStreamToS3Test extends BaseSparkTest {
           .thenReturn(sparkConfig);
 
       // Act
-      StreamingQuery result = stream.getVectorApplicationLogsStreamQuery(mockKafkaDataset);
+      StreamingQuery result =
+          stream.getVectorApplicationLogsStreamQuery(mockKafkaDataset, firstTopicGroup(config));
 
       // Assert
       assertNotNull(result);
@@ -452,4 +495,320 @@ public class ApplicationLogsStreamToS3Test extends BaseSparkTest {
       verify(mockWriter, times(1)).options(sparkConfig);
     }
   }
+
+  @Test
+  public void testPushApplicationLogsToS3_WithHourDefaultGranularity_PartitionsByHour() {
+    // Arrange
+    Config hourConfig =
+        createTestConfig()
+            .withValue(
+                Constants.CONFIG_KEY_PARTITION_GRANULARITY_DEFAULT,
+                ConfigValueFactory.fromAnyRef("hour"));
+    ApplicationLogsStreamToS3 hourStream =
+        new ApplicationLogsStreamToS3(
+            hourConfig, mockKafkaService, mockSparkMasterService, mockSparkScaleService);
+
+    Dataset<Row> mockKafkaDataset = mock(Dataset.class);
+    Dataset<Row> mockMappedDataset = setupDatasetTransformationMocks(mockKafkaDataset);
+    DataStreamWriter<Row> mockWriter = setupDataStreamWriterMocks(mockMappedDataset);
+
+    try (MockedStatic<ConfigUtils> mockedConfigUtils = mockStatic(ConfigUtils.class)) {
+      mockedConfigUtils
+          .when(() -> ConfigUtils.getSparkConfig(any(Config.class)))
+          .thenReturn(new HashMap<>());
+
+      // Act
+      hourStream.getVectorApplicationLogsStreamQuery(mockKafkaDataset, firstTopicGroup(hourConfig));
+
+      // Assert
+      verify(mockWriter, times(1)).partitionBy(Constants.APPLICATION_LOG_S3_HOUR_PARTITION_COLUMNS);
+      verify(mockWriter, never()).foreachBatch(any(VoidFunction2.class));
+    }
+  }
+
+  @Test
+  public void testPushApplicationLogsToS3_WithServiceGranularityOverride_UsesBatchWriter()
+      throws Exception {
+    // Arrange
+    Dataset<Row> mockKafkaDataset = mock(Dataset.class);
+    Dataset<Row> mockMappedDataset = setupDatasetTransformationMocks(mockKafkaDataset);
+    DataStreamWriter<Row> mockWriter = setupDataStreamWriterMocks(mockMappedDataset);
+    Map<String, String> overrides = new HashMap<>();
+    overrides.put("payments-api", "minute");
+    overrides.put("cron-worker", "hour");
+
+    try (MockedStatic<ConfigUtils> mockedConfigUtils = mockStatic(ConfigUtils.class)) {
+      mockedConfigUtils
+          .when(() -> ConfigUtils.getSparkConfig(any(Config.class)))
+          .thenReturn(new HashMap<>());
+      mockedConfigUtils
+          .when(
+              () ->
+                  ConfigUtils.getConfigMap(
+                      any(Config.class), eq(Constants.CONFIG_KEY_PARTITION_GRANULARITY_SERVICES)))
+          .thenReturn(overrides);
+
+      // Act
+      stream.getVectorApplicationLogsStreamQuery(mockKafkaDataset, firstTopicGroup(config));
+
+      // Assert - only the hour override differs from the minute default
+      ArgumentCaptor<VoidFunction2> batchWriter = ArgumentCaptor.forClass(VoidFunction2.class);
+      verify(mockWriter, times(1)).foreachBatch(batchWriter.capture());
+      PartitionGranularityBatchWriter writer =
+          (PartitionGranularityBatchWriter) batchWriter.getValue();
+      assertEquals(writer.getDefaultGranularity(), PartitionGranularity.MINUTE);
+      assertEquals(
+          writer.getServiceGranularities(),
+          Collections.singletonMap("cron-worker", PartitionGranularity.HOUR));
+      verify(mockWriter, never()).format(anyString());
+      verify(mockWriter, times(1)).start();
+    }
+  }
+
+  @Test
+  public void testPushApplicationLogsToS3_WithSortByTimestamp_UsesSortingBatchWriter()
+      throws Exception {
+    // Arrange
+    Config sortConfig =
+        createTestConfig()
+            .withValue(Constants.CONFIG_KEY_SORT_BY_TIMESTAMP, ConfigValueFactory.fromAnyRef(true));
+    ApplicationLogsStreamToS3 sortStream =
+        new ApplicationLogsStreamToS3(
+            sortConfig, mockKafkaService, mockSparkMasterService, mockSparkScaleService);
+
+    Dataset<Row> mockKafkaDataset = mock(Dataset.class);
+    Dataset<Row> mockMappedDataset = setupDatasetTransformationMocks(mockKafkaDataset);
+    DataStreamWriter<Row> mockWriter = setupDataStreamWriterMocks(mockMappedDataset);
+
+    try (MockedStatic<ConfigUtils> mockedConfigUtils = mockStatic(ConfigUtils.class)) {
+      mockedConfigUtils
+          .when(() -> ConfigUtils.getSparkConfig(any(Config.class)))
+          .thenReturn(new HashMap<>());
+
+      // Act
+      sortStream.getVectorApplicationLogsStreamQuery(mockKafkaDataset, firstTopicGroup(sortConfig));
+
+      // Assert - a streaming query cannot sort, so every batch goes through the batch writer
+      ArgumentCaptor<VoidFunction2> batchWriter = ArgumentCaptor.forClass(VoidFunction2.class);
+      verify(mockWriter, times(1)).foreachBatch(batchWriter.capture());
+      PartitionGranularityBatchWriter writer =
+          (PartitionGranularityBatchWriter) batchWriter.getValue();
+      assertTrue(writer.isSortByTimestamp());
+      assertTrue(writer.getServiceGranularities().isEmpty());
+      verify(mockWriter, times(1)).start();
+    }
+  }
+
+  @Test
+  public void testPushApplicationLogsToS3_WithSortedServices_SortsOnlyThoseServices()
+      throws Exception {
+    // Arrange
+    Dataset<Row> mockKafkaDataset = mock(Dataset.class);
+    Dataset<Row> mockMappedDataset = setupDatasetTransformationMocks(mockKafkaDataset);
+    DataStreamWriter<Row> mockWriter = setupDataStreamWriterMocks(mockMappedDataset);
+    Map<String, String> sortedServices = new HashMap<>();
+    sortedServices.put("checkout", "true");
+    sortedServices.put("cron-worker", "false");
+
+    try (MockedStatic<ConfigUtils> mockedConfigUtils = mockStatic(ConfigUtils.class)) {
+      mockedConfigUtils
+          .when(() -> ConfigUtils.getSparkConfig(any(Config.class)))
+          .thenReturn(new HashMap<>());
+      mockedConfigUtils
+          .when(
+              () ->
+                  ConfigUtils.getConfigMap(
+                      any(Config.class), eq(Constants.CONFIG_KEY_SORT_BY_TIMESTAMP_SERVICES)))
+          .thenReturn(sortedServices);
+
+      // Act
+      stream.getVectorApplicationLogsStreamQuery(mockKafkaDataset, firstTopicGroup(config));
+
+      // Assert
+      ArgumentCaptor<VoidFunction2> batchWriter = ArgumentCaptor.forClass(VoidFunction2.class);
+      verify(mockWriter, times(1)).foreachBatch(batchWriter.capture());
+      PartitionGranularityBatchWriter writer =
+          (PartitionGranularityBatchWriter) batchWriter.getValue();
+      assertFalse(writer.isSortByTimestamp());
+      assertEquals(writer.getTimestampSortedServices(), Collections.singletonList("checkout"));
+    }
+  }
+
+  @Test
+  public void testPushApplicationLogsToS3_WithClusterBy_UsesClusteringBatchWriter()
+      throws Exception {
+    // Arrange
+    Config clusterConfig =
+        createTestConfig()
+            .withValue(
+                Constants.CONFIG_KEY_CLUSTER_BY,
+                ConfigValueFactory.fromIterable(
+                    Arrays.asList(
+                        Constants.APPLICATION_LOG_COLUMN_LOG_LEVEL,
+                        Constants.APPLICATION_LOG_COLUMN_HOST)));
+    ApplicationLogsStreamToS3 clusterStream =
+        new ApplicationLogsStreamToS3(
+            clusterConfig, mockKafkaService, mockSparkMasterService, mockSparkScaleService);
+
+    Dataset<Row> mockKafkaDataset = mock(Dataset.class);
+    Dataset<Row> mockMappedDataset = setupDatasetTransformationMocks(mockKafkaDataset);
+    DataStreamWriter<Row> mockWriter = setupDataStreamWriterMocks(mockMappedDataset);
+
+    try (MockedStatic<ConfigUtils> mockedConfigUtils = mockStatic(ConfigUtils.class)) {
+      mockedConfigUtils
+          .when(() -> ConfigUtils.getSparkConfig(any(Config.class)))
+          .thenReturn(new HashMap<>());
+
+      // Act
+      clusterStream.getVectorApplicationLogsStreamQuery(
+          mockKafkaDataset, firstTopicGroup(clusterConfig));
+
+      // Assert - the default directory layout, clustered by the batch writer
+      ArgumentCaptor<VoidFunction2> batchWriter = ArgumentCaptor.forClass(VoidFunction2.class);
+      verify(mockWriter, times(1)).foreachBatch(batchWriter.capture());
+      PartitionGranularityBatchWriter writer =
+          (PartitionGranularityBatchWriter) batchWriter.getValue();
+      assertEquals(
+          writer.getClusterColumns(),
+          Arrays.asList(
+              Constants.APPLICATION_LOG_COLUMN_LOG_LEVEL, Constants.APPLICATION_LOG_COLUMN_HOST));
+      assertFalse(writer.isSortByTimestamp());
+      assertEquals(writer.getDefaultGranularity(), PartitionGranularity.MINUTE);
+      verify(mockWriter, never()).format(anyString());
+    }
+  }
+
+  @Test
+  public void testGetVectorApplicationLogsStreamQuery_WithTokenPatterns_AddsBloomFilteredColumns()
+      throws Exception {
+    // Arrange
+    Dataset<Row> mockKafkaDataset = mock(Dataset.class);
+    Dataset<Row> mockMappedDataset = mock(Dataset.class);
+    when(mockKafkaDataset.select(any(Column.class))).thenReturn(mockMappedDataset);
+    when(mockMappedDataset.select(any(Column.class), any(Column.class), any(Column.class)))
+        .thenReturn(mockMappedDataset);
+    DataStreamWriter<Row> mockWriter = setupDataStreamWriterMocks(mockMappedDataset);
+
+    try (MockedStatic<ConfigUtils> mockedConfigUtils = mockStatic(ConfigUtils.class)) {
+      mockedConfigUtils
+          .when(() -> ConfigUtils.getSparkConfig(any(Config.class)))
+          .thenReturn(new HashMap<>());
+      mockedConfigUtils
+          .when(
+              () ->
+                  ConfigUtils.getConfigMap(
+                      any(Config.class), eq(Constants.CONFIG_KEY_TOKEN_PATTERNS)))
+          .thenReturn(Collections.singletonMap("trace_id", "trace_id=(\\w+)"));
+
+      // Act
+      StreamingQuery result =
+          stream.getVectorApplicationLogsStreamQuery(mockKafkaDataset, firstTopicGroup(config));
+
+      // Assert - the token is selected next to the time partition columns
+      assertNotNull(result);
+      verify(mockMappedDataset, times(1))
+          .select(any(Column.class), any(Column.class), any(Column.class));
+      Map<String, String> parquetOptions = new HashMap<>();
+      parquetOptions.put("compression", DEFAULT_COMPRESSION_CODEC);
+      verify(mockWriter, times(1)).options(parquetOptions);
+    }
+  }
+
+  @Test
+  public void testPushApplicationLogsToS3_WithTopicGroups_WritesGroupQueryThroughBatchWriter()
+      throws Exception {
+    // Arrange
+    Map<String, Object> orders = new HashMap<>();
+    orders.put("name", "orders");
+    orders.put("pattern", "^logs\\.orders-.*");
+    orders.put("share", 0.5);
+    Config groupConfig =
+        createTestConfig()
+            .withValue(
+                Constants.CONFIG_KEY_TOPIC_GROUPS,
+                ConfigValueFactory.fromIterable(Collections.singletonList(orders)))
+            .withValue(
+                Constants.CONFIG_KEY_STREAMING_QUERY_LONG_RUNNING,
+                ConfigValueFactory.fromAnyRef(true));
+    ApplicationLogsStreamToS3 groupStream =
+        new ApplicationLogsStreamToS3(
+            groupConfig, mockKafkaService, mockSparkMasterService, mockSparkScaleService);
+
+    Dataset<Row> mockKafkaDataset = mock(Dataset.class);
+    Dataset<Row> mockMappedDataset = setupDatasetTransformationMocks(mockKafkaDataset);
+    DataStreamWriter<Row> mockWriter = setupDataStreamWriterMocks(mockMappedDataset);
+
+    try (MockedStatic<ConfigUtils> mockedConfigUtils = mockStatic(ConfigUtils.class)) {
+      mockedConfigUtils
+          .when(() -> ConfigUtils.getSparkConfig(any(Config.class)))
+          .thenReturn(new HashMap<>());
+
+      // Act
+      groupStream.getVectorApplicationLogsStreamQuery(
+          mockKafkaDataset, firstTopicGroup(groupConfig));
+
+      // Assert - queries sharing the logs path cannot share a file sink metadata log
+      verify(mockWriter, times(1))
+          .queryName(Constants.APPLICATION_LOGS_TO_S3_QUERY_NAME + " - orders");
+      verify(mockWriter, times(1))
+          .option("checkpointLocation", DEFAULT_CHECKPOINT_PATH + "-orders");
+      verify(mockWriter, times(1)).foreachBatch(any(VoidFunction2.class));
+      verify(mockWriter, never()).format(anyString());
+    }
+  }
+
+  @Test
+  public void testGetVectorApplicationLogsStreamQuery_WithDeadLetters_DecodesTolerantly()
+      throws Exception {
+    // Arrange
+    Config deadLetterConfig =
+        createTestConfig()
+            .withValue(Constants.CONFIG_KEY_DEAD_LETTER_ENABLE, ConfigValueFactory.fromAnyRef(true))
+            .withValue(
+                Constants.CONFIG_KEY_DEAD_LETTER_PATH,
+                ConfigValueFactory.fromAnyRef("s3a://test-bucket/dead-letter"));
+    ApplicationLogsStreamToS3 deadLetterStream =
+        new ApplicationLogsStreamToS3(
+            deadLetterConfig, mockKafkaService, mockSparkMasterService, mockSparkScaleService);
+
+    Dataset<Row> mockKafkaDataset = mock(Dataset.class);
+    SparkSession mockSession = mock(SparkSession.class);
+    SparkContext mockSparkContext = mock(SparkContext.class);
+    when(mockKafkaDataset.sparkSession()).thenReturn(mockSession);
+    when(mockSession.sparkContext()).thenReturn(mockSparkContext);
+    when(mockSparkContext.longAccumulator(anyString())).thenReturn(new LongAccumulator());
+    Dataset<Row> mockMappedDataset = mock(Dataset.class);
+    when(mockKafkaDataset.select(
+            any(Column.class),
+            any(Column.class),
+            any(Column.class),
+            any(Column.class),
+            any(Column.class)))
+        .thenReturn(mockMappedDataset);
+    when(mockMappedDataset.select(any(Column.class), any(Column.class)))
+        .thenReturn(mockMappedDataset);
+    DataStreamWriter<Row> mockWriter = setupDataStreamWriterMocks(mockMappedDataset);
+
+    try (MockedStatic<ConfigUtils> mockedConfigUtils = mockStatic(ConfigUtils.class)) {
+      mockedConfigUtils
+          .when(() -> ConfigUtils.getSparkConfig(any(Config.class)))
+          .thenReturn(new HashMap<>());
+
+      // Act
+      deadLetterStream.getVectorApplicationLogsStreamQuery(
+          mockKafkaDataset, firstTopicGroup(deadLetterConfig));
+
+      // Assert - the Kafka columns are kept and the dead letters need the batch writer
+      verify(mockSparkContext, times(1))
+          .longAccumulator(
+              Constants.DEAD_LETTER_RECORDS_ACCUMULATOR
+                  + " - "
+                  + Constants.APPLICATION_LOGS_TO_S3_QUERY_NAME);
+      ArgumentCaptor<VoidFunction2> batchWriter = ArgumentCaptor.forClass(VoidFunction2.class);
+      verify(mockWriter, times(1)).foreachBatch(batchWriter.capture());
+      assertEquals(
+          ((PartitionGranularityBatchWriter) batchWriter.getValue()).getDeadLetterPath(),
+          "s3a://test-bucket/dead-letter");
+    }
+  }
 }
@@ -0,0 +1,440 @@
+package com.logwise.spark.stream.sink;
+
+import static org.apache.spark.sql.functions.col;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.testng.Assert.*;
+
+import com.logwise.spark.constants.Constants;
+import com.logwise.spark.constants.PartitionGranularity;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.apache.commons.io.FileUtils;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.spark.SparkContext;
+import org.apache.spark.sql.Column;
+import org.apache.spark.sql.DataFrameWriter;
+import org.apache.spark.sql.Dataset;
+import org.apache.spark.sql.Row;
+import org.apache.spark.sql.SaveMode;
+import org.apache.spark.sql.SparkSession;
+import org.apache.spark.sql.execution.streaming.StreamExecution;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+/**
+ * Unit tests for PartitionGranularityBatchWriter.
+ *
+ * <p>Tests verify that every granularity in use is written once with its partition columns to the
+ * staging directory of the batch under its own root, that the filters split the services between
+ * the default and the overridden granularities, and that publishing a replayed batch replaces the
+ * files of its earlier attempt.
+ */
+public class PartitionGranularityBatchWriterTest {
+
+  private static final File TEST_DIR =
+      new File(System.getProperty("java.io.tmpdir"), "partition-granularity-batch-writer-test");
+  private static final String PATH = new File(TEST_DIR, "logs").toURI().toString();
+  private static final String DEAD_LETTER_PATH =
+      new File(TEST_DIR, "dead-letter").toURI().toString();
+  private static final String QUERY_ID = "5f0c3a6e-0000-0000-0000-000000000001";
+  private static final String MINUTE_STAGING = PATH + "/_batches/" + QUERY_ID + "-7";
+  private static final String HOUR_STAGING = PATH + "-hourly/_batches/" + QUERY_ID + "-7";
+  private static final Map<String, String> OPTIONS =
+      Collections.singletonMap("compression", "zstd");
+
+  @AfterMethod
+  public void tearDown() throws Exception {
+    FileUtils.deleteDirectory(TEST_DIR);
+  }
+
+  /** Stubs the session of the batch, run by the query {@link #QUERY_ID}. */
+  private static <T extends Dataset<Row>> T withSession(T batch) {
+    SparkContext sparkContext = mock(SparkContext.class);
+    when(sparkContext.hadoopConfiguration()).thenReturn(new Configuration());
+    when(sparkContext.getLocalProperty(StreamExecution.QUERY_ID_KEY())).thenReturn(QUERY_ID);
+    SparkSession sparkSession = mock(SparkSession.class);
+    when(sparkSession.sparkContext()).thenReturn(sparkContext);
+    when(batch.sparkSession()).thenReturn(sparkSession);
+    return batch;
+  }
+
+  private static PartitionGranularityBatchWriter createWriter(
+      Map<String, PartitionGranularity> serviceGranularities) {
+    return new PartitionGranularityBatchWriter(
+        PATH,
+        OPTIONS,
+        PartitionGranularity.MINUTE,
+        serviceGranularities,
+        false,
+        new ArrayList<>(),
+        new ArrayList<>(),
+        null);
+  }
+
+  @SuppressWarnings("unchecked")
+  private static DataFrameWriter<Row> mockWriteChain(Dataset<Row> batch) {
+    Dataset<Row> filtered = mock(Dataset.class);
+    DataFrameWriter<Row> writer = mock(DataFrameWriter.class);
+    when(batch.filter(any(Column.class))).thenReturn(filtered);
+    when(filtered.write()).thenReturn(writer);
+    when(writer.mode(any(SaveMode.class))).thenReturn(writer);
+    // partitionBy is varargs, mock the column arrays of both granularities explicitly
+    doReturn(writer).when(writer).partitionBy(Constants.APPLICATION_LOG_S3_PARTITION_COLUMNS);
+    doReturn(writer).when(writer).partitionBy(Constants.APPLICATION_LOG_S3_HOUR_PARTITION_COLUMNS);
+    when(writer.options(anyMap())).thenReturn(writer);
+    return writer;
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testCall_WithHourOverride_WritesEachGranularityOnceToItsRoot() throws Exception {
+    // Arrange
+    Dataset<Row> batch = withSession(mock(Dataset.class));
+    DataFrameWriter<Row> writer = mockWriteChain(batch);
+    PartitionGranularityBatchWriter batchWriter =
+        createWriter(Collections.singletonMap("cron-worker", PartitionGranularity.HOUR));
+
+    // Act
+    batchWriter.call(batch, 7L);
+
+    // Assert
+    verify(batch).persist();
+    verify(batch, times(2)).filter(any(Column.class));
+    verify(writer).partitionBy(Constants.APPLICATION_LOG_S3_PARTITION_COLUMNS);
+    verify(writer).partitionBy(Constants.APPLICATION_LOG_S3_HOUR_PARTITION_COLUMNS);
+    verify(writer, times(2)).mode(SaveMode.Overwrite);
+    verify(writer, times(2)).options(OPTIONS);
+    verify(writer).parquet(MINUTE_STAGING);
+    verify(writer).parquet(HOUR_STAGING);
+    verify(batch).unpersist();
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testCall_WithoutOverrides_WritesDefaultGranularityOnly() throws Exception {
+    // Arrange
+    Dataset<Row> batch = withSession(mock(Dataset.class));
+    DataFrameWriter<Row> writer = mockWriteChain(batch);
+
+    // Act
+    createWriter(new HashMap<>()).call(batch, 7L);
+
+    // Assert
+    verify(writer).partitionBy(Constants.APPLICATION_LOG_S3_PARTITION_COLUMNS);
+    verify(writer, never()).partitionBy(Constants.APPLICATION_LOG_S3_HOUR_PARTITION_COLUMNS);
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testCall_WithSingleWrite_DoesNotPersistOrCheckForRows() throws Exception {
+    // Arrange
+    Dataset<Row> batch = withSession(mock(Dataset.class));
+    DataFrameWriter<Row> writer = mockWriteChain(batch);
+
+    // Act
+    createWriter(new HashMap<>()).call(batch, 7L);
+
+    // Assert
+    verify(writer).parquet(MINUTE_STAGING);
+    verify(batch, never()).persist();
+    verify(batch, never()).isEmpty();
+    verify(batch, never()).unpersist();
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testCall_WithDeadLetterPath_WritesUndecodableRowsThere() throws Exception {
+    // Arrange
+    Dataset<Row> batch = withSession(mock(Dataset.class));
+    Dataset<Row> deadLetters = mock(Dataset.class);
+    Dataset<Row> decoded = mock(Dataset.class);
+    Dataset<Row> logs = mock(Dataset.class);
+    Column decodeError = col(Constants.APPLICATION_LOG_COLUMN_DECODE_ERROR);
+    when(batch.filter(decodeError.isNotNull())).thenReturn(deadLetters);
+    when(batch.filter(decodeError.isNull())).thenReturn(decoded);
+    // drop is varargs, mock the dropped columns explicitly
+    doReturn(logs)
+        .when(decoded)
+        .drop(
+            Constants.KAFKA_COLUMN_TOPIC,
+            Constants.KAFKA_COLUMN_PARTITION,
+            Constants.KAFKA_COLUMN_OFFSET,
+            Constants.KAFKA_COLUMN_VALUE,
+            Constants.APPLICATION_LOG_COLUMN_DECODE_ERROR);
+    DataFrameWriter<Row> logsWriter = mockWriteChain(logs);
+    Dataset<Row> selected = mock(Dataset.class);
+    DataFrameWriter<Row> deadLetterWriter = mock(DataFrameWriter.class, RETURNS_SELF);
+    when(deadLetters.select(
+            any(Column.class),
+            any(Column.class),
+            any(Column.class),
+            any(Column.class),
+            any(Column.class),
+            any(Column.class)))
+        .thenReturn(selected);
+    when(selected.write()).thenReturn(deadLetterWriter);
+    PartitionGranularityBatchWriter batchWriter =
+        new PartitionGranularityBatchWriter(
+            PATH,
+            OPTIONS,
+            PartitionGranularity.MINUTE,
+            new HashMap<>(),
+            false,
+            new ArrayList<>(),
+            new ArrayList<>(),
+            DEAD_LETTER_PATH);
+
+    // Act
+    batchWriter.call(batch, 7L);
+
+    // Assert - dead letters are partitioned by topic and the Kafka columns leave the logs
+    verify(deadLetterWriter).partitionBy(Constants.KAFKA_COLUMN_TOPIC);
+    verify(deadLetterWriter).mode(SaveMode.Overwrite);
+    verify(deadLetterWriter).parquet(DEAD_LETTER_PATH + "/_batches/" + QUERY_ID + "-7");
+    verify(logs).filter(any(Column.class));
+    verify(logsWriter).parquet(MINUTE_STAGING);
+    verify(batch).unpersist();
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testCall_WithoutDeadLetters_SkipsDeadLetterWrite() throws Exception {
+    // Arrange
+    Dataset<Row> batch = withSession(mock(Dataset.class, RETURNS_MOCKS));
+    Dataset<Row> deadLetters = mock(Dataset.class);
+    when(batch.filter(col(Constants.APPLICATION_LOG_COLUMN_DECODE_ERROR).isNotNull()))
+        .thenReturn(deadLetters);
+    when(deadLetters.isEmpty()).thenReturn(true);
+    PartitionGranularityBatchWriter batchWriter =
+        new PartitionGranularityBatchWriter(
+            PATH,
+            OPTIONS,
+            PartitionGranularity.MINUTE,
+            new HashMap<>(),
+            false,
+            new ArrayList<>(),
+            new ArrayList<>(),
+            DEAD_LETTER_PATH);
+
+    // Act
+    batchWriter.call(batch, 7L);
+
+    // Assert
+    verify(deadLetters, never()).write();
+  }
+
+  @Test
+  public void testGetFilter_SplitsServicesBetweenGranularities() {
+    // Arrange
+    Map<String, PartitionGranularity> serviceGranularities = new HashMap<>();
+    serviceGranularities.put("cron-worker", PartitionGranularity.HOUR);
+    serviceGranularities.put("payments-api", PartitionGranularity.MINUTE);
+    PartitionGranularityBatchWriter batchWriter = createWriter(serviceGranularities);
+
+    // Act
+    String minuteFilter = batchWriter.getFilter(PartitionGranularity.MINUTE).toString();
+    String hourFilter = batchWriter.getFilter(PartitionGranularity.HOUR).toString();
+
+    // Assert - the default takes every service that is not overridden to another granularity
+    assertTrue(minuteFilter.startsWith("(NOT coalesce((service_name IN (cron-worker))"));
+    assertTrue(hourFilter.startsWith("coalesce((service_name IN (cron-worker))"));
+    assertFalse(minuteFilter.contains("payments-api"));
+    assertFalse(hourFilter.contains("payments-api"));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testCall_WithSortByTimestamp_SortsEachGranularityWithinPartitions() throws Exception {
+    // Arrange
+    Dataset<Row> batch = withSession(mock(Dataset.class));
+    Dataset<Row> filtered = mock(Dataset.class);
+    Dataset<Row> sorted = mock(Dataset.class);
+    DataFrameWriter<Row> writer = mock(DataFrameWriter.class, RETURNS_SELF);
+    when(batch.filter(any(Column.class))).thenReturn(filtered);
+    PartitionGranularityBatchWriter batchWriter =
+        new PartitionGranularityBatchWriter(
+            PATH,
+            OPTIONS,
+            PartitionGranularity.MINUTE,
+            Collections.singletonMap("cron-worker", PartitionGranularity.HOUR),
+            true,
+            new ArrayList<>(),
+            new ArrayList<>(),
+            null);
+    // sortWithinPartitions is varargs, mock the sort columns of both granularities explicitly
+    for (PartitionGranularity granularity : PartitionGranularity.values()) {
+      doReturn(sorted).when(filtered).sortWithinPartitions(batchWriter.getSortColumns(granularity));
+    }
+    when(sorted.write()).thenReturn(writer);
+
+    // Act
+    batchWriter.call(batch, 7L);
+
+    // Assert - sorted once per granularity and only the sorted rows are written
+    verify(filtered).sortWithinPartitions(batchWriter.getSortColumns(PartitionGranularity.MINUTE));
+    verify(filtered).sortWithinPartitions(batchWriter.getSortColumns(PartitionGranularity.HOUR));
+    verify(filtered, never()).write();
+    verify(writer).parquet(MINUTE_STAGING);
+    verify(writer).parquet(HOUR_STAGING);
+  }
+
+  @Test
+  public void testGetSortColumns_OrdersByPartitionThenTimestamp() {
+    // Arrange
+    PartitionGranularityBatchWriter batchWriter =
+        new PartitionGranularityBatchWriter(
+            PATH,
+            OPTIONS,
+            PartitionGranularity.MINUTE,
+            new HashMap<>(),
+            true,
+            new ArrayList<>(),
+            new ArrayList<>(),
+            null);
+
+    // Act
+    Column[] hourColumns = batchWriter.getSortColumns(PartitionGranularity.HOUR);
+    Column[] minuteColumns = batchWriter.getSortColumns(PartitionGranularity.MINUTE);
+
+    // Assert
+    assertEquals(
+        hourColumns.length, Constants.APPLICATION_LOG_S3_HOUR_PARTITION_COLUMNS.length + 1);
+    assertEquals(minuteColumns.length, Constants.APPLICATION_LOG_S3_PARTITION_COLUMNS.length + 1);
+    assertEquals(hourColumns[0].toString(), Constants.APPLICATION_LOG_COLUMN_SERVICE_NAME);
+    assertEquals(
+        hourColumns[hourColumns.length - 1].toString(), Constants.APPLICATION_LOG_COLUMN_TIMESTAMP);
+    assertEquals(
+        minuteColumns[minuteColumns.length - 2].toString(),
+        Constants.APPLICATION_LOG_COLUMN_MINUTE);
+  }
+
+  @Test
+  public void testGetSortColumns_WithSortedServices_SortsOnlyTheirRowsByTimestamp() {
+    // Arrange
+    PartitionGranularityBatchWriter batchWriter =
+        new PartitionGranularityBatchWriter(
+            PATH,
+            OPTIONS,
+            PartitionGranularity.MINUTE,
+            new HashMap<>(),
+            false,
+            new ArrayList<>(Collections.singletonList("checkout")),
+            new ArrayList<>(),
+            null);
+
+    // Act
+    Column[] columns = batchWriter.getSortColumns(PartitionGranularity.MINUTE);
+
+    // Assert
+    assertEquals(columns.length, Constants.APPLICATION_LOG_S3_PARTITION_COLUMNS.length + 1);
+    String timestampSort = columns[columns.length - 1].toString();
+    assertTrue(timestampSort.contains("service_name IN (checkout)"));
+    assertTrue(timestampSort.contains(Constants.APPLICATION_LOG_COLUMN_TIMESTAMP));
+  }
+
+  @Test
+  public void testGetSortColumns_WithClusterColumns_OrdersThemBetweenPartitionAndTimestamp() {
+    // Arrange
+    PartitionGranularityBatchWriter batchWriter =
+        new PartitionGranularityBatchWriter(
+            PATH,
+            OPTIONS,
+            PartitionGranularity.MINUTE,
+            new HashMap<>(),
+            true,
+            new ArrayList<>(),
+            new ArrayList<>(
+                Arrays.asList(
+                    Constants.APPLICATION_LOG_COLUMN_LOG_LEVEL,
+                    Constants.APPLICATION_LOG_COLUMN_HOST)),
+            null);
+
+    // Act
+    Column[] columns = batchWriter.getSortColumns(PartitionGranularity.MINUTE);
+
+    // Assert
+    int partitionColumns = Constants.APPLICATION_LOG_S3_PARTITION_COLUMNS.length;
+    assertEquals(columns.length, partitionColumns + 3);
+    assertEquals(columns[partitionColumns].toString(), Constants.APPLICATION_LOG_COLUMN_LOG_LEVEL);
+    assertEquals(columns[partitionColumns + 1].toString(), Constants.APPLICATION_LOG_COLUMN_HOST);
+    assertEquals(
+        columns[partitionColumns + 2].toString(), Constants.APPLICATION_LOG_COLUMN_TIMESTAMP);
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testCall_WithClusterColumnsOnly_SortsWithoutTimestamp() throws Exception {
+    // Arrange
+    Dataset<Row> batch = withSession(mock(Dataset.class));
+    Dataset<Row> filtered = mock(Dataset.class);
+    Dataset<Row> sorted = mock(Dataset.class);
+    DataFrameWriter<Row> writer = mock(DataFrameWriter.class, RETURNS_SELF);
+    when(batch.filter(any(Column.class))).thenReturn(filtered);
+    PartitionGranularityBatchWriter batchWriter =
+        new PartitionGranularityBatchWriter(
+            PATH,
+            OPTIONS,
+            PartitionGranularity.MINUTE,
+            new HashMap<>(),
+            false,
+            new ArrayList<>(),
+            new ArrayList<>(Collections.singletonList(Constants.APPLICATION_LOG_COLUMN_LOG_LEVEL)),
+            null);
+    Column[] sortColumns = batchWriter.getSortColumns(PartitionGranularity.MINUTE);
+    doReturn(sorted).when(filtered).sortWithinPartitions(sortColumns);
+    when(sorted.write()).thenReturn(writer);
+
+    // Act
+    batchWriter.call(batch, 7L);
+
+    // Assert - same directories as the default layout, rows ordered by level inside them
+    assertEquals(
+        sortColumns[sortColumns.length - 1].toString(), Constants.APPLICATION_LOG_COLUMN_LOG_LEVEL);
+    verify(filtered).sortWithinPartitions(sortColumns);
+    verify(writer).partitionBy(Constants.APPLICATION_LOG_S3_PARTITION_COLUMNS);
+    verify(writer).parquet(MINUTE_STAGING);
+  }
+
+  @Test
+  public void testPublish_WhenBatchIsReplayed_ReplacesTheFilesOfItsEarlierAttempt()
+      throws Exception {
+    // Arrange - the earlier attempt moved one file, another batch wrote one next to it
+    FileSystem fs = FileSystem.getLocal(new Configuration());
+    Path root = new Path(PATH);
+    Path staging = new Path(MINUTE_STAGING);
+    String partition = "service_name=api/year=2026/month=10/day=17/hour=03/minute=05";
+    String batchKey = QUERY_ID + "-7";
+    fs.create(new Path(root, partition + "/" + batchKey + "-part-00000-a.parquet")).close();
+    fs.create(new Path(root, partition + "/" + QUERY_ID + "-6-part-00000-b.parquet")).close();
+    fs.create(new Path(staging, partition + "/part-00000-c.parquet")).close();
+    fs.create(new Path(staging, partition + "/part-00001-c.parquet")).close();
+    fs.create(new Path(staging, "_SUCCESS")).close();
+
+    // Act
+    createWriter(new HashMap<>()).publish(fs, staging, root, batchKey);
+
+    // Assert
+    List<String> files =
+        Arrays.stream(fs.listStatus(new Path(root, partition)))
+            .map(status -> status.getPath().getName())
+            .filter(name -> name.endsWith(".parquet"))
+            .sorted()
+            .collect(Collectors.toList());
+    assertEquals(
+        files,
+        Arrays.asList(
+            QUERY_ID + "-6-part-00000-b.parquet",
+            batchKey + "-part-00000-c.parquet",
+            batchKey + "-part-00001-c.parquet"));
+    assertFalse(fs.exists(staging));
+  }
+}
@@ -0,0 +1,225 @@
+package com.logwise.spark.stream.source;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static org.testng.Assert.*;
+
+import com.logwise.spark.constants.Constants;
+import com.logwise.spark.dto.entity.ServiceDetails;
+import com.logwise.spark.stream.source.AdaptiveKafkaSourceProvider.AdaptiveKafkaScan;
+import com.logwise.spark.stream.source.AdaptiveKafkaSourceProvider.AdaptiveKafkaTable;
+import com.logwise.spark.stream.source.AdaptiveKafkaSourceProvider.AdaptiveMicroBatchStream;
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.spark.sql.connector.catalog.SupportsRead;
+import org.apache.spark.sql.connector.catalog.TableCapability;
+import org.apache.spark.sql.connector.read.InputPartition;
+import org.apache.spark.sql.connector.read.Scan;
+import org.apache.spark.sql.connector.read.ScanBuilder;
+import org.apache.spark.sql.connector.read.streaming.MicroBatchStream;
+import org.apache.spark.sql.connector.read.streaming.Offset;
+import org.apache.spark.sql.connector.read.streaming.ReadLimit;
+import org.apache.spark.sql.connector.read.streaming.ReadMaxRows;
+import org.apache.spark.sql.connector.read.streaming.SupportsAdmissionControl;
+import org.apache.spark.sql.kafka010.KafkaBatchInputPartition;
+import org.apache.spark.sql.kafka010.KafkaOffsetRange;
+import org.apache.spark.sql.kafka010.KafkaSourceOffset;
+import org.apache.spark.sql.util.CaseInsensitiveStringMap;
+import org.mockito.ArgumentCaptor;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+/**
+ * Unit tests for AdaptiveKafkaSourceProvider.
+ *
+ * <p>Tests verify that the wrapped Kafka stream receives the read limit of the registered {@link
+ * TriggerSizeController} and that everything else is delegated unchanged.
+ */
+public class AdaptiveKafkaSourceProviderTest {
+
+  private static final String CONTROLLER = "test-query";
+
+  private static MicroBatchStream mockKafkaStream() {
+    return mock(
+        MicroBatchStream.class, withSettings().extraInterfaces(SupportsAdmissionControl.class));
+  }
+
+  private static Config controllerConfig() {
+    Map<String, Object> configMap = new HashMap<>();
+    configMap.put("spark.processing.time.seconds", 60);
+    configMap.put("spark.offsetPerTrigger.min", 1_000L);
+    configMap.put("spark.offsetPerTrigger.max", 10_000L);
+    configMap.put("spark.offsetPerTrigger.adaptive.targetBatchFraction", 0.8);
+    configMap.put("spark.offsetPerTrigger.adaptive.maxStepFactor", 2.0);
+    return ConfigFactory.parseMap(configMap);
+  }
+
+  @AfterMethod
+  public void tearDown() {
+    TriggerSizeController.clear();
+    TopicBudgets.clear();
+  }
+
+  @Test
+  public void testShortName_ReturnsLogwiseKafka() {
+    assertEquals(new AdaptiveKafkaSourceProvider().shortName(), "logwise-kafka");
+  }
+
+  @Test
+  public void testLatestOffset_WithRegisteredController_UsesControllerLimit() {
+    // Arrange
+    MicroBatchStream kafkaStream = mockKafkaStream();
+    Offset start = mock(Offset.class);
+    Offset end = mock(Offset.class);
+    when(((SupportsAdmissionControl) kafkaStream).latestOffset(eq(start), any())).thenReturn(end);
+    TriggerSizeController controller =
+        TriggerSizeController.register(CONTROLLER, controllerConfig(), 5_000L);
+    AdaptiveMicroBatchStream stream =
+        new AdaptiveMicroBatchStream(kafkaStream, CONTROLLER, false, 0L);
+
+    // Act
+    Offset result = stream.latestOffset(start, ReadLimit.maxRows(123L));
+
+    // Assert
+    ArgumentCaptor<ReadLimit> limit = ArgumentCaptor.forClass(ReadLimit.class);
+    verify((SupportsAdmissionControl) kafkaStream).latestOffset(eq(start), limit.capture());
+    assertSame(result, end);
+    assertEquals(((ReadMaxRows) limit.getValue()).maxRows(), controller.getOffsetsPerTrigger());
+  }
+
+  @Test
+  public void testLatestOffset_WithoutController_UsesGivenLimit() {
+    // Arrange
+    MicroBatchStream kafkaStream = mockKafkaStream();
+    Offset start = mock(Offset.class);
+    ReadLimit given = ReadLimit.maxRows(123L);
+    AdaptiveMicroBatchStream stream = new AdaptiveMicroBatchStream(kafkaStream, null, false, 0L);
+
+    // Act
+    stream.latestOffset(start, given);
+
+    // Assert
+    verify((SupportsAdmissionControl) kafkaStream).latestOffset(start, given);
+  }
+
+  @Test
+  public void testLatestOffset_WithFairShare_SplitsLimitByServiceWeight() {
+    // Arrange
+    MicroBatchStream kafkaStream = mockKafkaStream();
+    TopicPartition orders = new TopicPartition("logs.orders", 0);
+    TopicPartition search = new TopicPartition("logs.search", 0);
+    KafkaSourceOffset start = kafkaOffset(orders, 0L, search, 0L);
+    KafkaSourceOffset available = kafkaOffset(orders, 10_000L, search, 10_000L);
+    when(((SupportsAdmissionControl) kafkaStream).latestOffset(start, ReadLimit.allAvailable()))
+        .thenReturn(available);
+    ServiceDetails ordersDetails = new ServiceDetails();
+    ordersDetails.setServiceName("orders");
+    ordersDetails.setIngestionWeight(3);
+    TopicBudgets.register("logs.", 60_000L, () -> Collections.singletonList(ordersDetails));
+    AdaptiveMicroBatchStream stream = new AdaptiveMicroBatchStream(kafkaStream, null, true, 0L);
+
+    // Act
+    Offset result = stream.latestOffset(start, ReadLimit.maxRows(4_000L));
+
+    // Assert
+    Map<TopicPartition, Object> end =
+        scala.collection.JavaConverters.mapAsJavaMap(
+            KafkaSourceOffset.getPartitionOffsets((KafkaSourceOffset) result));
+    assertEquals(end.get(orders), 3_000L);
+    assertEquals(end.get(search), 1_000L);
+  }
+
+  private static KafkaSourceOffset kafkaOffset(
+      TopicPartition first, long firstOffset, TopicPartition second, long secondOffset) {
+    Map<TopicPartition, Object> offsets = new HashMap<>();
+    offsets.put(first, firstOffset);
+    offsets.put(second, secondOffset);
+    return KafkaSourceOffset.apply(
+        scala.collection.immutable.Map$.MODULE$
+            .<TopicPartition, Object>empty()
+            .$plus$plus(scala.collection.JavaConverters.mapAsScalaMap(offsets)));
+  }
+
+  @Test
+  public void testPlanInputPartitions_WithMaxOffsetsPerTask_SplitsHotPartitions() {
+    // Arrange
+    MicroBatchStream kafkaStream = mockKafkaStream();
+    Offset start = mock(Offset.class);
+    Offset end = mock(Offset.class);
+    InputPartition hot =
+        KafkaBatchInputPartition.apply(
+            KafkaOffsetRange.apply(
+                new TopicPartition("logs.orders", 0), 0L, 1_000L, scala.Option.empty()),
+            Collections.emptyMap(),
+            5_000L,
+            false,
+            false);
+    when(kafkaStream.planInputPartitions(start, end)).thenReturn(new InputPartition[] {hot});
+    AdaptiveMicroBatchStream stream = new AdaptiveMicroBatchStream(kafkaStream, null, false, 250L);
+
+    // Act
+    InputPartition[] partitions = stream.planInputPartitions(start, end);
+
+    // Assert
+    assertEquals(partitions.length, 4);
+  }
+
+  @Test
+  public void testStream_DelegatesOffsetsAndLifecycle() {
+    // Arrange
+    MicroBatchStream kafkaStream = mockKafkaStream();
+    Offset offset = mock(Offset.class);
+    when(kafkaStream.initialOffset()).thenReturn(offset);
+    when(kafkaStream.deserializeOffset("{}")).thenReturn(offset);
+    when(((SupportsAdmissionControl) kafkaStream).getDefaultReadLimit())
+        .thenReturn(ReadLimit.maxRows(7L));
+    AdaptiveMicroBatchStream stream =
+        new AdaptiveMicroBatchStream(kafkaStream, CONTROLLER, false, 0L);
+
+    // Act
+    stream.commit(offset);
+    stream.stop();
+
+    // Assert
+    assertSame(stream.initialOffset(), offset);
+    assertSame(stream.deserializeOffset("{}"), offset);
+    assertEquals(((ReadMaxRows) stream.getDefaultReadLimit()).maxRows(), 7L);
+    verify(kafkaStream).commit(offset);
+    verify(kafkaStream).stop();
+  }
+
+  @Test
+  public void testTable_SupportsMicroBatchReadAndPassesControllerName() {
+    // Arrange
+    SupportsRead kafkaTable = mock(SupportsRead.class);
+    ScanBuilder kafkaScanBuilder = mock(ScanBuilder.class);
+    Scan kafkaScan = mock(Scan.class);
+    MicroBatchStream kafkaStream = mockKafkaStream();
+    CaseInsensitiveStringMap options =
+        new CaseInsensitiveStringMap(
+            Collections.singletonMap(Constants.KAFKA_OPTION_TRIGGER_SIZE_CONTROLLER, CONTROLLER));
+    when(kafkaTable.newScanBuilder(options)).thenReturn(kafkaScanBuilder);
+    when(kafkaScanBuilder.build()).thenReturn(kafkaScan);
+    when(kafkaScan.toMicroBatchStream("checkpoint")).thenReturn(kafkaStream);
+    TriggerSizeController.register(CONTROLLER, controllerConfig(), 5_000L);
+    AdaptiveKafkaTable table = new AdaptiveKafkaTable(kafkaTable);
+
+    // Act
+    Scan scan = table.newScanBuilder(options).build();
+    MicroBatchStream stream = scan.toMicroBatchStream("checkpoint");
+    ((SupportsAdmissionControl) stream).latestOffset(mock(Offset.class), ReadLimit.allAvailable());
+
+    // Assert
+    assertEquals(table.capabilities(), EnumSet.of(TableCapability.MICRO_BATCH_READ));
+    assertTrue(scan instanceof AdaptiveKafkaScan);
+    assertTrue(stream instanceof AdaptiveMicroBatchStream);
+    verify((SupportsAdmissionControl) kafkaStream)
+        .latestOffset(any(), eq(ReadLimit.maxRows(5_000L)));
+  }
+}
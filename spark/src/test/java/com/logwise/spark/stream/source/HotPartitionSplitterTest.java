@@ -0,0 +1,98 @@
+package com.logwise.spark.stream.source;
+
+import static org.mockito.Mockito.mock;
+import static org.testng.Assert.*;
+
+import java.util.Collections;
+import java.util.Map;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.spark.sql.connector.read.InputPartition;
+import org.apache.spark.sql.kafka010.KafkaBatchInputPartition;
+import org.apache.spark.sql.kafka010.KafkaOffsetRange;
+import org.testng.annotations.Test;
+import scala.Option;
+
+/**
+ * Unit tests for HotPartitionSplitter.
+ *
+ * <p>Tests verify that only ranges above the offsets per task are split, into contiguous ranges
+ * covering the original one.
+ */
+public class HotPartitionSplitterTest {
+
+  private static final TopicPartition ORDERS_0 = new TopicPartition("logs.orders", 0);
+  private static final TopicPartition SEARCH_0 = new TopicPartition("logs.search", 0);
+  private static final Map<String, Object> KAFKA_PARAMS =
+      Collections.singletonMap("bootstrap.servers", "kafka:9092");
+
+  private static KafkaBatchInputPartition partition(
+      TopicPartition topicPartition, long from, long until) {
+    return KafkaBatchInputPartition.apply(
+        KafkaOffsetRange.apply(topicPartition, from, until, Option.apply("executor_1")),
+        KAFKA_PARAMS,
+        5_000L,
+        false,
+        false);
+  }
+
+  private static KafkaOffsetRange range(InputPartition partition) {
+    return ((KafkaBatchInputPartition) partition).offsetRange();
+  }
+
+  @Test
+  public void testSplit_WithHotPartition_SplitsItIntoContiguousRanges() {
+    // Arrange
+    InputPartition[] partitions = {partition(ORDERS_0, 100, 1_100), partition(SEARCH_0, 0, 300)};
+
+    // Act
+    InputPartition[] splits = HotPartitionSplitter.split(partitions, 300L);
+
+    // Assert
+    assertEquals(splits.length, 5);
+    long from = 100;
+    for (int i = 0; i < 4; i++) {
+      KafkaOffsetRange range = range(splits[i]);
+      assertEquals(range.topicPartition(), ORDERS_0);
+      assertEquals(range.fromOffset(), from);
+      assertTrue(range.size() <= 300L);
+      assertTrue(range.preferredLoc().isEmpty());
+      assertEquals(((KafkaBatchInputPartition) splits[i]).executorKafkaParams(), KAFKA_PARAMS);
+      from = range.untilOffset();
+    }
+    assertEquals(from, 1_100L);
+    assertSame(splits[4], partitions[1]);
+  }
+
+  @Test
+  public void testSplit_WithinMaxOffsetsPerTask_KeepsPartitions() {
+    // Arrange
+    InputPartition[] partitions = {partition(ORDERS_0, 0, 300), partition(SEARCH_0, 5, 5)};
+
+    // Act
+    InputPartition[] splits = HotPartitionSplitter.split(partitions, 300L);
+
+    // Assert
+    assertEquals(splits, partitions);
+  }
+
+  @Test
+  public void testSplit_WhenDisabled_ReturnsSamePartitions() {
+    // Arrange
+    InputPartition[] partitions = {partition(ORDERS_0, 0, 1_000_000)};
+
+    // Act & Assert
+    assertSame(HotPartitionSplitter.split(partitions, 0L), partitions);
+  }
+
+  @Test
+  public void testSplit_WithNonKafkaPartition_KeepsIt() {
+    // Arrange
+    InputPartition other = mock(InputPartition.class);
+
+    // Act
+    InputPartition[] splits = HotPartitionSplitter.split(new InputPartition[] {other}, 1L);
+
+    // Assert
+    assertEquals(splits, new InputPartition[] {other});
+  }
+}
@@ -0,0 +1,115 @@
+package com.logwise.spark.stream.source;
+
+import static org.testng.Assert.*;
+
+import com.logwise.spark.dto.entity.ServiceDetails;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+/** Unit tests for TopicBudgets. */
+public class TopicBudgetsTest {
+
+  private static ServiceDetails serviceDetails(
+      String serviceName, Integer ingestionWeight, Long minOffsetsPerTrigger) {
+    ServiceDetails serviceDetails = new ServiceDetails();
+    serviceDetails.setServiceName(serviceName);
+    serviceDetails.setIngestionWeight(ingestionWeight);
+    serviceDetails.setMinOffsetsPerTrigger(minOffsetsPerTrigger);
+    return serviceDetails;
+  }
+
+  @AfterMethod
+  public void tearDown() {
+    TopicBudgets.clear();
+  }
+
+  @Test
+  public void testGetWeightAndMinimum_OfKnownService_UsesServiceDetails() {
+    // Arrange
+    TopicBudgets budgets =
+        TopicBudgets.register(
+            "logs.", 60_000L, () -> Collections.singletonList(serviceDetails("orders", 3, 1_000L)));
+
+    // Act
+    budgets.refreshIfStale();
+
+    // Assert
+    assertEquals(budgets.getWeight("logs.orders"), 3.0);
+    assertEquals(budgets.getMinOffsetsPerTrigger("logs.orders"), 1_000L);
+    assertSame(TopicBudgets.get().orElse(null), budgets);
+  }
+
+  @Test
+  public void testGetWeightAndMinimum_OfUnknownOrUnsetService_UseDefaults() {
+    // Arrange
+    TopicBudgets budgets =
+        TopicBudgets.register(
+            "logs.",
+            60_000L,
+            () ->
+                Arrays.asList(
+                    serviceDetails("search", null, null), serviceDetails("audit", 0, -5L)));
+
+    // Act
+    budgets.refreshIfStale();
+
+    // Assert
+    assertEquals(budgets.getWeight("logs.orders"), 1.0);
+    assertEquals(budgets.getMinOffsetsPerTrigger("logs.orders"), 0L);
+    assertEquals(budgets.getWeight("logs.search"), 1.0);
+    assertEquals(budgets.getMinOffsetsPerTrigger("logs.search"), 0L);
+    assertEquals(budgets.getWeight("logs.audit"), 1.0);
+    assertEquals(budgets.getMinOffsetsPerTrigger("logs.audit"), 0L);
+  }
+
+  @Test
+  public void testRefreshIfStale_WithinInterval_FetchesOnce() {
+    // Arrange
+    AtomicInteger fetches = new AtomicInteger();
+    TopicBudgets budgets =
+        TopicBudgets.register(
+            "logs.",
+            60_000L,
+            () -> {
+              fetches.incrementAndGet();
+              return Collections.emptyList();
+            });
+
+    // Act
+    budgets.refreshIfStale();
+    budgets.refreshIfStale();
+
+    // Assert
+    assertEquals(fetches.get(), 1);
+  }
+
+  @Test
+  public void testRefreshIfStale_WhenFetchFails_KeepsPreviousBudgets() {
+    // Arrange
+    AtomicInteger fetches = new AtomicInteger();
+    List<ServiceDetails> serviceDetails =
+        Collections.singletonList(serviceDetails("orders", 5, 0L));
+    TopicBudgets budgets =
+        TopicBudgets.register(
+            "logs.",
+            0L,
+            () -> {
+              if (fetches.incrementAndGet() > 1) {
+                throw new IllegalStateException("orchestrator down");
+              }
+              return serviceDetails;
+            });
+    budgets.refreshIfStale();
+
+    // Act
+    budgets.refreshIfStale();
+
+    // Assert
+    assertEquals(fetches.get(), 2);
+    assertEquals(budgets.getWeight("logs.orders"), 5.0);
+  }
+}
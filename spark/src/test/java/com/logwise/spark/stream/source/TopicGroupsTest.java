@@ -0,0 +1,133 @@
+package com.logwise.spark.stream.source;
+
+import static org.testng.Assert.*;
+
+import com.logwise.spark.constants.Constants;
+import com.logwise.spark.dto.entity.TopicGroup;
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+import org.testng.annotations.Test;
+
+/**
+ * Unit tests for TopicGroups.
+ *
+ * <p>Tests verify the query, checkpoint and share of each group, and that every application topic
+ * is read by exactly one group.
+ */
+public class TopicGroupsTest {
+
+  private static Map<String, Object> group(String name, String pattern, double share) {
+    Map<String, Object> group = new HashMap<>();
+    group.put("name", name);
+    group.put("pattern", pattern);
+    group.put("share", share);
+    return group;
+  }
+
+  @SafeVarargs
+  private static Config createConfig(boolean longRunning, Map<String, Object>... groups) {
+    Map<String, Object> configMap = new HashMap<>();
+    configMap.put("s3.path.checkpoint.application", "s3a://bucket/checkpoint/application");
+    configMap.put("kafka.topic.prefix.application", "^logs.*");
+    configMap.put(Constants.CONFIG_KEY_STREAMING_QUERY_LONG_RUNNING, longRunning);
+    configMap.put(Constants.CONFIG_KEY_TOPIC_GROUPS, Arrays.asList(groups));
+    return ConfigFactory.parseMap(configMap);
+  }
+
+  @Test
+  public void testGetTopicGroups_WithoutGroups_ReturnsSingleDefaultGroup() {
+    // Act
+    List<TopicGroup> topicGroups = TopicGroups.getTopicGroups(createConfig(true));
+
+    // Assert
+    assertEquals(topicGroups.size(), 1);
+    TopicGroup defaultGroup = topicGroups.get(0);
+    assertEquals(defaultGroup.getName(), Constants.DEFAULT_TOPIC_GROUP_NAME);
+    assertEquals(defaultGroup.getQueryName(), Constants.APPLICATION_LOGS_TO_S3_QUERY_NAME);
+    assertEquals(defaultGroup.getSubscribePattern(), "^logs.*");
+    assertEquals(defaultGroup.getCheckpointLocation(), "s3a://bucket/checkpoint/application");
+    assertEquals(defaultGroup.getGroupIdPrefix(), Constants.APPLICATION_LOGS_KAFKA_GROUP_ID);
+    assertEquals(defaultGroup.getOffsetsPerTriggerShare(), 1.0);
+    assertFalse(TopicGroups.isEnabled(createConfig(true)));
+  }
+
+  @Test
+  public void testGetTopicGroups_WithGroups_GivesEachItsQueryCheckpointAndShare() {
+    // Arrange
+    Config config =
+        createConfig(
+            true,
+            group("orders", "^logs\\.orders-.*", 0.5),
+            group("search", "^logs\\.search", 0.2));
+
+    // Act
+    List<TopicGroup> topicGroups = TopicGroups.getTopicGroups(config);
+
+    // Assert
+    assertTrue(TopicGroups.isEnabled(config));
+    assertEquals(topicGroups.size(), 3);
+    TopicGroup orders = topicGroups.get(0);
+    assertEquals(orders.getQueryName(), Constants.APPLICATION_LOGS_TO_S3_QUERY_NAME + " - orders");
+    assertEquals(orders.getCheckpointLocation(), "s3a://bucket/checkpoint/application-orders");
+    assertEquals(orders.getGroupIdPrefix(), Constants.APPLICATION_LOGS_KAFKA_GROUP_ID + "-orders");
+    assertEquals(orders.getOffsetsPerTriggerShare(), 0.5);
+    TopicGroup defaultGroup = topicGroups.get(2);
+    assertEquals(defaultGroup.getQueryName(), Constants.APPLICATION_LOGS_TO_S3_QUERY_NAME);
+    assertEquals(defaultGroup.getOffsetsPerTriggerShare(), 0.3, 1e-9);
+  }
+
+  @Test
+  public void testGetTopicGroups_DefaultPattern_ReadsOnlyTopicsOfNoOtherGroup() {
+    // Arrange
+    Config config =
+        createConfig(
+            true,
+            group("orders", "^logs\\.orders-.*", 0.5),
+            group("search", "^logs\\.search", 0.2));
+    List<TopicGroup> topicGroups = TopicGroups.getTopicGroups(config);
+    Pattern orders = Pattern.compile(topicGroups.get(0).getSubscribePattern());
+    Pattern search = Pattern.compile(topicGroups.get(1).getSubscribePattern());
+    Pattern defaultPattern = Pattern.compile(topicGroups.get(2).getSubscribePattern());
+
+    // Act & Assert - Kafka matches the pattern against the whole topic name
+    for (String topic :
+        Arrays.asList("logs.orders-api", "logs.search", "logs.search-api", "logs.payments")) {
+      long readers =
+          Arrays.asList(orders, search, defaultPattern).stream()
+              .filter(pattern -> pattern.matcher(topic).matches())
+              .count();
+      assertEquals(readers, 1L, topic);
+    }
+    assertTrue(defaultPattern.matcher("logs.search-api").matches());
+    assertFalse(defaultPattern.matcher("logs.orders-api").matches());
+    assertFalse(defaultPattern.matcher("metrics.orders-api").matches());
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void testGetTopicGroups_WithSharesOfOne_Throws() {
+    TopicGroups.getTopicGroups(
+        createConfig(true, group("a", "^logs\\.a", 0.6), group("b", "^logs\\.b", 0.4)));
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void testGetTopicGroups_WithDuplicateName_Throws() {
+    TopicGroups.getTopicGroups(
+        createConfig(true, group("a", "^logs\\.a", 0.1), group("a", "^logs\\.b", 0.1)));
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void testGetTopicGroups_WithDefaultGroupName_Throws() {
+    TopicGroups.getTopicGroups(
+        createConfig(true, group(Constants.DEFAULT_TOPIC_GROUP_NAME, "^logs\\.a", 0.1)));
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void testGetTopicGroups_WithoutLongRunningQueries_Throws() {
+    TopicGroups.getTopicGroups(createConfig(false, group("a", "^logs\\.a", 0.1)));
+  }
+}
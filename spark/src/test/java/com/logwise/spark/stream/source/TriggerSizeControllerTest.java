@@ -0,0 +1,203 @@
+package com.logwise.spark.stream.source;
+
+import static org.testng.Assert.*;
+
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
+import java.util.HashMap;
+import java.util.Map;
+import org.apache.spark.sql.connector.read.streaming.ReadMaxRows;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+/**
+ * Unit tests for TriggerSizeController.
+ *
+ * <p>Tests verify how the offsets per trigger react to batches that overrun, fill or drain the
+ * target batch duration, and how controllers are registered per query.
+ */
+public class TriggerSizeControllerTest {
+
+  private static final long MIN = 1_000L;
+  private static final long MAX = 1_000_000L;
+  private static final long TARGET_MILLIS = 48_000L;
+
+  private static TriggerSizeController controller(long initial) {
+    return new TriggerSizeController(initial, MIN, MAX, TARGET_MILLIS, 2.0);
+  }
+
+  @AfterMethod
+  public void tearDown() {
+    TriggerSizeController.clear();
+  }
+
+  @Test
+  public void testConstructor_ClampsInitialValue() {
+    assertEquals(controller(10L).getOffsetsPerTrigger(), MIN);
+    assertEquals(controller(10_000_000L).getOffsetsPerTrigger(), MAX);
+  }
+
+  @Test
+  public void testOnBatchCompleted_WithOverrunningBatch_ShrinksToTarget() {
+    // Arrange
+    TriggerSizeController controller = controller(100_000L);
+
+    // Act - 100000 rows in 60s, so 80000 rows fit in the 48s target
+    long next = controller.onBatchCompleted(100_000L, 60_000L);
+
+    // Assert
+    assertEquals(next, 80_000L);
+    assertEquals(controller.getOffsetsPerTrigger(), 80_000L);
+  }
+
+  @Test
+  public void testOnBatchCompleted_WithLimitBoundFastBatch_GrowsToTarget() {
+    // Arrange
+    TriggerSizeController controller = controller(100_000L);
+
+    // Act - 100000 rows in 32s, so 150000 rows fit in the 48s target
+    long next = controller.onBatchCompleted(100_000L, 32_000L);
+
+    // Assert
+    assertEquals(next, 150_000L);
+  }
+
+  @Test
+  public void testOnBatchCompleted_WithVeryFastBatch_GrowsByAtMostStepFactor() {
+    // Arrange
+    TriggerSizeController controller = controller(100_000L);
+
+    // Act
+    long next = controller.onBatchCompleted(100_000L, 1_000L);
+
+    // Assert
+    assertEquals(next, 200_000L);
+  }
+
+  @Test
+  public void testOnBatchCompleted_WithVerySlowBatch_ShrinksByAtMostStepFactor() {
+    // Arrange
+    TriggerSizeController controller = controller(100_000L);
+
+    // Act
+    long next = controller.onBatchCompleted(100_000L, 600_000L);
+
+    // Assert
+    assertEquals(next, 50_000L);
+  }
+
+  @Test
+  public void testOnBatchCompleted_WithDrainedSourceUnderTarget_KeepsLimit() {
+    // Arrange - the batch read far fewer rows than allowed, so it says nothing about capacity
+    TriggerSizeController controller = controller(100_000L);
+
+    // Act
+    long next = controller.onBatchCompleted(20_000L, 5_000L);
+
+    // Assert
+    assertEquals(next, 100_000L);
+  }
+
+  @Test
+  public void testOnBatchCompleted_WithEmptyBatch_KeepsLimit() {
+    // Arrange
+    TriggerSizeController controller = controller(100_000L);
+
+    // Act & Assert
+    assertEquals(controller.onBatchCompleted(0L, 5_000L), 100_000L);
+    assertEquals(controller.onBatchCompleted(100_000L, 0L), 100_000L);
+  }
+
+  @Test
+  public void testOnBatchCompleted_StaysWithinBounds() {
+    // Arrange
+    TriggerSizeController low = controller(1_500L);
+    TriggerSizeController high = controller(900_000L);
+
+    // Act
+    low.onBatchCompleted(1_500L, 120_000L);
+    high.onBatchCompleted(900_000L, 30_000L);
+
+    // Assert
+    assertEquals(low.getOffsetsPerTrigger(), MIN);
+    assertEquals(high.getOffsetsPerTrigger(), MAX);
+  }
+
+  @Test
+  public void testGetReadLimit_ReturnsCurrentLimit() {
+    // Arrange
+    TriggerSizeController controller = controller(100_000L);
+    controller.onBatchCompleted(100_000L, 60_000L);
+
+    // Act & Assert
+    assertEquals(((ReadMaxRows) controller.getReadLimit()).maxRows(), 80_000L);
+  }
+
+  @Test
+  public void testRegister_ReadsConfigAndKeepsLearnedLimitAcrossRestarts() {
+    // Arrange
+    Map<String, Object> configMap = new HashMap<>();
+    configMap.put("spark.processing.time.seconds", 60);
+    configMap.put("spark.offsetPerTrigger.min", MIN);
+    configMap.put("spark.offsetPerTrigger.max", MAX);
+    configMap.put("spark.offsetPerTrigger.adaptive.targetBatchFraction", 0.8);
+    configMap.put("spark.offsetPerTrigger.adaptive.maxStepFactor", 2.0);
+    Config config = ConfigFactory.parseMap(configMap);
+
+    // Act
+    TriggerSizeController first = TriggerSizeController.register("query", config, 100_000L);
+    first.onBatchCompleted(100_000L, 60_000L);
+    TriggerSizeController second = TriggerSizeController.register("query", config, 100_000L);
+
+    // Assert
+    assertSame(second, first);
+    assertEquals(second.getOffsetsPerTrigger(), 80_000L);
+    assertTrue(TriggerSizeController.get("query").isPresent());
+    assertFalse(TriggerSizeController.get("other").isPresent());
+    assertFalse(TriggerSizeController.get(null).isPresent());
+  }
+
+  @Test
+  public void testRegister_WithChangedInitialLimit_ScalesLearnedLimit() {
+    // Arrange
+    Map<String, Object> configMap = new HashMap<>();
+    configMap.put("spark.processing.time.seconds", 60);
+    configMap.put("spark.offsetPerTrigger.min", MIN);
+    configMap.put("spark.offsetPerTrigger.max", MAX);
+    configMap.put("spark.offsetPerTrigger.adaptive.targetBatchFraction", 0.8);
+    configMap.put("spark.offsetPerTrigger.adaptive.maxStepFactor", 2.0);
+    Config config = ConfigFactory.parseMap(configMap);
+    TriggerSizeController first = TriggerSizeController.register("query", config, 100_000L);
+    first.onBatchCompleted(100_000L, 60_000L);
+
+    // Act - the executors doubled, then grew past the max
+    TriggerSizeController second = TriggerSizeController.register("query", config, 200_000L);
+    long doubled = second.getOffsetsPerTrigger();
+    TriggerSizeController.register("query", config, 200_000_000L);
+
+    // Assert
+    assertSame(second, first);
+    assertEquals(doubled, 160_000L);
+    assertEquals(second.getOffsetsPerTrigger(), MAX);
+  }
+
+  @Test
+  public void testRegister_WithShare_ScalesBounds() {
+    // Arrange
+    Map<String, Object> configMap = new HashMap<>();
+    configMap.put("spark.processing.time.seconds", 60);
+    configMap.put("spark.offsetPerTrigger.min", MIN);
+    configMap.put("spark.offsetPerTrigger.max", MAX);
+    configMap.put("spark.offsetPerTrigger.adaptive.targetBatchFraction", 0.8);
+    configMap.put("spark.offsetPerTrigger.adaptive.maxStepFactor", 2.0);
+    Config config = ConfigFactory.parseMap(configMap);
+
+    // Act
+    TriggerSizeController low = TriggerSizeController.register("low", config, 10L, 0.25);
+    TriggerSizeController high = TriggerSizeController.register("high", config, MAX, 0.25);
+
+    // Assert
+    assertEquals(low.getOffsetsPerTrigger(), MIN / 4);
+    assertEquals(high.getOffsetsPerTrigger(), MAX / 4);
+  }
+}
@@ -0,0 +1,181 @@
+package com.logwise.spark.stream.source;
+
+import static org.testng.Assert.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import org.apache.kafka.common.TopicPartition;
+import org.testng.annotations.Test;
+
+/**
+ * Unit tests for WeightedFairAllocator.
+ *
+ * <p>Tests verify weighted max-min fairness across topics, minimum guarantees and the lag
+ * proportional split across the partitions of a topic.
+ */
+public class WeightedFairAllocatorTest {
+
+  private static final TopicPartition ORDERS_0 = new TopicPartition("logs.orders", 0);
+  private static final TopicPartition ORDERS_1 = new TopicPartition("logs.orders", 1);
+  private static final TopicPartition SEARCH_0 = new TopicPartition("logs.search", 0);
+  private static final TopicPartition AUDIT_0 = new TopicPartition("logs.audit", 0);
+
+  private static Map<TopicPartition, Long> offsets(Object... partitionOffsets) {
+    Map<TopicPartition, Long> offsets = new HashMap<>();
+    for (int i = 0; i < partitionOffsets.length; i += 2) {
+      offsets.put(
+          (TopicPartition) partitionOffsets[i], ((Number) partitionOffsets[i + 1]).longValue());
+    }
+    return offsets;
+  }
+
+  private static long read(
+      Map<TopicPartition, Long> start, Map<TopicPartition, Long> end, TopicPartition partition) {
+    return end.get(partition) - start.get(partition);
+  }
+
+  @Test
+  public void testAllocate_WithinBudget_ReadsAllAvailable() {
+    // Arrange
+    Map<TopicPartition, Long> start = offsets(ORDERS_0, 0, SEARCH_0, 100);
+    Map<TopicPartition, Long> available = offsets(ORDERS_0, 500, SEARCH_0, 300);
+
+    // Act
+    Map<TopicPartition, Long> end =
+        WeightedFairAllocator.allocate(start, available, 1_000L, topic -> 1.0, topic -> 0L);
+
+    // Assert
+    assertEquals(end, available);
+  }
+
+  @Test
+  public void testAllocate_WithEqualWeights_BacklogDoesNotStarveOtherTopics() {
+    // Arrange
+    Map<TopicPartition, Long> start = offsets(ORDERS_0, 0, SEARCH_0, 0);
+    Map<TopicPartition, Long> available = offsets(ORDERS_0, 1_000_000, SEARCH_0, 1_000);
+
+    // Act
+    Map<TopicPartition, Long> end =
+        WeightedFairAllocator.allocate(start, available, 10_000L, topic -> 1.0, topic -> 0L);
+
+    // Assert
+    assertEquals(read(start, end, SEARCH_0), 1_000L);
+    assertEquals(read(start, end, ORDERS_0), 9_000L);
+  }
+
+  @Test
+  public void testAllocate_WithWeights_SplitsBudgetByWeight() {
+    // Arrange
+    Map<TopicPartition, Long> start = offsets(ORDERS_0, 0, SEARCH_0, 0);
+    Map<TopicPartition, Long> available = offsets(ORDERS_0, 100_000, SEARCH_0, 100_000);
+
+    // Act
+    Map<TopicPartition, Long> end =
+        WeightedFairAllocator.allocate(
+            start,
+            available,
+            10_000L,
+            topic -> topic.equals("logs.orders") ? 4.0 : 1.0,
+            topic -> 0L);
+
+    // Assert
+    assertEquals(read(start, end, ORDERS_0), 8_000L);
+    assertEquals(read(start, end, SEARCH_0), 2_000L);
+  }
+
+  @Test
+  public void testAllocate_WithMinimum_GuaranteesItBeforeWeightedShare() {
+    // Arrange
+    Map<TopicPartition, Long> start = offsets(ORDERS_0, 0, SEARCH_0, 0);
+    Map<TopicPartition, Long> available = offsets(ORDERS_0, 100_000, SEARCH_0, 100_000);
+
+    // Act
+    Map<TopicPartition, Long> end =
+        WeightedFairAllocator.allocate(
+            start,
+            available,
+            10_000L,
+            topic -> topic.equals("logs.orders") ? 9.0 : 1.0,
+            topic -> topic.equals("logs.search") ? 5_000L : 0L);
+
+    // Assert
+    assertEquals(read(start, end, SEARCH_0), 5_500L);
+    assertEquals(read(start, end, ORDERS_0), 4_500L);
+  }
+
+  @Test
+  public void testAllocate_WithMinimumsAboveBudget_ScalesThemDown() {
+    // Arrange
+    Map<TopicPartition, Long> start = offsets(ORDERS_0, 0, SEARCH_0, 0, AUDIT_0, 0);
+    Map<TopicPartition, Long> available =
+        offsets(ORDERS_0, 10_000, SEARCH_0, 10_000, AUDIT_0, 10_000);
+
+    // Act
+    Map<TopicPartition, Long> end =
+        WeightedFairAllocator.allocate(
+            start,
+            available,
+            1_000L,
+            topic -> 1.0,
+            topic -> topic.equals("logs.audit") ? 0L : 1_000L);
+
+    // Assert
+    assertEquals(read(start, end, ORDERS_0), 500L);
+    assertEquals(read(start, end, SEARCH_0), 500L);
+    assertEquals(read(start, end, AUDIT_0), 0L);
+  }
+
+  @Test
+  public void testAllocate_AcrossPartitions_SplitsTopicBudgetByLag() {
+    // Arrange
+    Map<TopicPartition, Long> start = offsets(ORDERS_0, 0, ORDERS_1, 0, SEARCH_0, 0);
+    Map<TopicPartition, Long> available = offsets(ORDERS_0, 30_000, ORDERS_1, 10_000, SEARCH_0, 0);
+
+    // Act
+    Map<TopicPartition, Long> end =
+        WeightedFairAllocator.allocate(start, available, 1_001L, topic -> 1.0, topic -> 0L);
+
+    // Assert
+    assertEquals(read(start, end, ORDERS_0) + read(start, end, ORDERS_1), 1_001L);
+    assertEquals(read(start, end, ORDERS_0), 751L);
+    assertEquals(read(start, end, ORDERS_1), 250L);
+    assertEquals(read(start, end, SEARCH_0), 0L);
+  }
+
+  @Test
+  public void testAllocate_WithNewPartition_ReadsItUpToAvailable() {
+    // Arrange
+    Map<TopicPartition, Long> start = offsets(ORDERS_0, 0);
+    Map<TopicPartition, Long> available = offsets(ORDERS_0, 10_000, ORDERS_1, 42);
+
+    // Act
+    Map<TopicPartition, Long> end =
+        WeightedFairAllocator.allocate(start, available, 100L, topic -> 1.0, topic -> 0L);
+
+    // Assert
+    assertEquals(end.get(ORDERS_1), Long.valueOf(42L));
+    assertEquals(read(start, end, ORDERS_0), 100L);
+  }
+
+  @Test
+  public void testAllocate_NeverExceedsBudgetOrLag() {
+    // Arrange
+    Map<TopicPartition, Long> start = offsets(ORDERS_0, 0, ORDERS_1, 0, SEARCH_0, 0, AUDIT_0, 0);
+    Map<TopicPartition, Long> available =
+        offsets(ORDERS_0, 7, ORDERS_1, 13_333, SEARCH_0, 999, AUDIT_0, 5_000);
+
+    // Act
+    Map<TopicPartition, Long> end =
+        WeightedFairAllocator.allocate(
+            start, available, 3_333L, topic -> topic.length(), topic -> 100L);
+
+    // Assert
+    long total = 0;
+    for (TopicPartition partition : start.keySet()) {
+      long read = read(start, end, partition);
+      assertTrue(read >= 0 && end.get(partition) <= available.get(partition), partition.toString());
+      total += read;
+    }
+    assertEquals(total, 3_333L);
+  }
+}
@@ -7,12 +7,14 @@ import com.logwise.spark.base.MockSparkSessionHelper;
 import com.logwise.spark.dto.entity.KafkaReadStreamOptions;
 import com.logwise.spark.listeners.SparkStageListener;
 import java.util.List;
+import java.util.Map;
 import java.util.function.Function;
 import java.util.function.Supplier;
 import org.apache.spark.scheduler.SparkListenerInterface;
 import org.apache.spark.sql.Dataset;
 import org.apache.spark.sql.Row;
 import org.apache.spark.sql.SparkSession;
+import org.mockito.ArgumentCaptor;
 import org.testng.Assert;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
@@ -332,4 +334,102 @@ public class SparkUtilsTest {
     Assert.assertEquals(result, mockDataset);
     verify(mockDataStreamReader, times(1)).options(anyMap());
   }
+
+  @Test
+  public void testGetKafkaReadStreamInstance_WithTriggerSizeController_UsesAdaptiveSource() {
+    // Arrange
+    SparkSession mockSparkSession = MockSparkSessionHelper.createMockSparkSession();
+    Dataset<Row> mockDataset = mock(Dataset.class);
+
+    org.apache.spark.sql.streaming.DataStreamReader mockDataStreamReader =
+        mock(org.apache.spark.sql.streaming.DataStreamReader.class);
+
+    when(mockSparkSession.readStream()).thenReturn(mockDataStreamReader);
+    when(mockDataStreamReader.format(anyString())).thenReturn(mockDataStreamReader);
+    when(mockDataStreamReader.options(anyMap())).thenReturn(mockDataStreamReader);
+    when(mockDataStreamReader.load()).thenReturn(mockDataset);
+
+    KafkaReadStreamOptions options =
+        KafkaReadStreamOptions.builder()
+            .kafkaBootstrapServers("localhost:9092")
+            .maxOffsetsPerTrigger("1000")
+            .startingOffsets("latest")
+            .failOnDataLoss("false")
+            .maxRatePerPartition("100")
+            .groupIdPrefix("test-group")
+            .triggerSizeController("test-query")
+            .build();
+
+    // Act
+    sparkUtils.getKafkaReadStreamInstance(mockSparkSession, options);
+
+    // Assert
+    verify(mockDataStreamReader)
+        .format(com.logwise.spark.stream.source.AdaptiveKafkaSourceProvider.class.getName());
+  }
+
+  @Test
+  public void testGetKafkaReadStreamInstance_WithOnlyMaxOffsetsPerTask_UsesAdaptiveSource() {
+    // Arrange - adaptive trigger size and fair share off, hot partition split on
+    SparkSession mockSparkSession = MockSparkSessionHelper.createMockSparkSession();
+    org.apache.spark.sql.streaming.DataStreamReader mockDataStreamReader =
+        mock(org.apache.spark.sql.streaming.DataStreamReader.class, RETURNS_SELF);
+    when(mockSparkSession.readStream()).thenReturn(mockDataStreamReader);
+
+    KafkaReadStreamOptions options =
+        KafkaReadStreamOptions.builder()
+            .kafkaBootstrapServers("localhost:9092")
+            .maxOffsetsPerTrigger("1000")
+            .startingOffsets("latest")
+            .failOnDataLoss("false")
+            .maxRatePerPartition("100")
+            .groupIdPrefix("test-group")
+            .maxOffsetsPerTask("250")
+            .build();
+
+    // Act
+    sparkUtils.getKafkaReadStreamInstance(mockSparkSession, options);
+
+    // Assert
+    verify(mockDataStreamReader)
+        .format(com.logwise.spark.stream.source.AdaptiveKafkaSourceProvider.class.getName());
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testGetKafkaReadStreamInstance_WithConsumerTuning_PassesKafkaConsumerOptions() {
+    // Arrange
+    SparkSession mockSparkSession = MockSparkSessionHelper.createMockSparkSession();
+    org.apache.spark.sql.streaming.DataStreamReader mockDataStreamReader =
+        mock(org.apache.spark.sql.streaming.DataStreamReader.class, RETURNS_SELF);
+    when(mockSparkSession.readStream()).thenReturn(mockDataStreamReader);
+
+    KafkaReadStreamOptions options =
+        KafkaReadStreamOptions.builder()
+            .kafkaBootstrapServers("localhost:9092")
+            .maxOffsetsPerTrigger("1000")
+            .startingOffsets("latest")
+            .failOnDataLoss("false")
+            .maxRatePerPartition("100")
+            .groupIdPrefix("test-group")
+            .fetchMaxBytes("52428800")
+            .maxPartitionFetchBytes("10485760")
+            .fetchMinBytes("1048576")
+            .receiveBufferBytes("1048576")
+            .pollTimeoutMs("30000")
+            .build();
+
+    // Act
+    sparkUtils.getKafkaReadStreamInstance(mockSparkSession, options);
+
+    // Assert
+    ArgumentCaptor<Map<String, String>> optionsMap = ArgumentCaptor.forClass(Map.class);
+    verify(mockDataStreamReader).options(optionsMap.capture());
+    Assert.assertEquals(optionsMap.getValue().get("kafka.fetch.max.bytes"), "52428800");
+    Assert.assertEquals(optionsMap.getValue().get("kafka.max.partition.fetch.bytes"), "10485760");
+    Assert.assertEquals(optionsMap.getValue().get("kafka.fetch.min.bytes"), "1048576");
+    Assert.assertEquals(optionsMap.getValue().get("kafka.receive.buffer.bytes"), "1048576");
+    Assert.assertEquals(optionsMap.getValue().get("kafkaConsumer.pollTimeoutMs"), "30000");
+    Assert.assertFalse(optionsMap.getValue().containsKey("minPartitions"));
+  }
 }